@@ -2,31 +2,70 @@ package com.davideferrari.logisticsystem.Menu.CargoShipCaptain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.TerminalOperatorMenu;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingBus;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingRequest;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.TerminalContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.UnloadResult;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
 
 /**
  *  This class represents Cargo Ship, which is the central entity in the transposrt cycle.
  *  This class acts as the primary "Producer" of containers for the Import cycle and the 
  * "Consumer" for the Export cycle.
+ *  The cargo is stowed in a {@link StowagePlan} of one bay and stacks of {@value #TIERS} tiers,
+ *  with as many rows as needed for the capacity given by the {@link CapacityLimit} annotation.
  */
 @CapacityLimit(value = 10)
 public class CargoShip implements ContainerCollection
 {
     private static final Logger logger = Logger.getLogger(CargoShip.class.getName());
-    private final List<Container> cargoContainers = new ArrayList<>();
+    /**
+     *  The maximum weight of the loaded containers (tare plus payload), in kilograms.
+     */
+    public static final long MAXIMUM_WEIGHT = 240_000;
+    /**
+     *  The maximum stacking height of the loaded containers, summed over the cargo, in meters.
+     */
+    public static final double MAXIMUM_HEIGHT = 15.0;
+    /**
+     *  The number of tiers of every stack of the hold, and the limits of a single stack.
+     */
+    public static final int TIERS = 2;
+    public static final double MAXIMUM_STACK_HEIGHT = 3.0;
+    public static final long MAXIMUM_STACK_WEIGHT = 48_000;
+    /**
+     *  The height and weight of the smallest container the ship may carry, an empty Box: a stack that cannot
+     *  take them any more is closed by the hold, so it is no longer visited when looking for a free slot.
+     */
+    public static final double SMALLEST_CONTAINER_HEIGHT = 1.2;
+    public static final long SMALLEST_CONTAINER_WEIGHT = 2_220;
+
+    /**
+     *  The name of the ship created by the menu, driven by the Cargo Ship Captain.
+     */
+    public static final String DEFAULT_NAME = "HELEN III";
+
+    /**
+     *  The value returned by {@link #stowFromTerminal(Container)} when the container is refused.
+     */
+    public static final long NOT_STOWED = -1;
 
-    private final String name = "HELEN III";
+    private final String name;
     private String destination = "Bari";
     private CargoShipState state = CargoShipState.IN_TRANSIT;
     private int maximumCapacity;
+    private final StowagePlan stowage;
 
     private ImportSubTerminal destinationTerminal;
     private ImportSubTerminal currentImportTerminal;
@@ -34,6 +73,10 @@ public class CargoShip implements ContainerCollection
 
     private String requestTarget;
     private boolean endImportAndExport;
+    /**
+     *  The docking or undocking request sent on the {@link DockingBus} and not yet consumed by the ship.
+     */
+    private DockingRequest pendingRequest;
 
     /**
      *  Thic method Constructs a new CargoShip instance,
@@ -44,6 +87,18 @@ public class CargoShip implements ContainerCollection
      */
     public CargoShip(ImportSubTerminal destinationTerminal, ExportSubTerminal currentExportSubTerminal)
     {
+        this(DEFAULT_NAME, destinationTerminal, currentExportSubTerminal);
+    }
+
+    /**
+     *  This method constructs a named ship, used when a fleet of ships sails between the ports.
+     *  @param name                     The name of the ship (e.g., "HELEN IV").
+     *  @param destinationTerminal      The Import Terminal where the ship is currently headed.
+     *  @param currentExportSubTerminal The Export Terminal associated with the destination (for future loading).
+     */
+    public CargoShip(String name, ImportSubTerminal destinationTerminal, ExportSubTerminal currentExportSubTerminal)
+    {
+        this.name = name;
         this.destinationTerminal = destinationTerminal;
         this.currentExportTerminal = currentExportSubTerminal;
 
@@ -55,6 +110,8 @@ public class CargoShip implements ContainerCollection
         {
             this.maximumCapacity = 10;
         }
+        this.stowage = new StowagePlan(1, (maximumCapacity + TIERS - 1) / TIERS, TIERS, MAXIMUM_STACK_HEIGHT, MAXIMUM_STACK_WEIGHT,
+                SMALLEST_CONTAINER_HEIGHT, SMALLEST_CONTAINER_WEIGHT);
     }
 
     /**
@@ -113,32 +170,117 @@ public class CargoShip implements ContainerCollection
         this.destinationTerminal = destinationTerminal;
     }
 
+    /**
+     *  This method restores the voyage of the ship from a snapshot: its cargo, state, destination
+     *  and pending request. The terminals are the ones of the destination port, as set by the undocking logic.
+     *  If the ship was docked, it is docked again in the import sub-terminal of that port,
+     *  and a pending request is sent again on the {@link DockingBus}.
+     *  @param state               The state of the ship.
+     *  @param destination         The destination port (e.g., "Bari").
+     *  @param requestTarget       The port targeted by a pending request, or {@code null}.
+     *  @param endImportAndExport  Whether the import and export operations were completed.
+     *  @param cargo               The containers on board, in their original order.
+     *  @param destinationTerminal The Import Terminal of the destination port.
+     *  @param exportTerminal      The Export Terminal of the destination port.
+     */
+    public void restoreVoyage(CargoShipState state, String destination, String requestTarget, boolean endImportAndExport,
+                              List<Container> cargo, ImportSubTerminal destinationTerminal, ExportSubTerminal exportTerminal)
+    {
+        this.state = state;
+        this.destination = destination;
+        this.requestTarget = requestTarget;
+        this.endImportAndExport = endImportAndExport;
+        this.destinationTerminal = destinationTerminal;
+        this.currentExportTerminal = exportTerminal;
+        boolean docked = state == CargoShipState.DOCKED_FOR_IMPORT || state == CargoShipState.DOCKED_FOR_EXPORT;
+        this.currentImportTerminal = docked ? destinationTerminal : null;
+        restoreCargo(cargo);
+        if (requestTarget != null)
+        {
+            DockingRequest.Type type = docked || endImportAndExport ? DockingRequest.Type.UNDOCK : DockingRequest.Type.DOCK;
+            sendRequest(type, requestTarget);
+        }
+    }
+
+    /**
+     *  This method replaces the containers on board with restored ones (e.g., from a journal replay),
+     *  without changing the voyage of the ship.
+     *  @param cargo The containers on board, in their original order.
+     */
+    public void restoreCargo(List<Container> cargo)
+    {
+        stowage.restore(cargo);
+    }
+
     /**
      *  This method creates an iterator to traverse the containers
-     *  currently on board the ship.
-     *  @return A concrete {@link TerminalContainerIterator}.
+     *  currently on board the ship, as a snapshot of the hold in slot order.
+     *  @return A concrete {@link SnapshotContainerIterator}.
      */
     @Override
     public ContainerIterator createIterator()
     {
-        return new TerminalContainerIterator(this);
+        return new SnapshotContainerIterator(stowage.toArray());
+    }
+
+    /**
+     *  This method creates a splittable iterator over a copy of the containers currently in the ship,
+     *  so streams are not affected by containers being added or removed during the traversal.
+     *  @return A sized spliterator over the copied containers.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        return ContainerSpliterator.ofSnapshot(stowage.toArray());
     }
 
     @Override
     public int getSize()
     {
-        return cargoContainers.size();
+        return stowage.size();
     }
 
     @Override
     public Container getContainerAt(int index)
     {
-        return cargoContainers.get(index);
+        return stowage.get(index);
     }
 
+    /**
+     *  This method checks whether a container is on board, in constant time through the slot index of the hold.
+     *  @param container The container to look for.
+     *  @return {@code true} if that very container is stowed on the ship.
+     */
     public boolean containsContainer(Container container)
     {
-        return cargoContainers.contains(container);
+        return stowage.contains(container);
+    }
+
+    /**
+     *  This method returns the number of containers the ship can still load.
+     *  @return The free slots, never negative.
+     */
+    public int getRemainingCapacity()
+    {
+        return Math.max(0, maximumCapacity - stowage.size());
+    }
+
+    /**
+     *  This method returns the weight the ship can still load, counting every loaded container at its full payload.
+     *  @return The free weight in kilograms, never negative.
+     */
+    public long getRemainingWeight()
+    {
+        return Math.max(0, MAXIMUM_WEIGHT - stowage.totalWeight());
+    }
+
+    /**
+     *  This method returns the stacking height the ship can still load.
+     *  @return The free height in meters, never negative.
+     */
+    public double getRemainingHeight()
+    {
+        return Math.max(0, MAXIMUM_HEIGHT - stowage.totalHeight());
     }
 
     /**
@@ -162,40 +304,53 @@ public class CargoShip implements ContainerCollection
         {
             logger.info("The " + this.getName() + " ship is outside the port, waiting for confirmation to dock.\n--- Destination: " + destinationTerminal.getName() + " port.");
         }
-        System.out.println(".\n.\n.\n.\n.");
+        SimulationLogScope.println(".\n.\n.\n.\n.");
     }
 
     /**
-     *  This method initiates the docking sequence by changing the state to {@code WAITING}.
+     *  This method initiates the docking sequence by changing the state to {@code WAITING},
+     *  and sends a docking request to the terminal on the {@link DockingBus}.
      */
     public void dockingRequest()
     {
         logger.info("A request to dock has been made to the terminal of " + destinationTerminal.getName());
         this.requestTarget = destinationTerminal.getName();
         this.setState(CargoShipState.WAITING); 
-        System.out.println(".\n.\n.\n.\n.");
+        sendRequest(DockingRequest.Type.DOCK, requestTarget);
+        SimulationLogScope.println(".\n.\n.\n.\n.");
     }
 
     /**
-     *  This method finalizes the docking sequence if permission is granted by the Terminal Operator.
+     *  This method returns the docking or undocking request of the ship that is still waiting to be consumed.
+     *  @return The request, or {@code null} if the ship has not asked for anything.
+     */
+    public DockingRequest getPendingRequest()
+    {
+        return pendingRequest;
+    }
+
+    /**
+     *  This method finalizes the docking sequence if permission is granted by the Terminal Operator,
+     *  by reading the reply to the docking request of the ship. If the request was denied, it is closed
+     *  and the ship must ask again.
      *  @return {@code true} if docked successfully, {@code false} otherwise.
      */
     public boolean dockingConfirmation()
     {
-        if (TerminalOperatorMenu.sendDockConfirmationtoShip() == true)
+        if (consumeReply(DockingRequest.Type.DOCK))
         {
             logger.info("The terminal of " + destinationTerminal.getName() + " has granted the permission to dock. The ship can now proceed and position itself inside the bay.");
             this.setState(CargoShipState.DOCKED_FOR_IMPORT);
             this.currentImportTerminal = this.destinationTerminal;
             this.setRequestTarget(null);
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             return true;
         }
         else
         {
             logger.info("No confirmation was given from the terminal of " + destinationTerminal.getName() + ". The ship must wait.");
             this.setState(CargoShipState.WAITING);
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
         }
         return false;
     }
@@ -209,70 +364,120 @@ public class CargoShip implements ContainerCollection
         if (this.getState() == CargoShipState.DOCKED_FOR_IMPORT || this.getState() == CargoShipState.DOCKED_FOR_EXPORT)
         {
             logger.info("The import and export operations are possible. You can proceed.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             return true;
         }
         else
         {
             logger.warning("The import and export operations are not possible if the ship is not docked in the appropriate port.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
         }
         return false;
     }
 
     /**
      *  This method executes the Import Operation (Unloading), which
-     *  iterates through the ship's cargo and attempts to offload each container: 
-     *  - If the terminal is full, the container remains on board.
+     *  offers the whole cargo to the import terminal in a single bulk unload, top tiers first,
+     *  so every accepted container is lifted from the top of its stack:
+     *  - If the terminal is full, the rejected containers remain on board.
      *  - If all containers are unloaded, the ship automatically transitions to {@code DOCKED_FOR_EXPORT}.
      *  @return {@code true} if the operation completed (even if some containers failed), {@code false} if a critical error occurred.
      */
     public boolean dropInTerminal()
     {
         logger.info("The ship is checking the containers to unload:");
-        List<Container> successfullyUnloaded = new ArrayList<>();
-        
-        if(cargoContainers.isEmpty())
+        if(stowage.isEmpty())
         {
             logger.warning("The cargo ship does not have any containers to import in the terminal. No import operation is required.");
-            System.out.println(".\n.");
+            SimulationLogScope.println(".\n.");
             logger.info("The ship will move to the export sub-terminal, in order to perform the export operation and load the containers.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             this.setState(CargoShipState.DOCKED_FOR_EXPORT);
             return true;
         }
         else
         {
-            for (Container container : cargoContainers)
+            UnloadResult result = currentImportTerminal.shipImportAll(unloadingSequence());
+            if (SimulationLogScope.isLoggable(logger, Level.WARNING))
             {
-                if (currentImportTerminal.shipImport(container))
-                {
-                    successfullyUnloaded.add(container);
-                }
-                else
+                for (Container container : result.getRejected())
                 {
                     logger.warning("Container " + container.getContainerCode() + " remains on the ship.");
-                    System.out.println(".\n.\n.\n.\n.");
                 }
             }
-            cargoContainers.removeAll(successfullyUnloaded);
+            stowage.removeAll(result.getAccepted());
             
-            if (cargoContainers.isEmpty())
+            if (stowage.isEmpty())
             {
                 logger.info("All containers have been unloaded.");
-                System.out.println(".\n.\n.\n.\n.");
+                SimulationLogScope.println(".\n.\n.\n.\n.");
                 this.setState(CargoShipState.DOCKED_FOR_EXPORT);
                 return true;
             } 
             else
             {
                 logger.warning("Ship still has containers because the terminal was full. The ship will remain at the import sub-terminal. Please free up the terminal space.");
-                System.out.println(".\n.\n.\n.\n.");
+                SimulationLogScope.println(".\n.\n.\n.\n.");
                 return false; 
             }
         }
     }
 
+    /**
+     *  This method returns the containers on board in unloading order, top tiers first,
+     *  so every container is lifted from the top of its stack.
+     *  @return A snapshot of the cargo, in unloading order.
+     */
+    public List<Container> unloadingSequence()
+    {
+        int[] slots = stowage.unloadingSlots();
+        List<Container> sequence = new ArrayList<>(slots.length);
+        for (int slot : slots)
+        {
+            sequence.add(stowage.containerAt(slot));
+        }
+        return sequence;
+    }
+
+    /**
+     *  This method takes a single container off the ship, once the import sub-terminal has accepted it,
+     *  as done by the crane of a pipelined port call. The containers stowed above it are lowered.
+     *  @param container The container to unload.
+     *  @return {@code true} if the container was on board.
+     */
+    public boolean unloadContainer(Container container)
+    {
+        return stowage.remove(container);
+    }
+
+    /**
+     *  This method docks the ship at a berth assigned by a berth scheduler, without the docking handshake
+     *  of the Terminal Operator: the scheduler has already granted the berth, so a pending request is withdrawn.
+     *  @param port           The port of the berth (e.g., "Bari").
+     *  @param importTerminal The Import Terminal serving the berth.
+     *  @param exportTerminal The Export Terminal serving the berth.
+     */
+    public synchronized void berthAt(String port, ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal)
+    {
+        withdrawRequest();
+        this.destination = port;
+        this.destinationTerminal = importTerminal;
+        this.currentImportTerminal = importTerminal;
+        this.currentExportTerminal = exportTerminal;
+        this.requestTarget = null;
+        this.setState(CargoShipState.DOCKED_FOR_IMPORT);
+    }
+
+    /**
+     *  This method releases the berth assigned by a berth scheduler, and puts the ship back in transit.
+     */
+    public synchronized void leaveBerth()
+    {
+        this.setState(CargoShipState.IN_TRANSIT);
+        this.currentImportTerminal = null;
+        this.endImportAndExport = false;
+    }
+
     public void resetOperationStatus()
     {
         this.endImportAndExport = false;
@@ -286,22 +491,13 @@ public class CargoShip implements ContainerCollection
     {
         if (this.getState() == CargoShipState.DOCKED_FOR_EXPORT)
         {
-            try
-            {
-                currentExportTerminal.shipExport(this);
-                return true;
-            }
-            catch (Exception e)
-            {
-                logger.warning("Export failed: " + e.getMessage());
-                System.out.println(".\n.\n.\n.\n.");
-                return false;
-            }
+            currentExportTerminal.shipExport(this);
+            return true;
         } 
         else 
         {
             logger.warning("Cannot start export: Ship is not docked at an Export Terminal.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
         }
         return false;
     }
@@ -309,28 +505,60 @@ public class CargoShip implements ContainerCollection
     /**
      *  This method loads a single container onto the ship from the terminal,
      *  and checks against the ship's {@code maximumCapacity} before accepting the container.
+     *  The container is stowed on top of the first stack of the {@link StowagePlan} that can take its height and weight.
      *  @param container The container to be loaded.
-     *  @return {@code true} if loaded successfully, {@code false} if capacity is full.
+     *  @return {@code true} if loaded successfully, {@code false} if capacity is full or no stack can take it.
      */
     public boolean pickFromTerminal(Container container)
     {
-        if (cargoContainers.size() >= maximumCapacity)
+        long ticket = stowFromTerminal(container);
+        if (ticket == NOT_STOWED)
         {
-            logger.warning("The ship's maximum container capacity has reached its limit. No other containers can be loaded for the export operation.");
-            System.out.println(".\n.\n.\n.\n.");
             return false;
+        }
+        ContainerJournal.getInstance().awaitDurable(ticket);
+        return true;
+    }
+
+    /**
+     *  This method loads a single container onto the ship like {@link #pickFromTerminal(Container)}, but it only
+     *  appends the load to the ContainerJournal, so it can be called while holding a terminal lock.
+     *  The caller must wait for the returned ticket with {@link ContainerJournal#awaitDurable(long)} after releasing its lock.
+     *  @param container The container to be loaded.
+     *  @return The journal ticket of the load, or {@link #NOT_STOWED} if the container was refused.
+     */
+    public long stowFromTerminal(Container container)
+    {
+        if (stowage.size() >= maximumCapacity)
+        {
+            logger.warning("The ship's maximum container capacity has reached its limit. No other containers can be loaded for the export operation.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
+            return NOT_STOWED;
+        }
+        if (stowage.contains(container))
+        {
+            logger.warning("Container " + container.getContainerCode() + " is already on board.");
+            return NOT_STOWED;
+        }
+        if (stowage.place(container) == StowagePlan.NO_SLOT)
+        {
+            logger.warning("No stack of the ship can take the height and weight of container " + container.getContainerCode() + ".");
+            return NOT_STOWED;
         }
             container.setLocation(this.name + " Cargo ship");
-            cargoContainers.add(container);
-            logger.info("The " + container.getType() + " container " + container.getContainerCode() + " has been successfully loaded on the ship.");
+            long ticket = ContainerJournal.getInstance().append(ContainerJournal.Event.SHIP_LOAD, container, this.name);
+            if (SimulationLogScope.isLoggable(logger, Level.INFO))
+            {
+                logger.info("The " + container.getType() + " container " + container.getContainerCode() + " has been successfully loaded on the ship.");
+            }
             endImportAndExport = true;
-            return true;   
+            return ticket;   
     }
 
     public void displayCargoContainers()
     {
         logger.info("Displaying the containers of the " + this.name + " cargo ship:");
-        logger.info("Current cargo:" + cargoContainers.size());
+        logger.info("Current cargo:" + stowage.size());
         ContainerIterator containerIterator = this.createIterator();
         while (containerIterator.hasNext())
         {
@@ -344,14 +572,68 @@ public class CargoShip implements ContainerCollection
         if(this.getState() == CargoShipState.IN_TRANSIT)
         {
             logger.warning("Ship is already in transit.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
         }
         else
         {
             logger.info("A request to undock has been made to " + currentExportTerminal.getName());
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             this.requestTarget = currentExportTerminal.getName();
             this.endImportAndExport = true; 
+            sendRequest(DockingRequest.Type.UNDOCK, requestTarget);
+        }
+    }
+
+    /**
+     *  This method sends a request on the {@link DockingBus}, unless the ship is already waiting for
+     *  the reply to a request of the same type. A pending request of the other type is withdrawn.
+     */
+    private synchronized void sendRequest(DockingRequest.Type type, String port)
+    {
+        if (pendingRequest != null && pendingRequest.getType() == type && !pendingRequest.isAnswered())
+        {
+            return;
+        }
+        withdrawRequest();
+        pendingRequest = DockingBus.getInstance().submit(this, type, port);
+    }
+
+    /**
+     *  This method reads the reply to the pending request of the given type.
+     *  A reply that has arrived closes the request: a granted permission is used once, and after a denial
+     *  the ship has to send a new request.
+     *  @return {@code true} if the permission has been granted.
+     */
+    private synchronized boolean consumeReply(DockingRequest.Type type)
+    {
+        if (pendingRequest == null || pendingRequest.getType() != type)
+        {
+            logger.info("No " + type + " request has been sent by the " + this.getName() + " ship.");
+            return false;
+        }
+        if (!pendingRequest.isAnswered())
+        {
+            logger.info("The terminal operator has not answered the " + type + " request of the " + this.getName() + " ship yet.");
+            return false;
+        }
+        boolean granted = pendingRequest.isGranted();
+        pendingRequest = null;
+        if (!granted)
+        {
+            this.requestTarget = null;
+        }
+        return granted;
+    }
+
+    /**
+     *  This method withdraws the pending request of the ship from the {@link DockingBus}, if any.
+     */
+    private synchronized void withdrawRequest()
+    {
+        if (pendingRequest != null)
+        {
+            DockingBus.getInstance().withdraw(pendingRequest);
+            pendingRequest = null;
         }
     }
 
@@ -368,10 +650,10 @@ public class CargoShip implements ContainerCollection
      */
     public boolean undockingConfirmation(ImportSubTerminal busanImp, ImportSubTerminal bariImp, ExportSubTerminal busanExp, ExportSubTerminal bariExp)
     {
-        if (TerminalOperatorMenu.sendUndockConfirmationtoShip() == true)
+        if (consumeReply(DockingRequest.Type.UNDOCK))
         {
             logger.info("The terminal of " + currentExportTerminal.getName() + " has granted the permission to undock. The ship can now proceed and leave the bay.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             this.setState(CargoShipState.IN_TRANSIT);
             this.endImportAndExport = false;
             this.currentImportTerminal = null;
@@ -379,7 +661,7 @@ public class CargoShip implements ContainerCollection
             if (this.getDestination().equals("Bari"))
             {
                 logger.info("The ship is leaving Bari. Next destination: Busan.");
-                System.out.println(".\n.\n.\n.\n.");
+                SimulationLogScope.println(".\n.\n.\n.\n.");
                 this.setDestination("Busan");
                 this.setDestinationTerminal(busanImp);
                 this.currentExportTerminal = busanExp;
@@ -387,7 +669,7 @@ public class CargoShip implements ContainerCollection
             else
             {
                 logger.info("The ship is leaving Busan. Next destination: Bari.");
-                System.out.println(".\n.\n.\n.\n.");
+                SimulationLogScope.println(".\n.\n.\n.\n.");
                 this.setDestination("Bari");
                 this.setDestinationTerminal(bariImp);
                 this.currentExportTerminal = bariExp;
@@ -397,7 +679,7 @@ public class CargoShip implements ContainerCollection
         else
         {
             logger.info("Confirmation negative. The ship must wait.");
-            System.out.println(".\n.\n.\n.\n.");
+            SimulationLogScope.println(".\n.\n.\n.\n.");
             this.setState(CargoShipState.WAITING);
         }
         return false;
@@ -232,6 +232,7 @@ public class CargoShipCaptainMenu
                 case "1":
                 {
                     logger.info("Selected option: " + displayOptions + ". Import Operation.");
+                    System.out.println(".\n.\n.\n.\n.");
                     ship.dropInTerminal();
                     break;
                 }
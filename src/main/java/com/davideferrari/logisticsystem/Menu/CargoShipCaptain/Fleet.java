@@ -0,0 +1,91 @@
+package com.davideferrari.logisticsystem.Menu.CargoShipCaptain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.BerthScheduler;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+
+/**
+ *  This class represents a fleet of cargo ships sailing between the ports.
+ *  Unlike the ship driven by the Cargo Ship Captain, the ships of the fleet are berthed by the
+ *  {@link BerthScheduler} of each port, which serves them without the interactive docking handshake.
+ *  A shuttle service keeps every ship sailing back and forth between two ports, to generate vessel traffic.
+ */
+public class Fleet
+{
+    private static final Logger logger = Logger.getLogger(Fleet.class.getName());
+
+    private final List<CargoShip> ships = new CopyOnWriteArrayList<>();
+    private volatile boolean sailing;
+
+    /**
+     *  This method creates a ship and adds it to the fleet.
+     *  @param name                The name of the ship.
+     *  @param destinationTerminal The Import Terminal of its first destination.
+     *  @param exportTerminal      The Export Terminal of its first destination.
+     *  @return The new ship.
+     */
+    public CargoShip commission(String name, ImportSubTerminal destinationTerminal, ExportSubTerminal exportTerminal)
+    {
+        CargoShip ship = new CargoShip(name, destinationTerminal, exportTerminal);
+        ships.add(ship);
+        return ship;
+    }
+
+    public List<CargoShip> getShips()
+    {
+        return Collections.unmodifiableList(ships);
+    }
+
+    public int size()
+    {
+        return ships.size();
+    }
+
+    /**
+     *  This method starts a shuttle service: every ship asks for a berth at the first port, and each time it leaves
+     *  a port it asks for a berth at the other one, arriving after the voyage time.
+     *  The service stops when {@link #stopShuttle()} is called or a scheduler is closed.
+     *  @param first        The scheduler of the first port.
+     *  @param second       The scheduler of the second port.
+     *  @param voyageMillis The sailing time between the ports, in milliseconds.
+     *  @param priority     The priority of the docking requests.
+     */
+    public void startShuttle(BerthScheduler first, BerthScheduler second, long voyageMillis, int priority)
+    {
+        sailing = true;
+        for (CargoShip ship : ships)
+        {
+            sail(ship, first, second, System.currentTimeMillis(), voyageMillis, priority);
+        }
+    }
+
+    /**
+     *  This method stops the shuttle service: the ships finish their current port call and do not sail again.
+     */
+    public void stopShuttle()
+    {
+        sailing = false;
+    }
+
+    private void sail(CargoShip ship, BerthScheduler to, BerthScheduler next, long eta, long voyageMillis, int priority)
+    {
+        if (!sailing)
+        {
+            return;
+        }
+        to.requestBerth(ship, priority, eta).whenComplete((report, failure) ->
+        {
+            if (failure != null)
+            {
+                logger.info("The " + ship.getName() + " ship has stopped sailing.");
+                return;
+            }
+            logger.info(report.toString());
+            sail(ship, next, to, System.currentTimeMillis() + voyageMillis, voyageMillis, priority);
+        });
+    }
+}
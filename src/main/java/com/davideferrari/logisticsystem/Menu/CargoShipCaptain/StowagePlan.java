@@ -0,0 +1,459 @@
+package com.davideferrari.logisticsystem.Menu.CargoShipCaptain;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy.LoadPlanningStrategy;
+
+/**
+ *  This class models the cargo hold of a ship as bays, rows and tiers.
+ *  Every slot is addressed directly by its index, {@code (bay * rows + row) * tiers + tier}, in a single array.
+ *  A bay and a row identify a stack, which is filled from tier 0 upwards: a container always stands on the one
+ *  below it, and a stack cannot exceed the maximum stacking height and weight of the ship.
+ *  The weight of a container is recorded when it is stowed, so later changes of its state do not unbalance the stack.
+ *  Each stack keeps its number of containers, height and weight, and the stacks that can still take the smallest
+ *  container the ship may carry (a free tier, and room for its height and weight) are kept in a bit set:
+ *  stacks full by tiers, height or weight drop out of it, so the next free slot is found without scanning the
+ *  slots or the full stacks, and loading or unloading the top of a stack takes constant time.
+ *  An identity map from every container on board to its slot makes membership tests and removals of a given
+ *  container constant time: containers are matched by reference, as they are in the register and the terminals.
+ *  Thread Safety: All methods are synchronized; traversals work on the copy returned by {@link #toArray()},
+ *  while {@link #get(int)} reads a single position without copying.
+ */
+public class StowagePlan
+{
+    /**
+     *  Value returned when no slot is available or a container is not on board.
+     */
+    public static final int NO_SLOT = -1;
+
+    private final int bays;
+    private final int rows;
+    private final int tiers;
+    private final double maxStackHeight;
+    private final long maxStackWeight;
+    private final double minContainerHeight;
+    private final long minContainerWeight;
+
+    private final Container[] slots;
+    private final long[] slotWeights;
+    private final int[] stackLevels;
+    private final double[] stackHeights;
+    private final long[] stackWeights;
+    private final BitSet openStacks;
+    private final Map<Container, Integer> slotIndex = new IdentityHashMap<>();
+    private int size;
+
+    /**
+     *  This method constructs an empty hold, which only closes a stack once all its tiers are taken.
+     *  @param bays           The number of bays.
+     *  @param rows           The number of rows of every bay.
+     *  @param tiers          The number of tiers of every stack.
+     *  @param maxStackHeight The maximum height of a stack, in meters.
+     *  @param maxStackWeight The maximum weight of a stack, in kilograms.
+     */
+    public StowagePlan(int bays, int rows, int tiers, double maxStackHeight, long maxStackWeight)
+    {
+        this(bays, rows, tiers, maxStackHeight, maxStackWeight, 0, 0);
+    }
+
+    /**
+     *  This method constructs an empty hold, which also closes a stack once it cannot take the smallest container
+     *  the ship may carry, because of its height or of its weight.
+     *  @param bays               The number of bays.
+     *  @param rows               The number of rows of every bay.
+     *  @param tiers              The number of tiers of every stack.
+     *  @param maxStackHeight     The maximum height of a stack, in meters.
+     *  @param maxStackWeight     The maximum weight of a stack, in kilograms.
+     *  @param minContainerHeight The height of the lowest container the ship may carry, in meters.
+     *  @param minContainerWeight The weight of the lightest container the ship may carry, in kilograms.
+     */
+    public StowagePlan(int bays, int rows, int tiers, double maxStackHeight, long maxStackWeight,
+                       double minContainerHeight, long minContainerWeight)
+    {
+        if (bays <= 0 || rows <= 0 || tiers <= 0)
+        {
+            throw new IllegalArgumentException("The hold needs at least one bay, row and tier");
+        }
+        if (minContainerHeight < 0 || minContainerWeight < 0)
+        {
+            throw new IllegalArgumentException("The smallest container cannot have a negative height or weight");
+        }
+        this.bays = bays;
+        this.rows = rows;
+        this.tiers = tiers;
+        this.maxStackHeight = maxStackHeight;
+        this.maxStackWeight = maxStackWeight;
+        this.minContainerHeight = minContainerHeight;
+        this.minContainerWeight = minContainerWeight;
+        int stacks = bays * rows;
+        this.slots = new Container[stacks * tiers];
+        this.slotWeights = new long[stacks * tiers];
+        this.stackLevels = new int[stacks];
+        this.stackHeights = new double[stacks];
+        this.stackWeights = new long[stacks];
+        this.openStacks = new BitSet(stacks);
+        openAllStacks();
+    }
+
+    /**
+     *  This method computes the index of a slot.
+     *  @param bay  The bay, from 0.
+     *  @param row  The row inside the bay, from 0.
+     *  @param tier The tier inside the stack, from 0 (the bottom).
+     *  @return The index of the slot.
+     *  @throws IndexOutOfBoundsException If the position is outside the hold.
+     */
+    public int slotIndex(int bay, int row, int tier)
+    {
+        if (bay < 0 || bay >= bays || row < 0 || row >= rows || tier < 0 || tier >= tiers)
+        {
+            throw new IndexOutOfBoundsException("Invalid slot: bay " + bay + ", row " + row + ", tier " + tier);
+        }
+        return (bay * rows + row) * tiers + tier;
+    }
+
+    /**
+     *  This method retrieves the container stowed in a slot.
+     *  @param slot The index of the slot.
+     *  @return The container, or {@code null} if the slot is free.
+     */
+    public synchronized Container containerAt(int slot)
+    {
+        return slots[slot];
+    }
+
+    /**
+     *  This method finds the slot where a container would be stowed: the top of the first stack that can
+     *  still take its height and weight. Only the stacks that can still take the smallest container are visited.
+     *  @param container The container to stow.
+     *  @return The index of the slot, or {@link #NO_SLOT} if no stack can take the container.
+     */
+    public synchronized int findSlotFor(Container container)
+    {
+        long weight = LoadPlanningStrategy.weightOf(container);
+        double height = container.getHeight();
+        for (int stack = openStacks.nextSetBit(0); stack >= 0; stack = openStacks.nextSetBit(stack + 1))
+        {
+            if (stackWeights[stack] + weight <= maxStackWeight && stackHeights[stack] + height <= maxStackHeight + 1e-9)
+            {
+                return stack * tiers + stackLevels[stack];
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     *  This method stows a container on top of the first stack that can take it.
+     *  @param container The container to stow.
+     *  @return The index of the slot used, or {@link #NO_SLOT} if no stack can take the container
+     *          or the container is already on board.
+     */
+    public synchronized int place(Container container)
+    {
+        if (slotIndex.containsKey(container))
+        {
+            return NO_SLOT;
+        }
+        int slot = findSlotFor(container);
+        if (slot != NO_SLOT)
+        {
+            push(slot / tiers, container);
+        }
+        return slot;
+    }
+
+    /**
+     *  This method removes the container on top of a stack.
+     *  @param slot The index of the slot, which must be the top of its stack.
+     *  @return The removed container.
+     *  @throws IllegalStateException If the slot is free or another container stands on it.
+     */
+    public synchronized Container removeAt(int slot)
+    {
+        int stack = slot / tiers;
+        if (slots[slot] == null || slot % tiers != stackLevels[stack] - 1)
+        {
+            throw new IllegalStateException("Slot " + slot + " is not the top of its stack");
+        }
+        Container container = slots[slot];
+        slots[slot] = null;
+        slotIndex.remove(container);
+        stackLevels[stack]--;
+        stackHeights[stack] -= container.getHeight();
+        stackWeights[stack] -= slotWeights[slot];
+        if (canTakeSmallest(stack))
+        {
+            openStacks.set(stack);
+        }
+        size--;
+        return container;
+    }
+
+    /**
+     *  This method removes a container wherever it is stowed. The containers standing on it are lowered
+     *  by one tier, which is bounded by the number of tiers.
+     *  @param container The container to remove.
+     *  @return {@code true} if the container was on board.
+     */
+    public synchronized boolean remove(Container container)
+    {
+        int slot = slotOf(container);
+        if (slot == NO_SLOT)
+        {
+            return false;
+        }
+        int stack = slot / tiers;
+        int top = stack * tiers + stackLevels[stack] - 1;
+        long weight = slotWeights[slot];
+        System.arraycopy(slots, slot + 1, slots, slot, top - slot);
+        System.arraycopy(slotWeights, slot + 1, slotWeights, slot, top - slot);
+        for (int lowered = slot; lowered < top; lowered++)
+        {
+            slotIndex.put(slots[lowered], lowered);
+        }
+        slots[top] = container;
+        slotWeights[top] = weight;
+        removeAt(top);
+        return true;
+    }
+
+    /**
+     *  This method removes several containers wherever they are stowed, in constant time per container.
+     *  @param containers The containers to remove.
+     *  @return The number of containers that were on board and have been removed.
+     */
+    public synchronized int removeAll(Iterable<? extends Container> containers)
+    {
+        int removed = 0;
+        for (Container c : containers)
+        {
+            if (remove(c))
+            {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     *  This method finds the slot of a container.
+     *  @param container The container to look for.
+     *  @return The index of its slot, or {@link #NO_SLOT} if it is not on board.
+     */
+    public synchronized int slotOf(Container container)
+    {
+        Integer slot = slotIndex.get(container);
+        return slot == null ? NO_SLOT : slot;
+    }
+
+    /**
+     *  This method checks whether a container is on board, in constant time.
+     *  @param container The container to look for.
+     *  @return {@code true} if the container is stowed in the hold.
+     */
+    public synchronized boolean contains(Container container)
+    {
+        return slotIndex.containsKey(container);
+    }
+
+    /**
+     *  This method lists the occupied slots in unloading order: the top tier of every stack first, down to tier 0.
+     *  Removing the slots in this order always takes a container from the top of its stack.
+     *  @return The indexes of the occupied slots.
+     */
+    public synchronized int[] unloadingSlots()
+    {
+        int[] order = new int[size];
+        int n = 0;
+        for (int tier = tiers - 1; tier >= 0; tier--)
+        {
+            for (int stack = 0; stack < stackLevels.length; stack++)
+            {
+                if (tier < stackLevels[stack])
+                {
+                    order[n++] = stack * tiers + tier;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     *  This method copies the containers on board, in slot order.
+     *  @return A new array with the containers.
+     */
+    public synchronized Container[] toArray()
+    {
+        Container[] copy = new Container[size];
+        int n = 0;
+        for (int stack = 0; stack < stackLevels.length; stack++)
+        {
+            for (int tier = 0; tier < stackLevels[stack]; tier++)
+            {
+                copy[n++] = slots[stack * tiers + tier];
+            }
+        }
+        return copy;
+    }
+
+    /**
+     *  This method retrieves a container by its position in slot order, the order of {@link #toArray()},
+     *  without copying the hold: whole stacks are skipped by their level, so the time taken depends on the number
+     *  of stacks only, not on the number of containers on board.
+     *  @param position The zero-based position of the container.
+     *  @return The container at that position.
+     *  @throws IndexOutOfBoundsException If there is no container at that position.
+     */
+    public synchronized Container get(int position)
+    {
+        if (position < 0 || position >= size)
+        {
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size + " containers on board");
+        }
+        int stack = 0;
+        while (position >= stackLevels[stack])
+        {
+            position -= stackLevels[stack];
+            stack++;
+        }
+        return slots[stack * tiers + position];
+    }
+
+    /**
+     *  This method removes every container from the hold.
+     */
+    public synchronized void clear()
+    {
+        Arrays.fill(slots, null);
+        slotIndex.clear();
+        Arrays.fill(stackLevels, 0);
+        Arrays.fill(stackHeights, 0);
+        Arrays.fill(stackWeights, 0);
+        openAllStacks();
+        size = 0;
+    }
+
+    /**
+     *  This method stows containers restored from a snapshot or a journal. Every container goes where
+     *  {@link #place(Container)} would put it; a container no stack can take under the stacking rules is put on
+     *  the first stack with a free tier, even a stack closed by height or weight, since it was already on board
+     *  when the state was saved.
+     *  @param containers The containers to stow, in their original order.
+     */
+    synchronized void restore(Iterable<Container> containers)
+    {
+        clear();
+        for (Container c : containers)
+        {
+            if (place(c) == NO_SLOT)
+            {
+                int stack = 0;
+                while (stack < stackLevels.length && stackLevels[stack] == tiers)
+                {
+                    stack++;
+                }
+                if (stack == stackLevels.length)
+                {
+                    throw new IllegalStateException("The restored cargo exceeds the slots of the hold");
+                }
+                push(stack, c);
+            }
+        }
+    }
+
+    /**
+     *  This method returns the number of containers on board.
+     *  @return The number of occupied slots.
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     *  This method returns the number of slots of the hold, which does not change.
+     *  @return The number of bays times rows times tiers.
+     */
+    public int capacity()
+    {
+        return slots.length;
+    }
+
+    /**
+     *  This method checks whether the hold is empty.
+     *  @return {@code true} if no container is on board.
+     */
+    public synchronized boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     *  This method returns the weight of the containers on board.
+     *  @return The total weight in kilograms.
+     */
+    public synchronized long totalWeight()
+    {
+        long total = 0;
+        for (long weight : stackWeights)
+        {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     *  This method returns the height of the containers on board, summed over all the stacks.
+     *  @return The total height in meters.
+     */
+    public synchronized double totalHeight()
+    {
+        double total = 0;
+        for (double height : stackHeights)
+        {
+            total += height;
+        }
+        return total;
+    }
+
+    private void push(int stack, Container container)
+    {
+        int slot = stack * tiers + stackLevels[stack];
+        slots[slot] = container;
+        slotIndex.put(container, slot);
+        slotWeights[slot] = LoadPlanningStrategy.weightOf(container);
+        stackLevels[stack]++;
+        stackHeights[stack] += container.getHeight();
+        stackWeights[stack] += slotWeights[slot];
+        if (!canTakeSmallest(stack))
+        {
+            openStacks.clear(stack);
+        }
+        size++;
+    }
+
+    /**
+     *  This method checks whether a stack has a free tier and room for the height and weight of the smallest container.
+     */
+    private boolean canTakeSmallest(int stack)
+    {
+        return stackLevels[stack] < tiers
+                && stackWeights[stack] + minContainerWeight <= maxStackWeight
+                && stackHeights[stack] + minContainerHeight <= maxStackHeight + 1e-9;
+    }
+
+    private void openAllStacks()
+    {
+        openStacks.clear();
+        for (int stack = 0; stack < stackLevels.length; stack++)
+        {
+            if (canTakeSmallest(stack))
+            {
+                openStacks.set(stack);
+            }
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.davideferrari.logisticsystem.Menu;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShipCaptainMenu;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.Fleet;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.BerthScheduler;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.PortCallPipeline;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.TerminalOperatorMenu;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.Terminal;
 import com.davideferrari.logisticsystem.Menu.WarehouseManager.WarehouseManagerMenu;
-import com.davideferrari.logisticsystem.Menu.WarehouseManager.WarehouseTruck;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.TruckFleet;
 import java.util.Scanner;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppAuthor;
 import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ExceptionShieldingHandler;
 import com.davideferrari.logisticsystem.Utils.ExceptionHandling.MenuValidationException;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import com.davideferrari.logisticsystem.Utils.Persistence.YardSnapshot;
 import com.davideferrari.logisticsystem.Utils.Reflection.PatternScanner;
 
 /** This class runs the main Menu interface, executes via the menu method,
@@ -24,6 +34,56 @@ public class Menu
 {
     private static final Logger logger = Logger.getLogger(Menu.class.getName());
 
+    /**
+     *  Name of the system property holding the path of the yard snapshot file.
+     */
+    public static final String SNAPSHOT_PROPERTY = "logisticsystem.snapshot";
+
+    /**
+     *  Name of the system property holding the path of the container journal file.
+     */
+    public static final String JOURNAL_PROPERTY = "logisticsystem.journal";
+
+    /**
+     *  Name of the system property holding the number of fleet ships sailing between the ports,
+     *  besides the ship of the Cargo Ship Captain. No fleet is started by default.
+     */
+    public static final String FLEET_PROPERTY = "logisticsystem.fleet";
+
+    /**
+     *  Name of the system property holding the number of berths of every port (2 by default).
+     */
+    public static final String BERTHS_PROPERTY = "logisticsystem.berths";
+
+    /**
+     *  Name of the system property holding the sailing time of the fleet between the ports, in milliseconds.
+     */
+    public static final String VOYAGE_PROPERTY = "logisticsystem.voyage";
+
+    /**
+     *  Name of the system property holding the capacity of the queues between the stages of the pipelined
+     *  port calls of the fleet. The port calls of the fleet are not pipelined by default (0).
+     */
+    public static final String PIPELINE_PROPERTY = "logisticsystem.pipeline";
+
+    /**
+     *  Name of the system property holding the high watermark of the import bays (5 by default):
+     *  the trucks are woken as soon as a bay holds more containers.
+     */
+    public static final String HIGH_WATERMARK_PROPERTY = "logisticsystem.watermark.high";
+
+    /**
+     *  Name of the system property holding the low watermark of the import bays (5 by default):
+     *  the trucks are re-armed once a bay holds no more containers.
+     */
+    public static final String LOW_WATERMARK_PROPERTY = "logisticsystem.watermark.low";
+
+    /**
+     *  Name of the system property holding the number of trucks of every terminal (1 by default).
+     *  Every truck runs on a virtual thread, and the goods types are shared among the trucks.
+     */
+    public static final String TRUCKS_PROPERTY = "logisticsystem.trucks";
+
     /** This method runs the whole application, starting from the PatternScanner,
     *   which executes the custom annotations related to the system architecture and configuration report.
     *   Starting from this, the terminals of Bari and Busan are created,
@@ -31,10 +91,18 @@ public class Menu
     *   followinf the Composite Design Pattern.
     *   The ContainerInitializer is called, in order to call the created and set containers inside for the
     *   terminals and the cargo ship.
-    *   The WarehouseTruck objects are created in order to work in background, considering their thread nature.
+    *   The WarehouseTruck objects are created in order to work in background, considering their thread nature,
+    *   and are woken by the import bays when they cross their watermarks (see {@link #HIGH_WATERMARK_PROPERTY}).
+    *   Every terminal has a {@link TruckFleet} of one or more trucks (see {@link #TRUCKS_PROPERTY}), parked on exit.
     *   The CargoShip object is created in order to set a ship which will travel from one port to the other,
     *   in order to determine a continuous cycle of import and export operations within the system, by starting
     *   to import a set of 10 full containers which have been created, set and called via the ContainerInitializer.
+    *   If a yard snapshot exists (see {@link #SNAPSHOT_PROPERTY}), the whole state is restored from it instead,
+    *   and a new snapshot is written when the user exits from the main menu.
+    *   The container journal (see {@link #JOURNAL_PROPERTY}) is replayed on top of the restored state,
+    *   and records every container move until the next snapshot is written.
+    *   If a fleet is configured (see {@link #FLEET_PROPERTY}), its ships shuttle between the ports,
+    *   berthed by a {@link BerthScheduler} per port, and the throughput of both ports is logged on exit.
     */
     public static void main(String[] args)
     {
@@ -52,19 +120,50 @@ public class Menu
         ImportSubTerminal busanImp = new ImportSubTerminal("Busan");
         busan.addComponent(busanImp);
 
-        ContainerInitializer.initializeTerminalLoad(bariExp, busanExp);
+        List<ExportSubTerminal> exportTerminals = List.of(bariExp, busanExp);
+        List<ImportSubTerminal> importTerminals = List.of(bariImp, busanImp);
+        CargoShip ship = new CargoShip(bariImp, bariExp);
+        int fleetSize = Integer.getInteger(FLEET_PROPERTY, 0);
+        Fleet fleet = new Fleet();
+        for (int i = 1; i <= fleetSize; i++)
+        {
+            fleet.commission("FLEET SHIP " + i, bariImp, bariExp);
+        }
+        Path snapshot = Paths.get(System.getProperty(SNAPSHOT_PROPERTY, "yard.snapshot"));
+        Path journal = Paths.get(System.getProperty(JOURNAL_PROPERTY, "yard.journal"));
+        boolean restored = restoreSnapshot(snapshot, exportTerminals, importTerminals, ship, fleet.getShips());
+        restored = recoverJournal(journal, exportTerminals, importTerminals, ship, fleet.getShips()) || restored;
+        if (!restored)
+        {
+            ContainerInitializer.initializeTerminalLoad(bariExp, busanExp);
+            ContainerInitializer.initializeShipLoad(ship);
+        }
 
-        WarehouseTruck bariTruck = new WarehouseTruck(bariImp, bariExp);
-        WarehouseTruck busanTruck = new WarehouseTruck(busanImp, busanExp);
-        Thread t1 = new Thread(bariTruck);
-        Thread t2 = new Thread(busanTruck);
-        t1.setDaemon(true); 
-        t2.setDaemon(true);
-        t1.start();
-        t2.start();
+        int highWatermark = Integer.getInteger(HIGH_WATERMARK_PROPERTY, 5);
+        int lowWatermark = Integer.getInteger(LOW_WATERMARK_PROPERTY, Math.min(5, highWatermark));
+        bariImp.setWatermarks(highWatermark, lowWatermark);
+        busanImp.setWatermarks(highWatermark, lowWatermark);
+        int trucks = Integer.getInteger(TRUCKS_PROPERTY, 1);
+        TruckFleet bariTrucks = new TruckFleet(bariImp, bariExp, trucks);
+        TruckFleet busanTrucks = new TruckFleet(busanImp, busanExp, trucks);
+        bariTrucks.start();
+        busanTrucks.start();
 
-        CargoShip ship = new CargoShip(bariImp, bariExp);
-        ContainerInitializer.initializeShipLoad(ship);
+        int berths = Integer.getInteger(BERTHS_PROPERTY, 2);
+        BerthScheduler bariBerths = new BerthScheduler(bari, bariImp, bariExp, berths);
+        BerthScheduler busanBerths = new BerthScheduler(busan, busanImp, busanExp, berths);
+        int pipelineQueues = Integer.getInteger(PIPELINE_PROPERTY, 0);
+        if (pipelineQueues > 0)
+        {
+            bariBerths.setPipeline(new PortCallPipeline(bariImp, bariExp, pipelineQueues));
+            busanBerths.setPipeline(new PortCallPipeline(busanImp, busanExp, pipelineQueues));
+        }
+        if (fleetSize > 0)
+        {
+            bariBerths.start();
+            busanBerths.start();
+            fleet.startShuttle(bariBerths, busanBerths, Long.getLong(VOYAGE_PROPERTY, 30_000L), 0);
+        }
 
         try (Scanner option = new Scanner(System.in))
         {
@@ -138,6 +237,9 @@ public class Menu
                         {
                             System.out.println(".\n.\n.\n.\n.");
                             logger.info("Exited from the main menu.");
+                            stopFleet(fleet, List.of(bariBerths, busanBerths));
+                            parkTrucks(List.of(bariTrucks, busanTrucks));
+                            saveSnapshot(snapshot, journal, exportTerminals, importTerminals, ship, fleet.getShips());
                             menuLoop = false;
                             break;
                         }
@@ -158,4 +260,113 @@ public class Menu
             }
         }
     }
+
+    /**
+     *  This method stops the shuttle service of the fleet, waits for the port calls in progress and logs
+     *  the throughput of every port.
+     */
+    private static void stopFleet(Fleet fleet, List<BerthScheduler> schedulers)
+    {
+        fleet.stopShuttle();
+        for (BerthScheduler scheduler : schedulers)
+        {
+            scheduler.close();
+            if (scheduler.getServedShips() > 0)
+            {
+                logger.info(scheduler.getServedShips() + " port calls served: " + scheduler.getUnloadedContainers() + " containers unloaded, "
+                        + scheduler.getLoadedContainers() + " loaded, " + String.format("%.2f", scheduler.getThroughput()) + " containers per second.");
+            }
+        }
+    }
+
+    /**
+     *  This method parks the trucks of every terminal, so no container is moved while the snapshot is written.
+     */
+    private static void parkTrucks(List<TruckFleet> fleets)
+    {
+        try
+        {
+            for (TruckFleet trucks : fleets)
+            {
+                if (!trucks.park(5000))
+                {
+                    logger.warning("Some trucks were still driving when the terminal was closed.");
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     *  This method restores the state of the system from a yard snapshot, if one exists.
+     *  @return {@code true} if the state was restored, {@code false} if the default load must be created.
+     */
+    private static boolean restoreSnapshot(Path snapshot, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                                           List<CargoShip> fleet)
+    {
+        if (!Files.exists(snapshot))
+        {
+            return false;
+        }
+        try
+        {
+            long start = System.nanoTime();
+            YardSnapshot.load(snapshot, exportTerminals, importTerminals, ship, fleet);
+            logger.info("Yard state restored from " + snapshot + " in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            return true;
+        }
+        catch (IOException e)
+        {
+            ExceptionShieldingHandler.handleException(e);
+            throw new IllegalStateException("The yard snapshot " + snapshot + " cannot be restored. Remove it to start from the default load.", e);
+        }
+    }
+
+    /**
+     *  This method replays the container journal on top of the restored state, and then opens it to record
+     *  the following events.
+     *  @return {@code true} if at least one event was replayed.
+     */
+    private static boolean recoverJournal(Path journal, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                                          List<CargoShip> fleet)
+    {
+        try
+        {
+            int events = ContainerJournal.replay(journal, exportTerminals, importTerminals, ship, fleet);
+            if (events > 0)
+            {
+                logger.info("Replayed " + events + " container events from " + journal + ".");
+            }
+            ContainerJournal.getInstance().open(journal);
+            return events > 0;
+        }
+        catch (IOException e)
+        {
+            ExceptionShieldingHandler.handleException(e);
+            throw new IllegalStateException("The container journal " + journal + " cannot be replayed.", e);
+        }
+    }
+
+    /**
+     *  This method writes the state of the system to the yard snapshot. Once the snapshot is safely written,
+     *  the journal is emptied, since all its events are now included in the snapshot.
+     */
+    private static void saveSnapshot(Path snapshot, Path journal, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                                     List<CargoShip> fleet)
+    {
+        try
+        {
+            ContainerJournal.getInstance().close();
+            YardSnapshot.save(snapshot, exportTerminals, importTerminals, ship, fleet);
+            Files.deleteIfExists(journal);
+            logger.info("Yard state saved to " + snapshot + ".");
+        }
+        catch (IOException e)
+        {
+            ExceptionShieldingHandler.handleException(e);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+
+/**
+ *  This class represents a docking request queued by a {@link BerthScheduler}.
+ *  A request carries the priority of the ship and its estimated time of arrival (ETA), and is completed
+ *  with the {@link PortCallReport} of the port call once the ship has been served and has left its berth.
+ */
+public final class BerthRequest
+{
+    /**
+     *  Order of the ships that have already arrived: highest priority first, then earliest ETA,
+     *  then the order of the requests.
+     */
+    static final Comparator<BerthRequest> PRIORITY_ORDER = Comparator
+            .comparingInt((BerthRequest r) -> -r.priority)
+            .thenComparingLong(r -> r.eta)
+            .thenComparingLong(r -> r.sequence);
+
+    /**
+     *  Order of the ships still at sea: earliest ETA first, then the order of the requests.
+     */
+    static final Comparator<BerthRequest> ARRIVAL_ORDER = Comparator
+            .comparingLong((BerthRequest r) -> r.eta)
+            .thenComparingLong(r -> r.sequence);
+
+    private final CargoShip ship;
+    private final int priority;
+    private final long eta;
+    private final long sequence;
+    private final CompletableFuture<PortCallReport> completion = new CompletableFuture<>();
+
+    BerthRequest(CargoShip ship, int priority, long eta, long sequence)
+    {
+        this.ship = ship;
+        this.priority = priority;
+        this.eta = eta;
+        this.sequence = sequence;
+    }
+
+    public CargoShip getShip()
+    {
+        return ship;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    public long getEta()
+    {
+        return eta;
+    }
+
+    /**
+     *  This method returns the future completed when the port call of the ship is over.
+     *  @return The future of the {@link PortCallReport}.
+     */
+    public CompletableFuture<PortCallReport> getCompletion()
+    {
+        return completion;
+    }
+}
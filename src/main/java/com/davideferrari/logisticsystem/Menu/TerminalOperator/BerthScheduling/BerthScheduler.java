@@ -0,0 +1,317 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.Terminal;
+
+/**
+ *  This class allocates the berths of a port {@link Terminal} to the ships of a fleet.
+ *  Docking requests are queued with the priority and the estimated time of arrival (ETA) of the ship:
+ *  requests whose ETA has not come yet wait in arrival order, and the ships that have arrived are berthed
+ *  by priority first and ETA second.
+ *  Every berth is served by its own worker thread, which docks the ship, unloads it into the import sub-terminal,
+ *  loads it from the export sub-terminal and releases the berth, so several ships are served concurrently
+ *  against the same sub-terminals. Their locks keep the bays consistent, and the export sub-terminal claims
+ *  the containers of each load plan, so no container is loaded on two ships.
+ *  If a {@link PortCallPipeline} is set, the unloading, the warehouse cycle and the loading of every port call
+ *  run concurrently as the stages of the pipeline, instead of one after the other.
+ *  The scheduler also counts the ships served and the containers moved, to measure the throughput of the port.
+ *  Thread Safety: The queues are guarded by the lock of the scheduler, which is never held during a port call.
+ */
+public class BerthScheduler implements AutoCloseable
+{
+    private static final Logger logger = Logger.getLogger(BerthScheduler.class.getName());
+
+    private final Terminal port;
+    private final ImportSubTerminal importTerminal;
+    private final ExportSubTerminal exportTerminal;
+    private final int berths;
+    private final LongSupplier clock;
+    private volatile PortCallPipeline pipeline;
+
+    private final PriorityQueue<BerthRequest> arriving = new PriorityQueue<>(BerthRequest.ARRIVAL_ORDER);
+    private final PriorityQueue<BerthRequest> ready = new PriorityQueue<>(BerthRequest.PRIORITY_ORDER);
+    private long nextSequence;
+    private boolean running;
+    private boolean closed;
+    private Thread[] workers = new Thread[0];
+
+    private final AtomicInteger servedShips = new AtomicInteger();
+    private final AtomicLong unloadedContainers = new AtomicLong();
+    private final AtomicLong loadedContainers = new AtomicLong();
+    private volatile long startedAt;
+
+    /**
+     *  This method constructs a scheduler timed by the system clock, in milliseconds.
+     *  @param port           The terminal of the port.
+     *  @param importTerminal The import sub-terminal of the port.
+     *  @param exportTerminal The export sub-terminal of the port.
+     *  @param berths         The number of berths, served concurrently.
+     */
+    public BerthScheduler(Terminal port, ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int berths)
+    {
+        this(port, importTerminal, exportTerminal, berths, System::currentTimeMillis);
+    }
+
+    /**
+     *  This method constructs a scheduler timed by the given clock.
+     *  @param port           The terminal of the port.
+     *  @param importTerminal The import sub-terminal of the port.
+     *  @param exportTerminal The export sub-terminal of the port.
+     *  @param berths         The number of berths, served concurrently.
+     *  @param clock          The clock giving the current time, in the unit of the ETAs.
+     */
+    public BerthScheduler(Terminal port, ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int berths, LongSupplier clock)
+    {
+        if (berths <= 0)
+        {
+            throw new IllegalArgumentException("A port needs at least one berth");
+        }
+        this.port = port;
+        this.importTerminal = importTerminal;
+        this.exportTerminal = exportTerminal;
+        this.berths = berths;
+        this.clock = clock;
+    }
+
+    /**
+     *  This method sets the pipeline running the container transfers of the port calls.
+     *  @param pipeline The pipeline, or {@code null} to run the unloading and the loading one after the other.
+     */
+    public void setPipeline(PortCallPipeline pipeline)
+    {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     *  This method queues a docking request.
+     *  @param ship     The ship asking for a berth.
+     *  @param priority The priority of the ship: higher values are berthed first.
+     *  @param eta      The estimated time of arrival of the ship.
+     *  @return The future completed with the {@link PortCallReport} when the ship leaves its berth,
+     *          or already failed with an {@link IllegalStateException} if the scheduler has been closed.
+     */
+    public synchronized CompletableFuture<PortCallReport> requestBerth(CargoShip ship, int priority, long eta)
+    {
+        if (closed)
+        {
+            logger.warning("The " + ship.getName() + " ship cannot ask for a berth in " + port.getName() + ": the port is closed.");
+            return CompletableFuture.failedFuture(new IllegalStateException("The berth scheduler of " + port.getName() + " is closed"));
+        }
+        BerthRequest request = new BerthRequest(ship, priority, eta, nextSequence++);
+        arriving.add(request);
+        logger.info("The " + ship.getName() + " ship has asked for a berth in " + port.getName() + " (priority " + priority + ").");
+        notifyAll();
+        return request.getCompletion();
+    }
+
+    /**
+     *  This method takes the next ship to berth, if one has arrived.
+     *  The requests whose ETA has come are moved to the ready queue, which is ordered by priority and ETA.
+     *  @param now The current time.
+     *  @return The request of the next ship to berth, or {@code null} if no ship has arrived.
+     */
+    public synchronized BerthRequest nextReady(long now)
+    {
+        while (!arriving.isEmpty() && arriving.peek().getEta() <= now)
+        {
+            ready.add(arriving.poll());
+        }
+        return ready.poll();
+    }
+
+    /**
+     *  This method serves a ship at a berth: it docks the ship, unloads it into the import sub-terminal,
+     *  loads it from the export sub-terminal (through the pipeline, if one is set) and puts it back in transit.
+     *  Containers that do not fit in the import bay stay on board.
+     *  The ship leaves its berth even if the port call fails, so the berth is never held by a failed call.
+     *  @param request The request of the ship.
+     *  @param berth   The index of the berth.
+     *  @return The report of the port call.
+     */
+    public PortCallReport serve(BerthRequest request, int berth)
+    {
+        CargoShip ship = request.getShip();
+        long berthedAt = clock.getAsLong();
+        ship.berthAt(port.getName(), importTerminal, exportTerminal);
+
+        int unloaded;
+        int loaded;
+        try
+        {
+            PortCallPipeline current = pipeline;
+            if (current != null)
+            {
+                PipelineReport report = current.run(ship);
+                unloaded = report.getUnloaded();
+                loaded = report.getLoaded();
+            }
+            else
+            {
+                int onBoard = ship.getSize();
+                ship.dropInTerminal();
+                int afterUnload = ship.getSize();
+                exportTerminal.shipExport(ship);
+                loaded = ship.getSize() - afterUnload;
+                unloaded = onBoard - afterUnload;
+            }
+        }
+        finally
+        {
+            ship.leaveBerth();
+        }
+
+        servedShips.incrementAndGet();
+        unloadedContainers.addAndGet(unloaded);
+        loadedContainers.addAndGet(loaded);
+        long leftAt = clock.getAsLong();
+        return new PortCallReport(ship.getName(), port.getName(), berth, unloaded, loaded,
+                Math.max(0, berthedAt - request.getEta()), leftAt - berthedAt);
+    }
+
+    /**
+     *  This method starts one worker thread per berth. Every worker berths the next ready ship,
+     *  serves it and completes its request, until the scheduler is closed.
+     */
+    public synchronized void start()
+    {
+        if (running)
+        {
+            return;
+        }
+        running = true;
+        startedAt = System.nanoTime();
+        workers = new Thread[berths];
+        for (int berth = 0; berth < berths; berth++)
+        {
+            int index = berth;
+            workers[berth] = new Thread(() -> work(index), port.getName() + "-berth-" + berth);
+            workers[berth].setDaemon(true);
+            workers[berth].start();
+        }
+    }
+
+    /**
+     *  This method stops the workers once their current port call is over,
+     *  and cancels the requests still waiting for a berth. Later requests are rejected.
+     */
+    @Override
+    public void close()
+    {
+        Thread[] stopping;
+        synchronized (this)
+        {
+            running = false;
+            closed = true;
+            stopping = workers;
+            notifyAll();
+            arriving.forEach(r -> r.getCompletion().cancel(false));
+            ready.forEach(r -> r.getCompletion().cancel(false));
+            arriving.clear();
+            ready.clear();
+        }
+        for (Thread worker : stopping)
+        {
+            try
+            {
+                worker.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int getBerths()
+    {
+        return berths;
+    }
+
+    public synchronized int getQueueLength()
+    {
+        return arriving.size() + ready.size();
+    }
+
+    public int getServedShips()
+    {
+        return servedShips.get();
+    }
+
+    public long getUnloadedContainers()
+    {
+        return unloadedContainers.get();
+    }
+
+    public long getLoadedContainers()
+    {
+        return loadedContainers.get();
+    }
+
+    /**
+     *  This method computes the throughput of the port since the workers were started.
+     *  @return The containers moved (unloaded and loaded) per second of wall-clock time, or 0 if not started.
+     */
+    public double getThroughput()
+    {
+        long elapsed = System.nanoTime() - startedAt;
+        if (startedAt == 0 || elapsed <= 0)
+        {
+            return 0;
+        }
+        return (unloadedContainers.get() + loadedContainers.get()) * 1e9 / elapsed;
+    }
+
+    private void work(int berth)
+    {
+        BerthRequest request;
+        while ((request = awaitNext()) != null)
+        {
+            try
+            {
+                request.getCompletion().complete(serve(request, berth));
+            }
+            catch (RuntimeException e)
+            {
+                logger.warning("The port call of the " + request.getShip().getName() + " ship failed: " + e.getMessage());
+                request.getCompletion().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     *  This method waits until a ship has arrived and can be berthed, or the scheduler is closed.
+     *  @return The request of the next ship, or {@code null} once the scheduler is closed.
+     */
+    private synchronized BerthRequest awaitNext()
+    {
+        while (running)
+        {
+            long now = clock.getAsLong();
+            BerthRequest request = nextReady(now);
+            if (request != null)
+            {
+                return request;
+            }
+            BerthRequest first = arriving.peek();
+            try
+            {
+                wait(first == null ? 0 : Math.max(1, first.getEta() - now));
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ *  This class holds the outcome of a port call run by a {@link PortCallPipeline}: the containers moved,
+ *  the turnaround of the ship and the time every stage spent handling containers (including the time spent
+ *  waiting on the terminals and on the ship), which shows the stage that limits the turnaround.
+ */
+public final class PipelineReport
+{
+    private final int unloaded;
+    private final int loaded;
+    private final long turnaroundNanos;
+    private final Map<PortCallPipeline.Stage, Long> busyNanos;
+
+    /**
+     *  This method constructs the report of a pipelined port call.
+     *  @param unloaded        The number of containers unloaded into the import sub-terminal.
+     *  @param loaded          The number of containers loaded onto the ship.
+     *  @param turnaroundNanos The time between the start and the end of the pipeline, in nanoseconds.
+     *  @param busyNanos       The time every stage spent handling containers, in nanoseconds.
+     */
+    public PipelineReport(int unloaded, int loaded, long turnaroundNanos, Map<PortCallPipeline.Stage, Long> busyNanos)
+    {
+        this.unloaded = unloaded;
+        this.loaded = loaded;
+        this.turnaroundNanos = turnaroundNanos;
+        this.busyNanos = Collections.unmodifiableMap(new EnumMap<>(busyNanos));
+    }
+
+    public int getUnloaded()
+    {
+        return unloaded;
+    }
+
+    public int getLoaded()
+    {
+        return loaded;
+    }
+
+    public long getTurnaroundNanos()
+    {
+        return turnaroundNanos;
+    }
+
+    public Map<PortCallPipeline.Stage, Long> getBusyNanos()
+    {
+        return busyNanos;
+    }
+
+    /**
+     *  This method returns the stage that spent the most time handling containers.
+     *  @return The slowest stage, or {@code null} if no stage has run.
+     */
+    public PortCallPipeline.Stage getBottleneck()
+    {
+        PortCallPipeline.Stage bottleneck = null;
+        for (Map.Entry<PortCallPipeline.Stage, Long> entry : busyNanos.entrySet())
+        {
+            if (bottleneck == null || entry.getValue() > busyNanos.get(bottleneck))
+            {
+                bottleneck = entry.getKey();
+            }
+        }
+        return bottleneck;
+    }
+
+    @Override
+    public String toString()
+    {
+        return unloaded + " unloaded, " + loaded + " loaded, turnaround " + turnaroundNanos / 1_000_000 + " ms, bottleneck " + getBottleneck();
+    }
+}
@@ -0,0 +1,331 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ExportWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ImportWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.Warehouse;
+
+/**
+ *  This class runs the container transfers of a port call as a pipeline, instead of the serial phases of
+ *  {@link CargoShip#dropInTerminal()}, the warehouse cycle of the trucks and {@link ExportSubTerminal#shipExport(CargoShip)}.
+ *  Every container unloaded from the ship flows through six stages, each one running on its own thread:
+ *  - Crane: the ship-to-shore crane lifts the containers from the ship, top tiers first.
+ *  - Import yard: the container is stored in the import sub-terminal, and only then leaves the ship.
+ *  - Import warehouses: the container is taken from the import sub-terminal and emptied by the
+ *    {@link ImportWarehouse} of its goods type.
+ *  - Export warehouses: the empty container is filled by an {@link ExportWarehouse}, the goods types taking turns.
+ *  - Export yard: the full container is stored in the export sub-terminal, as stock for the next ships.
+ *  - Ship loading: every container reaching the end of the pipeline has freed a slot of the ship, which is filled
+ *    with the FULL_EXPORT stock of the export sub-terminal, chosen by its load planner. The freed slots are planned
+ *    in batches, once a queue's worth of them has been collected or when no other container is waiting, and the
+ *    slots still free at the end of the port call (e.g., the ones free at berthing) are filled last.
+ *  The stages are connected by bounded queues: a stage that gets ahead of the next one blocks when the queue is full,
+ *  so the slowest stage sets the pace and the turnaround of the ship is close to its time, not to the sum of all of them.
+ *  A container refused by a full import sub-terminal stays on board, and the loading never takes the export bay
+ *  below its minimum stock level, so the slots that cannot be filled stay free.
+ *  The pipeline is stateless between port calls, so the berths of a port can run several of them at the same time.
+ */
+public class PortCallPipeline
+{
+    /**
+     *  Defines the stages of the pipeline, in the order the containers go through them.
+     */
+    public enum Stage
+    {
+        CRANE,
+        IMPORT_YARD,
+        IMPORT_WAREHOUSE,
+        EXPORT_WAREHOUSE,
+        EXPORT_YARD,
+        SHIP_LOADING
+    }
+
+    private static final Logger logger = Logger.getLogger(PortCallPipeline.class.getName());
+    private static final Container.GoodsType[] EXPORT_GOODS =
+    {
+        Container.GoodsType.CLOTHING,
+        Container.GoodsType.FOOD,
+        Container.GoodsType.ELECTRONICS,
+        Container.GoodsType.FURNITURE
+    };
+
+    private final ImportSubTerminal importTerminal;
+    private final ExportSubTerminal exportTerminal;
+    private final int queueCapacity;
+    private final long handlingMillis;
+
+    /**
+     *  This method constructs a pipeline whose stages work as fast as the terminals allow.
+     *  @param importTerminal The import sub-terminal of the port.
+     *  @param exportTerminal The export sub-terminal of the port.
+     *  @param queueCapacity  The number of containers that can wait between two stages.
+     */
+    public PortCallPipeline(ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int queueCapacity)
+    {
+        this(importTerminal, exportTerminal, queueCapacity, 0);
+    }
+
+    /**
+     *  This method constructs a pipeline whose stages take a fixed time to handle every container,
+     *  to emulate the equipment of the port.
+     *  @param importTerminal The import sub-terminal of the port.
+     *  @param exportTerminal The export sub-terminal of the port.
+     *  @param queueCapacity  The number of containers that can wait between two stages.
+     *  @param handlingMillis The time every stage takes to handle a container, in milliseconds.
+     */
+    public PortCallPipeline(ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int queueCapacity, long handlingMillis)
+    {
+        if (queueCapacity <= 0)
+        {
+            throw new IllegalArgumentException("The queues of the pipeline need room for at least one container");
+        }
+        this.importTerminal = importTerminal;
+        this.exportTerminal = exportTerminal;
+        this.queueCapacity = queueCapacity;
+        this.handlingMillis = handlingMillis;
+    }
+
+    /**
+     *  This method runs the pipeline for a ship docked at the port, and waits until every stage is over.
+     *  @param ship The docked ship.
+     *  @return The {@link PipelineReport} of the port call.
+     *  @throws IllegalStateException If a stage fails; the other stages are then stopped.
+     */
+    public PipelineReport run(CargoShip ship)
+    {
+        return new Run(ship).execute();
+    }
+
+    /**
+     *  This class holds the queues and the counters of a single port call.
+     */
+    private final class Run
+    {
+        private final CargoShip ship;
+        private final List<BlockingQueue<Optional<Container>>> queues = new ArrayList<>();
+        private final Map<Stage, Long> busyNanos = new EnumMap<>(Stage.class);
+        /**
+         *  The slots of the ship that the loading stage may fill: the free slots at berthing,
+         *  plus one for every container that has left the ship.
+         */
+        private final Semaphore shipSlots;
+        private final AtomicInteger unloaded = new AtomicInteger();
+        private final AtomicInteger loaded = new AtomicInteger();
+        private final Map<Container.GoodsType, ImportWarehouse> importWarehouses = new EnumMap<>(Container.GoodsType.class);
+        private final ExportWarehouse[] exportWarehouses = new ExportWarehouse[EXPORT_GOODS.length];
+        private int nextGoods;
+        /**
+         *  The slots freed by the containers that reached the loading stage, and not planned yet.
+         */
+        private int freedSlots;
+
+        private Run(CargoShip ship)
+        {
+            this.ship = ship;
+            this.shipSlots = new Semaphore(ship.getRemainingCapacity());
+            for (int i = 0; i < EXPORT_GOODS.length; i++)
+            {
+                Warehouse warehouse = Warehouse.forGoods(EXPORT_GOODS[i]);
+                importWarehouses.put(EXPORT_GOODS[i], warehouse.createImportWarehouse());
+                exportWarehouses[i] = warehouse.createExportWarehouse();
+            }
+            for (int i = 0; i < Stage.values().length - 1; i++)
+            {
+                queues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+        }
+
+        private PipelineReport execute()
+        {
+            long start = System.nanoTime();
+            ExecutorService executor = Executors.newFixedThreadPool(Stage.values().length, task ->
+            {
+                Thread thread = new Thread(task, importTerminal.getName() + "-pipeline-" + ship.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            ExecutorCompletionService<Stage> stages = new ExecutorCompletionService<>(executor);
+            try
+            {
+                for (Stage stage : Stage.values())
+                {
+                    stages.submit(() -> work(stage), stage);
+                }
+                for (int i = 0; i < Stage.values().length; i++)
+                {
+                    stages.take().get();
+                }
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("A stage of the port call of the " + ship.getName() + " ship failed", e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The port call of the " + ship.getName() + " ship was interrupted", e);
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+            PipelineReport report = new PipelineReport(unloaded.get(), loaded.get(), System.nanoTime() - start, busyNanos);
+            logger.info("Pipelined port call of the " + ship.getName() + " ship: " + report);
+            return report;
+        }
+
+        /**
+         *  This method runs a stage: the crane produces the containers, and every other stage takes them
+         *  from the queue before it until the end of the port call is signalled by an empty element.
+         */
+        private void work(Stage stage)
+        {
+            long busy = 0;
+            try
+            {
+                if (stage == Stage.CRANE)
+                {
+                    for (Container container : ship.unloadingSequence())
+                    {
+                        long started = System.nanoTime();
+                        handle();
+                        busy += System.nanoTime() - started;
+                        queues.get(0).put(Optional.of(container));
+                    }
+                    queues.get(0).put(Optional.empty());
+                    return;
+                }
+                BlockingQueue<Optional<Container>> in = queues.get(stage.ordinal() - 1);
+                BlockingQueue<Optional<Container>> out = stage.ordinal() < queues.size() ? queues.get(stage.ordinal()) : null;
+                Optional<Container> next;
+                while ((next = in.take()).isPresent())
+                {
+                    long started = System.nanoTime();
+                    handle();
+                    boolean forward = process(stage, next.get());
+                    busy += System.nanoTime() - started;
+                    if (forward && out != null)
+                    {
+                        out.put(next);
+                    }
+                }
+                if (out != null)
+                {
+                    out.put(next);
+                }
+                else
+                {
+                    long started = System.nanoTime();
+                    loadFromStock(Integer.MAX_VALUE);
+                    busy += System.nanoTime() - started;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The " + stage + " stage was interrupted", e);
+            }
+            finally
+            {
+                synchronized (busyNanos)
+                {
+                    busyNanos.put(stage, busy);
+                }
+            }
+        }
+
+        /**
+         *  This method performs the work of a stage on a container.
+         *  @return {@code true} if the container goes on to the next stage.
+         */
+        private boolean process(Stage stage, Container container)
+        {
+            switch (stage)
+            {
+                case IMPORT_YARD:
+                {
+                    if (!importTerminal.shipImportAll(List.of(container)).isComplete())
+                    {
+                        return false;
+                    }
+                    ship.unloadContainer(container);
+                    unloaded.incrementAndGet();
+                    shipSlots.release();
+                    return true;
+                }
+                case IMPORT_WAREHOUSE:
+                {
+                    // A container without goods to unload is emptied by the first warehouse of the route.
+                    ImportWarehouse warehouse = importWarehouses.getOrDefault(container.getGoods(), importWarehouses.get(EXPORT_GOODS[0]));
+                    return warehouse.warehouseImport(importTerminal, container);
+                }
+                case EXPORT_WAREHOUSE:
+                {
+                    exportWarehouses[nextGoods].warehouseExport(container);
+                    nextGoods = (nextGoods + 1) % EXPORT_GOODS.length;
+                    return true;
+                }
+                case EXPORT_YARD:
+                {
+                    exportTerminal.addFromWarehouse(List.of(container));
+                    return true;
+                }
+                case SHIP_LOADING:
+                {
+                    freedSlots++;
+                    if (freedSlots >= queueCapacity || queues.get(queues.size() - 1).isEmpty())
+                    {
+                        loadFromStock(freedSlots);
+                        freedSlots = 0;
+                    }
+                    return true;
+                }
+                default:
+                {
+                    throw new IllegalArgumentException("Unexpected stage: " + stage);
+                }
+            }
+        }
+
+        /**
+         *  This method fills up to the given number of the slots freed so far with the export stock of the bay,
+         *  as chosen by the load planner of the export sub-terminal. The slots left unfilled stay available.
+         */
+        private void loadFromStock(int maxCount)
+        {
+            int slots = 0;
+            while (slots < maxCount && shipSlots.tryAcquire())
+            {
+                slots++;
+            }
+            int count = slots == 0 ? 0 : exportTerminal.loadPlanned(ship, slots);
+            loaded.addAndGet(count);
+            shipSlots.release(slots - count);
+        }
+
+        private void handle() throws InterruptedException
+        {
+            if (handlingMillis > 0)
+            {
+                Thread.sleep(handlingMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+/**
+ *  This class holds the outcome of a port call served by a {@link BerthScheduler}:
+ *  where the ship was berthed, how many containers were moved, and how long it waited and stayed.
+ *  Times are expressed in the unit of the clock of the scheduler (milliseconds by default).
+ */
+public final class PortCallReport
+{
+    private final String shipName;
+    private final String port;
+    private final int berth;
+    private final int unloaded;
+    private final int loaded;
+    private final long waitingTime;
+    private final long serviceTime;
+
+    /**
+     *  This method constructs the report of a port call.
+     *  @param shipName    The name of the ship.
+     *  @param port        The port of the berth.
+     *  @param berth       The index of the berth, from 0.
+     *  @param unloaded    The number of containers unloaded into the import sub-terminal.
+     *  @param loaded      The number of containers loaded from the export sub-terminal.
+     *  @param waitingTime The time between the arrival of the ship and its berthing.
+     *  @param serviceTime The time the ship spent at the berth.
+     */
+    public PortCallReport(String shipName, String port, int berth, int unloaded, int loaded, long waitingTime, long serviceTime)
+    {
+        this.shipName = shipName;
+        this.port = port;
+        this.berth = berth;
+        this.unloaded = unloaded;
+        this.loaded = loaded;
+        this.waitingTime = waitingTime;
+        this.serviceTime = serviceTime;
+    }
+
+    public String getShipName()
+    {
+        return shipName;
+    }
+
+    public String getPort()
+    {
+        return port;
+    }
+
+    public int getBerth()
+    {
+        return berth;
+    }
+
+    public int getUnloaded()
+    {
+        return unloaded;
+    }
+
+    public int getLoaded()
+    {
+        return loaded;
+    }
+
+    public long getWaitingTime()
+    {
+        return waitingTime;
+    }
+
+    public long getServiceTime()
+    {
+        return serviceTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return shipName + " at " + port + " berth " + berth + ": " + unloaded + " unloaded, " + loaded + " loaded, waited "
+                + waitingTime + ", served in " + serviceTime;
+    }
+}
@@ -0,0 +1,190 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is the message bus through which the ships and the Terminal Operators negotiate docking and undocking.
+ *  In the Mediator Design Pattern, it acts as the Concrete Mediator: a ship never talks to an operator directly,
+ *  it submits a {@link DockingRequest} and waits on its reply, while the operators take the queued requests
+ *  and answer them, possibly from other threads and in any order.
+ *  Since every request is correlated with its own reply, many ships and operators can negotiate at the same time.
+ *  It implements the Singleton Design Pattern, so the menus of the captains and of the operators share one bus.
+ *  Thread Safety: The queue is guarded by the lock of the bus, and the replies are completed outside of it.
+ */
+@AppDesignPattern(pattern = "Mediator - Singleton", justification = "Concrete Mediator - Ensures a single docking bus")
+public class DockingBus
+{
+    private static final Logger logger = Logger.getLogger(DockingBus.class.getName());
+
+    private final Map<Long, DockingRequest> pending = new LinkedHashMap<>();
+    private long nextId = 1;
+
+    /**
+     *  This constructor is private, so the bus can only be reached through {@link #getInstance()}.
+     */
+    private DockingBus()
+    {
+    }
+
+    /**
+     *  This class holds the single instance of the bus, created the first time it is used.
+     */
+    private static class DockingBusHelper
+    {
+        private static final DockingBus INSTANCE = new DockingBus();
+    }
+
+    /**
+     *  This method provides the global access point to the single instance of the DockingBus.
+     *  @return The unique {@link DockingBus} instance.
+     */
+    public static DockingBus getInstance()
+    {
+        return DockingBusHelper.INSTANCE;
+    }
+
+    /**
+     *  This method queues a request of a ship. If the ship already has an open request of the same type,
+     *  that request is returned instead, so asking twice does not queue the ship twice.
+     *  @param ship The ship asking for the permission.
+     *  @param type Whether the ship asks to dock or to undock.
+     *  @param port The port where the ship asks to dock or to undock (e.g., "Bari").
+     *  @return The request, whose reply will carry the decision of the operator.
+     */
+    public synchronized DockingRequest submit(CargoShip ship, DockingRequest.Type type, String port)
+    {
+        for (DockingRequest request : pending.values())
+        {
+            if (request.getShip() == ship && request.getType() == type)
+            {
+                return request;
+            }
+        }
+        DockingRequest request = new DockingRequest(nextId++, ship, type, port);
+        pending.put(request.getId(), request);
+        logger.info("The terminal of " + port + " has received request " + request + ".");
+        notifyAll();
+        return request;
+    }
+
+    /**
+     *  This method returns the oldest open request of the given type, without removing it from the queue.
+     *  @param type The type of the request.
+     *  @return The oldest request of that type, or {@code null} if there is none.
+     */
+    public synchronized DockingRequest nextPending(DockingRequest.Type type)
+    {
+        for (DockingRequest request : pending.values())
+        {
+            if (request.getType() == type)
+            {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *  This method returns the open requests, in the order they were submitted.
+     *  @return A snapshot of the queue.
+     */
+    public synchronized List<DockingRequest> getPending()
+    {
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized int getPendingCount()
+    {
+        return pending.size();
+    }
+
+    /**
+     *  This method takes the oldest open request of the given type for a port, waiting until one is submitted.
+     *  The request leaves the queue, so no other operator can take it, and it must then be answered with
+     *  {@link #answer(DockingRequest, boolean)}.
+     *  @param type          The type of the request.
+     *  @param port          The port served by the operator, or {@code null} for any port.
+     *  @param timeoutMillis The maximum time to wait, in milliseconds.
+     *  @return The request, or {@code null} if none was submitted in time.
+     *  @throws InterruptedException If the operator thread is interrupted while waiting.
+     */
+    public synchronized DockingRequest take(DockingRequest.Type type, String port, long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true)
+        {
+            Iterator<DockingRequest> requests = pending.values().iterator();
+            while (requests.hasNext())
+            {
+                DockingRequest request = requests.next();
+                if (request.getType() == type && (port == null || port.equals(request.getPort())))
+                {
+                    requests.remove();
+                    return request;
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0)
+            {
+                return null;
+            }
+            wait(remaining);
+        }
+    }
+
+    /**
+     *  This method answers a request: it is removed from the queue and its reply is sent to the ship.
+     *  @param request The request to answer.
+     *  @param granted {@code true} to grant the permission, {@code false} to deny it.
+     *  @return {@code true} if this call answered the request, {@code false} if it was already answered or withdrawn.
+     */
+    public boolean answer(DockingRequest request, boolean granted)
+    {
+        synchronized (this)
+        {
+            pending.remove(request.getId());
+        }
+        boolean answered = request.getReply().complete(granted);
+        if (answered)
+        {
+            logger.info("The terminal operator has " + (granted ? "granted" : "denied") + " request " + request + ".");
+        }
+        return answered;
+    }
+
+    /**
+     *  This method withdraws a request that is no longer needed, cancelling its reply.
+     *  @param request The request to withdraw.
+     */
+    public void withdraw(DockingRequest request)
+    {
+        synchronized (this)
+        {
+            pending.remove(request.getId());
+        }
+        request.getReply().cancel(false);
+    }
+
+    /**
+     *  This method withdraws all the open requests, e.g., when the application is closed.
+     *  @return The number of requests withdrawn.
+     */
+    public int cancelAll()
+    {
+        List<DockingRequest> cancelled;
+        synchronized (this)
+        {
+            cancelled = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        cancelled.forEach(request -> request.getReply().cancel(false));
+        return cancelled.size();
+    }
+}
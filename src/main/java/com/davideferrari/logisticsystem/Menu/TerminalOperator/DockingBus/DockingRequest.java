@@ -0,0 +1,89 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus;
+
+import java.util.concurrent.CompletableFuture;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+
+/**
+ *  This class represents a docking or undocking request sent by a ship on the {@link DockingBus}.
+ *  Every request carries its own identifier and its own reply, a future completed with the decision of the
+ *  Terminal Operator: the ship that sent it, and only that ship, reads the answer from it.
+ */
+public final class DockingRequest
+{
+    /**
+     *  Defines the kind of permission asked by the ship.
+     */
+    public enum Type
+    {
+        DOCK,
+        UNDOCK
+    }
+
+    private final long id;
+    private final CargoShip ship;
+    private final Type type;
+    private final String port;
+    private final CompletableFuture<Boolean> reply = new CompletableFuture<>();
+
+    DockingRequest(long id, CargoShip ship, Type type, String port)
+    {
+        this.id = id;
+        this.ship = ship;
+        this.type = type;
+        this.port = port;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public CargoShip getShip()
+    {
+        return ship;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public String getPort()
+    {
+        return port;
+    }
+
+    /**
+     *  This method returns the reply to the request, completed with {@code true} if the permission is granted,
+     *  {@code false} if it is denied, or cancelled if the request is withdrawn.
+     *  @return The future of the decision.
+     */
+    public CompletableFuture<Boolean> getReply()
+    {
+        return reply;
+    }
+
+    /**
+     *  This method checks whether the request has been answered with a permission.
+     *  @return {@code true} only if the reply has arrived and grants the permission.
+     */
+    public boolean isGranted()
+    {
+        return reply.isDone() && !reply.isCompletedExceptionally() && reply.join();
+    }
+
+    /**
+     *  This method checks whether the request is closed, because it has been answered or withdrawn.
+     *  @return {@code true} if no answer is expected anymore.
+     */
+    public boolean isAnswered()
+    {
+        return reply.isDone();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "#" + id + " " + type + " " + ship.getName() + " at " + port;
+    }
+}
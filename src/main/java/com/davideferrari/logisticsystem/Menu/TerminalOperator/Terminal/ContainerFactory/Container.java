@@ -1,4 +1,6 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory;
+import java.util.Arrays;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.ContainerObserver;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 
 /**
@@ -6,8 +8,10 @@ import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
  *  In the context of the Factory Method Design Pattern, this class serves as the
  *  Product interface. It defines the common properties (weight, dimensions, state)
  *  and behaviors that all specific container types must inherit.
+ *  It also acts as the Subject in the Observer Design Pattern: registered {@link ContainerObserver}s
+ *  are notified whenever the state, goods or location of the container change.
  */
-@AppDesignPattern(pattern = "Factory", justification = "Product")
+@AppDesignPattern(pattern = "Factory - Observer", justification = "Product - Subject")
 public abstract class Container
 {
 
@@ -19,6 +23,9 @@ public abstract class Container
     protected String containerCode;
     protected GoodsType goods = GoodsType.NONE;
 
+    private static final ContainerObserver[] NO_OBSERVERS = new ContainerObserver[0];
+    private volatile ContainerObserver[] observers = NO_OBSERVERS;
+
     /**
      *  Enum representing the lifecycle state of a container.
      */
@@ -53,12 +60,16 @@ public abstract class Container
      */
     public void setContainerState(ContainerState state)
     {
+        ContainerState oldState = this.state;
         this.state = state;
+        fireStateChanged(oldState, state);
     }
 
     public void setLocation(String location)
     {
+        String oldLocation = this.location;
         this.location = location;
+        fireLocationChanged(oldLocation, location);
     }
     
     protected void setContainerCode(String containerCode)
@@ -97,7 +108,88 @@ public abstract class Container
 
     public void setGoods(GoodsType goods)
     {
+        GoodsType oldGoods = this.goods;
         this.goods = goods;
+        fireGoodsChanged(oldGoods, goods);
+    }
+
+    /**
+     *  This method notifies the attached observers of a state change.
+     *  Subclasses storing their data elsewhere (e.g., flyweight views) call it from their own setters.
+     *  @param oldState The previous state.
+     *  @param newState The new state.
+     */
+    protected void fireStateChanged(ContainerState oldState, ContainerState newState)
+    {
+        for (ContainerObserver observer : observers)
+        {
+            observer.stateChanged(this, oldState, newState);
+        }
+    }
+
+    /**
+     *  This method notifies the attached observers of a goods change.
+     *  @param oldGoods The previous goods type.
+     *  @param newGoods The new goods type.
+     */
+    protected void fireGoodsChanged(GoodsType oldGoods, GoodsType newGoods)
+    {
+        for (ContainerObserver observer : observers)
+        {
+            observer.goodsChanged(this, oldGoods, newGoods);
+        }
+    }
+
+    /**
+     *  This method notifies the attached observers of a location change.
+     *  @param oldLocation The previous location.
+     *  @param newLocation The new location.
+     */
+    protected void fireLocationChanged(String oldLocation, String newLocation)
+    {
+        for (ContainerObserver observer : observers)
+        {
+            observer.locationChanged(this, oldLocation, newLocation);
+        }
+    }
+
+    /**
+     *  This method attaches an observer, which will be notified of every following change
+     *  of the state, goods or location of this container.
+     *  The observers are kept in a copy-on-write array, so notifications never lock.
+     *  @param observer The observer to attach. Attaching the same observer twice has no effect.
+     */
+    public synchronized void addObserver(ContainerObserver observer)
+    {
+        for (ContainerObserver attached : observers)
+        {
+            if (attached == observer)
+            {
+                return;
+            }
+        }
+        ContainerObserver[] updated = Arrays.copyOf(observers, observers.length + 1);
+        updated[observers.length] = observer;
+        observers = updated;
+    }
+
+    /**
+     *  This method detaches a previously attached observer.
+     *  @param observer The observer to detach.
+     */
+    public synchronized void removeObserver(ContainerObserver observer)
+    {
+        for (int i = 0; i < observers.length; i++)
+        {
+            if (observers[i] == observer)
+            {
+                ContainerObserver[] updated = new ContainerObserver[observers.length - 1];
+                System.arraycopy(observers, 0, updated, 0, i);
+                System.arraycopy(observers, i + 1, updated, i, observers.length - i - 1);
+                observers = updated.length == 0 ? NO_OBSERVERS : updated;
+                return;
+            }
+        }
     }
     
     /**
@@ -1,5 +1,10 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerCodeCodec;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
 
 /**
  *  This class represents the abstract base class for all container factories,
@@ -26,6 +31,7 @@ public abstract class ContainerCreator<T extends Container>
      *  It orchestrates the creation process:
      *  - Calls createContainer() to get a raw object instance.
      *  - Sets the unique containerCode on that instance.
+     *  - Records the creation in the ContainerJournal.
      *  - Returns the fully initialized object.
      *  @param containerCode The unique 12-character alphanumeric code for the new container.
      *  @return The initialized container ready for use.
@@ -33,7 +39,41 @@ public abstract class ContainerCreator<T extends Container>
     public T registerContainer(String containerCode) {
         T c = createContainer();
         c.setContainerCode(containerCode);
+        ContainerJournal.getInstance().record(ContainerJournal.Event.CREATE, c, null);
         return c;
     }
 
+    /**
+     *  This method creates a batch of containers, one for each of the given codes.
+     *  Unlike {@link #registerContainer(String)}, the creations are not recorded in the ContainerJournal here,
+     *  since the codes of a batch have not been validated yet: the terminal accepting the batch records the
+     *  creations of the containers registered, with a single disk write (see {@link
+     *  com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal#addContainers(List)}).
+     *  @param containerCodes The unique codes of the new containers.
+     *  @return The initialized containers, in the order of the codes.
+     */
+    public List<T> registerContainers(Collection<String> containerCodes)
+    {
+        List<T> containers = new ArrayList<>(containerCodes.size());
+        for (String containerCode : containerCodes)
+        {
+            T c = createContainer();
+            c.setContainerCode(containerCode);
+            containers.add(c);
+        }
+        return containers;
+    }
+
+    /**
+     *  This method creates a batch of containers with consecutive codes (e.g., "MSDU00000001", "MSDU00000002", ...).
+     *  @param firstCode The standard code of the first container.
+     *  @param count     The number of containers to create.
+     *  @return The initialized containers, in increasing code order.
+     *  @throws IllegalArgumentException If the first code is not standard or the range is too long.
+     */
+    public List<T> registerContainerRange(String firstCode, int count)
+    {
+        return registerContainers(ContainerCodeCodec.range(firstCode, count));
+    }
+
 }
@@ -0,0 +1,62 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is a concrete implementation of the ContainerIterator interface
+ *  that traverses several ContainerCollections one after the other, as if they were a single collection.
+ *  In the Iterator Design Pattern, this class acts as a Concrete Iterator.
+ *  No container is copied: the iterator of each collection is only created when the previous one is exhausted,
+ *  so every part is traversed with its own iteration semantics (e.g., a snapshot for the sub-terminals).
+ */
+@AppDesignPattern(pattern = "Iterator", justification = "Concrete Iterator")
+public class CompositeContainerIterator implements ContainerIterator
+{
+    private final Iterator<? extends ContainerCollection> parts;
+    private ContainerIterator current;
+
+    /**
+     *  This method initializes the iterator over the given collections.
+     *  @param parts The collections to traverse, in order.
+     */
+    public CompositeContainerIterator(Iterable<? extends ContainerCollection> parts)
+    {
+        this.parts = parts.iterator();
+    }
+
+    /**
+     *  This method checks if there are more containers to traverse,
+     *  moving on to the next collection when the current one is exhausted.
+     *  @return {@code true} if one of the remaining collections still has containers.
+     */
+    @Override
+    public boolean hasNext()
+    {
+        while (current == null || !current.hasNext())
+        {
+            if (!parts.hasNext())
+            {
+                return false;
+            }
+            current = parts.next().createIterator();
+        }
+        return true;
+    }
+
+    /**
+     *  This method returns the next {@link Container} and advances the cursor.
+     *  @return The next container of the current collection.
+     *  @throws NoSuchElementException If all the collections have been traversed.
+     */
+    @Override
+    public Container next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
@@ -1,4 +1,7 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 
@@ -33,4 +36,34 @@ public interface ContainerCollection
      *  @return The {@link Container} object at the given index.
      */
     Container getContainerAt(int index);
-}
\ No newline at end of file
+
+    /**
+     *  This method produces a splittable iterator over the collection, used by the streams.
+     *  The default implementation walks the positions of the collection through {@link #getContainerAt(int)};
+     *  collections that can be modified concurrently override it to traverse a snapshot instead.
+     *  @return A sized {@link Spliterator} over the containers.
+     */
+    default Spliterator<Container> spliterator()
+    {
+        return new ContainerSpliterator(this);
+    }
+
+    /**
+     *  This method returns a sequential stream over the containers of the collection.
+     *  @return A {@link Stream} of containers.
+     */
+    default Stream<Container> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     *  This method returns a parallel stream over the containers of the collection,
+     *  processed by the common fork-join pool.
+     *  @return A parallel {@link Stream} of containers.
+     */
+    default Stream<Container> parallelStream()
+    {
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
@@ -0,0 +1,116 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is a splittable iterator over the positions of a ContainerCollection,
+ *  used to traverse the collection with sequential and parallel streams.
+ *  In the Iterator Design Pattern, this class acts as a Concrete Iterator.
+ *  Like the {@link TerminalContainerIterator}, it reads the containers through {@link ContainerCollection#getContainerAt(int)},
+ *  and it is split in halves of the remaining range, so every part knows its exact size.
+ *  The size of the collection is read when the traversal starts, and the collection is not expected
+ *  to change until the traversal ends.
+ */
+@AppDesignPattern(pattern = "Iterator", justification = "Concrete Iterator")
+public class ContainerSpliterator implements Spliterator<Container>
+{
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    private static final int SNAPSHOT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
+    private final ContainerCollection collection;
+    private int currentIndex;
+    private int fence;
+
+    /**
+     *  This method initializes a spliterator over the whole collection.
+     *  @param collection The collection to traverse.
+     */
+    public ContainerSpliterator(ContainerCollection collection)
+    {
+        this(collection, 0, -1);
+    }
+
+    private ContainerSpliterator(ContainerCollection collection, int origin, int fence)
+    {
+        this.collection = collection;
+        this.currentIndex = origin;
+        this.fence = fence;
+    }
+
+    /**
+     *  This method creates a spliterator over an immutable snapshot of containers,
+     *  for the collections that copy their content before traversing it.
+     *  @param snapshot The containers to traverse. The array must not be modified afterwards.
+     *  @return A sized spliterator splitting the snapshot in halves.
+     */
+    public static Spliterator<Container> ofSnapshot(Container[] snapshot)
+    {
+        return Spliterators.spliterator(snapshot, SNAPSHOT_CHARACTERISTICS);
+    }
+
+    /**
+     *  This method binds the end of the traversal to the size of the collection on first use.
+     */
+    private int getFence()
+    {
+        if (fence < 0)
+        {
+            fence = collection.getSize();
+        }
+        return fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Container> action)
+    {
+        if (currentIndex < getFence())
+        {
+            action.accept(collection.getContainerAt(currentIndex++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Container> action)
+    {
+        int end = getFence();
+        while (currentIndex < end)
+        {
+            action.accept(collection.getContainerAt(currentIndex++));
+        }
+    }
+
+    /**
+     *  This method hands the first half of the remaining range to a new spliterator.
+     *  @return The spliterator covering the first half, or {@code null} if less than two containers remain.
+     */
+    @Override
+    public Spliterator<Container> trySplit()
+    {
+        int end = getFence();
+        int middle = (currentIndex + end) >>> 1;
+        if (middle <= currentIndex)
+        {
+            return null;
+        }
+        ContainerSpliterator prefix = new ContainerSpliterator(collection, currentIndex, middle);
+        currentIndex = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return getFence() - currentIndex;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return CHARACTERISTICS;
+    }
+}
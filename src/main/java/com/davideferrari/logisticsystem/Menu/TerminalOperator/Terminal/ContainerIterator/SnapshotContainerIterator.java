@@ -0,0 +1,46 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is a concrete implementation of the ContainerIterator interface
+ *  that traverses an immutable snapshot of a ContainerCollection.
+ *  In the Iterator Design Pattern, this class acts as a Concrete Iterator.
+ *  The snapshot is captured when the iterator is created, so the traversal is never affected
+ *  by containers being added or removed afterwards, and no lock is held while iterating.
+ */
+@AppDesignPattern(pattern = "Iterator", justification = "Concrete Iterator")
+public class SnapshotContainerIterator implements ContainerIterator
+{
+    private final Container[] snapshot;
+    private int currentIndex = 0;
+
+    /**
+     *  This method initializes the iterator over a snapshot of containers.
+     *  @param snapshot The containers to traverse. The array must not be modified afterwards.
+     */
+    public SnapshotContainerIterator(Container[] snapshot)
+    {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     *  This method checks if there are more containers in the snapshot to traverse.
+     *  @return {@code true} if the current index is less than the snapshot size.
+     */
+    @Override
+    public boolean hasNext()
+    {
+        return currentIndex < snapshot.length;
+    }
+
+    /**
+     *  This method returns the next {@link Container} of the snapshot and advances the cursor.
+     *  @return The container at the current index.
+     */
+    @Override
+    public Container next()
+    {
+        return snapshot[currentIndex ++];
+    }
+}
@@ -0,0 +1,45 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This interface defines the callbacks fired by a Container whenever one of its indexed
+ *  properties (state, goods, location) changes.
+ *  In the Observer Design Pattern, this interface acts as the Observer, while the Container is the Subject.
+ *  It allows registers and terminals to keep their indexes up to date incrementally,
+ *  instead of rescanning every container to find out what changed.
+ *  All the methods have an empty default implementation, so observers only override what they need.
+ */
+@AppDesignPattern(pattern = "Observer", justification = "Observer Interface")
+public interface ContainerObserver
+{
+    /**
+     *  This method is called after the state of an observed container has changed.
+     *  @param container The container that changed.
+     *  @param oldState  The previous state.
+     *  @param newState  The current state.
+     */
+    default void stateChanged(Container container, Container.ContainerState oldState, Container.ContainerState newState)
+    {
+    }
+
+    /**
+     *  This method is called after the goods of an observed container have changed.
+     *  @param container The container that changed.
+     *  @param oldGoods  The previous goods type.
+     *  @param newGoods  The current goods type.
+     */
+    default void goodsChanged(Container container, Container.GoodsType oldGoods, Container.GoodsType newGoods)
+    {
+    }
+
+    /**
+     *  This method is called after the location of an observed container has changed.
+     *  @param container   The container that changed.
+     *  @param oldLocation The previous location.
+     *  @param newLocation The current location.
+     */
+    default void locationChanged(Container container, String oldLocation, String newLocation)
+    {
+    }
+}
@@ -0,0 +1,136 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  This class converts standard container codes into a single primitive {@code long} and back.
+ *  A standard code is made of 4 letters followed by 8 digits (e.g., "MSDU12345678"),
+ *  as produced by the Terminal Operator Menu. Each letter is packed into 5 bits and the
+ *  numeric part into the lowest 27 bits, so a code fits into 47 bits and can be hashed and
+ *  compared without creating or inspecting any String.
+ *  Codes that do not follow the standard format cannot be packed, and the callers are expected
+ *  to fall back to their textual form.
+ */
+public final class ContainerCodeCodec
+{
+    /**
+     *  Value returned by {@link #encode(String)} when a code does not follow the standard format.
+     *  It can never be produced by a valid code, since packed codes are always positive.
+     */
+    public static final long NOT_ENCODABLE = -1L;
+
+    private static final int LETTERS = 4;
+    private static final int DIGITS = 8;
+    private static final int LETTER_BITS = 5;
+    private static final int NUMBER_BITS = 27;
+    private static final long MAX_NUMBER = 99_999_999L;
+
+    /**
+     *  This constructor is private since the class only exposes static helpers.
+     */
+    private ContainerCodeCodec()
+    {
+    }
+
+    /**
+     *  This method packs a container code into a {@code long}.
+     *  The code is trimmed and compared case-insensitively, like in the container register.
+     *  @param containerCode The code to pack (e.g., "msdu12345678").
+     *  @return The packed code, or {@link #NOT_ENCODABLE} if the code is not made of 4 letters and 8 digits.
+     */
+    public static long encode(String containerCode)
+    {
+        if (containerCode == null)
+        {
+            return NOT_ENCODABLE;
+        }
+        String code = containerCode.trim();
+        if (code.length() != LETTERS + DIGITS)
+        {
+            return NOT_ENCODABLE;
+        }
+        long packed = 0;
+        for (int i = 0; i < LETTERS; i++)
+        {
+            char c = Character.toUpperCase(code.charAt(i));
+            if (c < 'A' || c > 'Z')
+            {
+                return NOT_ENCODABLE;
+            }
+            packed = (packed << LETTER_BITS) | (c - 'A');
+        }
+        long number = 0;
+        for (int i = LETTERS; i < LETTERS + DIGITS; i++)
+        {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return NOT_ENCODABLE;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return (packed << NUMBER_BITS) | number;
+    }
+
+    /**
+     *  This method rebuilds the upper-case textual code from its packed form.
+     *  @param packedCode A value produced by {@link #encode(String)}.
+     *  @return The container code (e.g., "MSDU12345678").
+     *  @throws IllegalArgumentException If the value is not a packed code.
+     */
+    public static String decode(long packedCode)
+    {
+        if (packedCode < 0 || (packedCode >>> (NUMBER_BITS + LETTERS * LETTER_BITS)) != 0)
+        {
+            throw new IllegalArgumentException("Not a packed container code: " + packedCode);
+        }
+        char[] code = new char[LETTERS + DIGITS];
+        long number = packedCode & ((1L << NUMBER_BITS) - 1);
+        for (int i = LETTERS + DIGITS - 1; i >= LETTERS; i--)
+        {
+            code[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        long letters = packedCode >>> NUMBER_BITS;
+        for (int i = LETTERS - 1; i >= 0; i--)
+        {
+            code[i] = (char) ('A' + (letters & ((1 << LETTER_BITS) - 1)));
+            letters >>>= LETTER_BITS;
+        }
+        return new String(code);
+    }
+
+    /**
+     *  This method generates a range of consecutive standard codes sharing the same owner letters,
+     *  by incrementing the numeric part of the first code.
+     *  @param firstCode The first code of the range (e.g., "MSDU00000001").
+     *  @param count     The number of codes to generate.
+     *  @return The upper-case codes, in increasing order.
+     *  @throws IllegalArgumentException If the first code is not standard, the count is negative,
+     *                                   or the range goes beyond the last serial number.
+     */
+    public static List<String> range(String firstCode, int count)
+    {
+        long first = encode(firstCode);
+        if (first == NOT_ENCODABLE)
+        {
+            throw new IllegalArgumentException("Not a standard container code: " + firstCode);
+        }
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("Invalid number of codes: " + count);
+        }
+        long number = first & ((1L << NUMBER_BITS) - 1);
+        if (number + count - 1 > MAX_NUMBER)
+        {
+            throw new IllegalArgumentException("The range starting at " + firstCode + " exceeds the last serial number");
+        }
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            codes.add(decode(first + i));
+        }
+        return codes;
+    }
+}
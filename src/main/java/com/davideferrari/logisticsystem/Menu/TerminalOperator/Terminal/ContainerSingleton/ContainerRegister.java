@@ -1,34 +1,172 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton;
 
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.TerminalContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.ContainerObserver;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage.ContainerStore;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
 
 /**
  *  This class represents the central registry for all containers within the logistics system,
  *  and implements the Singleton Design Pattern to ensure that there is only
- *  one global source of truth for all containers currently in existence. 
+ *  one global source of truth for all containers currently in existence.
  *  It also acts as an Aggregate in the Iterator pattern, allowing the system to traverse the global list.
- *  Thread Safety: Modification methods are synchronized to allow safe concurrent access.
+ *  Thread Safety: The containers are kept in concurrent maps, and every modification only locks
+ *  one of several stripes, so that operators and trucks can register containers in parallel.
+ *  Readers never lock: full traversals work on an immutable snapshot, which is rebuilt only after a modification
+ *  and validated against the stripe versions to guarantee it reflects a consistent state, while the size
+ *  is kept in a counter, so that it can be read between two modifications without copying the register.
+ *  Lookups by code go through a per-stripe index of packed codes (see {@link ContainerCodeCodec}).
+ *  Secondary indexes by goods type, state and location are maintained incrementally: the register
+ *  observes every registered container, so queries such as "FULL_EXPORT food containers in Busan"
+ *  only touch the matching containers.
+ *  The whole-yard figures are kept up to date in the same way: the total weights are counters maintained on
+ *  registration and removal, and the occupancy per location is read from the sizes of the location index.
+ *  The register holds the container objects themselves: yards that must not keep one object per container
+ *  are kept as records in a {@link ContainerStore} instead.
  */
 @CapacityLimit(value = 20)
 @AppDesignPattern(pattern = "Singleton", justification = "Ensures a single global register")
 public class ContainerRegister implements ContainerCollection
 {
+    private static final int STRIPES = 16;
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
 
-    private List<Container> commonRegister = new ArrayList<>();
+    /**
+     *  Registered containers ordered by their registration sequence number,
+     *  and the reverse mapping used to locate their entries when a container is removed.
+     */
+    private final ConcurrentSkipListMap<Long, Container> commonRegister = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Container, Long> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong tareWeight = new AtomicLong();
+    private final AtomicLong maxPayload = new AtomicLong();
+
+    /**
+     *  Secondary indexes of the registered containers. The enum maps are filled once in the constructor
+     *  and never modified afterwards, while the sets they hold are concurrent.
+     */
+    private final Map<Container.ContainerState, Set<Container>> stateIndex = new EnumMap<>(Container.ContainerState.class);
+    private final Map<Container.GoodsType, Set<Container>> goodsIndex = new EnumMap<>(Container.GoodsType.class);
+    private final ConcurrentHashMap<String, Set<Container>> locationIndex = new ConcurrentHashMap<>();
+    private final ContainerObserver indexUpdater = new IndexUpdater();
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private volatile Snapshot snapshot;
+
+    /**
+     *  This inner class represents one lock stripe of the register.
+     *  The version works as a sequence lock: it is odd while a modification is in progress under the
+     *  stripe lock, and even again once it has completed, so readers can validate lock-free lookups.
+     *  Each stripe also owns the code index of the codes hashed to it: standard codes are packed
+     *  into a {@code long} by the {@link ContainerCodeCodec} and kept in a primitive map, so duplicate
+     *  checks and lookups neither hash nor compare Strings. Non-standard codes use a regular map.
+     */
+    private static class Stripe
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long version;
+        private final LongContainerMap packedCodes = new LongContainerMap();
+        private final HashMap<String, Container> otherCodes = new HashMap<>();
+
+        /**
+         *  This method locks the stripe for a modification, making its version odd until {@link #endWrite()}.
+         *  The fence keeps the modification from becoming visible before the odd version.
+         */
+        private void beginWrite()
+        {
+            lock.lock();
+            version++;
+            VarHandle.storeStoreFence();
+        }
+
+        private void endWrite()
+        {
+            version++;
+            lock.unlock();
+        }
+
+        private Container findCode(String code)
+        {
+            long packed = ContainerCodeCodec.encode(code);
+            return packed != ContainerCodeCodec.NOT_ENCODABLE ? packedCodes.get(packed) : otherCodes.get(normalizeCode(code));
+        }
+
+        private Container claimCode(String code, Container container)
+        {
+            long packed = ContainerCodeCodec.encode(code);
+            return packed != ContainerCodeCodec.NOT_ENCODABLE ? packedCodes.putIfAbsent(packed, container) : otherCodes.putIfAbsent(normalizeCode(code), container);
+        }
+
+        private void releaseCode(String code, Container container)
+        {
+            long packed = ContainerCodeCodec.encode(code);
+            if (packed != ContainerCodeCodec.NOT_ENCODABLE)
+            {
+                packedCodes.remove(packed, container);
+            }
+            else
+            {
+                otherCodes.remove(normalizeCode(code), container);
+            }
+        }
+    }
+
+    /**
+     *  This inner class holds an immutable view of the register, together with the
+     *  stripe versions it was built from.
+     */
+    private static class Snapshot
+    {
+        private final long[] versions;
+        private final Container[] containers;
+
+        private Snapshot(long[] versions, Container[] containers)
+        {
+            this.versions = versions;
+            this.containers = containers;
+        }
+    }
 
     /**
      *  This method is set to private in order to prevent direct instantiation.
      */
     private ContainerRegister()
     {
-        this.commonRegister = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++)
+        {
+            stripes[i] = new Stripe();
+        }
+        this.snapshot = new Snapshot(new long[STRIPES], new Container[0]);
+        for (Container.ContainerState state : Container.ContainerState.values())
+        {
+            stateIndex.put(state, ConcurrentHashMap.newKeySet());
+        }
+        for (Container.GoodsType goods : Container.GoodsType.values())
+        {
+            goodsIndex.put(goods, ConcurrentHashMap.newKeySet());
+        }
     }
 
     /**
@@ -50,51 +188,702 @@ public class ContainerRegister implements ContainerCollection
         return ContainerRegisterHelper.INSTANCE;
     }
 
+    /**
+     *  This method returns a consistent, read-only snapshot of the registered containers.
+     *  Later modifications of the register are not reflected in the returned list.
+     *  @return An unmodifiable list of the containers, in registration order.
+     */
     public List<Container> displayContainers()
     {
-        return commonRegister;
+        return Collections.unmodifiableList(Arrays.asList(currentSnapshot().containers));
     }
 
     /**
-     *  This method adds a container to the global registry,
-     *  and it is synchronized to prevent race conditions during concurrent additions.
+     *  This method adds a container to the global registry.
+     *  Only the stripe owning the container is locked, so concurrent additions rarely contend.
      *  @param container The container to register.
      */
-    public synchronized void addContainer(Container container)
+    public void addContainer(Container container)
     {
-        commonRegister.add(container);
+        Stripe stripe = stripeFor(container);
+        stripe.beginWrite();
+        try
+        {
+            insert(stripe, container);
+        }
+        finally
+        {
+            stripe.endWrite();
+        }
     }
 
     /**
-     *  This method removes a container from the global registry.
-     *  and it is synchronized to ensure safe removal in a multi-threaded context.
+     *  This method registers a container only if its code is not already in use,
+     *  and the check and the insertion are performed atomically, so two terminals
+     *  can never register the same code at the same time.
+     *  @param container The container to register.
+     *  @return {@code true} if the container was registered, {@code false} if its code is a duplicate.
+     */
+    public boolean addContainerIfAbsent(Container container)
+    {
+        Stripe stripe = stripeFor(container);
+        stripe.beginWrite();
+        try
+        {
+            String code = container.getContainerCode();
+            if (code != null && stripe.claimCode(code, container) != null)
+            {
+                return false;
+            }
+            insert(stripe, container);
+            return true;
+        }
+        finally
+        {
+            stripe.endWrite();
+        }
+    }
+
+    /**
+     *  This method registers a batch of containers, skipping the ones whose code is already in use
+     *  (including codes repeated within the batch) and the ones already registered.
+     *  The containers are grouped by stripe, so each stripe is locked once for the whole batch,
+     *  and the check and the insertion of each container are atomic like in {@link #addContainerIfAbsent(Container)}.
+     *  The accepted containers keep the order of the batch in the register.
+     *  @param containers The containers to register.
+     *  @param location   The location assigned to every accepted container before it is indexed,
+     *                    or {@code null} to leave the locations unchanged.
+     *  @return The registered containers, in the order of the batch.
+     */
+    public List<Container> addContainersIfAbsent(List<? extends Container> containers, String location)
+    {
+        int size = containers.size();
+        long firstSequence = nextSequence.getAndAdd(size);
+        int[] stripeOf = new int[size];
+        int[] perStripe = new int[STRIPES];
+        for (int i = 0; i < size; i++)
+        {
+            stripeOf[i] = stripeIndexFor(containers.get(i));
+            perStripe[stripeOf[i]]++;
+        }
+        boolean[] accepted = new boolean[size];
+        for (int s = 0; s < STRIPES; s++)
+        {
+            if (perStripe[s] == 0)
+            {
+                continue;
+            }
+            Stripe stripe = stripes[s];
+            stripe.beginWrite();
+            try
+            {
+                for (int i = 0; i < size; i++)
+                {
+                    if (stripeOf[i] != s)
+                    {
+                        continue;
+                    }
+                    Container container = containers.get(i);
+                    String code = container.getContainerCode();
+                    if (entries.containsKey(container) || (code != null && stripe.claimCode(code, container) != null))
+                    {
+                        continue;
+                    }
+                    if (location != null)
+                    {
+                        container.setLocation(location);
+                    }
+                    insert(stripe, container, firstSequence + i);
+                    accepted[i] = true;
+                }
+            }
+            finally
+            {
+                stripe.endWrite();
+            }
+        }
+        List<Container> registered = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            if (accepted[i])
+            {
+                registered.add(containers.get(i));
+            }
+        }
+        return registered;
+    }
+
+    /**
+     *  This method removes a container from the global registry,
+     *  locking only the stripe owning the container.
      *  @param container The container to deregister.
      */
-    public synchronized void removeContainer(Container container)
+    public void removeContainer(Container container)
+    {
+        Stripe stripe = stripeFor(container);
+        stripe.beginWrite();
+        try
+        {
+            Long sequence = entries.remove(container);
+            if (sequence != null)
+            {
+                commonRegister.remove(sequence);
+                size.decrementAndGet();
+                tareWeight.addAndGet(-container.getTareWeight());
+                maxPayload.addAndGet(-Math.round(container.getMaxPayload()));
+                container.removeObserver(indexUpdater);
+                unindex(container, container.getContainerState(), container.getGoods(), container.getLocation());
+                String code = container.getContainerCode();
+                if (code != null)
+                {
+                    stripe.releaseCode(code, container);
+                }
+            }
+        }
+        finally
+        {
+            stripe.endWrite();
+        }
+    }
+
+    /**
+     *  This method retrieves a registered container by its code in constant time,
+     *  and the comparison is case-insensitive, ignoring surrounding whitespace.
+     *  Standard codes are looked up without locking: the lookup is only accepted if the stripe version
+     *  was even and unchanged around it, like the snapshot reads. If writers keep interfering, or the code
+     *  is not a standard one, the stripe is locked for the lookup.
+     *  @param containerCode The code of the container to look for.
+     *  @return The matching {@link Container}, or {@code null} if no container is registered with that code.
+     */
+    public Container findByCode(String containerCode)
+    {
+        if (containerCode == null)
+        {
+            return null;
+        }
+        Stripe stripe = stripeForCode(containerCode);
+        long packed = ContainerCodeCodec.encode(containerCode);
+        if (packed != ContainerCodeCodec.NOT_ENCODABLE)
+        {
+            for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++)
+            {
+                long version = stripe.version;
+                if ((version & 1) == 0)
+                {
+                    Container found = stripe.packedCodes.get(packed);
+                    VarHandle.acquireFence();
+                    if (stripe.version == version)
+                    {
+                        return found;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+        stripe.lock.lock();
+        try
+        {
+            return stripe.findCode(containerCode);
+        }
+        finally
+        {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     *  This method checks whether a container code is already in use within the logistics system.
+     *  @param containerCode The code to validate.
+     *  @return {@code true} if a registered container already has this code.
+     */
+    public boolean containsCode(String containerCode)
+    {
+        return findByCode(containerCode) != null;
+    }
+
+    /**
+     *  This method retrieves all the registered containers currently in the given state.
+     *  @param state The state to look for (e.g., EMPTY).
+     *  @return A new list with the matching containers.
+     */
+    public List<Container> findByState(Container.ContainerState state)
+    {
+        return query(state, null, null);
+    }
+
+    /**
+     *  This method retrieves all the registered containers currently holding the given goods.
+     *  @param goods The goods type to look for (e.g., FOOD).
+     *  @return A new list with the matching containers.
+     */
+    public List<Container> findByGoods(Container.GoodsType goods)
+    {
+        return query(null, goods, null);
+    }
+
+    /**
+     *  This method retrieves all the registered containers currently at the given location.
+     *  @param location The exact location (e.g., "Busan Export Sub-Terminal").
+     *  @return A new list with the matching containers.
+     */
+    public List<Container> findByLocation(String location)
+    {
+        return query(null, null, location);
+    }
+
+    /**
+     *  This method retrieves the registered containers matching all the given criteria,
+     *  where a {@code null} criterion matches any value.
+     *  Only the smallest of the selected index buckets is traversed, and the other criteria
+     *  are checked through constant-time membership tests on their buckets.
+     *  @param state    The required state, or {@code null}.
+     *  @param goods    The required goods type, or {@code null}.
+     *  @param location The required location, or {@code null}.
+     *  @return A new list with the matching containers.
+     */
+    public List<Container> query(Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        List<Container> result = new ArrayList<>();
+        List<Set<Container>> buckets = selectBuckets(state, goods, location);
+        if (buckets == null)
+        {
+            result.addAll(displayContainers());
+            return result;
+        }
+        for (Container container : buckets.get(0))
+        {
+            if (matchesAll(container, buckets))
+            {
+                result.add(container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  This method counts the registered containers matching all the given criteria,
+     *  where a {@code null} criterion matches any value.
+     *  @param state    The required state, or {@code null}.
+     *  @param goods    The required goods type, or {@code null}.
+     *  @param location The required location, or {@code null}.
+     *  @return The number of matching containers.
+     */
+    public int count(Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        List<Set<Container>> buckets = selectBuckets(state, goods, location);
+        if (buckets == null)
+        {
+            return getSize();
+        }
+        if (buckets.size() == 1)
+        {
+            return buckets.get(0).size();
+        }
+        int count = 0;
+        for (Container container : buckets.get(0))
+        {
+            if (matchesAll(container, buckets))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     *  This method retrieves any one registered container matching all the given criteria.
+     *  @param state    The required state, or {@code null}.
+     *  @param goods    The required goods type, or {@code null}.
+     *  @param location The required location, or {@code null}.
+     *  @return A matching container, or {@code null} if there is none.
+     */
+    public Container findFirst(Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        List<Set<Container>> buckets = selectBuckets(state, goods, location);
+        if (buckets == null)
+        {
+            Map.Entry<Long, Container> first = commonRegister.firstEntry();
+            return first == null ? null : first.getValue();
+        }
+        for (Container container : buckets.get(0))
+        {
+            if (matchesAll(container, buckets))
+            {
+                return container;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *  This method collects the index buckets of the given criteria, with the smallest one first.
+     *  @return The selected buckets, or {@code null} if no criterion was given.
+     */
+    private List<Set<Container>> selectBuckets(Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        List<Set<Container>> buckets = new ArrayList<>(3);
+        if (state != null)
+        {
+            buckets.add(stateIndex.get(state));
+        }
+        if (goods != null)
+        {
+            buckets.add(goodsIndex.get(goods));
+        }
+        if (location != null)
+        {
+            buckets.add(locationIndex.getOrDefault(location, Collections.emptySet()));
+        }
+        if (buckets.isEmpty())
+        {
+            return null;
+        }
+        buckets.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        return buckets;
+    }
+
+    private static boolean matchesAll(Container container, List<Set<Container>> buckets)
     {
-        commonRegister.remove(container);
+        for (int i = 1; i < buckets.size(); i++)
+        {
+            if (!buckets.get(i).contains(container))
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     *  This method creates an iterator to traverse the registered containers.
-     *  @return A {@link TerminalContainerIterator} for this registry.
+     *  This method returns the total tare weight of the registered containers from its counter, in constant time.
+     *  @return The sum of the tare weights, in kg.
+     */
+    public long totalTareWeight()
+    {
+        return tareWeight.get();
+    }
+
+    /**
+     *  This method returns the total maximum payload of the registered containers from its counter, in constant time.
+     *  Each payload is counted in whole kilograms, rounded to the nearest one.
+     *  @return The sum of the maximum payloads, in kg.
+     */
+    public long totalMaxPayload()
+    {
+        return maxPayload.get();
+    }
+
+    /**
+     *  This method counts the registered containers at every location from the location index,
+     *  in time proportional to the number of locations.
+     *  @return A map from each occupied location to its number of containers.
+     */
+    public Map<String, Integer> occupancyByLocation()
+    {
+        Map<String, Integer> occupancy = new HashMap<>();
+        locationIndex.forEach((location, bucket) ->
+        {
+            int count = bucket.size();
+            if (count > 0)
+            {
+                occupancy.put(location, count);
+            }
+        });
+        return occupancy;
+    }
+
+    /**
+     *  This method creates an iterator over a snapshot of the registered containers,
+     *  so the traversal is consistent and does not block concurrent modifications.
+     *  @return A {@link SnapshotContainerIterator} for this registry.
      */
     @Override
     public ContainerIterator createIterator()
     {
-        return new TerminalContainerIterator(this);
+        return new SnapshotContainerIterator(currentSnapshot().containers);
     }
 
+    /**
+     *  This method creates a splittable iterator over the cached snapshot of the register,
+     *  so parallel streams split a plain array and never contend with concurrent modifications.
+     *  @return A sized spliterator over the registered containers.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        return ContainerSpliterator.ofSnapshot(currentSnapshot().containers);
+    }
+
+    /**
+     *  This method returns the number of registered containers from the size counter, without taking a snapshot.
+     *  @return The number of registered containers.
+     */
     @Override
     public int getSize()
     {
-        return commonRegister.size();
+        return size.get();
     }
 
+    /**
+     *  This method retrieves the container at a position of the registration order, from the cached snapshot.
+     *  Between two modifications the lookup is constant time. After a modification the snapshot is rebuilt once,
+     *  in O(n), and then reused by the following lookups, so an indexed loop only pays for the rebuilds caused by
+     *  concurrent writers: while writers are active, such a loop may rebuild the snapshot at every step.
+     *  Full traversals should use {@link #createIterator()} or {@link #spliterator()}, which read a single snapshot.
+     *  @param index The position of the container.
+     *  @return The container at that position.
+     *  @throws IndexOutOfBoundsException If no container is registered at that position.
+     */
     @Override
     public Container getContainerAt(int index)
     {
-        return commonRegister.get(index);
+        Container[] containers = currentSnapshot().containers;
+        if (index < 0 || index >= containers.length)
+        {
+            throw new IndexOutOfBoundsException("No container registered at position " + index);
+        }
+        return containers[index];
+    }
+
+    /**
+     *  This method stores the container in the register structures.
+     *  It must be called while holding the lock of the stripe owning the container.
+     */
+    private void insert(Stripe stripe, Container container)
+    {
+        if (!entries.containsKey(container))
+        {
+            insert(stripe, container, nextSequence.getAndIncrement());
+        }
+    }
+
+    /**
+     *  This method stores a container that is not registered yet under a pre-allocated sequence number.
+     *  It must be called while holding the lock of the stripe owning the container.
+     */
+    private void insert(Stripe stripe, Container container, long sequence)
+    {
+        entries.put(container, sequence);
+        commonRegister.put(sequence, container);
+        size.incrementAndGet();
+        tareWeight.addAndGet(container.getTareWeight());
+        maxPayload.addAndGet(Math.round(container.getMaxPayload()));
+        String code = container.getContainerCode();
+        if (code != null)
+        {
+            stripe.claimCode(code, container);
+        }
+        container.addObserver(indexUpdater);
+        index(container, container.getContainerState(), container.getGoods(), container.getLocation());
+    }
+
+    private void index(Container container, Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        if (state != null)
+        {
+            stateIndex.get(state).add(container);
+        }
+        if (goods != null)
+        {
+            goodsIndex.get(goods).add(container);
+        }
+        if (location != null)
+        {
+            locationIndex.compute(location, (l, set) ->
+            {
+                Set<Container> bucket = set == null ? ConcurrentHashMap.newKeySet() : set;
+                bucket.add(container);
+                return bucket;
+            });
+        }
+    }
+
+    private void unindex(Container container, Container.ContainerState state, Container.GoodsType goods, String location)
+    {
+        if (state != null)
+        {
+            stateIndex.get(state).remove(container);
+        }
+        if (goods != null)
+        {
+            goodsIndex.get(goods).remove(container);
+        }
+        if (location != null)
+        {
+            locationIndex.computeIfPresent(location, (l, set) -> set.remove(container) && set.isEmpty() ? null : set);
+        }
+    }
+
+    /**
+     *  This inner class keeps the secondary indexes in line with the registered containers.
+     *  In the Observer Design Pattern, it acts as a Concrete Observer. Every update is done under the
+     *  stripe lock of the container, so it cannot interleave with the container's removal.
+     */
+    private class IndexUpdater implements ContainerObserver
+    {
+        @Override
+        public void stateChanged(Container container, Container.ContainerState oldState, Container.ContainerState newState)
+        {
+            reindex(container, () ->
+            {
+                unindex(container, oldState, null, null);
+                index(container, newState, null, null);
+            });
+        }
+
+        @Override
+        public void goodsChanged(Container container, Container.GoodsType oldGoods, Container.GoodsType newGoods)
+        {
+            reindex(container, () ->
+            {
+                unindex(container, null, oldGoods, null);
+                index(container, null, newGoods, null);
+            });
+        }
+
+        @Override
+        public void locationChanged(Container container, String oldLocation, String newLocation)
+        {
+            reindex(container, () ->
+            {
+                unindex(container, null, null, oldLocation);
+                index(container, null, null, newLocation);
+            });
+        }
+
+        private void reindex(Container container, Runnable update)
+        {
+            Stripe stripe = stripeFor(container);
+            stripe.lock.lock();
+            try
+            {
+                if (entries.containsKey(container))
+                {
+                    update.run();
+                }
+            }
+            finally
+            {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     *  This method returns the cached snapshot, rebuilding it if a modification happened since it was taken.
+     *  The rebuild is optimistic: the stripe versions are read before and after copying the containers, and
+     *  the copy is only accepted if no modification was in progress or completed in between. If writers keep interfering,
+     *  all the stripes are locked briefly to take the copy.
+     *  @return A snapshot reflecting a consistent state of the register.
+     */
+    private Snapshot currentSnapshot()
+    {
+        Snapshot cached = this.snapshot;
+        long[] versions = readVersions();
+        if (Arrays.equals(versions, cached.versions))
+        {
+            return cached;
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++)
+        {
+            Container[] containers = commonRegister.values().toArray(new Container[0]);
+            long[] after = readVersions();
+            if (Arrays.equals(versions, after) && isStable(versions))
+            {
+                return publish(new Snapshot(versions, containers));
+            }
+            versions = after;
+        }
+        for (Stripe stripe : stripes)
+        {
+            stripe.lock.lock();
+        }
+        try
+        {
+            return publish(new Snapshot(readVersions(), commonRegister.values().toArray(new Container[0])));
+        }
+        finally
+        {
+            for (Stripe stripe : stripes)
+            {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private Snapshot publish(Snapshot built)
+    {
+        this.snapshot = built;
+        return built;
+    }
+
+    private static boolean isStable(long[] versions)
+    {
+        for (long version : versions)
+        {
+            if ((version & 1) != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] readVersions()
+    {
+        long[] versions = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+        {
+            versions[i] = stripes[i].version;
+        }
+        return versions;
+    }
+
+    /**
+     *  This method selects the stripe owning a container: containers with a code are assigned by code,
+     *  so that the container and its code index entry are always guarded by the same lock,
+     *  while containers without a code are assigned by identity.
+     */
+    private Stripe stripeFor(Container container)
+    {
+        return stripes[stripeIndexFor(container)];
+    }
+
+    private int stripeIndexFor(Container container)
+    {
+        String code = container.getContainerCode();
+        if (code != null)
+        {
+            return stripeIndexForCode(code);
+        }
+        int hash = System.identityHashCode(container);
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private Stripe stripeForCode(String code)
+    {
+        return stripes[stripeIndexForCode(code)];
+    }
+
+    private static int stripeIndexForCode(String code)
+    {
+        long packed = ContainerCodeCodec.encode(code);
+        long hash = packed != ContainerCodeCodec.NOT_ENCODABLE ? LongContainerMap.mix(packed) : normalizeCode(code).hashCode();
+        return (int) (hash ^ (hash >>> 32)) & (STRIPES - 1);
+    }
+
+    /**
+     *  This method converts a non-standard container code into the key used by the code index.
+     *  @param containerCode The raw container code.
+     *  @return The trimmed, upper-case code, or {@code null} if no code was given.
+     */
+    private static String normalizeCode(String containerCode)
+    {
+        if (containerCode == null)
+        {
+            return null;
+        }
+        return containerCode.trim().toUpperCase(Locale.ROOT);
     }
 
 }
@@ -0,0 +1,198 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton;
+
+import java.util.Arrays;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+
+/**
+ *  This class is a hash map from primitive {@code long} keys to containers, used by the
+ *  ContainerRegister to index packed container codes (see {@link ContainerCodeCodec}).
+ *  It uses open addressing with linear probing over two parallel arrays, so there is no
+ *  boxing and no entry object per container. Removals shift the following entries back,
+ *  which keeps the probe sequences short without tombstones.
+ *  Keys must be non-negative. The class is not thread-safe: the register guards every
+ *  modification with the lock of the stripe owning it. Lookups may race with a modification:
+ *  they then return a stale or wrong result, but always terminate without failing, so the register
+ *  can validate them against the stripe version (see {@link ContainerRegister#findByCode(String)}).
+ */
+class LongContainerMap
+{
+    private static final long FREE = -1L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Container[] values;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     *  This method constructs an empty map.
+     */
+    LongContainerMap()
+    {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     *  This method retrieves the container mapped to a key.
+     *  @param key The packed code.
+     *  @return The container, or {@code null} if the key is not mapped.
+     */
+    Container get(long key)
+    {
+        long[] table = keys;
+        Container[] mapped = values;
+        if (table.length != mapped.length)
+        {
+            return null;
+        }
+        int mask = table.length - 1;
+        int slot = slotFor(key, mask);
+        for (int probes = 0; probes < table.length; probes++, slot = (slot + 1) & mask)
+        {
+            long current = table[slot];
+            if (current == FREE)
+            {
+                return null;
+            }
+            if (current == key)
+            {
+                return mapped[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     *  This method maps a key to a container, unless the key is already mapped.
+     *  @param key   The packed code.
+     *  @param value The container.
+     *  @return The container already mapped to the key, or {@code null} if the new mapping was stored.
+     */
+    Container putIfAbsent(long key, Container value)
+    {
+        int mask = keys.length - 1;
+        int slot = slotFor(key, mask);
+        while (keys[slot] != FREE)
+        {
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold)
+        {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     *  This method removes the mapping of a key, but only if it currently maps to the given container.
+     *  @param key   The packed code.
+     *  @param value The container expected to be mapped.
+     *  @return {@code true} if the mapping was removed.
+     */
+    boolean remove(long key, Container value)
+    {
+        int mask = keys.length - 1;
+        for (int slot = slotFor(key, mask); keys[slot] != FREE; slot = (slot + 1) & mask)
+        {
+            if (keys[slot] == key)
+            {
+                if (values[slot] != value)
+                {
+                    return false;
+                }
+                shiftBack(slot, mask);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *  This method closes the gap left by a removed entry, moving back every following entry
+     *  of the probe run that would otherwise become unreachable.
+     */
+    private void shiftBack(int gap, int mask)
+    {
+        int slot = gap;
+        while (true)
+        {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == FREE)
+            {
+                break;
+            }
+            int home = slotFor(key, mask);
+            boolean reachableFromGap = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (reachableFromGap)
+            {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        Container[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != FREE)
+            {
+                int slot = slotFor(oldKeys[i], mask);
+                while (keys[slot] != FREE)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new Container[capacity];
+        resizeThreshold = capacity * 3 / 4;
+    }
+
+    /**
+     *  This method spreads the key bits (MurmurHash3 finalizer), since packed codes
+     *  of the same owner only differ in their lowest bits.
+     */
+    static long mix(long key)
+    {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int slotFor(long key, int mask)
+    {
+        return (int) mix(key) & mask;
+    }
+}
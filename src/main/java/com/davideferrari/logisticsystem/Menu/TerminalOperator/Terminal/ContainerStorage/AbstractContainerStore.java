@@ -0,0 +1,696 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
+
+/**
+ *  This abstract class implements the behavior shared by the container stores: dense ids, stable handles,
+ *  dictionary-encoded locations and types, flyweight views, locking and whole-store scans.
+ *  The handles are kept in two primitive arrays mapping them to the ids and back, so a record can be
+ *  followed across removals without creating a view for it.
+ *  Subclasses only decide where the record fields live, by implementing the per-record accessors.
+ *  Thread Safety: Reads share a read lock, modifications take the write lock.
+ */
+abstract class AbstractContainerStore implements ContainerStore
+{
+    static final int INITIAL_CAPACITY = 64;
+    static final byte NO_ORDINAL = -1;
+    private static final int NO_RECORD = -1;
+    private static final Container.ContainerState[] STATES = Container.ContainerState.values();
+    private static final Container.GoodsType[] GOODS = Container.GoodsType.values();
+
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    final ValueDictionary locations = new ValueDictionary();
+    final ValueDictionary types = new ValueDictionary();
+
+    int size;
+    private ContainerView[] views = new ContainerView[INITIAL_CAPACITY];
+    private int[] handleIds = new int[INITIAL_CAPACITY];
+    private int[] idHandles = new int[INITIAL_CAPACITY];
+    private int[] freeHandles = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int handleCount;
+
+    /*
+     *  Record accessors implemented by the concrete stores. They are always called under the lock,
+     *  with a valid id.
+     */
+
+    abstract void resize(int capacity);
+
+    abstract void writeRecord(int id, String code, int tareWeight, double height, int maxPayload,
+                              byte state, byte goodsType, int locationId, int typeId);
+
+    abstract void moveRecord(int from, int to);
+
+    abstract void clearRecord(int id);
+
+    abstract String code(int id);
+
+    abstract void code(int id, String code);
+
+    abstract int tareWeight(int id);
+
+    abstract double height(int id);
+
+    abstract int maxPayload(int id);
+
+    abstract byte state(int id);
+
+    abstract void state(int id, byte state);
+
+    abstract byte goods(int id);
+
+    abstract void goods(int id, byte goodsType);
+
+    abstract int locationId(int id);
+
+    abstract void locationId(int id, int locationId);
+
+    abstract int typeId(int id);
+
+    @Override
+    public int add(Container container)
+    {
+        return add(container.getType(), container.getContainerCode(), container.getTareWeight(), container.getHeight(),
+                payloadOf(container), container.getContainerState(), container.getGoods(), container.getLocation());
+    }
+
+    @Override
+    public int add(String type, String code, int tareWeight, double height, int maxPayload,
+                   Container.ContainerState state, Container.GoodsType goodsType, String location)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            return insert(type, code, tareWeight, height, maxPayload, state, goodsType, location);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int addTracked(Container container)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            int id = insert(container.getType(), container.getContainerCode(), container.getTareWeight(), container.getHeight(),
+                    payloadOf(container), container.getContainerState(), container.getGoods(), container.getLocation());
+            return idHandles[id];
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeTracked(int handle)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            remove(idOfHandle(handle));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateState(int handle, Container.ContainerState state)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            state(idOfHandle(handle), ordinalOf(state));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateGoods(int handle, Container.GoodsType goodsType)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            goods(idOfHandle(handle), ordinalOf(goodsType));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateLocation(int handle, String location)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            locationId(idOfHandle(handle), locations.idOf(location));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *  This method returns the maximum payload of a container as stored in a record, in whole kilograms.
+     *  The payload is rounded to the nearest kilogram, as done by the load planners, instead of being truncated.
+     *  @param container The container to copy.
+     *  @return The rounded maximum payload.
+     */
+    private static int payloadOf(Container container)
+    {
+        return Math.toIntExact(Math.round(container.getMaxPayload()));
+    }
+
+    /**
+     *  This method appends a record and assigns it a handle, reusing the handles of removed records.
+     *  It must be called while holding the write lock.
+     *  @return The id of the new record.
+     */
+    private int insert(String type, String code, int tareWeight, double height, int maxPayload,
+                       Container.ContainerState state, Container.GoodsType goodsType, String location)
+    {
+        if (size == views.length)
+        {
+            int capacity = views.length << 1;
+            views = Arrays.copyOf(views, capacity);
+            handleIds = Arrays.copyOf(handleIds, capacity);
+            idHandles = Arrays.copyOf(idHandles, capacity);
+            resize(capacity);
+        }
+        int id = size++;
+        writeRecord(id, code, tareWeight, height, maxPayload, ordinalOf(state), ordinalOf(goodsType),
+                locations.idOf(location), types.idOf(type));
+        int handle = freeCount > 0 ? freeHandles[--freeCount] : handleCount++;
+        handleIds[handle] = id;
+        idHandles[id] = handle;
+        return id;
+    }
+
+    @Override
+    public void remove(int id)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            checkId(id);
+            int last = --size;
+            if (views[id] != null)
+            {
+                views[id].detach();
+            }
+            int released = idHandles[id];
+            handleIds[released] = NO_RECORD;
+            if (freeCount == freeHandles.length)
+            {
+                freeHandles = Arrays.copyOf(freeHandles, freeCount << 1);
+            }
+            freeHandles[freeCount++] = released;
+            if (id != last)
+            {
+                moveRecord(last, id);
+                views[id] = views[last];
+                if (views[id] != null)
+                {
+                    views[id].moveTo(id);
+                }
+                idHandles[id] = idHandles[last];
+                handleIds[idHandles[id]] = id;
+            }
+            clearRecord(last);
+            views[last] = null;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(ContainerView view)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            remove(idOf(view));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ContainerView view(int id)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            checkId(id);
+            if (views[id] == null)
+            {
+                views[id] = new ContainerView(this, id);
+            }
+            return views[id];
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long totalTareWeight()
+    {
+        lock.readLock().lock();
+        try
+        {
+            long total = 0;
+            for (int i = 0; i < size; i++)
+            {
+                total += tareWeight(i);
+            }
+            return total;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long totalMaxPayload()
+    {
+        lock.readLock().lock();
+        try
+        {
+            long total = 0;
+            for (int i = 0; i < size; i++)
+            {
+                total += maxPayload(i);
+            }
+            return total;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Container.ContainerState, Integer> countByState()
+    {
+        int[] counts = new int[STATES.length + 1];
+        lock.readLock().lock();
+        try
+        {
+            for (int i = 0; i < size; i++)
+            {
+                counts[state(i) + 1]++;
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        Map<Container.ContainerState, Integer> result = new EnumMap<>(Container.ContainerState.class);
+        for (Container.ContainerState state : STATES)
+        {
+            result.put(state, counts[state.ordinal() + 1]);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Container.GoodsType, Integer> countByGoods()
+    {
+        int[] counts = new int[GOODS.length + 1];
+        lock.readLock().lock();
+        try
+        {
+            for (int i = 0; i < size; i++)
+            {
+                counts[goods(i) + 1]++;
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        Map<Container.GoodsType, Integer> result = new EnumMap<>(Container.GoodsType.class);
+        for (Container.GoodsType type : GOODS)
+        {
+            result.put(type, counts[type.ordinal() + 1]);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> occupancyByLocation()
+    {
+        lock.readLock().lock();
+        try
+        {
+            int[] counts = new int[locations.size() + 1];
+            for (int i = 0; i < size; i++)
+            {
+                counts[locationId(i) + 1]++;
+            }
+            Map<String, Integer> result = new HashMap<>();
+            for (int id = 0; id < locations.size(); id++)
+            {
+                if (counts[id + 1] > 0)
+                {
+                    result.put(locations.valueOf(id), counts[id + 1]);
+                }
+            }
+            return result;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countAt(String location)
+    {
+        lock.readLock().lock();
+        try
+        {
+            int wanted = locations.find(location);
+            if (wanted == ValueDictionary.NO_VALUE)
+            {
+                return 0;
+            }
+            int count = 0;
+            for (int i = 0; i < size; i++)
+            {
+                if (locationId(i) == wanted)
+                {
+                    count++;
+                }
+            }
+            return count;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *  This method creates an iterator over the views of the records stored when it is called.
+     *  @return A {@link SnapshotContainerIterator} for this store.
+     */
+    @Override
+    public ContainerIterator createIterator()
+    {
+        return new SnapshotContainerIterator(snapshot());
+    }
+
+    /**
+     *  This method creates a splittable iterator over the views of the records stored when it is called.
+     *  @return A sized spliterator for this store.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        return ContainerSpliterator.ofSnapshot(snapshot());
+    }
+
+    @Override
+    public int getSize()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return size;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Container getContainerAt(int index)
+    {
+        return view(index);
+    }
+
+    /*
+     *  Record accessors used by the views. Each of them resolves the current id of the view under the lock,
+     *  so a view keeps working while other records are removed.
+     */
+
+    String codeOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return code(idOf(view));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    void setCode(ContainerView view, String code)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            code(idOf(view), code);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    String typeOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return types.valueOf(typeId(idOf(view)));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    int tareWeightOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return tareWeight(idOf(view));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    double heightOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return height(idOf(view));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    int maxPayloadOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return maxPayload(idOf(view));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    Container.ContainerState stateOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            byte ordinal = state(idOf(view));
+            return ordinal == NO_ORDINAL ? null : STATES[ordinal];
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *  This method replaces the state of a record.
+     *  @return The previous state.
+     */
+    Container.ContainerState setState(ContainerView view, Container.ContainerState newState)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            int id = idOf(view);
+            byte old = state(id);
+            state(id, ordinalOf(newState));
+            return old == NO_ORDINAL ? null : STATES[old];
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Container.GoodsType goodsOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            byte ordinal = goods(idOf(view));
+            return ordinal == NO_ORDINAL ? null : GOODS[ordinal];
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *  This method replaces the goods type of a record.
+     *  @return The previous goods type.
+     */
+    Container.GoodsType setGoods(ContainerView view, Container.GoodsType newGoods)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            int id = idOf(view);
+            byte old = goods(id);
+            goods(id, ordinalOf(newGoods));
+            return old == NO_ORDINAL ? null : GOODS[old];
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    String locationOf(ContainerView view)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return locations.valueOf(locationId(idOf(view)));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *  This method replaces the location of a record.
+     *  @return The previous location.
+     */
+    String setLocation(ContainerView view, String newLocation)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            int id = idOf(view);
+            String old = locations.valueOf(locationId(id));
+            locationId(id, locations.idOf(newLocation));
+            return old;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Container[] snapshot()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Container[] snapshot = new Container[size];
+            for (int i = 0; i < size; i++)
+            {
+                snapshot[i] = view(i);
+            }
+            return snapshot;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int idOf(ContainerView view)
+    {
+        int id = view.id();
+        if (id < 0 || id >= size || views[id] != view)
+        {
+            throw new IllegalStateException("The container view is no longer attached to its store");
+        }
+        return id;
+    }
+
+    private int idOfHandle(int handle)
+    {
+        int id = handle >= 0 && handle < handleCount ? handleIds[handle] : NO_RECORD;
+        if (id == NO_RECORD)
+        {
+            throw new IllegalStateException("Invalid container handle: " + handle);
+        }
+        return id;
+    }
+
+    private void checkId(int id)
+    {
+        if (id < 0 || id >= size)
+        {
+            throw new IndexOutOfBoundsException("Invalid container id: " + id);
+        }
+    }
+
+    private static byte ordinalOf(Enum<?> value)
+    {
+        return value == null ? NO_ORDINAL : (byte) value.ordinal();
+    }
+}
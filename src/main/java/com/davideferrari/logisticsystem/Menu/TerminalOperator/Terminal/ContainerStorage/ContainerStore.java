@@ -0,0 +1,165 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
+
+/**
+ *  This interface defines a store keeping container records instead of container objects.
+ *  Records are addressed by a dense id, and a {@link ContainerView} is handed out for a record only when
+ *  a {@link Container} object is actually needed, so the store can be traversed like any other ContainerCollection.
+ *  Two implementations are available: {@link ContainerTable}, keeping the records in heap arrays, and
+ *  {@link OffHeapContainerTable}, keeping them in direct memory outside of the garbage-collected heap.
+ *  The implementation is selected at startup through the {@value #STORAGE_PROPERTY} system property.
+ *  Only the records live in the store: a container object kept elsewhere (e.g., in the ContainerRegister,
+ *  a sub-terminal or a ship) stays on the heap, so large yards save memory by being added as records,
+ *  through {@link #add(String, String, int, double, int, Container.ContainerState, Container.GoodsType, String)}.
+ *  Owners copying their own containers into a store follow the records through stable handles rather than
+ *  views, so the copy does not add a container object per record.
+ */
+public interface ContainerStore extends ContainerCollection
+{
+    /**
+     *  Name of the system property selecting the storage mode: "heap" (default) or "offheap".
+     */
+    String STORAGE_PROPERTY = "logisticsystem.storage";
+
+    /**
+     *  This method creates a store of the kind selected by the {@value #STORAGE_PROPERTY} system property
+     *  (e.g., {@code -Dlogisticsystem.storage=offheap}). Unknown values fall back to the heap store.
+     *  @return A new, empty store.
+     */
+    static ContainerStore create()
+    {
+        String mode = System.getProperty(STORAGE_PROPERTY, "heap").trim().toLowerCase(Locale.ROOT);
+        switch (mode)
+        {
+            case "offheap":
+                return new OffHeapContainerTable();
+            case "heap":
+                return new ContainerTable();
+            default:
+                Logger.getLogger(ContainerStore.class.getName()).warning("Unknown storage mode '" + mode + "', using the heap storage.");
+                return new ContainerTable();
+        }
+    }
+
+    /**
+     *  This method adds a record holding a copy of the properties of an existing container.
+     *  The maximum payload is stored in whole kilograms, rounded to the nearest one.
+     *  @param container The container to copy.
+     *  @return The id of the new record.
+     */
+    int add(Container container);
+
+    /**
+     *  This method adds a record without creating any container object.
+     *  @param type        The container type (e.g., "Box").
+     *  @param code        The container code.
+     *  @param tareWeight  The tare weight in kg.
+     *  @param height      The height in meters.
+     *  @param maxPayload  The maximum payload in whole kg.
+     *  @param state       The container state, or {@code null}.
+     *  @param goodsType   The goods type, or {@code null}.
+     *  @param location    The location, or {@code null}.
+     *  @return The id of the new record.
+     */
+    int add(String type, String code, int tareWeight, double height, int maxPayload,
+            Container.ContainerState state, Container.GoodsType goodsType, String location);
+
+    /**
+     *  This method adds a record holding a copy of the properties of an existing container,
+     *  and returns a handle to it. Unlike the id, the handle does not change when other records are removed.
+     *  @param container The container to copy.
+     *  @return The handle of the new record.
+     */
+    int addTracked(Container container);
+
+    /**
+     *  This method removes the record behind a handle. The handle may then be reused for a new record.
+     *  @param handle A handle returned by {@link #addTracked(Container)}.
+     *  @throws IllegalStateException If the handle does not address a record.
+     */
+    void removeTracked(int handle);
+
+    /**
+     *  This method replaces the state of the record behind a handle.
+     *  @param handle A handle returned by {@link #addTracked(Container)}.
+     *  @param state  The new state, or {@code null}.
+     */
+    void updateState(int handle, Container.ContainerState state);
+
+    /**
+     *  This method replaces the goods type of the record behind a handle.
+     *  @param handle    A handle returned by {@link #addTracked(Container)}.
+     *  @param goodsType The new goods type, or {@code null}.
+     */
+    void updateGoods(int handle, Container.GoodsType goodsType);
+
+    /**
+     *  This method replaces the location of the record behind a handle.
+     *  @param handle   A handle returned by {@link #addTracked(Container)}.
+     *  @param location The new location, or {@code null}.
+     */
+    void updateLocation(int handle, String location);
+
+    /**
+     *  This method removes a record. The last record is moved into its place to keep the ids dense,
+     *  so the id of that record changes, while its view keeps pointing to it.
+     *  The view of the removed record, if any, is detached and can no longer be used.
+     *  @param id The id of the record to remove.
+     */
+    void remove(int id);
+
+    /**
+     *  This method removes the record behind a view.
+     *  @param view A view handed out by this store.
+     */
+    void remove(ContainerView view);
+
+    /**
+     *  This method retrieves the flyweight view of a record, creating it on first use.
+     *  @param id The id of the record.
+     *  @return The {@link ContainerView} of the record.
+     */
+    ContainerView view(int id);
+
+    /**
+     *  This method computes the total tare weight of the stored containers in a single sequential pass.
+     *  @return The sum of the tare weights, in kg.
+     */
+    long totalTareWeight();
+
+    /**
+     *  This method computes the total maximum payload of the stored containers in a single sequential pass.
+     *  @return The sum of the maximum payloads, in kg.
+     */
+    long totalMaxPayload();
+
+    /**
+     *  This method counts the stored containers in each state.
+     *  @return A map with a count for every state, including the states with no container.
+     */
+    Map<Container.ContainerState, Integer> countByState();
+
+    /**
+     *  This method counts the stored containers holding each goods type.
+     *  @return A map with a count for every goods type, including the types with no container.
+     */
+    Map<Container.GoodsType, Integer> countByGoods();
+
+    /**
+     *  This method counts the stored containers at every location in a single sequential pass.
+     *  @return A map from each occupied location to its number of containers.
+     */
+    Map<String, Integer> occupancyByLocation();
+
+    /**
+     *  This method counts the stored containers at a location.
+     *  @param location The exact location (e.g., "Busan Export Sub-Terminal").
+     *  @return The number of containers at the location.
+     */
+    int countAt(String location);
+}
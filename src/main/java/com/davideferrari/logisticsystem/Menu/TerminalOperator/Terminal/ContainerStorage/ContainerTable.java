@@ -0,0 +1,154 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import java.util.Arrays;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class stores containers column by column (struct-of-arrays) instead of one object per container.
+ *  Tare weight, height, max payload, state, goods, location and type are kept in parallel primitive arrays
+ *  addressed by a dense container id, and locations and types are replaced by dictionary ids.
+ *  Whole-yard scans such as {@link #totalTareWeight()} or {@link #occupancyByLocation()} are therefore
+ *  sequential loops over primitive arrays, with no pointer chasing.
+ *  In the Flyweight Design Pattern, this class acts as the Flyweight Factory: a {@link ContainerView}
+ *  is handed out for a row only when a container object is actually needed, and the same view
+ *  is returned for the same row.
+ */
+@AppDesignPattern(pattern = "Flyweight - Iterator", justification = "Flyweight Factory - Aggregate")
+public class ContainerTable extends AbstractContainerStore
+{
+    private String[] codes;
+    private int[] tareWeights;
+    private double[] heights;
+    private int[] maxPayloads;
+    private byte[] states;
+    private byte[] goods;
+    private int[] locationIds;
+    private int[] typeIds;
+
+    /**
+     *  This method constructs an empty table.
+     */
+    public ContainerTable()
+    {
+        codes = new String[INITIAL_CAPACITY];
+        tareWeights = new int[INITIAL_CAPACITY];
+        heights = new double[INITIAL_CAPACITY];
+        maxPayloads = new int[INITIAL_CAPACITY];
+        states = new byte[INITIAL_CAPACITY];
+        goods = new byte[INITIAL_CAPACITY];
+        locationIds = new int[INITIAL_CAPACITY];
+        typeIds = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    void resize(int capacity)
+    {
+        codes = Arrays.copyOf(codes, capacity);
+        tareWeights = Arrays.copyOf(tareWeights, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        maxPayloads = Arrays.copyOf(maxPayloads, capacity);
+        states = Arrays.copyOf(states, capacity);
+        goods = Arrays.copyOf(goods, capacity);
+        locationIds = Arrays.copyOf(locationIds, capacity);
+        typeIds = Arrays.copyOf(typeIds, capacity);
+    }
+
+    @Override
+    void writeRecord(int id, String code, int tareWeight, double height, int maxPayload,
+                     byte state, byte goodsType, int locationId, int typeId)
+    {
+        codes[id] = code;
+        tareWeights[id] = tareWeight;
+        heights[id] = height;
+        maxPayloads[id] = maxPayload;
+        states[id] = state;
+        goods[id] = goodsType;
+        locationIds[id] = locationId;
+        typeIds[id] = typeId;
+    }
+
+    @Override
+    void moveRecord(int from, int to)
+    {
+        writeRecord(to, codes[from], tareWeights[from], heights[from], maxPayloads[from],
+                states[from], goods[from], locationIds[from], typeIds[from]);
+    }
+
+    @Override
+    void clearRecord(int id)
+    {
+        codes[id] = null;
+    }
+
+    @Override
+    String code(int id)
+    {
+        return codes[id];
+    }
+
+    @Override
+    void code(int id, String code)
+    {
+        codes[id] = code;
+    }
+
+    @Override
+    int tareWeight(int id)
+    {
+        return tareWeights[id];
+    }
+
+    @Override
+    double height(int id)
+    {
+        return heights[id];
+    }
+
+    @Override
+    int maxPayload(int id)
+    {
+        return maxPayloads[id];
+    }
+
+    @Override
+    byte state(int id)
+    {
+        return states[id];
+    }
+
+    @Override
+    void state(int id, byte state)
+    {
+        states[id] = state;
+    }
+
+    @Override
+    byte goods(int id)
+    {
+        return goods[id];
+    }
+
+    @Override
+    void goods(int id, byte goodsType)
+    {
+        goods[id] = goodsType;
+    }
+
+    @Override
+    int locationId(int id)
+    {
+        return locationIds[id];
+    }
+
+    @Override
+    void locationId(int id, int locationId)
+    {
+        locationIds[id] = locationId;
+    }
+
+    @Override
+    int typeId(int id)
+    {
+        return typeIds[id];
+    }
+}
@@ -0,0 +1,111 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class exposes one record of a {@link ContainerStore} as a regular {@link Container}.
+ *  In the Flyweight Design Pattern, this class acts as a Concrete Flyweight: it holds no container data,
+ *  only a reference to the store and the id of its record, so every getter and setter reads or writes the record.
+ *  Observers attached to the view are notified exactly like for any other container.
+ *  The access to the constructor is package-private, since views are only handed out by the store.
+ */
+@AppDesignPattern(pattern = "Flyweight", justification = "Concrete Flyweight")
+public final class ContainerView extends Container
+{
+    private final AbstractContainerStore store;
+    private volatile int id;
+
+    ContainerView(AbstractContainerStore store, int id)
+    {
+        this.store = store;
+        this.id = id;
+    }
+
+    int id()
+    {
+        return id;
+    }
+
+    void moveTo(int newId)
+    {
+        this.id = newId;
+    }
+
+    void detach()
+    {
+        this.id = -1;
+    }
+
+    @Override
+    public String getType()
+    {
+        return store.typeOf(this);
+    }
+
+    @Override
+    public String getContainerCode()
+    {
+        return store.codeOf(this);
+    }
+
+    @Override
+    protected void setContainerCode(String containerCode)
+    {
+        store.setCode(this, containerCode);
+    }
+
+    @Override
+    public int getTareWeight()
+    {
+        return store.tareWeightOf(this);
+    }
+
+    @Override
+    public double getHeight()
+    {
+        return store.heightOf(this);
+    }
+
+    @Override
+    public double getMaxPayload()
+    {
+        return store.maxPayloadOf(this);
+    }
+
+    @Override
+    public ContainerState getContainerState()
+    {
+        return store.stateOf(this);
+    }
+
+    @Override
+    public void setContainerState(ContainerState state)
+    {
+        fireStateChanged(store.setState(this, state), state);
+    }
+
+    @Override
+    public GoodsType getGoods()
+    {
+        return store.goodsOf(this);
+    }
+
+    @Override
+    public void setGoods(GoodsType goods)
+    {
+        fireGoodsChanged(store.setGoods(this, goods), goods);
+    }
+
+    @Override
+    public String getLocation()
+    {
+        return store.locationOf(this);
+    }
+
+    @Override
+    public void setLocation(String location)
+    {
+        fireLocationChanged(store.setLocation(this, location), location);
+    }
+}
@@ -0,0 +1,170 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerCodeCodec;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class stores container records in direct memory, outside of the garbage-collected heap.
+ *  Every record has a fixed width of {@value #RECORD_SIZE} bytes:
+ *  - code (8 bytes): the code packed by the {@link ContainerCodeCodec} (read back in upper case),
+ *    or a dictionary reference for non-standard codes;
+ *  - height (8 bytes), tare weight, max payload, location id and type id (4 bytes each);
+ *  - state and goods ordinals (1 byte each), followed by padding.
+ *  A yard of millions of containers added as records therefore costs a few dozen bytes of direct memory
+ *  per container, and the heap only holds the views that are actually requested.
+ *  In the Flyweight Design Pattern, this class acts as the Flyweight Factory, exactly like {@link ContainerTable}.
+ */
+@AppDesignPattern(pattern = "Flyweight - Iterator", justification = "Flyweight Factory - Aggregate")
+public class OffHeapContainerTable extends AbstractContainerStore
+{
+    static final int RECORD_SIZE = 40;
+    private static final int CODE = 0;
+    private static final int HEIGHT = 8;
+    private static final int TARE_WEIGHT = 16;
+    private static final int MAX_PAYLOAD = 20;
+    private static final int LOCATION_ID = 24;
+    private static final int TYPE_ID = 28;
+    private static final int STATE = 32;
+    private static final int GOODS = 33;
+
+    private static final long NO_CODE = -1L;
+
+    private final ValueDictionary otherCodes = new ValueDictionary();
+    private ByteBuffer records;
+
+    /**
+     *  This method constructs an empty off-heap table.
+     */
+    public OffHeapContainerTable()
+    {
+        records = ByteBuffer.allocateDirect(INITIAL_CAPACITY * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    void resize(int capacity)
+    {
+        ByteBuffer resized = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        resized.put(0, records, 0, size * RECORD_SIZE);
+        records = resized;
+    }
+
+    @Override
+    void writeRecord(int id, String code, int tareWeight, double height, int maxPayload,
+                     byte state, byte goodsType, int locationId, int typeId)
+    {
+        int base = id * RECORD_SIZE;
+        records.putLong(base + CODE, encodeCode(code));
+        records.putDouble(base + HEIGHT, height);
+        records.putInt(base + TARE_WEIGHT, tareWeight);
+        records.putInt(base + MAX_PAYLOAD, maxPayload);
+        records.putInt(base + LOCATION_ID, locationId);
+        records.putInt(base + TYPE_ID, typeId);
+        records.put(base + STATE, state);
+        records.put(base + GOODS, goodsType);
+    }
+
+    @Override
+    void moveRecord(int from, int to)
+    {
+        records.put(to * RECORD_SIZE, records, from * RECORD_SIZE, RECORD_SIZE);
+    }
+
+    @Override
+    void clearRecord(int id)
+    {
+        records.putLong(id * RECORD_SIZE + CODE, NO_CODE);
+    }
+
+    @Override
+    String code(int id)
+    {
+        long code = records.getLong(id * RECORD_SIZE + CODE);
+        if (code >= 0)
+        {
+            return ContainerCodeCodec.decode(code);
+        }
+        return code == NO_CODE ? null : otherCodes.valueOf((int) (-code - 2));
+    }
+
+    @Override
+    void code(int id, String code)
+    {
+        records.putLong(id * RECORD_SIZE + CODE, encodeCode(code));
+    }
+
+    @Override
+    int tareWeight(int id)
+    {
+        return records.getInt(id * RECORD_SIZE + TARE_WEIGHT);
+    }
+
+    @Override
+    double height(int id)
+    {
+        return records.getDouble(id * RECORD_SIZE + HEIGHT);
+    }
+
+    @Override
+    int maxPayload(int id)
+    {
+        return records.getInt(id * RECORD_SIZE + MAX_PAYLOAD);
+    }
+
+    @Override
+    byte state(int id)
+    {
+        return records.get(id * RECORD_SIZE + STATE);
+    }
+
+    @Override
+    void state(int id, byte state)
+    {
+        records.put(id * RECORD_SIZE + STATE, state);
+    }
+
+    @Override
+    byte goods(int id)
+    {
+        return records.get(id * RECORD_SIZE + GOODS);
+    }
+
+    @Override
+    void goods(int id, byte goodsType)
+    {
+        records.put(id * RECORD_SIZE + GOODS, goodsType);
+    }
+
+    @Override
+    int locationId(int id)
+    {
+        return records.getInt(id * RECORD_SIZE + LOCATION_ID);
+    }
+
+    @Override
+    void locationId(int id, int locationId)
+    {
+        records.putInt(id * RECORD_SIZE + LOCATION_ID, locationId);
+    }
+
+    @Override
+    int typeId(int id)
+    {
+        return records.getInt(id * RECORD_SIZE + TYPE_ID);
+    }
+
+    /**
+     *  This method converts a code into its 8-byte field: standard codes are packed, while
+     *  non-standard codes are stored in a dictionary and referenced by a negative value.
+     */
+    private long encodeCode(String code)
+    {
+        if (code == null)
+        {
+            return NO_CODE;
+        }
+        long packed = ContainerCodeCodec.encode(code);
+        return packed != ContainerCodeCodec.NOT_ENCODABLE ? packed : -2L - otherCodes.idOf(code);
+    }
+}
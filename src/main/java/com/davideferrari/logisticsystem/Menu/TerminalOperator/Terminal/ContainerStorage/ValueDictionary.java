@@ -0,0 +1,67 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  This class assigns a dense integer id to every distinct String value (e.g., locations or container types),
+ *  so that container stores can keep an {@code int} column instead of a reference per container.
+ *  Ids are never reused, since the number of distinct values in a yard is small.
+ *  The class is not thread-safe: the owning store guards it with its own lock.
+ */
+class ValueDictionary
+{
+    static final int NO_VALUE = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     *  This method retrieves the id of a value, assigning a new one if the value was never seen.
+     *  @param value The value to look up, or {@code null}.
+     *  @return The id of the value, or {@link #NO_VALUE} for {@code null}.
+     */
+    int idOf(String value)
+    {
+        if (value == null)
+        {
+            return NO_VALUE;
+        }
+        Integer id = ids.get(value);
+        if (id == null)
+        {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     *  This method retrieves the id of a value without assigning a new one.
+     *  @param value The value to look up.
+     *  @return The id of the value, or {@link #NO_VALUE} if the value was never seen.
+     */
+    int find(String value)
+    {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? NO_VALUE : id;
+    }
+
+    /**
+     *  This method retrieves the value of an id.
+     *  @param id An id returned by {@link #idOf(String)}, or {@link #NO_VALUE}.
+     *  @return The value, or {@code null} for {@link #NO_VALUE}.
+     */
+    String valueOf(int id)
+    {
+        return id == NO_VALUE ? null : values.get(id);
+    }
+
+    int size()
+    {
+        return values.size();
+    }
+}
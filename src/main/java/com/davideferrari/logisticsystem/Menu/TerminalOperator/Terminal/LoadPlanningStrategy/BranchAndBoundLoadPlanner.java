@@ -0,0 +1,144 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is the exact load planner, meant for small bays.
+ *  In the Strategy Design Pattern, this class acts as a Concrete Strategy.
+ *  It explores the include/exclude decisions of the ranked candidates depth first, starting from the
+ *  {@link GreedyLoadPlanner} plan, and prunes every branch whose upper bound cannot beat the best plan found.
+ *  The bound fills the remaining ship resources (count, weight and height, summed up) with fractions of the
+ *  next candidates, which never underestimates what the branch can still ship.
+ *  The worst case is exponential in the number of candidates, so the search visits at most a budget of nodes:
+ *  once it is spent, the best plan found so far is returned, which is never worse than the greedy plan.
+ *  This keeps the time spent planning bounded, as the export terminal plans while holding its lock.
+ */
+@AppDesignPattern(pattern = "Strategy", justification = "Concrete Strategy")
+public class BranchAndBoundLoadPlanner implements LoadPlanningStrategy
+{
+    /**
+     *  The default number of nodes a single search may visit.
+     */
+    public static final long DEFAULT_NODE_BUDGET = 200_000;
+
+    private final GreedyLoadPlanner greedy = new GreedyLoadPlanner();
+    private final long nodeBudget;
+
+    /**
+     *  This method constructs a planner visiting at most {@link #DEFAULT_NODE_BUDGET} nodes per plan.
+     */
+    public BranchAndBoundLoadPlanner()
+    {
+        this(DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     *  This method constructs a planner visiting at most the given number of nodes per plan.
+     *  @param nodeBudget The maximum number of nodes a single search may visit.
+     *  @throws IllegalArgumentException If the budget is not positive.
+     */
+    public BranchAndBoundLoadPlanner(long nodeBudget)
+    {
+        if (nodeBudget <= 0)
+        {
+            throw new IllegalArgumentException("The node budget must be positive");
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    @Override
+    public List<Container> plan(List<? extends Container> candidates, int maxCount, long maxWeight, double maxHeight)
+    {
+        LoadItem[] items = LoadItem.rank(candidates, maxCount, maxWeight, maxHeight);
+        Search search = new Search(items, maxCount, maxWeight, maxHeight, nodeBudget);
+        List<Container> initial = greedy.plan(candidates, maxCount, maxWeight, maxHeight);
+        for (Container c : initial)
+        {
+            search.bestPayload += Math.round(c.getMaxPayload());
+        }
+        search.explore(0, 0, 0, 0, 0, 0);
+        if (search.bestChosen == null)
+        {
+            return initial;
+        }
+        List<Container> plan = new ArrayList<>();
+        for (int i = 0; i < items.length; i++)
+        {
+            if (search.bestChosen[i])
+            {
+                plan.add(items[i].container);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     *  This class holds the state of one search: the limits, the current branch and the best plan found.
+     */
+    private static final class Search
+    {
+        private final LoadItem[] items;
+        private final int maxCount;
+        private final long maxWeight;
+        private final double maxHeight;
+        private final boolean[] chosen;
+        private long nodesLeft;
+
+        private long bestPayload;
+        private boolean[] bestChosen;
+
+        private Search(LoadItem[] items, int maxCount, long maxWeight, double maxHeight, long nodeBudget)
+        {
+            this.nodesLeft = nodeBudget;
+            this.items = items;
+            this.maxCount = maxCount;
+            this.maxWeight = maxWeight;
+            this.maxHeight = maxHeight;
+            this.chosen = new boolean[items.length];
+        }
+
+        private void explore(int index, int count, long weight, double height, double size, long payload)
+        {
+            if (nodesLeft-- <= 0)
+            {
+                return;
+            }
+            if (payload > bestPayload)
+            {
+                bestPayload = payload;
+                bestChosen = chosen.clone();
+            }
+            if (index == items.length || count == maxCount || bound(index, size, payload) <= bestPayload)
+            {
+                return;
+            }
+            LoadItem item = items[index];
+            if (weight + item.weight <= maxWeight && height + item.height <= maxHeight + LoadItem.HEIGHT_TOLERANCE)
+            {
+                chosen[index] = true;
+                explore(index + 1, count + 1, weight + item.weight, height + item.height, size + item.size, payload + item.payload);
+                chosen[index] = false;
+            }
+            explore(index + 1, count, weight, height, size, payload);
+        }
+
+        /**
+         *  This method computes the best payload the branch could reach if the candidates could be split.
+         */
+        private double bound(int index, double size, long payload)
+        {
+            double free = 3.0 - size;
+            double bound = payload;
+            for (int i = index; i < items.length && free > 0; i++)
+            {
+                double share = Math.min(1.0, free / items[i].size);
+                bound += share * items[i].payload;
+                free -= share * items[i].size;
+            }
+            return bound;
+        }
+    }
+}
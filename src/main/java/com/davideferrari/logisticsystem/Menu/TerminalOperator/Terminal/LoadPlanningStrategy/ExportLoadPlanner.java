@@ -0,0 +1,56 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class plans which containers of an export bay are loaded on a ship.
+ *  In the Strategy Design Pattern, this class acts as the Context: small bays are planned exactly by the
+ *  {@link BranchAndBoundLoadPlanner}, within its node budget, larger ones by the {@link GreedyLoadPlanner},
+ *  so planning never slows down a port call.
+ */
+@AppDesignPattern(pattern = "Strategy", justification = "Context")
+public class ExportLoadPlanner
+{
+    /**
+     *  The largest number of candidates planned with the exact strategy.
+     */
+    public static final int EXACT_LIMIT = 20;
+
+    private final LoadPlanningStrategy exact;
+    private final LoadPlanningStrategy approximate;
+
+    /**
+     *  This method constructs a planner using the default strategies.
+     */
+    public ExportLoadPlanner()
+    {
+        this(new BranchAndBoundLoadPlanner(), new GreedyLoadPlanner());
+    }
+
+    /**
+     *  This method constructs a planner using the given strategies.
+     *  @param exact       The strategy used for up to {@link #EXACT_LIMIT} candidates.
+     *  @param approximate The strategy used for larger bays.
+     */
+    public ExportLoadPlanner(LoadPlanningStrategy exact, LoadPlanningStrategy approximate)
+    {
+        this.exact = exact;
+        this.approximate = approximate;
+    }
+
+    /**
+     *  This method chooses the containers to load, selecting the strategy by the number of candidates.
+     *  @param candidates The containers that may be loaded.
+     *  @param maxCount   The number of free slots on the ship.
+     *  @param maxWeight  The weight the ship can still take, in kilograms.
+     *  @param maxHeight  The stacking height the ship can still take, in meters.
+     *  @return The chosen containers, in loading order.
+     */
+    public List<Container> plan(List<? extends Container> candidates, int maxCount, long maxWeight, double maxHeight)
+    {
+        LoadPlanningStrategy strategy = candidates.size() <= EXACT_LIMIT ? exact : approximate;
+        return strategy.plan(candidates, maxCount, maxWeight, maxHeight);
+    }
+}
@@ -0,0 +1,38 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is the fast, approximate load planner.
+ *  In the Strategy Design Pattern, this class acts as a Concrete Strategy.
+ *  It ranks the candidates by payload per unit of ship resource they use, and loads them in that order,
+ *  skipping the ones that no longer fit. The plan is built in O(n log n), whatever the size of the bay.
+ */
+@AppDesignPattern(pattern = "Strategy", justification = "Concrete Strategy")
+public class GreedyLoadPlanner implements LoadPlanningStrategy
+{
+    @Override
+    public List<Container> plan(List<? extends Container> candidates, int maxCount, long maxWeight, double maxHeight)
+    {
+        List<Container> plan = new ArrayList<>();
+        long weight = 0;
+        double height = 0;
+        for (LoadItem item : LoadItem.rank(candidates, maxCount, maxWeight, maxHeight))
+        {
+            if (plan.size() == maxCount)
+            {
+                break;
+            }
+            if (weight + item.weight <= maxWeight && height + item.height <= maxHeight + LoadItem.HEIGHT_TOLERANCE)
+            {
+                plan.add(item.container);
+                weight += item.weight;
+                height += item.height;
+            }
+        }
+        return plan;
+    }
+}
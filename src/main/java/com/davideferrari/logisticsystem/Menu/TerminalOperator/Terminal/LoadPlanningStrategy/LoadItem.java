@@ -0,0 +1,61 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+
+/**
+ *  This class holds the figures of a candidate container used by the planners, read once from the container.
+ *  The size of an item is the share of the free count, weight and height of the ship it takes, summed up:
+ *  every feasible plan has a total size of at most 3, which gives the planners a single resource to rank
+ *  the items by payload per unit of size.
+ */
+final class LoadItem
+{
+    /**
+     *  Tolerance used when comparing stacking heights, which are summed as doubles.
+     */
+    static final double HEIGHT_TOLERANCE = 1e-9;
+
+    final Container container;
+    final long payload;
+    final long weight;
+    final double height;
+    final double size;
+
+    private LoadItem(Container container, int maxCount, long maxWeight, double maxHeight)
+    {
+        this.container = container;
+        this.payload = Math.round(container.getMaxPayload());
+        this.weight = LoadPlanningStrategy.weightOf(container);
+        this.height = container.getHeight();
+        this.size = 1.0 / maxCount + (double) weight / maxWeight + height / maxHeight;
+    }
+
+    /**
+     *  This method builds the items of the candidates that fit an empty ship on their own,
+     *  sorted by decreasing payload per unit of size.
+     *  @return The sorted items, or an empty array if the ship has no room left.
+     */
+    static LoadItem[] rank(List<? extends Container> candidates, int maxCount, long maxWeight, double maxHeight)
+    {
+        if (maxCount <= 0 || maxWeight <= 0 || maxHeight <= 0)
+        {
+            return new LoadItem[0];
+        }
+        List<LoadItem> items = new ArrayList<>(candidates.size());
+        for (Container c : candidates)
+        {
+            LoadItem item = new LoadItem(c, maxCount, maxWeight, maxHeight);
+            if (item.weight <= maxWeight && item.height <= maxHeight + HEIGHT_TOLERANCE)
+            {
+                items.add(item);
+            }
+        }
+        LoadItem[] ranked = items.toArray(new LoadItem[0]);
+        Arrays.sort(ranked, Comparator.comparingDouble((LoadItem item) -> item.payload / item.size).reversed());
+        return ranked;
+    }
+}
@@ -0,0 +1,40 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This interface defines how the containers to load on a ship are chosen.
+ *  In the Strategy Design Pattern, this interface acts as the Strategy:
+ *  every implementation picks, among the candidate containers, a subset that fits the free count,
+ *  weight and height of the ship, trying to maximize the payload shipped.
+ *  A full container is assumed to weigh its tare weight plus its maximum payload (see {@link #weightOf(Container)}).
+ */
+@AppDesignPattern(pattern = "Strategy", justification = "Strategy Interface")
+public interface LoadPlanningStrategy
+{
+    /**
+     *  This method chooses the containers to load.
+     *  @param candidates The containers that may be loaded.
+     *  @param maxCount   The number of free slots on the ship.
+     *  @param maxWeight  The weight the ship can still take, in kilograms.
+     *  @param maxHeight  The stacking height the ship can still take, in meters.
+     *  @return The chosen containers, in loading order. The list may be empty.
+     */
+    List<Container> plan(List<? extends Container> candidates, int maxCount, long maxWeight, double maxHeight);
+
+    /**
+     *  This method computes the weight of a container: an EMPTY container weighs its tare weight only,
+     *  any other container is counted at its tare weight plus its maximum payload.
+     *  The stowage plan of a ship uses the same figure to balance its stacks, so empty containers,
+     *  which are repositioned between ports, do not use up the weight a full load would.
+     *  @param container The container.
+     *  @return The weight of the container, in kilograms.
+     */
+    static long weightOf(Container container)
+    {
+        long payload = container.getContainerState() == Container.ContainerState.EMPTY ? 0 : Math.round(container.getMaxPayload());
+        return container.getTareWeight() + payload;
+    }
+}
@@ -0,0 +1,34 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite;
+
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This interface defines the callbacks fired by an ImportSubTerminal when the number of containers in its bay
+ *  crosses one of its watermarks.
+ *  In the Observer Design Pattern, this interface acts as the Observer, while the ImportSubTerminal is the Subject.
+ *  It allows the trucks to sleep until there is work for them, instead of polling the bay.
+ *  The callbacks are fired by the thread that changed the bay, while it holds the terminal lock,
+ *  so they must only record or signal the event, and never wait.
+ *  All the methods have an empty default implementation, so listeners only override what they need.
+ */
+@AppDesignPattern(pattern = "Observer", justification = "Observer Interface")
+public interface BayLevelListener
+{
+    /**
+     *  This method is called when the bay rises above its high watermark.
+     *  @param terminal The import sub-terminal whose bay has filled up.
+     *  @param size     The number of containers now in the bay.
+     */
+    default void highWatermarkReached(ImportSubTerminal terminal, int size)
+    {
+    }
+
+    /**
+     *  This method is called when the bay falls back to its low watermark, after having risen above the high one.
+     *  @param terminal The import sub-terminal whose bay has been cleared.
+     *  @param size     The number of containers now in the bay.
+     */
+    default void lowWatermarkReached(ImportSubTerminal terminal, int size)
+    {
+    }
+}
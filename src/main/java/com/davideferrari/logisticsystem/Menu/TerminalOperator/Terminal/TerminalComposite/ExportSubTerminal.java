@@ -1,17 +1,32 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.TerminalContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.ContainerObserver;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy.ExportLoadPlanner;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
-import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ContainerValidationException;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
 
 /**
  *  This class represents a specialized terminal component dedicated to Export operations.
@@ -19,19 +34,22 @@ import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ContainerValidat
  *  terminals, but it holds the actual list of containers waiting to be loaded onto a ship.
  *  It also implements ContainerCollection, serving as an Aggregate for the Iterator pattern,
  *  allowing traversal of the containers stored specifically in this export bay.
+ *  The bay is also partitioned by container state, so the warehouses can take an EMPTY container
+ *  without scanning the whole bay.
  */
 @AppDesignPattern(pattern = "Iterator - Composite", justification = "Concrete Aggregate - Composite")
 @CapacityLimit(value = 10)
 public class ExportSubTerminal implements TerminalComponent, ContainerCollection
 {
     private static final Logger logger = Logger.getLogger(ExportSubTerminal.class.getName());
-    private final List<Container> localRegister = new ArrayList<>();
+    private final List<Container> localRegister = new CopyOnWriteArrayList<>();
+    private final Map<Container.ContainerState, Set<Container>> stateBuckets = new EnumMap<>(Container.ContainerState.class);
+    private final ContainerObserver bucketUpdater = new BucketUpdater();
+    private final ExportLoadPlanner loadPlanner = new ExportLoadPlanner();
     
     private String name;
     private int minimumCapacity;
 
-    private static boolean confirmation;
-
     /**
      *  This method constructs a new Export Sub-Terminal.
      *  It initializes the terminal with a name and retrieves the capacity constraints
@@ -41,6 +59,10 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
     public ExportSubTerminal(String name)
     {
         this.name = name;
+        for (Container.ContainerState state : Container.ContainerState.values())
+        {
+            stateBuckets.put(state, new LinkedHashSet<>());
+        }
         if (this.getClass().isAnnotationPresent(CapacityLimit.class))
         {
             this.minimumCapacity = this.getClass().getAnnotation(CapacityLimit.class).value();
@@ -56,15 +78,6 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
         return name;
     }
 
-    /**
-     *  This method resets the static confirmation flag,
-     *  and it is used after a request has been processed (accepted or denied).
-     */
-    public static void resetRequest()
-    {
-        confirmation = false;
-    }
-
     @Override
     public void description()
     {
@@ -73,12 +86,26 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
 
     /**
      *  This method creates an iterator to traverse the containers in this specific sub-terminal.
-     *  @return A {@link TerminalContainerIterator} for the local list.
+     *  The local list is copy-on-write, so the iterator works on the containers present when it is created:
+     *  it never sees a concurrent modification, it does not block the writers while listing,
+     *  and containers can be removed from the terminal while iterating.
+     *  @return A {@link SnapshotContainerIterator} over the current containers.
      */
     @Override
     public ContainerIterator createIterator()
     {
-        return new TerminalContainerIterator(this);
+        return new SnapshotContainerIterator(localRegister.toArray(new Container[0]));
+    }
+
+    /**
+     *  This method creates a splittable iterator over a copy of the containers currently in the terminal,
+     *  so streams are not affected by containers being added or removed during the traversal.
+     *  @return A sized spliterator over the copied containers.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        return ContainerSpliterator.ofSnapshot(localRegister.toArray(new Container[0]));
     }
 
     @Override
@@ -97,37 +124,87 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
      *  This method adds a container to this terminal for export.
      *  Thread Safety: Synchronized to handle concurrent additions from the UI or Trucks.
      *  Validation checks:
-     *  - Global Uniqueness: Checks against ContainerRegister.
+     *  - Global Uniqueness: Checks against the code index of the ContainerRegister.
      *  - Capacity: Ensures the terminal is not overfilled.
+     *  The registration itself is atomic on the code, so concurrent additions in other terminals cannot
+     *  slip a duplicate in between the check and the insertion.
+     *  The journal record is appended under the terminal lock, and its fsync is awaited after releasing it.
      *  @param containerToAdd The container object.
      *  @param containerCode  The unique ID to validate.
      *  @return {@code true} if added successfully.
      */
-    public synchronized boolean addContainer(Container containerToAdd, String containerCode)
+    public boolean addContainer(Container containerToAdd, String containerCode)
     {   
         ContainerRegister globalRegister = ContainerRegister.getInstance();
-        ContainerIterator containerIterator = globalRegister.createIterator();
-        while (containerIterator.hasNext())
+        ContainerJournal journal = ContainerJournal.getInstance();
+        long ticket;
+        synchronized (this)
         {
-            Container container = containerIterator.next();
-            if (container.getContainerCode().equalsIgnoreCase(containerCode))
+            if (globalRegister.containsCode(containerCode))
             {
                 logger.warning("Duplicate container code: " + containerCode + ". This container cannot be created, neither added to the terminal.");
                 return false;
             }
+            if (localRegister.size() >= minimumCapacity)
+            {
+                logger.warning("The terminal has reached it's minimum capacity. No containers can be added.");
+                return false;
+            }
+            else if (!globalRegister.addContainerIfAbsent(containerToAdd))
+            {
+                logger.warning("Duplicate container code: " + containerCode + ". The code has just been registered by another terminal.");
+                return false;
+            }
+            containerToAdd.setLocation(this.name + " Export Sub-Terminal");
+            localRegister.add(containerToAdd);
+            track(containerToAdd);
+            ticket = journal.append(ContainerJournal.Event.EXPORT_ADD, containerToAdd, this.name);
         }
-        if (localRegister.size() >= minimumCapacity)
+        journal.awaitDurable(ticket);
+        return true;
+    }
+
+    /**
+     *  This method adds a batch of containers to this terminal for export.
+     *  It applies the same validation as {@link #addContainer(Container, String)}, but the uniqueness of
+     *  the whole batch is checked against the code index of the ContainerRegister in one pass,
+     *  locking each register stripe once, and the terminal itself is locked once for the whole batch.
+     *  Containers with a duplicate code are skipped, and the batch is cut once the terminal is full.
+     *  Thread Safety: Synchronized like the single addition, and journaled outside of the lock in the same way.
+     *  The creations of the containers are journaled here, once the register has accepted their codes,
+     *  so a rejected duplicate leaves no record to replay; both records go to disk with the same fsync.
+     *  @param containersToAdd The containers to add, with their codes already set.
+     *  @return The containers actually added, in the order of the batch.
+     */
+    public List<Container> addContainers(List<? extends Container> containersToAdd)
+    {
+        ContainerRegister globalRegister = ContainerRegister.getInstance();
+        ContainerJournal journal = ContainerJournal.getInstance();
+        String location = this.name + " Export Sub-Terminal";
+        List<Container> added = new ArrayList<>();
+        long ticket;
+        synchronized (this)
         {
-            logger.warning("The terminal has reached it's minimum capacity. No containers can be added.");
-            return false;
+            int next = 0;
+            while (next < containersToAdd.size() && localRegister.size() < minimumCapacity)
+            {
+                int end = Math.min(containersToAdd.size(), next + minimumCapacity - localRegister.size());
+                List<Container> registered = globalRegister.addContainersIfAbsent(containersToAdd.subList(next, end), location);
+                localRegister.addAll(registered);
+                registered.forEach(this::track);
+                added.addAll(registered);
+                next = end;
+            }
+            journal.appendAll(ContainerJournal.Event.CREATE, added, null);
+            ticket = journal.appendAll(ContainerJournal.Event.EXPORT_ADD, added, this.name);
         }
-        else
+        journal.awaitDurable(ticket);
+        int skipped = containersToAdd.size() - added.size();
+        if (skipped > 0)
         {
-            containerToAdd.setLocation(this.name + " Export Sub-Terminal.");
-            localRegister.add(containerToAdd);
-            globalRegister.addContainer(containerToAdd);
+            logger.warning(skipped + " containers could not be added to the terminal, because of duplicate codes or of the minimum capacity.");
         }
-        return true;
+        return added;
     }
 
     /**
@@ -141,7 +218,12 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
             logger.warning("The terminal must maintain its minimum container capacity.");
             return false;
         }
-        return localRegister.remove(container);
+        if (!localRegister.remove(container))
+        {
+            return false;
+        }
+        untrack(container);
+        return true;
     }
 
     public void displayTerminalContainers()
@@ -158,45 +240,80 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
 
     /**
      *  This method orchestrates the transfer of containers from the Terminal to the Ship,
-     *  by iterating through available containers and attempting to load them onto the CargoShip.
-     *  It stops if the ship becomes full or the terminal reaches its minimum stock level.
+     *  loading as many of them as the ship and the minimum stock level allow (see {@link #loadPlanned(CargoShip, int)}).
      *  @param ship The ship currently docked for export.
      */
-    public void shipExport(CargoShip ship) throws ContainerValidationException
+    public void shipExport(CargoShip ship)
     {
-        ContainerIterator containerIterator = this.createIterator();
-        List<Container> containersToRemove = new ArrayList<>();
-        while (containerIterator.hasNext())
+        loadPlanned(ship, Integer.MAX_VALUE);
+        logger.info("Export Operation Finished. Remaining Terminal Capacity: " + this.getSize());
+    }
+
+    /**
+     *  This method loads up to a given number of containers of the bay onto a ship.
+     *  The FULL_EXPORT containers of the bay are handed to the {@link ExportLoadPlanner}, which picks the subset
+     *  shipping the most payload within the free slots, weight and height of the ship, without taking the bay
+     *  below its minimum stock level. The chosen containers are claimed (removed from the bay) in the same critical
+     *  section, so several ships loading from this terminal at the same time never pick the same container;
+     *  the claimed containers that the ship then refuses are put back in the bay.
+     *  The log records are written after releasing the terminal lock.
+     *  The loading stage of a pipelined port call uses it to fill every slot freed by the unloading from the stock.
+     *  @param ship     The ship docked at the terminal.
+     *  @param maxCount The maximum number of containers to load.
+     *  @return The number of containers loaded.
+     */
+    public int loadPlanned(CargoShip ship, int maxCount)
+    {
+        List<Container> plan;
+        int candidateCount;
+        synchronized (this)
         {
-            if (this.getSize() - containersToRemove.size() <= minimumCapacity)
+            if (localRegister.size() <= minimumCapacity)
             {
-                logger.info("Terminal minimum capacity limit reached. Stopping export.");
-                break;
+                plan = null;
+                candidateCount = 0;
             }
-            Container container = containerIterator.next();
-            boolean shipAccepted = ship.pickFromTerminal(container);
-
-            if (shipAccepted)
+            else
             {
-                containersToRemove.add(container);
+                int slots = Math.min(Math.min(localRegister.size() - minimumCapacity, ship.getRemainingCapacity()), maxCount);
+                List<Container> candidates = new ArrayList<>(stateBuckets.get(Container.ContainerState.FULL_EXPORT));
+                plan = loadPlanner.plan(candidates, slots, ship.getRemainingWeight(), ship.getRemainingHeight());
+                localRegister.removeAll(identitySetOf(plan));
+                plan.forEach(this::untrack);
+                candidateCount = candidates.size();
             }
-            else
+        }
+        if (plan == null)
+        {
+            logger.info("Terminal minimum capacity limit reached. Stopping export.");
+            return 0;
+        }
+        logger.info("Load plan: " + plan.size() + " of " + candidateCount + " full containers selected for the ship.");
+        List<Container> notLoaded = new ArrayList<>();
+        for (Container container : plan)
+        {
+            if (ship.getRemainingCapacity() == 0 || !ship.pickFromTerminal(container))
             {
-                logger.info("Ship capacity reached. Stopping export operation.");
-                break;
+                notLoaded.add(container);
             }
         }
-        for (Container c : containersToRemove)
+        if (!notLoaded.isEmpty())
         {
-            localRegister.remove(c);
+            logger.info(notLoaded.size() + " planned containers could not be loaded and stay in the terminal.");
+            synchronized (this)
+            {
+                localRegister.addAll(notLoaded);
+                notLoaded.forEach(this::track);
+            }
         }
-        logger.info("Export Operation Finished. Remaining Terminal Capacity: " + this.getSize());
+        return plan.size() - notLoaded.size();
     }
 
     /**
      *  This method handles the undocking request handshake,
      *  by verifying if the ship is in a valid state (DOCKED or WAITING) and targeted at this specific terminal.
-     *  If valid, it sets the confirmation flag for the Terminal Operator Menu.
+     *  If valid, the request can be reviewed by the Terminal Operator.
+     *  @return {@code true} if the request is valid.
      */
     public static boolean shipRequest(CargoShip ship, ExportSubTerminal bariExp, ExportSubTerminal busanExp)
     {
@@ -213,13 +330,11 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
         else if (ship.getRequestTarget().equals("Bari"))
         {
             logger.info("The " + bariExp.getName() + " export terminal has received a request from the ship captain to undock.");
-            confirmation = true;
             return true;
         }
         else if(ship.getRequestTarget().equals("Busan"))
         {
             logger.info("The " + busanExp.getName() + " export terminal has received a request from the ship captain to undock.");
-            confirmation = true;
             return true;
         }
         else
@@ -229,37 +344,76 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
         return false;
     }
 
-    public static boolean sendConfirmation()
+    /**
+     *  This method is used by the WarehouseTruck to pick up an EMPTY container for processing.
+     *  Thread Safety: Synchronized to prevent multiple trucks from grabbing the same container.
+     *  @return An {@code EMPTY} container if available, otherwise {@code null}.
+     */
+    public Container borrowFromWarehouse()
     {
-        if (confirmation == true)
-        {
-            logger.info("The export terminal has notified the terminal operator of the request.");
-            return true;
-        }
-        return false;
+        List<Container> borrowed = borrowFromWarehouse(1);
+        return borrowed.isEmpty() ? null : borrowed.get(0);
     }
 
     /**
-     *  This method is used by the WarehouseTruck to pick up an EMPTY container for processing.
+     *  This method lets a warehouse pick up to {@code maxCount} EMPTY containers, taking the terminal lock once.
+     *  The containers are taken from the bucket of the EMPTY containers in constant time each,
+     *  in the order they became available, instead of scanning the whole bay.
      *  Thread Safety: Synchronized to prevent multiple trucks from grabbing the same container.
-     *  @return An {@code EMPTY} container if available, otherwise {@code null}.
+     *  The journal records are appended under the terminal lock, and their fsync is awaited after releasing it;
+     *  the log records are also written after releasing it, so a truck never blocks on the console under the monitor.
+     *  @param maxCount The maximum number of containers to take.
+     *  @return The {@code EMPTY} containers removed from the terminal, possibly none.
      */
-    public synchronized Container borrowFromWarehouse()
+    public List<Container> borrowFromWarehouse(int maxCount)
     {
-        ContainerIterator containerIterator = this.createIterator();
-        while (containerIterator.hasNext())
+        ContainerJournal journal = ContainerJournal.getInstance();
+        List<Container> borrowed = new ArrayList<>();
+        long ticket = ContainerJournal.NO_TICKET;
+        synchronized (this)
         {
-            Container c = containerIterator.next();
-            
-            if (c.getContainerState() == Container.ContainerState.EMPTY)
+            Iterator<Container> empty = stateBuckets.get(Container.ContainerState.EMPTY).iterator();
+            while (borrowed.size() < maxCount && empty.hasNext())
+            {
+                Container c = empty.next();
+                empty.remove();
+                c.removeObserver(bucketUpdater);
+                borrowed.add(c);
+            }
+            if (!borrowed.isEmpty())
+            {
+                localRegister.removeAll(identitySetOf(borrowed));
+                ticket = journal.appendAll(ContainerJournal.Event.WAREHOUSE_PICK, borrowed, this.name);
+            }
+        }
+        if (borrowed.isEmpty())
+        {
+            logger.warning("Warehouse attempted to borrow a container, but no EMPTY containers were found in the Export Terminal.");
+            return borrowed;
+        }
+        if (SimulationLogScope.isLoggable(logger, Level.INFO))
+        {
+            for (Container c : borrowed)
             {
-                localRegister.remove(c);   
                 logger.info("Warehouse borrowed container " + c.getContainerCode() + ". It is now being processed.");
-                return c;
             }
         }
-        logger.warning("Warehouse attempted to borrow a container, but no EMPTY containers were found in the Export Terminal.");
-        return null;
+        journal.awaitDurable(ticket);
+        return borrowed;
+    }
+
+    /**
+     *  This method replaces the content of the terminal with containers restored from a snapshot.
+     *  No validation is performed, since the containers were valid when the snapshot was taken,
+     *  and they are expected to be already registered in the ContainerRegister.
+     *  @param containers The containers to store, in their original order.
+     */
+    public synchronized void restoreContainers(List<Container> containers)
+    {
+        localRegister.forEach(this::untrack);
+        localRegister.clear();
+        localRegister.addAll(containers);
+        containers.forEach(this::track);
     }
 
     /**
@@ -267,11 +421,112 @@ public class ExportSubTerminal implements TerminalComponent, ContainerCollection
      *  by updating the container's location and adds it to the export queue.
      *  @param container The container returned by the truck.
      */
-    public synchronized void addFromWarehouse(Container container)
+    public void addFromWarehouse(Container container)
+    {
+        addFromWarehouse(List.of(container));
+    }
+
+    /**
+     *  This method receives a batch of processed containers from a Warehouse, taking the terminal lock once:
+     *  their location is updated and they are added to the export queue in the given order.
+     *  The journal records are appended under the terminal lock, and their fsync is awaited after releasing it;
+     *  the log records are also written after releasing it.
+     *  @param containers The containers returned by the truck.
+     */
+    public void addFromWarehouse(Collection<? extends Container> containers)
+    {
+        ContainerJournal journal = ContainerJournal.getInstance();
+        String location = this.getName() + " Export Sub-Terminal";
+        long ticket;
+        synchronized (this)
+        {
+            for (Container container : containers)
+            {
+                container.setLocation(location);
+            }
+            localRegister.addAll(containers);
+            for (Container container : containers)
+            {
+                track(container);
+            }
+            ticket = journal.appendAll(ContainerJournal.Event.WAREHOUSE_RETRIEVE, containers, this.name);
+        }
+        if (SimulationLogScope.isLoggable(logger, Level.INFO))
+        {
+            for (Container container : containers)
+            {
+                logger.info("Container " + container.getContainerCode() + " added from Warehouse. State: " + container.getContainerState());
+            }
+        }
+        journal.awaitDurable(ticket);
+    }
+
+    /**
+     *  This method returns the number of containers of the bay in the given state, in constant time.
+     *  @param state The state to count (e.g., EMPTY).
+     *  @return The number of containers in that state.
+     */
+    public synchronized int countByState(Container.ContainerState state)
+    {
+        return stateBuckets.get(state).size();
+    }
+
+    /**
+     *  This method adds a container that just entered the bay to the bucket of its state,
+     *  and starts following its state changes. It must be called while holding the terminal lock.
+     */
+    private void track(Container container)
+    {
+        container.addObserver(bucketUpdater);
+        Container.ContainerState state = container.getContainerState();
+        if (state != null)
+        {
+            stateBuckets.get(state).add(container);
+        }
+    }
+
+    /**
+     *  This method removes a container that left the bay from its bucket. Every bucket is checked, since a
+     *  state change may still be waiting for the terminal lock. It must be called while holding the terminal lock.
+     */
+    private void untrack(Container container)
     {
-        container.setLocation(this.getName() + " Export Sub-Terminal");
-        localRegister.add(container);
-        logger.info("Container " + container.getContainerCode() + " added from Warehouse. State: " + container.getContainerState());
+        container.removeObserver(bucketUpdater);
+        for (Set<Container> bucket : stateBuckets.values())
+        {
+            bucket.remove(container);
+        }
+    }
+
+    /**
+     *  This method wraps containers in an identity set, so that removing them from the copy-on-write bay
+     *  costs one lookup per container of the bay instead of a scan of the list.
+     */
+    private static Set<Container> identitySetOf(Collection<? extends Container> containers)
+    {
+        Set<Container> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(containers);
+        return set;
+    }
+
+    /**
+     *  This inner class moves the containers of the bay between the state buckets when their state changes.
+     *  In the Observer Design Pattern, it acts as a Concrete Observer.
+     */
+    private class BucketUpdater implements ContainerObserver
+    {
+        @Override
+        public void stateChanged(Container container, Container.ContainerState oldState, Container.ContainerState newState)
+        {
+            synchronized (ExportSubTerminal.this)
+            {
+                boolean inBay = oldState == null ? localRegister.contains(container) : stateBuckets.get(oldState).remove(container);
+                if (inBay && newState != null)
+                {
+                    stateBuckets.get(newState).add(container);
+                }
+            }
+        }
     }
 
 }
@@ -1,16 +1,30 @@
 package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.TerminalContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
 
 /**
  *  This class represents a specialized terminal component dedicated to Import operations.
@@ -20,23 +34,62 @@ import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
  *  - Receives containers from CargoShip (Unloading).
  *  - Stores them temporarily.
  *  - Dispatches them to the Warehouse via Trucks (Borrowing).
+ *  The unloaded containers are also queued by goods type, so every goods-specific warehouse
+ *  takes its next container, oldest first, without scanning the bay.
+ *  The level of the bay is watched against a high and a low watermark: registered {@link BayLevelListener}s
+ *  are notified as soon as the bay rises above the high one, and again when it falls back to the low one,
+ *  so the trucks are woken by the unloading itself instead of polling the terminal.
  */
 @AppDesignPattern(pattern = "Iterator - Composite", justification = "Concrete Aggregate - Composite")
 @CapacityLimit(value = 15)
 public class ImportSubTerminal implements TerminalComponent, ContainerCollection
 {
     private static final Logger logger = Logger.getLogger(ImportSubTerminal.class.getName());
-    private final List<Container> localRegister = new ArrayList<>();
+    private final List<Container> localRegister = new CopyOnWriteArrayList<>();
+    private final Map<Container.GoodsType, ArrayDeque<QueueEntry>> goodsQueues = new EnumMap<>(Container.GoodsType.class);
+    /**
+     *  The current queue entry of each queued container. Its goods queue may differ from the current goods
+     *  of the container if they changed while it was waiting.
+     */
+    private final Map<Container, QueueEntry> queuedEntries = new IdentityHashMap<>();
+    /**
+     *  The number of entries of each goods queue left behind by containers released out of order,
+     *  which are skipped when they reach the head and purged once they outnumber the queued containers.
+     */
+    private final Map<Container.GoodsType, Integer> staleEntries = new EnumMap<>(Container.GoodsType.class);
+    private static final BayLevelListener[] NO_LISTENERS = new BayLevelListener[0];
+    private volatile BayLevelListener[] listeners = NO_LISTENERS;
+    private int highWatermark = 5;
+    private int lowWatermark = 5;
+    /**
+     *  Whether the bay has risen above the high watermark and has not yet fallen back to the low one.
+     */
+    private boolean aboveHighWatermark = false;
 
     private String name;
+
+    /**
+     *  This inner class represents the place of a container in a goods queue. An entry is current while it is
+     *  the one recorded for its container: a container released and imported again gets a new entry, so the
+     *  entry left behind in the queue is recognised as stale.
+     */
+    private static final class QueueEntry
+    {
+        private final Container container;
+        private final Container.GoodsType goods;
+
+        private QueueEntry(Container container, Container.GoodsType goods)
+        {
+            this.container = container;
+            this.goods = goods;
+        }
+    }
     /**
      *  The maximum number of containers this terminal can hold. 
      *  Derived from the {@link CapacityLimit} annotation.
      */
     private int minimumCapacity;
 
-    private static boolean confirmation;
-
     /**
      *  This method constructs a new Import Sub-Terminal.
      *  It initializes the terminal and uses reflection to determine its storage limit.
@@ -45,6 +98,11 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
     public ImportSubTerminal(String name)
     {
         this.name = name;
+        for (Container.GoodsType goods : Container.GoodsType.values())
+        {
+            goodsQueues.put(goods, new ArrayDeque<>());
+            staleEntries.put(goods, 0);
+        }
 
         if (this.getClass().isAnnotationPresent(CapacityLimit.class))
         {
@@ -69,16 +127,29 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
 
     /**
      *  This method creates an iterator to traverse the containers currently stored in this import bay.
-     *  @return A {@link TerminalContainerIterator} for the local list.
+     *  The local list is copy-on-write, so the iterator works on the containers present when it is created
+     *  and never blocks the trucks modifying the terminal.
+     *  @return A {@link SnapshotContainerIterator} over the current containers.
      */
     @Override
     public ContainerIterator createIterator()
     {
-        return new TerminalContainerIterator(this);
+        return new SnapshotContainerIterator(localRegister.toArray(new Container[0]));
+    }
+
+    /**
+     *  This method creates a splittable iterator over a copy of the containers currently in the terminal,
+     *  so streams are not affected by containers being added or removed during the traversal.
+     *  @return A sized spliterator over the copied containers.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        return ContainerSpliterator.ofSnapshot(localRegister.toArray(new Container[0]));
     }
 
     @Override
-    public synchronized int getSize()
+    public int getSize()
     {
         return localRegister.size();
     }
@@ -89,25 +160,84 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
         return localRegister.get(index);
     }
 
+    public synchronized int getHighWatermark()
+    {
+        return highWatermark;
+    }
+
+    public synchronized int getLowWatermark()
+    {
+        return lowWatermark;
+    }
+
     /**
-     *  This method resets the static confirmation flag.
-     *  It is called after the Terminal Operator has processed a docking request.
+     *  This method sets the watermarks of the bay. The listeners are notified when the bay holds more containers
+     *  than the high watermark, and then when it holds no more than the low one; the gap between the two
+     *  keeps them from being woken by every single container. Both watermarks are 5 by default.
+     *  @param highWatermark The level above which the bay must be cleared.
+     *  @param lowWatermark  The level at which the bay is considered cleared.
+     *  @throws IllegalArgumentException If the low watermark is negative or above the high one,
+     *                                   or if the high watermark cannot be exceeded within the capacity of the bay.
      */
-    public static void resetRequest()
+    public synchronized void setWatermarks(int highWatermark, int lowWatermark)
     {
-        confirmation = false;
+        if (lowWatermark < 0 || lowWatermark > highWatermark || highWatermark >= minimumCapacity)
+        {
+            throw new IllegalArgumentException("Invalid watermarks " + highWatermark + "/" + lowWatermark
+                    + " for a bay of " + minimumCapacity + " containers");
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        checkWatermarks();
     }
 
     /**
-     *  This method evaluates a docking request from a Cargo Ship.
+     *  This method registers a listener, which will be notified of every following watermark crossing.
+     *  The listeners are kept in a copy-on-write array, so notifications never allocate.
+     *  @param listener The listener to register. Registering the same listener twice has no effect.
+     */
+    public synchronized void addLevelListener(BayLevelListener listener)
+    {
+        for (BayLevelListener registered : listeners)
+        {
+            if (registered == listener)
+            {
+                return;
+            }
+        }
+        BayLevelListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     *  This method removes a previously registered listener.
+     *  @param listener The listener to remove.
+     */
+    public synchronized void removeLevelListener(BayLevelListener listener)
+    {
+        for (int i = 0; i < listeners.length; i++)
+        {
+            if (listeners[i] == listener)
+            {
+                BayLevelListener[] updated = new BayLevelListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated.length == 0 ? NO_LISTENERS : updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     *  This method evaluates a docking request from a Cargo Ship, before it is submitted to the Terminal Operator.
      *  Logic:
      *  Checks if the ship is in a valid state.
      *  Verifies if the ship is targeting this specific port ("Bari" or "Busan").
-     *  If valid, sets the global confirmation flag to true.
      *  @param ship The ship requesting docking.
      *  @param bariImp The Bari Import Terminal instance.
      *  @param busanImp The Busan Import Terminal instance.
-     *  @return {@code true} if the request is valid and accepted for review.
+     *  @return {@code true} if the request is valid and can be reviewed by the operator.
      */
     public static boolean shipRequest(CargoShip ship, ImportSubTerminal bariImp, ImportSubTerminal busanImp)
     {
@@ -119,14 +249,12 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
                 (ship.getState() == CargoShip.CargoShipState.IN_TRANSIT || ship.getState() == CargoShip.CargoShipState.WAITING))
         {
             logger.info("The " + bariImp.getName() + " import terminal has received a request from the ship captain to dock.");
-            confirmation = true;
             return true;
         }
         else if(ship.getRequestTarget().equals("Busan") && 
                (ship.getState() == CargoShip.CargoShipState.IN_TRANSIT || ship.getState() == CargoShip.CargoShipState.WAITING))
         {
             logger.info("The " + busanImp.getName() + " import terminal has received a request from the ship captain to dock.");
-            confirmation = true;
             return true;
         }
         else
@@ -136,45 +264,95 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
         return false;
     }
 
-    /**
-     *  This method checks if a valid docking request is pending confirmation.
-     *  @return {@code true} if the operator needs to be notified.
-     */
-    public static boolean sendConfirmation()
-    {
-        if (confirmation == true)
-        {
-            logger.info("The import terminal has notified the terminal operator of the request.");
-            return true;
-        }
-        return false;
-    }
-
     /**
      *  This method handles the physical unloading of a container from the ship to the terminal.
-     *  Thread Safety: Synchronized to prevent race conditions during rapid unloading.
+     *  Thread Safety: Synchronized (through {@link #shipImportAll(Collection)}) to prevent race conditions during rapid unloading.
      *  Validation:
      *  Checks against the CapacityLimit to ensure the terminal isn't full.
      *  @param containerToAdd The container coming off the ship.
      *  @return {@code true} if space was available and the container was accepted.
      */
-    public synchronized boolean shipImport(Container containerToAdd)
-    {   
-        if (localRegister.size() >= minimumCapacity)
+    public boolean shipImport(Container containerToAdd)
+    {
+        return shipImportAll(List.of(containerToAdd)).isComplete();
+    }
+
+    /**
+     *  This method unloads a whole batch of containers from the ship, taking the terminal lock once.
+     *  The free capacity of the bay is reserved up front: the containers are accepted in the given order
+     *  until the bay is full, and the remaining ones are returned as rejected, so they stay on the ship.
+     *  The accepted containers are added, queued and journaled together, with a single log line.
+     *  The journal records are appended under the terminal lock, and their fsync is awaited after releasing it;
+     *  the log records are also written after releasing it.
+     *  @param containersToAdd The containers coming off the ship, in unloading order.
+     *  @return The {@link UnloadResult} with the accepted and the rejected containers.
+     */
+    public UnloadResult shipImportAll(Collection<? extends Container> containersToAdd)
+    {
+        ContainerJournal journal = ContainerJournal.getInstance();
+        List<Container> accepted;
+        List<Container> rejected = new ArrayList<>();
+        long ticket = ContainerJournal.NO_TICKET;
+        synchronized (this)
         {
-            logger.warning("The terminal has reached its maximum capacity. No more containers can be added");
-            System.out.println(".\n.\n.\n.\n.");
-            return false;
+            int free = Math.max(0, minimumCapacity - localRegister.size());
+            accepted = new ArrayList<>(Math.min(free, containersToAdd.size()));
+            for (Container c : containersToAdd)
+            {
+                if (accepted.size() < free)
+                {
+                    c.setContainerState(Container.ContainerState.FULL_IMPORT);
+                    c.setLocation(this.name + " Import Sub-Terminal");
+                    accepted.add(c);
+                }
+                else
+                {
+                    rejected.add(c);
+                }
+            }
+            if (!accepted.isEmpty())
+            {
+                localRegister.addAll(accepted);
+                for (Container c : accepted)
+                {
+                    enqueue(c);
+                }
+                ticket = journal.appendAll(ContainerJournal.Event.SHIP_IMPORT, accepted, this.name);
+                checkWatermarks();
+            }
         }
-        else
+        journal.awaitDurable(ticket);
+        if (!accepted.isEmpty())
         {
-            containerToAdd.setContainerState(Container.ContainerState.FULL_IMPORT);
-            containerToAdd.setLocation(this.name + " Import Sub-Terminal");
-            localRegister.add(containerToAdd);
-            logger.info("Container " + containerToAdd.getContainerCode() + " unloaded successfully.");
-            System.out.println(".\n.\n.\n.\n.");
-            return true;
+            logger.info(accepted.size() + " containers unloaded successfully.");
+        }
+        if (!rejected.isEmpty())
+        {
+            logger.warning("The terminal has reached its maximum capacity. " + rejected.size() + " containers could not be added.");
+        }
+        return new UnloadResult(accepted, rejected);
+    }
+
+    /**
+     *  This method replaces the content of the terminal with containers restored from a snapshot.
+     *  No validation is performed, since the containers were valid when the snapshot was taken.
+     *  @param containers The containers to store, in their original order.
+     */
+    public synchronized void restoreContainers(List<Container> containers)
+    {
+        localRegister.clear();
+        goodsQueues.values().forEach(ArrayDeque::clear);
+        queuedEntries.clear();
+        staleEntries.replaceAll((goods, count) -> 0);
+        localRegister.addAll(containers);
+        for (Container c : containers)
+        {
+            if (c.getContainerState() == Container.ContainerState.FULL_IMPORT)
+            {
+                enqueue(c);
+            }
         }
+        checkWatermarks();
     }
 
     /**
@@ -182,22 +360,173 @@ public class ImportSubTerminal implements TerminalComponent, ContainerCollection
      *  @param goods The type of goods the truck is looking for (e.g., FOOD, ELECTRONICS).
      *  @return The matching {@link Container} if found and removed, otherwise {@code null}.
      */
-    public synchronized Container borrowFromWarehouse(Container.GoodsType goods)
+    public Container borrowFromWarehouse(Container.GoodsType goods)
     {
-        ContainerIterator containerIterator = this.createIterator();
-        while (containerIterator.hasNext())
-        {
-            Container c = containerIterator.next();
+        List<Container> borrowed = borrowFromWarehouse(goods, 1);
+        return borrowed.isEmpty() ? null : borrowed.get(0);
+    }
 
-            if (c.getContainerState() == Container.ContainerState.FULL_IMPORT && c.getGoods() == goods)
+    /**
+     *  This method transfers up to {@code maxCount} containers of the given goods from the Terminal to a Warehouse,
+     *  taking the terminal lock once for the whole batch.
+     *  The containers are taken from the head of the queue of the requested goods, oldest first.
+     *  Queued containers whose state or goods changed while waiting are checked when they reach the head:
+     *  containers still FULL_IMPORT are moved to the queue of their current goods, the others are no longer
+     *  offered to the warehouses. The entries left behind by containers released to the pipeline are skipped.
+     *  The journal records are appended under the terminal lock, and their fsync is awaited after releasing it;
+     *  the log records are also written after releasing it, so a truck never blocks on the console under the monitor.
+     *  @param goods    The type of goods the warehouse is looking for (e.g., FOOD, ELECTRONICS).
+     *  @param maxCount The maximum number of containers to take.
+     *  @return The containers removed from the terminal, possibly none.
+     */
+    public List<Container> borrowFromWarehouse(Container.GoodsType goods, int maxCount)
+    {
+        ContainerJournal journal = ContainerJournal.getInstance();
+        List<Container> borrowed = new ArrayList<>();
+        long ticket = ContainerJournal.NO_TICKET;
+        synchronized (this)
+        {
+            ArrayDeque<QueueEntry> queue = goodsQueues.get(goods);
+            QueueEntry entry;
+            while (borrowed.size() < maxCount && (entry = queue.pollFirst()) != null)
+            {
+                Container c = entry.container;
+                if (queuedEntries.get(c) != entry)
+                {
+                    staleEntries.merge(goods, -1, Integer::sum);
+                    continue;
+                }
+                queuedEntries.remove(c);
+                if (c.getContainerState() != Container.ContainerState.FULL_IMPORT)
+                {
+                    continue;
+                }
+                if (c.getGoods() != goods)
+                {
+                    enqueue(c);
+                    continue;
+                }
+                borrowed.add(c);
+            }
+            if (!borrowed.isEmpty())
+            {
+                localRegister.removeAll(identitySetOf(borrowed));
+                ticket = journal.appendAll(ContainerJournal.Event.WAREHOUSE_PICK, borrowed, this.name);
+                checkWatermarks();
+            }
+        }
+        if (borrowed.isEmpty())
+        {
+            logger.warning("Warehouse attempted to borrow a container, but no full containers were found in the Import Sub-Terminal.");
+            return borrowed;
+        }
+        if (SimulationLogScope.isLoggable(logger, Level.INFO))
+        {
+            for (Container c : borrowed)
             {
-                localRegister.remove(c);   
                 logger.info("The import sub-terminal has permitted the picking of the following containaer: " + c.getContainerCode());
-                return c;
             }
         }
-        logger.warning("Warehouse attempted to borrow a container, but no full containers were found in the Import Sub-Terminal.");
-        return null;
+        journal.awaitDurable(ticket);
+        return borrowed;
+    }
+
+    /**
+     *  This method transfers one given container from the Terminal to a Warehouse, as done by the import
+     *  warehouse stage of a pipelined port call, which follows each container unloaded from the ship.
+     *  The container is dropped from its goods queue lazily, without searching the queue (see {@link #discard}).
+     *  @param container The container to take.
+     *  @return {@code true} if the container was in the terminal and has been removed.
+     */
+    public boolean releaseToWarehouse(Container container)
+    {
+        ContainerJournal journal = ContainerJournal.getInstance();
+        long ticket;
+        synchronized (this)
+        {
+            if (!localRegister.remove(container))
+            {
+                return false;
+            }
+            QueueEntry entry = queuedEntries.remove(container);
+            if (entry != null)
+            {
+                discard(entry.goods);
+            }
+            ticket = journal.append(ContainerJournal.Event.WAREHOUSE_PICK, container, this.name);
+            checkWatermarks();
+        }
+        journal.awaitDurable(ticket);
+        return true;
+    }
+
+    /**
+     *  This method compares the level of the bay with the watermarks, and notifies the listeners
+     *  when it has crossed one of them since the last check.
+     *  It must be called while holding the terminal lock, after every change of the bay.
+     */
+    private void checkWatermarks()
+    {
+        int size = localRegister.size();
+        if (!aboveHighWatermark && size > highWatermark)
+        {
+            aboveHighWatermark = true;
+            for (BayLevelListener listener : listeners)
+            {
+                listener.highWatermarkReached(this, size);
+            }
+        }
+        else if (aboveHighWatermark && size <= lowWatermark)
+        {
+            aboveHighWatermark = false;
+            for (BayLevelListener listener : listeners)
+            {
+                listener.lowWatermarkReached(this, size);
+            }
+        }
+    }
+
+    /**
+     *  This method appends a container at the tail of the queue of its goods.
+     *  It must be called while holding the terminal lock.
+     */
+    private void enqueue(Container container)
+    {
+        Container.GoodsType goods = container.getGoods();
+        if (goods != null)
+        {
+            QueueEntry entry = new QueueEntry(container, goods);
+            goodsQueues.get(goods).addLast(entry);
+            queuedEntries.put(container, entry);
+        }
+    }
+
+    /**
+     *  This method records that the queue of the given goods holds one more stale entry, left by a container
+     *  no longer queued there, instead of searching the queue for it. Once such entries outnumber the queued containers, the queue
+     *  is rebuilt without them, so each release costs amortized constant time and the queue stays proportional to the bay.
+     *  It must be called while holding the terminal lock.
+     */
+    private void discard(Container.GoodsType goods)
+    {
+        ArrayDeque<QueueEntry> queue = goodsQueues.get(goods);
+        int stale = staleEntries.merge(goods, 1, Integer::sum);
+        if (stale > queue.size() - stale)
+        {
+            queue.removeIf(entry -> queuedEntries.get(entry.container) != entry);
+            staleEntries.put(goods, 0);
+        }
+    }
+
+    /**
+     *  This method wraps containers in an identity set, so that removing them from the copy-on-write bay
+     *  costs one lookup per container of the bay instead of a scan of the list.
+     */
+    private static Set<Container> identitySetOf(Collection<? extends Container> containers)
+    {
+        Set<Container> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(containers);
+        return set;
     }
 
-}
\ No newline at end of file
+}
@@ -4,25 +4,37 @@ package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Terminal
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.CompositeContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
 import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ContainerValidationException;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
 
 /**
  *  This class represents a main terminal hub that can contain multiple sub-terminals.
  *  In the <b>Composite Design Pattern</b>, this class acts as the <b>Composite</b>.
  *  It maintains a list of child {@link TerminalComponent} objects (such as {@link ExportSubTerminal})
  *  and implements the component interface methods to delegate operations to its children.
+ *  In the <b>Iterator Design Pattern</b>, this class also acts as an <b>Aggregate</b>: it concatenates the
+ *  container views of the children that are {@link ContainerCollection}s, without copying them,
+ *  so the containers of a port can be traversed and aggregated without touching the global register.
  */
-@AppDesignPattern(pattern = "Composite", justification = "Composite")
-public class Terminal implements TerminalComponent 
+@AppDesignPattern(pattern = "Composite - Iterator", justification = "Composite - Aggregate")
+public class Terminal implements TerminalComponent, ContainerCollection
 {
     private static final Logger logger = Logger.getLogger(Terminal.class.getName());
     private List<TerminalComponent> components = new ArrayList<>();
+    private List<ContainerCollection> collections = new ArrayList<>();
 
     private String name;
 
@@ -35,6 +47,11 @@ public class Terminal implements TerminalComponent
         this.name = name;
     }
 
+    public String getName()
+    {
+        return name;
+    }
+
     @Override
     public void description()
     {
@@ -48,6 +65,10 @@ public class Terminal implements TerminalComponent
     public void addComponent(TerminalComponent component)
     {
         components.add(component);
+        if (component instanceof ContainerCollection)
+        {
+            collections.add((ContainerCollection) component);
+        }
     }
 
     /**
@@ -64,16 +85,107 @@ public class Terminal implements TerminalComponent
     }
 
     /**
-     *  This method displays a complete list of all containers in the system.
-     *  It accesses the {@link ContainerRegister} Singleton to get the global view of all containers,
-     *  regardless of which specific sub-terminal they are currently in.
+     *  This method creates an iterator that traverses the containers of every child, one child after the other.
+     *  @return A {@link CompositeContainerIterator} over the children of this terminal.
      */
-    public static void displayAllContainers()
+    @Override
+    public ContainerIterator createIterator()
     {
-        ContainerRegister globalRegister = ContainerRegister.getInstance();
+        return new CompositeContainerIterator(collections);
+    }
 
-        logger.info("Displaying the containers of both port terminals:");
-        ContainerIterator containerIterator = globalRegister.createIterator();
+    /**
+     *  This method returns the number of containers held by the children of this terminal.
+     *  @return The sum of the sizes of the children.
+     */
+    @Override
+    public int getSize()
+    {
+        int size = 0;
+        for (ContainerCollection collection : collections)
+        {
+            size += collection.getSize();
+        }
+        return size;
+    }
+
+    /**
+     *  This method retrieves the container at the given position of the concatenated children.
+     *  @param index The zero-based index of the container, across all the children.
+     *  @return The container at that position.
+     *  @throws IndexOutOfBoundsException If the index is outside the concatenated children.
+     */
+    @Override
+    public Container getContainerAt(int index)
+    {
+        int offset = index;
+        for (ContainerCollection collection : collections)
+        {
+            int size = collection.getSize();
+            if (offset >= 0 && offset < size)
+            {
+                return collection.getContainerAt(offset);
+            }
+            offset -= size;
+        }
+        throw new IndexOutOfBoundsException("Invalid container index: " + index);
+    }
+
+    /**
+     *  This method produces a splittable iterator that concatenates the spliterators of the children,
+     *  so every child keeps its own traversal (e.g., a snapshot) and a parallel stream can split on the children.
+     *  @return A spliterator over the containers of every child.
+     */
+    @Override
+    public Spliterator<Container> spliterator()
+    {
+        Stream<Container> concatenated = Stream.empty();
+        for (ContainerCollection collection : collections)
+        {
+            concatenated = Stream.concat(concatenated, StreamSupport.stream(collection.spliterator(), false));
+        }
+        return concatenated.spliterator();
+    }
+
+    /**
+     *  This method counts the containers of this terminal in each state, visiting only the children of this terminal.
+     *  @return The number of containers for every {@link Container.ContainerState}.
+     */
+    public Map<Container.ContainerState, Integer> countByState()
+    {
+        Map<Container.ContainerState, Integer> counts = new EnumMap<>(Container.ContainerState.class);
+        for (Container.ContainerState state : Container.ContainerState.values())
+        {
+            counts.put(state, 0);
+        }
+        ContainerIterator containerIterator = this.createIterator();
+        while (containerIterator.hasNext())
+        {
+            Container.ContainerState state = containerIterator.next().getContainerState();
+            if (state != null)
+            {
+                counts.merge(state, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     *  This method sums the tare weight of the containers of this terminal.
+     *  @return The total tare weight, in kilograms.
+     */
+    public long totalTareWeight()
+    {
+        return stream().mapToLong(Container::getTareWeight).sum();
+    }
+
+    /**
+     *  This method displays the containers of this terminal, traversing its children only.
+     */
+    public void displayContainers()
+    {
+        logger.info("Displaying the containers of the " + this.name + " terminal:");
+        ContainerIterator containerIterator = this.createIterator();
         while (containerIterator.hasNext())
         {
             Container container = containerIterator.next();
@@ -81,10 +193,25 @@ public class Terminal implements TerminalComponent
         }
     }
 
+    /**
+     *  This method displays the containers of the given port terminals.
+     *  Each terminal only traverses its own sub-terminals, so the cargo of the ship and the containers of the
+     *  other ports are not scanned.
+     *  @param terminals The port terminals to display (e.g., Bari and Busan).
+     */
+    public static void displayAllContainers(Terminal... terminals)
+    {
+        logger.info("Displaying the containers of both port terminals:");
+        for (Terminal terminal : terminals)
+        {
+            terminal.displayContainers();
+        }
+    }
+
     /**
      *  This method orchestrates the safe removal of a container from the logistics system.
      *  This method acts as a transaction controller, enforcing strict business rules before deletion:
-     *  - Validation: Ensures the container exists and is EMPTY.
+     *  - Validation: Ensures the container exists (looked up through the register's code index) and is EMPTY.
      *  - Global Capacity: Ensures removal doesn't drop total inventory below the safety threshold (20).
      *  - Location Check: Ensures the container is not currently in transit (on a {@link CargoShip}).
      *  - Execution:</b> Removes the container from the specific sub-terminal (Bari or Busan) and then from the Global Register.
@@ -99,18 +226,7 @@ public class Terminal implements TerminalComponent
         ContainerRegister globalRegister = ContainerRegister.getInstance();
         int minimumCapacity = 10;
 
-        Container ctnr = null;
-
-        ContainerIterator containerIterator = globalRegister.createIterator();
-        while (containerIterator.hasNext())
-        {
-            Container container = containerIterator.next();
-            if (container.getContainerCode().equals(containerCode))
-            {
-                ctnr = container;
-                break;
-            }
-        }
+        Container ctnr = globalRegister.findByCode(containerCode);
 
         if (ctnr == null)
         {
@@ -152,6 +268,7 @@ public class Terminal implements TerminalComponent
         if (removedFromBari || removedFromBusan)
         {
             globalRegister.removeContainer(ctnr);
+            ContainerJournal.getInstance().record(ContainerJournal.Event.REMOVE, ctnr, null);
             logger.info("The " + ctnr.getType() + " container " + containerCode + " has been succesfully deleted.");
             ctnr = null;
         }
@@ -0,0 +1,45 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite;
+
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+
+/**
+ *  This class holds the outcome of a bulk unload into an {@link ImportSubTerminal}:
+ *  the containers accepted by the import bay and the ones that did not fit and stay on the ship.
+ *  Both lists keep the order in which the containers were offered, and cannot be modified.
+ */
+public final class UnloadResult
+{
+    private final List<Container> accepted;
+    private final List<Container> rejected;
+
+    /**
+     *  This method constructs the result of a bulk unload.
+     *  @param accepted The containers moved into the import bay.
+     *  @param rejected The containers left on the ship because the bay was full.
+     */
+    public UnloadResult(List<Container> accepted, List<Container> rejected)
+    {
+        this.accepted = List.copyOf(accepted);
+        this.rejected = List.copyOf(rejected);
+    }
+
+    public List<Container> getAccepted()
+    {
+        return accepted;
+    }
+
+    public List<Container> getRejected()
+    {
+        return rejected;
+    }
+
+    /**
+     *  This method checks whether every offered container has been unloaded.
+     *  @return {@code true} if no container was rejected.
+     */
+    public boolean isComplete()
+    {
+        return rejected.isEmpty();
+    }
+}
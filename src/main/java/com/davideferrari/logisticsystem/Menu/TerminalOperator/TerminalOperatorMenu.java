@@ -3,6 +3,8 @@ package com.davideferrari.logisticsystem.Menu.TerminalOperator;
 import java.util.Scanner;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingBus;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingRequest;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
@@ -19,13 +21,12 @@ import com.davideferrari.logisticsystem.Utils.ExceptionHandling.MenuValidationEx
  *  - Inspect Terminal status and hierarchy.
  *  - Create and Add new containers using the Factory Pattern.
  *  - Remove containers from specific terminals.
- *  - Manage Docking and Undocking requests from the {@link CargoShip}.
+ *  - Manage Docking and Undocking requests from the {@link CargoShip}s, queued on the {@link DockingBus}.
  */
 public class TerminalOperatorMenu
 {
 
     private static final Logger logger = Logger.getLogger(TerminalOperatorMenu.class.getName());
-    private static boolean confirmation;
 
     /**
      *  This method provides the main execution loop for the Terminal Operator's menu.
@@ -107,7 +108,7 @@ public class TerminalOperatorMenu
                                 try
                                 {
                                     System.out.println(".\n.\n.\n.\n.");
-                                    TerminalOperatorMenu.selectTerminalForRemoval(option, bariExp, busanExp, ship);
+                                    TerminalOperatorMenu.selectTerminalForRemoval(option, bari, bariExp, busan, busanExp, ship);
                                 }
                                 catch (MenuValidationException e)
                                 {
@@ -131,7 +132,7 @@ public class TerminalOperatorMenu
                                 {
                                     {
                                         System.out.println(".\n.\n.\n.\n.");
-                                        TerminalOperatorMenu.selectTerminalForIteration(option, bariExp, busanExp);
+                                        TerminalOperatorMenu.selectTerminalForIteration(option, bari, bariExp, busan, busanExp);
                                     }
                                 }
                                 catch (MenuValidationException e)
@@ -156,7 +157,7 @@ public class TerminalOperatorMenu
                                 {
                                     {
                                         System.out.println(".\n.\n.\n.\n.");
-                                        TerminalOperatorMenu.selectShipRequest(option, ship, bariImp, busanImp, bariExp, busanExp);
+                                        TerminalOperatorMenu.selectShipRequest(option, bariImp, busanImp, bariExp, busanExp);
                                     }
                                 }
                                 catch (Exception e)
@@ -491,7 +492,7 @@ public class TerminalOperatorMenu
      *  This method provides an interactive menu for removing containers, 
      *  and allows the user to browse containers in Bari, Busan, or Both, and input a code for global removal.
      */
-    public static boolean selectTerminalForRemoval(Scanner option, ExportSubTerminal bariExp, ExportSubTerminal busanExp, CargoShip ship) throws MenuValidationException, ContainerValidationException
+    public static boolean selectTerminalForRemoval(Scanner option, Terminal bari, ExportSubTerminal bariExp, Terminal busan, ExportSubTerminal busanExp, CargoShip ship) throws MenuValidationException, ContainerValidationException
     {
         logger.info("From which terminal do you want to remove a container? \n 1. Bari terminal. \n 2. Busan terminal. \n 3. Both terminals. \n 4. Exit.\n Provide an answer with the number related to the desired option: ");
         String displayOptions = option.nextLine();
@@ -523,7 +524,7 @@ public class TerminalOperatorMenu
                 case "3":
                 {
                     logger.info("Selected option: " + displayOptions + ". all containers.");
-                    Terminal.displayAllContainers();
+                    Terminal.displayAllContainers(bari, busan);
                     System.out.println("---------");
                     logger.info("Write down which container you want to remove: ");
                     String rawInput = option.nextLine();
@@ -547,7 +548,7 @@ public class TerminalOperatorMenu
     /**
      *  This method provides a sub-menu to display container lists using Iterators.
      */
-    public static boolean selectTerminalForIteration(Scanner option, ExportSubTerminal bariExp, ExportSubTerminal busanExp) throws MenuValidationException
+    public static boolean selectTerminalForIteration(Scanner option, Terminal bari, ExportSubTerminal bariExp, Terminal busan, ExportSubTerminal busanExp) throws MenuValidationException
     {
         logger.info("Which containers would you like to display? \n 1. Bari terminal containers. \n 2. Busan terminal containers. \n 3. Containers of both terminals. \n 4. Exit.\n Provide an answer with the number related to the desired option: ");
         String displayOptions = option.nextLine();
@@ -571,7 +572,7 @@ public class TerminalOperatorMenu
             case "3":
             {
                 logger.info("Selected option: " + displayOptions + ". all containers from both terminals.");
-                Terminal.displayAllContainers();
+                Terminal.displayAllContainers(bari, busan);
                 System.out.println("---------");
                 break;
             }
@@ -589,10 +590,10 @@ public class TerminalOperatorMenu
     }
 
     /**
-     *  This method handles Docking/Undocking requests from the Ship,
-     *  checking if a request exists in the respective Sub-Terminals and asking the Operator for confirmation.
+     *  This method handles Docking/Undocking requests from the Ships,
+     *  taking the oldest request of the selected type from the {@link DockingBus} and asking the Operator for confirmation.
      */
-    public static boolean selectShipRequest(Scanner option, CargoShip ship, ImportSubTerminal bariImp, ImportSubTerminal busanImp, ExportSubTerminal bariExp, ExportSubTerminal busanExp) throws MenuValidationException
+    public static boolean selectShipRequest(Scanner option, ImportSubTerminal bariImp, ImportSubTerminal busanImp, ExportSubTerminal bariExp, ExportSubTerminal busanExp) throws MenuValidationException
     {
         logger.info("Which ship request do you want to consider? \n 1. Docking Request. \n 2. Undocking Request. \n 3. Back to the menu. \nProvide an answer with the number related to the desired option: ");
         String selectedTerminal = option.nextLine();
@@ -602,15 +603,13 @@ public class TerminalOperatorMenu
             case "1":
             {
                 System.out.println(".\n.\n.\n.\n.");
-                ImportSubTerminal.shipRequest(ship, bariImp, busanImp);
-                TerminalOperatorMenu.shipDockConfirmation(option, ship, bariImp, busanImp);
+                TerminalOperatorMenu.shipDockConfirmation(option, bariImp, busanImp);
                 break;
             }
             case "2":
             {
                 System.out.println(".\n.\n.\n.\n.");
-                ExportSubTerminal.shipRequest(ship, bariExp, busanExp);
-                TerminalOperatorMenu.shipUndockConfirmation(option, ship, bariImp, busanImp, busanExp, bariExp);
+                TerminalOperatorMenu.shipUndockConfirmation(option, bariExp, busanExp);
                 break;
             }
             case "3":
@@ -628,76 +627,56 @@ public class TerminalOperatorMenu
     }
 
     /**
-     *  This method processes the operator's decision for a Docking Request,
-     *  and sets the static `confirmation` flag to true if granted.
+     *  This method processes the operator's decision for the oldest Docking Request of the {@link DockingBus},
+     *  and sends the reply to the ship that made it. Requests that are not valid for the ports are denied.
      */
-    public static boolean shipDockConfirmation(Scanner option, CargoShip ship, ImportSubTerminal bariImp, ImportSubTerminal busanImp) throws MenuValidationException
+    public static boolean shipDockConfirmation(Scanner option, ImportSubTerminal bariImp, ImportSubTerminal busanImp) throws MenuValidationException
     {
-        if(ImportSubTerminal.sendConfirmation() == true)
+        DockingBus bus = DockingBus.getInstance();
+        DockingRequest request = bus.nextPending(DockingRequest.Type.DOCK);
+        if (request == null)
         {
-            System.out.println(".\n.\n.\n.\n.");
-            logger.info("Select the response to give to the cargo ship captain. \n 1. Yes, grant permission. \n 2. No, the ship must still wait. \n 3. Exit.\n Provide an answer with the number related to the desired option: ");
-        String displayOptions = option.nextLine();
-        System.out.println("-");
-        switch (displayOptions)
-        {
-            case "1":
-            {
-                logger.info("Selected option: " + displayOptions + ". Yes, grant permission.");
-                confirmation = true;
-                ImportSubTerminal.resetRequest();
-                System.out.println(".\n.\n.\n.\n.");
-                return true;
-            }
-            case "2":
-            {
-                logger.info("Selected option: " + displayOptions + ". No, permission not granted for now.");
-                confirmation = false;
-                ImportSubTerminal.resetRequest();
-                System.out.println(".\n.\n.\n.\n.");
-                break;
-            }
-            case "3":
-            {
-                logger.info("You are going back to the menu");
-                return false;
-            }
-            default:
-            {
-                throw new MenuValidationException("You have selected an invalid option. Please try again.", null);                                  
-            }
+            logger.info("No request from a ship has been received.");
+            return true;
         }
+        if (!ImportSubTerminal.shipRequest(request.getShip(), bariImp, busanImp))
+        {
+            bus.answer(request, false);
+            return true;
         }
-        return true;
+        return answerRequest(option, bus, request);
     }
 
     /**
-     *  This method checks if the confirmation flag is set to true,
-     *  and is used by the Ship class to verify if it can proceed with docking.
+     *  This method processes the operator's decision for the oldest Undocking Request of the {@link DockingBus},
+     *  and sends the reply to the ship that made it. Requests that are not valid for the ports are denied.
      */
-    public static boolean sendDockConfirmationtoShip()
+    public static boolean shipUndockConfirmation(Scanner option, ExportSubTerminal bariExp, ExportSubTerminal busanExp) throws MenuValidationException
     {
-        if (confirmation == true)
+        DockingBus bus = DockingBus.getInstance();
+        DockingRequest request = bus.nextPending(DockingRequest.Type.UNDOCK);
+        if (request == null)
         {
-            logger.info("The terminal operator has sent the confirmation to the ship captain.");
-            confirmation = false;
+            logger.info("No request from a ship has been received.");
             return true;
         }
-        else
+        if (!ExportSubTerminal.shipRequest(request.getShip(), bariExp, busanExp))
         {
-            logger.info("No confirmation can be given to the ship captain. The ship must wait");
+            bus.answer(request, false);
+            return true;
         }
-        return false;
+        return answerRequest(option, bus, request);
     }
 
     /**
-     *  This method processes the operator's decision for an Undocking Request.
+     *  This method asks the operator to grant or deny a request, and answers it on the bus.
+     *  If the operator exits, the request stays in the queue.
      */
-    public static boolean shipUndockConfirmation(Scanner option, CargoShip ship, ImportSubTerminal bariImp, ImportSubTerminal busanImp, ExportSubTerminal bariExp, ExportSubTerminal busanExp) throws MenuValidationException
+    private static boolean answerRequest(Scanner option, DockingBus bus, DockingRequest request) throws MenuValidationException
     {
-        if(ExportSubTerminal.sendConfirmation() == true)
-        {
-            logger.info("Select the response to give to the cargo ship captain. \n 1. Yes, grant permission. \n 2. No, the ship must still wait. \n 3. Exit.\n Provide an answer with the number related to the desired option: ");
+        System.out.println(".\n.\n.\n.\n.");
+        logger.info("Request " + request + " is waiting for an answer.");
+        logger.info("Select the response to give to the cargo ship captain. \n 1. Yes, grant permission. \n 2. No, the ship must still wait. \n 3. Exit.\n Provide an answer with the number related to the desired option: ");
         String displayOptions = option.nextLine();
         System.out.println("-");
         switch (displayOptions)
@@ -705,15 +684,15 @@ public class TerminalOperatorMenu
             case "1":
             {
                 logger.info("Selected option: " + displayOptions + ". Yes, grant permission.");
-                confirmation = true;
-                ExportSubTerminal.resetRequest();
+                bus.answer(request, true);
+                System.out.println(".\n.\n.\n.\n.");
                 return true;
             }
             case "2":
             {
                 logger.info("Selected option: " + displayOptions + ". No, permission not granted for now.");
-                confirmation = false;
-                ExportSubTerminal.resetRequest();
+                bus.answer(request, false);
+                System.out.println(".\n.\n.\n.\n.");
                 break;
             }
             case "3":
@@ -726,25 +705,9 @@ public class TerminalOperatorMenu
                 throw new MenuValidationException("You have selected an invalid option. Please try again.", null);                                  
             }
         }
-        }
         return true;
     }
 
-    /**
-     *  This method checks if the confirmation flag is set to true,
-     *  and is used by the Ship class to verify if it can leave the port.
-     */
-    public static boolean sendUndockConfirmationtoShip()
-    {
-        if (confirmation == true)
-        {
-            logger.info("The terminal operator has sent the confirmation to the ship captain.");
-            confirmation = false;
-            return true;
-        }
-        return false;
-    }
-
     /**
      *  This method helps safely parse Integer inputs from the console,
      *  and prevents the application from crashing if the user enters non-numeric text.
@@ -2,6 +2,7 @@ package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.E
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container.ContainerState;
@@ -13,6 +14,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ImportWarehouse;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
 
 /**
  *  This class represents the specific warehouse department responsible for importing electronics.
@@ -48,23 +50,37 @@ public class ElectronicsImportWarehouse extends ImportWarehouse implements Conta
         return electronicsImportWarehouse.get(index);
     }
 
+    @Override
+    protected List<Container> stock()
+    {
+        return electronicsImportWarehouse;
+    }
+
     /**
-     *  This method is needed for picking up a container from the Import Terminal.
-     *  @param imp The import terminal source.
+     *  This method is needed for picking up containers from the Import Terminal,
+     *  taking a whole batch of containers of this goods type at once.
+     *  @param imp      The import terminal source.
+     *  @param maxCount The maximum number of containers to pick.
+     *  @return The number of containers picked.
      */
     @Override
-    protected void pick(ImportSubTerminal imp)
+    protected int pick(ImportSubTerminal imp, int maxCount)
     {
-        Container c = imp.borrowFromWarehouse(this.goods);
-        if (c != null)
+        List<Container> picked = imp.borrowFromWarehouse(this.goods, maxCount);
+        if (picked.isEmpty())
         {
-            electronicsImportWarehouse.add(c);
-            logger.info(c.getContainerCode() + " is now in the electronics warehouse, ready to be emptied for the import operation. This container will now be emptied of it's goods.");
+            logger.info("No suitable container was found for the electronics warehouse.");
         }
-        else
+        boolean verbose = SimulationLogScope.isLoggable(logger, Level.INFO);
+        for (Container c : picked)
         {
-            logger.info("No suitable container was found for the electronics warehouse.");
+            electronicsImportWarehouse.add(c);
+            if (verbose)
+            {
+                logger.info(c.getContainerCode() + " is now in the electronics warehouse, ready to be emptied for the import operation. This container will now be emptied of it's goods.");
+            }
         }
+        return picked.size();
     }
 
     /**
@@ -84,7 +100,7 @@ public class ElectronicsImportWarehouse extends ImportWarehouse implements Conta
     }
 
     /**
-     *  This method returns the empty container to the Export Terminal.
+     *  This method returns the empty containers to the Export Terminal in a single batch.
      *  Once the container is cleared from the warehouse list, it enters the export pool
      *  to be picked up by an Export Warehouse later.
      *  @param exp The export terminal destination.
@@ -93,12 +109,7 @@ public class ElectronicsImportWarehouse extends ImportWarehouse implements Conta
     protected void retrieve(ExportSubTerminal exp)
     {
         logger.info("The container is being retrieved by the electronics warehouse, and it will be moved to the export sub-terminal.");
-        ContainerIterator containerIterator = this.createIterator();
-        while(containerIterator.hasNext())
-        {
-            Container c = containerIterator.next();
-            exp.addFromWarehouse(c);
-        }
+        exp.addFromWarehouse(List.copyOf(electronicsImportWarehouse));
         electronicsImportWarehouse.clear();
     }
 
@@ -1,5 +1,6 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 
 /**
@@ -16,21 +17,49 @@ public abstract class ExportWarehouse
      *  This Template Method defines the rigid workflow for the export process.
      *  Subclasses cannot override this workflow structure, but they
      *  must provide implementations for the specific steps (request, pick, load, retrieve).
+     *  A single container is processed per cycle.
      *  @param exp The export terminal where the final goods will be delivered.
      */
     public final void warehouseExport(ExportSubTerminal exp)
     {
-        request(exp);
+        warehouseExport(exp, 1);
+    }
+
+    /**
+     *  This Template Method runs the same export workflow on a whole batch of containers:
+     *  the empty containers are requested and the loaded ones returned with a single lock acquisition each.
+     *  @param exp      The export terminal providing and receiving the containers.
+     *  @param maxCount The maximum number of containers processed in this cycle.
+     */
+    public final void warehouseExport(ExportSubTerminal exp, int maxCount)
+    {
+        request(exp, maxCount);
         pick();
         load();
         retrieve(exp);
     }
 
     /**
-     *  Step 1: Requests an empty container from the terminal to start the process.
-     *  @param exp The terminal source.
+     *  This Template Method runs the export workflow on a single empty container handed over by a pipelined port call,
+     *  instead of requesting it from the bay: the container is filled with goods, and it is then handed back
+     *  to the caller instead of being retrieved to the export terminal.
+     *  @param container The empty container to fill.
      */
-    protected abstract void request(ExportSubTerminal exp);
+    public final void warehouseExport(Container container)
+    {
+        List<Container> stock = stock();
+        stock.add(container);
+        pick();
+        load();
+        stock.remove(container);
+    }
+
+    /**
+     *  Step 1: Requests empty containers from the terminal to start the process.
+     *  @param exp      The terminal source.
+     *  @param maxCount The maximum number of containers to request.
+     */
+    protected abstract void request(ExportSubTerminal exp, int maxCount);
 
     /**
      *  Step 2: Picks the specific goods (Clothing, Food, etc.) from the warehouse inventory.
@@ -47,4 +76,10 @@ public abstract class ExportWarehouse
      *  @param exp The terminal destination.
      */
     protected abstract void retrieve(ExportSubTerminal exp);
+
+    /**
+     *  This method gives the workflow access to the containers currently in the warehouse.
+     *  @return The live list of the containers in the warehouse.
+     */
+    protected abstract List<Container> stock();
 }
@@ -2,6 +2,7 @@ package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.F
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container.ContainerState;
@@ -12,6 +13,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Container
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ExportWarehouse;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
 
 /**
  *  This class represents the specific warehouse department responsible for exporting food.
@@ -51,25 +53,37 @@ public class FoodExportWarehouse extends ExportWarehouse implements ContainerCol
         return foodExportWarehouse.get(index);
     }
 
+    @Override
+    protected List<Container> stock()
+    {
+        return foodExportWarehouse;
+    }
+
     /**
-     *  This method requests an empty container from the Export Sub-Terminal.
-     *  If an empty container is available, it is moved to this warehouse's local storage.
-     *  @param exp The terminal source.
+     *  This method requests a batch of empty containers from the Export Sub-Terminal.
+     *  The empty containers received are moved to this warehouse's local storage.
+     *  @param exp      The terminal source.
+     *  @param maxCount The maximum number of containers to request.
      */
     @Override
-    protected void request(ExportSubTerminal exp)
+    protected void request(ExportSubTerminal exp, int maxCount)
     {
-        Container c = exp.borrowFromWarehouse();
-        if (c != null && c.getContainerState() == Container.ContainerState
-        .EMPTY)
+        List<Container> borrowed = exp.borrowFromWarehouse(maxCount);
+        if (borrowed.isEmpty())
         {
-            foodExportWarehouse.add(c);
-            logger.info(c.getContainerCode() + " has the right conditions for being borrowed by the food warehouse.");
-
+            logger.info("No suitable container was found for the food warehouse.");
         }
-        else
+        boolean verbose = SimulationLogScope.isLoggable(logger, Level.INFO);
+        for (Container c : borrowed)
         {
-            logger.info("No suitable container was found for the food warehouse.");
+            if (c.getContainerState() == Container.ContainerState.EMPTY)
+            {
+                foodExportWarehouse.add(c);
+                if (verbose)
+                {
+                    logger.info(c.getContainerCode() + " has the right conditions for being borrowed by the food warehouse.");
+                }
+            }
         }
     }
 
@@ -102,7 +116,7 @@ public class FoodExportWarehouse extends ExportWarehouse implements ContainerCol
     }
 
      /**
-     *  This method returns the loaded container to the Export Sub-Terminal,
+     *  This method returns the loaded containers to the Export Sub-Terminal in a single batch,
      *  and clears the local warehouse storage after the transfer is complete.
      *  @param exp The terminal destination.
      */
@@ -110,12 +124,7 @@ public class FoodExportWarehouse extends ExportWarehouse implements ContainerCol
     protected void retrieve(ExportSubTerminal exp)
     {
         logger.info("The container is being retrieved by the food warehouse, and will be returned to the export sub-terminal.");
-        ContainerIterator containerIterator = this.createIterator();
-        while(containerIterator.hasNext())
-        {
-            Container c = containerIterator.next();
-            exp.addFromWarehouse(c);
-        }
+        exp.addFromWarehouse(List.copyOf(foodExportWarehouse));
         foodExportWarehouse.clear();
     }
 
@@ -1,5 +1,7 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory;
 
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
@@ -18,20 +20,59 @@ public abstract class ImportWarehouse
      *  This Template Method defines the rigid workflow for the import process.
      *  Subclasses cannot override this workflow structure, but they
      *  must provide implementations for the specific steps (pick, load, retrieve).
+     *  A single container is processed per cycle.
      *  @param imp The import terminal where the final goods will be delivered.
      */
     public final void warehouseImport(ImportSubTerminal imp, ExportSubTerminal exp)
     {
-        pick(imp);
+        warehouseImport(imp, exp, 1);
+    }
+
+    /**
+     *  This Template Method runs the same import workflow on a whole batch of containers:
+     *  the batch is picked from the import terminal and returned to the export terminal
+     *  with a single lock acquisition on each side.
+     *  @param imp      The import terminal where the containers are picked.
+     *  @param exp      The export terminal receiving the empty containers.
+     *  @param maxCount The maximum number of containers processed in this cycle.
+     *  @return The number of containers moved from the import terminal to the export terminal.
+     */
+    public final int warehouseImport(ImportSubTerminal imp, ExportSubTerminal exp, int maxCount)
+    {
+        int picked = pick(imp, maxCount);
         unload();
         retrieve(exp);
+        return picked;
+    }
+
+    /**
+     *  This Template Method runs the import workflow on a single container handed over by a pipelined port call,
+     *  instead of picking a batch from the bay: the container is released by the import terminal and emptied,
+     *  and it is then handed back to the caller instead of being retrieved to the export terminal.
+     *  @param imp       The import terminal holding the container.
+     *  @param container The container to empty.
+     *  @return {@code true} if the import terminal released the container, {@code false} if it was not in the bay.
+     */
+    public final boolean warehouseImport(ImportSubTerminal imp, Container container)
+    {
+        if (!imp.releaseToWarehouse(container))
+        {
+            return false;
+        }
+        List<Container> stock = stock();
+        stock.add(container);
+        unload();
+        stock.remove(container);
+        return true;
     }
 
     /**
-     *  Step 1: Identifies and picks up a specific type of container from the Import Terminal.
-     *  @param imp The import terminal to search.
+     *  Step 1: Identifies and picks up containers of a specific type from the Import Terminal.
+     *  @param imp      The import terminal to search.
+     *  @param maxCount The maximum number of containers to pick.
+     *  @return The number of containers picked.
      */
-    protected abstract void pick(ImportSubTerminal imp);
+    protected abstract int pick(ImportSubTerminal imp, int maxCount);
 
     /**
      *  Step 2: Unloads the cargo from the container into the warehouse.
@@ -46,4 +87,10 @@ public abstract class ImportWarehouse
      */
     protected abstract void retrieve(ExportSubTerminal exp);
 
+    /**
+     *  This method gives the workflow access to the containers currently in the warehouse.
+     *  @return The live list of the containers in the warehouse.
+     */
+    protected abstract List<Container> stock();
+
 }
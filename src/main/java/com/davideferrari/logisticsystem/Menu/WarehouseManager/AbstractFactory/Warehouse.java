@@ -1,5 +1,10 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory;
 
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ClothingWarehouse.ClothingWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ElectronicsWarehouse.ElectronicsWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.FoodWarehouse.FoodWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.FurnitureWarehouse.FurnitureWarehouse;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 
 /**
@@ -24,4 +29,27 @@ public interface Warehouse
      *  @return A concrete {@link ExportWarehouse} instance (e.g., ClothingExportWarehouse).
      */
     ExportWarehouse createExportWarehouse();
-}
\ No newline at end of file
+
+    /**
+     *  This method returns the concrete factory of the warehouses handling the given goods type.
+     *  @param goods The goods type.
+     *  @return A new concrete {@link Warehouse} (e.g., FoodWarehouse for FOOD).
+     *  @throws IllegalArgumentException If no warehouse handles the goods type (e.g., NONE).
+     */
+    static Warehouse forGoods(Container.GoodsType goods)
+    {
+        switch (goods)
+        {
+            case CLOTHING:
+                return new ClothingWarehouse();
+            case FOOD:
+                return new FoodWarehouse();
+            case ELECTRONICS:
+                return new ElectronicsWarehouse();
+            case FURNITURE:
+                return new FurnitureWarehouse();
+            default:
+                throw new IllegalArgumentException("No warehouse for goods type: " + goods);
+        }
+    }
+}
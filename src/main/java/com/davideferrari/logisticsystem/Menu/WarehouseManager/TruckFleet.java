@@ -0,0 +1,203 @@
+package com.davideferrari.logisticsystem.Menu.WarehouseManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+
+/**
+ *  This class represents the trucks of a terminal, each one driven by its own virtual thread,
+ *  so an idle truck costs a parked continuation rather than a platform thread.
+ *  The work is shared among the trucks without double picks:
+ *  - Up to four trucks, the goods types are partitioned among them, so every warehouse is served by one truck.
+ *  - Beyond four trucks, several trucks serve the same goods type, and they split its containers
+ *    by claiming them from the bay one trip at a time.
+ *  Lifecycle: the fleet is started once, can be drained on demand while running, and is finally parked.
+ */
+public class TruckFleet
+{
+    /**
+     *  Defines the lifecycle of the fleet.
+     */
+    public enum State
+    {
+        IDLE,
+        RUNNING,
+        PARKED
+    }
+
+    private static final Logger logger = Logger.getLogger(TruckFleet.class.getName());
+    private static final Container.GoodsType[] GOODS =
+    {
+        Container.GoodsType.CLOTHING,
+        Container.GoodsType.FOOD,
+        Container.GoodsType.ELECTRONICS,
+        Container.GoodsType.FURNITURE
+    };
+
+    private final ImportSubTerminal importTerminal;
+    private final List<WarehouseTruck> trucks = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private State state = State.IDLE;
+
+    /**
+     *  This method constructs a fleet whose trucks clear the bay in a single trip each.
+     *  @param importTerminal The import terminal served by the fleet.
+     *  @param exportTerminal The export terminal where the processed containers are delivered.
+     *  @param size           The number of trucks.
+     */
+    public TruckFleet(ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int size)
+    {
+        this(importTerminal, exportTerminal, size, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     *  This method constructs a fleet of trucks with a limited capacity and a driving time.
+     *  @param importTerminal The import terminal served by the fleet.
+     *  @param exportTerminal The export terminal where the processed containers are delivered.
+     *  @param size           The number of trucks.
+     *  @param tripCapacity   The maximum number of containers of each goods type a truck takes in a single trip.
+     *  @param handlingMillis The time a truck takes to drive a container, in milliseconds.
+     *  @throws IllegalArgumentException If the fleet has no trucks.
+     */
+    public TruckFleet(ImportSubTerminal importTerminal, ExportSubTerminal exportTerminal, int size, int tripCapacity, long handlingMillis)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("A truck fleet needs at least one truck");
+        }
+        this.importTerminal = importTerminal;
+        for (Set<Container.GoodsType> goods : partition(size))
+        {
+            trucks.add(new WarehouseTruck(importTerminal, exportTerminal, goods, tripCapacity, handlingMillis));
+        }
+    }
+
+    /**
+     *  This method shares the goods types among the trucks: with up to four trucks, every goods type
+     *  goes to exactly one truck; with more, every truck serves one goods type, in turn.
+     *  @param size The number of trucks.
+     *  @return The goods types served by every truck.
+     */
+    static List<Set<Container.GoodsType>> partition(int size)
+    {
+        List<Set<Container.GoodsType>> shares = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+        {
+            shares.add(EnumSet.noneOf(Container.GoodsType.class));
+        }
+        for (int i = 0; i < Math.max(size, GOODS.length); i++)
+        {
+            shares.get(i % size).add(GOODS[i % GOODS.length]);
+        }
+        return shares;
+    }
+
+    public List<WarehouseTruck> getTrucks()
+    {
+        return Collections.unmodifiableList(trucks);
+    }
+
+    public int size()
+    {
+        return trucks.size();
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    /**
+     *  This method starts every truck on its own virtual thread.
+     *  @throws IllegalStateException If the fleet has already been started.
+     */
+    public synchronized void start()
+    {
+        if (state != State.IDLE)
+        {
+            throw new IllegalStateException("The truck fleet of " + importTerminal.getName() + " is " + state);
+        }
+        for (int i = 0; i < trucks.size(); i++)
+        {
+            threads.add(Thread.ofVirtual().name(importTerminal.getName() + "-truck-" + (i + 1)).start(trucks.get(i)));
+        }
+        state = State.RUNNING;
+        logger.info(trucks.size() + " trucks started for the " + importTerminal.getName() + " terminal.");
+    }
+
+    /**
+     *  This method makes every truck clear the bay of its goods now, whatever the watermarks,
+     *  and waits until all of them are done.
+     *  @param timeoutMillis The maximum time to wait, in milliseconds.
+     *  @return The number of containers moved from the bay.
+     *  @throws IllegalStateException If the fleet is not running, or is parked while draining.
+     *  @throws InterruptedException  If the calling thread is interrupted while waiting.
+     *  @throws TimeoutException      If the trucks are not done in time; they finish their trips anyway.
+     */
+    public int drain(long timeoutMillis) throws InterruptedException, TimeoutException
+    {
+        List<CompletableFuture<Integer>> replies = new ArrayList<>();
+        synchronized (this)
+        {
+            if (state != State.RUNNING)
+            {
+                throw new IllegalStateException("The truck fleet of " + importTerminal.getName() + " is " + state);
+            }
+            for (WarehouseTruck truck : trucks)
+            {
+                replies.add(truck.drain());
+            }
+        }
+        try
+        {
+            CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException | CancellationException e)
+        {
+            throw new IllegalStateException("The truck fleet of " + importTerminal.getName() + " stopped while draining", e);
+        }
+        int moved = 0;
+        for (CompletableFuture<Integer> reply : replies)
+        {
+            moved += reply.join();
+        }
+        logger.info("The truck fleet of " + importTerminal.getName() + " has drained " + moved + " containers.");
+        return moved;
+    }
+
+    /**
+     *  This method parks every truck and waits for their threads to stop. The trips in progress are completed first.
+     *  Parking an idle or already parked fleet has no effect other than preventing it from starting.
+     *  @param timeoutMillis The maximum time to wait for each truck, in milliseconds.
+     *  @return {@code true} if every truck has stopped in time.
+     *  @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public boolean park(long timeoutMillis) throws InterruptedException
+    {
+        List<Thread> running;
+        synchronized (this)
+        {
+            state = State.PARKED;
+            trucks.forEach(WarehouseTruck::parkTruck);
+            running = new ArrayList<>(threads);
+        }
+        boolean stopped = true;
+        for (Thread thread : running)
+        {
+            stopped &= thread.join(Duration.ofMillis(timeoutMillis));
+        }
+        return stopped;
+    }
+}
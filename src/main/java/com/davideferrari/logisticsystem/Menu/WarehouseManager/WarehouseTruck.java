@@ -1,161 +1,426 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.BayLevelListener;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
-import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ClothingWarehouse.ClothingWarehouse;
-import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ElectronicsWarehouse.ElectronicsWarehouse;
-import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.FoodWarehouse.FoodWarehouse;
-import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.FurnitureWarehouse.FurnitureWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ExportWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ImportWarehouse;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.Warehouse;
 
 /**
  *  This class represents the autonomous logistics vehicle that transports containers between Terminals and Warehouses.
  *  It implements Runnable and runs on a separate background thread,
- *  acting as a Consumer in the system: it monitors the ImportSubTerminal,
- *  and when the capacity limit is breached, it triggers the warehouse processing cycle.
+ *  acting as a Consumer in the system: it listens to the watermarks of the ImportSubTerminal,
+ *  and when the bay rises above the high watermark, it triggers the warehouse processing cycle.
+ *  Between two signals the thread waits on the truck condition, so an idle truck uses no processor time.
+ *  A truck serves the warehouses of the goods types assigned to it (all of them by default), so several trucks
+ *  can clear the same bay at the same time, as done by a {@link TruckFleet}: the terminal lock is only taken
+ *  to decide whether to work, and every container is claimed by a single warehouse when it leaves the bay.
  */
-public class WarehouseTruck implements Runnable
+public class WarehouseTruck implements Runnable, BayLevelListener
 {
+    /**
+     *  The goods types served by the warehouses of the port.
+     */
+    public static final Set<Container.GoodsType> ALL_GOODS = Collections.unmodifiableSet(EnumSet.of(
+            Container.GoodsType.CLOTHING,
+            Container.GoodsType.FOOD,
+            Container.GoodsType.ELECTRONICS,
+            Container.GoodsType.FURNITURE));
+
+    /**
+     *  The order in which the warehouses are visited during a cycle.
+     */
+    private static final Container.GoodsType[] ROUTE =
+    {
+        Container.GoodsType.CLOTHING,
+        Container.GoodsType.FOOD,
+        Container.GoodsType.ELECTRONICS,
+        Container.GoodsType.FURNITURE
+    };
+
     private final ImportSubTerminal terminal;
     private final ExportSubTerminal exportTerminal;
-    private boolean engineRunning = true;
-    
+    private final Set<Container.GoodsType> goods;
+    private final int tripCapacity;
+    private final long handlingMillis;
+    private final AtomicInteger totalMoved = new AtomicInteger();
+    private volatile boolean engineRunning = true;
+
     /**
      *  This latch flag ensures that the truck performs the transport cycle exactly once per ship arrival:
      *  - True: The truck has already cleared the terminal and is waiting for it to be empty.
      *  - False: The truck is ready to work as soon as the terminal fills up.
+     *  It is guarded by the terminal lock.
      */
-    private boolean jobDone = false; 
+    private boolean jobDone = false;
+
+    /**
+     *  The lock and the condition the truck waits on, the flag recording a watermark signal not yet handled,
+     *  and the reply of a drain not yet started. An explicit lock is used instead of a monitor,
+     *  so a truck running on a virtual thread releases its carrier thread while it waits.
+     *  During a cycle, the terminals only hold their monitors to update the bays and wait for the journal after
+     *  releasing them, so the trips do not pin the carrier thread on a disk write either.
+     *  The terminals also log after releasing their monitors: on JDK 21 the console handler and the print streams
+     *  still synchronize internally, so a truck blocked there under a monitor would pin its carrier thread.
+     */
+    private final ReentrantLock signal = new ReentrantLock();
+    private final Condition workAvailable = signal.newCondition();
+    private boolean signalled = false;
+    private CompletableFuture<Integer> pendingDrain;
 
     private static final Logger logger = Logger.getLogger(WarehouseTruck.class.getName());
 
     /**
-     *  This method constructs a new Warehouse Truck daemon.
+     *  This method constructs a new Warehouse Truck daemon, serving all the warehouses.
      *  @param terminal The import terminal to monitor for incoming cargo.
      *  @param exportTerminal The export terminal where processed containers will be delivered.
      */
     public WarehouseTruck(ImportSubTerminal terminal, ExportSubTerminal exportTerminal)
     {
+        this(terminal, exportTerminal, ALL_GOODS, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     *  This method constructs a new Warehouse Truck daemon, serving the warehouses of some goods types only.
+     *  @param terminal       The import terminal to monitor for incoming cargo.
+     *  @param exportTerminal The export terminal where processed containers will be delivered.
+     *  @param goods          The goods types whose containers this truck transports.
+     *  @param tripCapacity   The maximum number of containers every warehouse claims from the bay in a single trip.
+     *  @param handlingMillis The time the truck takes to drive a container between a terminal and a warehouse,
+     *                        in milliseconds, to emulate the trips.
+     *  @throws IllegalArgumentException If no goods type is given, one has no warehouse, or the trip capacity is not positive.
+     */
+    public WarehouseTruck(ImportSubTerminal terminal, ExportSubTerminal exportTerminal, Set<Container.GoodsType> goods,
+                          int tripCapacity, long handlingMillis)
+    {
+        if (goods.isEmpty() || !ALL_GOODS.containsAll(goods))
+        {
+            throw new IllegalArgumentException("A truck must serve the warehouses of one or more goods types: " + goods);
+        }
+        if (tripCapacity <= 0)
+        {
+            throw new IllegalArgumentException("A truck must carry at least one container per trip");
+        }
         this.terminal = terminal;
         this.exportTerminal = exportTerminal;
+        this.goods = Collections.unmodifiableSet(EnumSet.copyOf(goods));
+        this.tripCapacity = tripCapacity;
+        this.handlingMillis = handlingMillis;
+    }
+
+    public Set<Container.GoodsType> getGoods()
+    {
+        return goods;
+    }
+
+    public boolean isEngineRunning()
+    {
+        return engineRunning;
+    }
+
+    /**
+     *  This method returns the number of containers the truck has moved from the import bay since it was built,
+     *  over all its cycles and drains.
+     *  @return The number of containers moved.
+     */
+    public int getContainersMoved()
+    {
+        return totalMoved.get();
     }
 
     /**
-     *  This method signals the truck thread to terminate safely.
+     *  This method signals the truck thread to terminate safely, waking it if it is waiting for work.
+     *  A cycle already started is completed first, while a drain not yet started is cancelled.
      */
     public void parkTruck()
     {
         this.engineRunning = false;
+        signal.lock();
+        try
+        {
+            workAvailable.signalAll();
+        }
+        finally
+        {
+            signal.unlock();
+        }
     }
 
     /**
-     *  This method represents the main execution loop of the truck thread.
-     *  Logic:
-     *  - Polls the ImportSubTerminal size every 5 seconds.
-     *  -Trigger Condition: If size > 5 AND work hasn't been done yet:
-     *      a. Executes transportCargo().
-     *      b. Sets jobDone = true to prevent infinite looping.>
-     *  - Reset Condition: If size <= 5 (Terminal is empty):
-     *      a. Resets jobDone = false, re-arming the truck for the next ship.
+     *  This method asks the truck to clear the bay of its goods now, whatever the watermarks.
+     *  The truck thread runs the cycle as soon as it is free; asking again before it starts returns the same reply.
+     *  @return The reply, completed with the number of containers moved, or cancelled if the truck is parked first.
+     */
+    public CompletableFuture<Integer> drain()
+    {
+        signal.lock();
+        try
+        {
+            if (!engineRunning)
+            {
+                CompletableFuture<Integer> refused = new CompletableFuture<>();
+                refused.cancel(false);
+                return refused;
+            }
+            if (pendingDrain == null)
+            {
+                pendingDrain = new CompletableFuture<>();
+                workAvailable.signalAll();
+            }
+            return pendingDrain;
+        }
+        finally
+        {
+            signal.unlock();
+        }
+    }
+
+    /**
+     *  This method wakes the truck when the import bay rises above its high watermark.
      */
     @Override
-    public void run()
+    public void highWatermarkReached(ImportSubTerminal terminal, int size)
+    {
+        wake();
+    }
+
+    /**
+     *  This method wakes the truck when the import bay falls back to its low watermark, so it is re-armed.
+     */
+    @Override
+    public void lowWatermarkReached(ImportSubTerminal terminal, int size)
+    {
+        wake();
+    }
+
+    private void wake()
     {
+        signal.lock();
         try
         {
-            Thread.sleep(2000);
+            signalled = true;
+            workAvailable.signalAll();
         }
-        catch (InterruptedException e)
+        finally
         {
-            logger.warning("Truck thread interrupted during startup. Shutting down.");
-            Thread.currentThread().interrupt(); // Restore interrupt status
-            return;
+            signal.unlock();
         }
-        logger.info("Truck monitor active for " + terminal.getName());
+    }
 
-        while (engineRunning)
+    /**
+     *  This method represents the main execution loop of the truck thread.
+     *  Logic:
+     *  - Registers the truck as a listener of the ImportSubTerminal, and makes a first {@link #pass()}
+     *    for the containers already in the bay.
+     *  - Waits until the terminal signals a watermark crossing, then makes a new pass:
+     *      a. Trigger Condition: If size > high watermark AND work hasn't been done yet, executes transportCargo()
+     *         and sets jobDone = true to prevent infinite looping.
+     *      b. Reset Condition: If size <= low watermark (Terminal is cleared), resets jobDone = false,
+     *         re-arming the truck for the next ship.
+     *  - Runs the requested drains, see {@link #drain()}.
+     *  - Stops listening to the terminal when parked or interrupted.
+     */
+    @Override
+    public void run()
+    {
+        terminal.addLevelListener(this);
+        logger.info("Truck monitor active for " + terminal.getName() + ", serving " + goods);
+        try
         {
-            try
+            pass();
+            while (engineRunning)
             {
-                Thread.sleep(5000);
-                synchronized (terminal)
+                try
                 {
-                    int size = terminal.getSize();
-                    if (size > 5 && !jobDone)
+                    CompletableFuture<Integer> drain;
+                    signal.lock();
+                    try
+                    {
+                        while (!signalled && pendingDrain == null && engineRunning)
+                        {
+                            workAvailable.await();
+                        }
+                        signalled = false;
+                        drain = pendingDrain;
+                        pendingDrain = null;
+                    }
+                    finally
+                    {
+                        signal.unlock();
+                    }
+                    if (!engineRunning)
+                    {
+                        if (drain != null)
+                        {
+                            drain.cancel(false);
+                        }
+                    }
+                    else if (drain != null)
                     {
-                        logger.info(">>> [TRUCK] Overload detected. Moving cargo...");
-                        transportCargo(); 
-                        logger.info(">>> [TRUCK] Cargo moved. Standing by.");
-                        jobDone = true; // Stop working until reset
-                    } 
-                    else if (size <= 5)
+                        drain.complete(transportCargo(terminal.getSize()));
+                    }
+                    else
                     {
-                        jobDone = false;
+                        pass();
                     }
                 }
+                catch (InterruptedException e)
+                {
+                    logger.info("Truck thread interrupted. Stopping engine.");
+                    engineRunning = false;
+                    Thread.currentThread().interrupt();
+                }
+                catch (Exception e)
+                {
+                    logger.severe("CRITICAL ERROR in Truck Loop: " + e.getMessage());
+                }
             }
-            catch (InterruptedException e)
+        }
+        finally
+        {
+            terminal.removeLevelListener(this);
+            signal.lock();
+            try
             {
-                logger.info("Truck thread interrupted. Stopping engine.");
-                engineRunning = false;
-                Thread.currentThread().interrupt();
+                if (pendingDrain != null)
+                {
+                    pendingDrain.cancel(false);
+                    pendingDrain = null;
+                }
             }
-            catch (Exception e)
+            finally
             {
-                logger.severe("CRITICAL ERROR in Truck Loop: " + e.getMessage());
+                signal.unlock();
             }
         }
     }
 
+    /**
+     *  This method performs a single pass of the truck at the ImportSubTerminal, as done on every signal of the terminal.
+     *  It can also be called directly by a driver with its own clock, such as a discrete-event simulation.
+     *  The terminal lock is held only to check the bay, so the cycle itself does not stop the unloading
+     *  of the ships, nor the other trucks of the terminal.
+     *  @return {@code true} if the pass triggered a warehouse cycle, {@code false} otherwise.
+     */
+    public boolean pass()
+    {
+        int size;
+        synchronized (terminal)
+        {
+            size = terminal.getSize();
+            if (size <= terminal.getLowWatermark())
+            {
+                jobDone = false;
+            }
+            if (size <= terminal.getHighWatermark() || jobDone)
+            {
+                return false;
+            }
+            jobDone = true; // Stop working until reset
+        }
+        logger.info(">>> [TRUCK] Overload detected. Moving cargo...");
+        transportCargo(size);
+        logger.info(">>> [TRUCK] Cargo moved. Standing by.");
+        return true;
+    }
+
     /**
      *  This method executes the full two-phase logistics cycle.
      *  Phase 1: Import
-     *  - Iteratively removes containers from the Import Terminal.
-     *  - Routes them to the correct Warehouse (Clothing, Food, etc.) based on cargo type.
-     *  - Continues until the terminal is empty.
+     *  - On every trip, each goods-specific Warehouse (Clothing, Food, etc.) served by the truck claims up to the
+     *    trip capacity of its containers from the Import Terminal as a single batch, empties them and returns them
+     *    to the Export Terminal as a single batch. The trips go on until the bay has no more containers for the truck.
      *  Phase 2: Export
      *  - For every container moved in Phase 1, the truck retrieves a new export load.
-     *  - Fills the container with export goods and moves it to the ExportSubTerminal.
+     *  - The empty containers are shared among the export warehouses served by the truck in turn, and each warehouse
+     *    fills its share as a single batch before moving it to the ExportSubTerminal.
+     *  @param maxCount The maximum number of containers taken by every import warehouse.
+     *  @return The number of containers moved from the Import Terminal.
      */
-    private void transportCargo()
+    private int transportCargo(int maxCount)
     {
-        int initialImportSize = terminal.getSize();
-        int currentImportSize;
-        
-        do
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (Container.GoodsType type : ROUTE)
         {
-            int sizeBeforePass = terminal.getSize();
+            if (goods.contains(type))
+            {
+                warehouses.add(Warehouse.forGoods(type));
+            }
+        }
 
-            new ClothingWarehouse().createImportWarehouse().warehouseImport(terminal, exportTerminal);
-            new FoodWarehouse().createImportWarehouse().warehouseImport(terminal, exportTerminal);
-            new ElectronicsWarehouse().createImportWarehouse().warehouseImport(terminal, exportTerminal);
-            new FurnitureWarehouse().createImportWarehouse().warehouseImport(terminal, exportTerminal);
-            
-            currentImportSize = terminal.getSize();
-            
-            if (currentImportSize == sizeBeforePass) break;
+        int containersMoved = 0;
+        int trip;
+        do
+        {
+            trip = 0;
+            for (Warehouse warehouse : warehouses)
+            {
+                int room = Math.min(tripCapacity, maxCount - containersMoved - trip);
+                if (room > 0)
+                {
+                    ImportWarehouse importWarehouse = warehouse.createImportWarehouse();
+                    trip += importWarehouse.warehouseImport(terminal, exportTerminal, room);
+                }
+            }
+            drive(trip);
+            containersMoved += trip;
         }
-        while (currentImportSize > 0);
-        
-        int containersMoved = initialImportSize - currentImportSize;
+        while (trip > 0 && containersMoved < maxCount && !Thread.currentThread().isInterrupted());
+        totalMoved.addAndGet(containersMoved);
         logger.info(">>> [TRUCK] Import Phase Complete. Moved " + containersMoved + " containers to Export Terminal (EMPTY).");
-        
+
         if (containersMoved > 0)
         {
             logger.info(">>> [TRUCK] Starting Export Refill for " + containersMoved + " containers...");
-            
-            for (int i = 0; i < containersMoved; i++)
+
+            for (int i = 0; i < warehouses.size(); i++)
             {
-                new ClothingWarehouse().createExportWarehouse().warehouseExport(exportTerminal);
-                new FoodWarehouse().createExportWarehouse().warehouseExport(exportTerminal);
-                new ElectronicsWarehouse().createExportWarehouse().warehouseExport(exportTerminal);
-                new FurnitureWarehouse().createExportWarehouse().warehouseExport(exportTerminal);
+                int share = (containersMoved - i + warehouses.size() - 1) / warehouses.size();
+                if (share > 0)
+                {
+                    ExportWarehouse exportWarehouse = warehouses.get(i).createExportWarehouse();
+                    exportWarehouse.warehouseExport(exportTerminal, share);
+                }
             }
+            drive(containersMoved);
             logger.info(">>> [TRUCK] Export Refill Phase Complete. Containers are now FULL_EXPORT.");
         }
         else
         {
             logger.info(">>> [TRUCK] No containers moved, skipping Export Refill.");
         }
+        return containersMoved;
+    }
+
+    /**
+     *  This method emulates the trips of the truck for the given number of containers.
+     *  If the thread is interrupted, the trips are cut short and the interrupt is kept for the main loop.
+     */
+    private void drive(int containers)
+    {
+        if (handlingMillis <= 0 || containers == 0)
+        {
+            return;
+        }
+        try
+        {
+            Thread.sleep(handlingMillis * containers);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,661 @@
+package com.davideferrari.logisticsystem.Utils.Persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.ContainerCreator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class represents the write-ahead journal of the container lifecycle events
+ *  (creation, terminal and ship moves, warehouse picks and retrievals, deletion).
+ *  It implements the Singleton Design Pattern, since every component of the system appends to the same journal.
+ *  The journal is disabled until {@link #open(Path)} is called, so recording an event costs nothing otherwise.
+ *  Every event is a compact binary record carrying the full state of the container after the event:
+ *  [CRC32 (4 bytes)] [payload length (2 bytes)] [event, state, goods (1 byte each)] [code, type, location, place (length-prefixed UTF-8)].
+ *  Group Commit: writers append their record to an in-memory batch and then wait until it is durable.
+ *  The first waiting writer becomes the leader: it writes the whole batch and forces it to disk with a single fsync,
+ *  while the writers arriving meanwhile fill the next batch, so concurrent trucks share the cost of each fsync.
+ *  Components holding a monitor while they change a container (e.g., the sub-terminals) must not wait for the fsync
+ *  inside it: they {@link #append(Event, Container, String)} the event under their lock, so the journal keeps the order
+ *  of the changes, and {@link #awaitDurable(long)} the returned ticket after leaving the synchronized section.
+ *  Recovery replays the journal on top of the last snapshot; since every event fully determines where its container is,
+ *  replaying events already included in the snapshot leaves the state unchanged.
+ */
+@AppDesignPattern(pattern = "Singleton", justification = "Ensures a single journal shared by all the writers")
+public class ContainerJournal
+{
+    private static final Logger logger = Logger.getLogger(ContainerJournal.class.getName());
+    private static final int RECORD_HEADER = 6;
+    private static final byte NO_ORDINAL = -1;
+
+    /**
+     *  The ticket returned when no event was appended, for which {@link #awaitDurable(long)} never waits.
+     */
+    public static final long NO_TICKET = 0;
+
+    /**
+     *  Enum representing the lifecycle events recorded in the journal.
+     */
+    public enum Event
+    {
+        CREATE,
+        EXPORT_ADD,
+        SHIP_IMPORT,
+        SHIP_LOAD,
+        WAREHOUSE_PICK,
+        WAREHOUSE_RETRIEVE,
+        REMOVE
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(8192);
+    private ByteBuffer spare = ByteBuffer.allocate(8192);
+    private long appended;
+    private long durable;
+    private boolean flushing;
+
+    /**
+     *  This method is set to private in order to prevent direct instantiation.
+     */
+    private ContainerJournal()
+    {
+    }
+
+    /**
+     *  This inner static class is responsible for holding the Singleton instance (Bill Pugh Singleton).
+     */
+    private static class ContainerJournalHelper
+    {
+        private static final ContainerJournal INSTANCE = new ContainerJournal();
+    }
+
+    /**
+     *  This method provides the global access point to the single instance of the ContainerJournal.
+     *  @return The unique {@link ContainerJournal} instance.
+     */
+    public static ContainerJournal getInstance()
+    {
+        return ContainerJournalHelper.INSTANCE;
+    }
+
+    /**
+     *  This method starts recording events at the end of a journal file.
+     *  A record left incomplete by a crash is cut off first, so new records are never appended after garbage.
+     *  @param file The journal file, created if it does not exist.
+     *  @throws IOException If the file cannot be opened.
+     */
+    public void open(Path file) throws IOException
+    {
+        long validLength = scan(file, null);
+        lock.lock();
+        try
+        {
+            if (channel != null)
+            {
+                throw new IllegalStateException("The container journal is already open.");
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  This method flushes the pending events and stops recording.
+     *  @throws IOException If the journal cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            if (channel == null)
+            {
+                return;
+            }
+            flushUntil(appended);
+            channel.close();
+            channel = null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOpen()
+    {
+        lock.lock();
+        try
+        {
+            return channel != null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  This method durably records an event. It returns once the record has been forced to disk,
+     *  possibly by another writer's fsync. Nothing happens if the journal is not open.
+     *  It must not be called while holding a monitor: use {@link #append(Event, Container, String)} instead.
+     *  @param event     The lifecycle event.
+     *  @param container The container, already in its state after the event.
+     *  @param place     The terminal name for terminal events, the ship name for ship events, or {@code null}.
+     */
+    public void record(Event event, Container container, String place)
+    {
+        awaitDurable(append(event, container, place));
+    }
+
+    /**
+     *  This method durably records the same event for a batch of containers, waiting for a single fsync
+     *  covering all of them. Nothing happens if the journal is not open.
+     *  It must not be called while holding a monitor: use {@link #appendAll(Event, Collection, String)} instead.
+     *  @param event      The lifecycle event.
+     *  @param containers The containers, already in their state after the event.
+     *  @param place      The terminal name for terminal events, the ship name for ship events, or {@code null}.
+     */
+    public void recordAll(Event event, Collection<? extends Container> containers, String place)
+    {
+        awaitDurable(appendAll(event, containers, place));
+    }
+
+    /**
+     *  This method appends an event to the pending batch without waiting for it to be durable.
+     *  @param event     The lifecycle event.
+     *  @param container The container, already in its state after the event.
+     *  @param place     The terminal name for terminal events, the ship name for ship events, or {@code null}.
+     *  @return The ticket to pass to {@link #awaitDurable(long)}, or {@link #NO_TICKET} if the journal is not open.
+     */
+    public long append(Event event, Container container, String place)
+    {
+        return appendAll(event, List.of(container), place);
+    }
+
+    /**
+     *  This method appends the same event for a batch of containers without waiting for them to be durable.
+     *  @param event      The lifecycle event.
+     *  @param containers The containers, already in their state after the event.
+     *  @param place      The terminal name for terminal events, the ship name for ship events, or {@code null}.
+     *  @return The ticket to pass to {@link #awaitDurable(long)}, or {@link #NO_TICKET} if nothing was appended.
+     */
+    public long appendAll(Event event, Collection<? extends Container> containers, String place)
+    {
+        if (containers.isEmpty())
+        {
+            return NO_TICKET;
+        }
+        lock.lock();
+        try
+        {
+            if (channel == null)
+            {
+                return NO_TICKET;
+            }
+            for (Container container : containers)
+            {
+                append(encode(event, container, place));
+            }
+            return appended;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  This method waits until the events appended up to a ticket are durable, possibly thanks to another
+     *  writer's fsync. It returns at once for {@link #NO_TICKET}, or if the journal has been closed meanwhile,
+     *  since closing flushes every pending event.
+     *  @param ticket The ticket returned by {@link #append(Event, Container, String)} or {@link #appendAll(Event, Collection, String)}.
+     */
+    public void awaitDurable(long ticket)
+    {
+        if (ticket == NO_TICKET)
+        {
+            return;
+        }
+        lock.lock();
+        try
+        {
+            if (channel != null)
+            {
+                flushUntil(ticket);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  This method appends an encoded record to the pending batch, growing it if needed.
+     *  It must be called while holding the lock.
+     */
+    private void append(byte[] record)
+    {
+        if (pending.remaining() < record.length)
+        {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.length));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.put(record);
+        appended++;
+    }
+
+    /**
+     *  This method waits until the given record is durable, leading a group commit if nobody else is flushing.
+     *  It must be called while holding the lock, which is released during the write and the fsync
+     *  so that other writers can keep appending to the next batch.
+     */
+    private void flushUntil(long sequence)
+    {
+        while (durable < sequence)
+        {
+            if (flushing)
+            {
+                flushed.awaitUninterruptibly();
+                continue;
+            }
+            flushing = true;
+            long batchEnd = appended;
+            ByteBuffer batch = pending;
+            pending = spare;
+            pending.clear();
+            FileChannel target = channel;
+            lock.unlock();
+            try
+            {
+                batch.flip();
+                while (batch.hasRemaining())
+                {
+                    target.write(batch);
+                }
+                target.force(false);
+            }
+            catch (IOException e)
+            {
+                logger.severe("The container journal could not be written: " + e.getMessage());
+            }
+            finally
+            {
+                lock.lock();
+                spare = batch;
+                flushing = false;
+                durable = batchEnd;
+                flushed.signalAll();
+            }
+        }
+    }
+
+    private static byte[] encode(Event event, Container container, String place)
+    {
+        byte[] code = bytesOf(container.getContainerCode());
+        byte[] type = bytesOf(container.getType());
+        byte[] location = bytesOf(container.getLocation());
+        byte[] placeBytes = bytesOf(place);
+        int payloadLength = 3 + lengthOf(code) + lengthOf(type) + lengthOf(location) + lengthOf(placeBytes);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payloadLength);
+        record.position(RECORD_HEADER);
+        record.put((byte) event.ordinal());
+        record.put(ordinalOf(container.getContainerState()));
+        record.put(ordinalOf(container.getGoods()));
+        putString(record, code);
+        putString(record, type);
+        putString(record, location);
+        putString(record, placeBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER, payloadLength);
+        record.putInt(0, (int) crc.getValue());
+        record.putShort(4, (short) payloadLength);
+        return record.array();
+    }
+
+    /**
+     *  This method replays a journal into a system without a fleet.
+     *  The containers loaded on fleet ships are dropped (see the complete overload).
+     *  @param file            The journal file. Nothing is replayed if it does not exist.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @return The number of replayed events.
+     *  @throws IOException If the file cannot be read.
+     */
+    public static int replay(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship) throws IOException
+    {
+        return replay(file, exportTerminals, importTerminals, ship, List.of());
+    }
+
+    /**
+     *  This method replays a journal on top of the current state of the system (usually a restored snapshot):
+     *  every event updates its container and moves it to the place it reached, registering, deregistering and
+     *  creating containers as needed. The journal must not be open while it is replayed.
+     *  Loads are put on the ship named in the event, so the fleet must be created before replaying. A container
+     *  loaded on a ship missing from the given fleet is dropped explicitly: it is removed from the register
+     *  until a later event places it again, and a warning is logged.
+     *  @param file            The journal file. Nothing is replayed if it does not exist.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @param fleet           The ships of the fleet.
+     *  @return The number of replayed events.
+     *  @throws IOException If the file cannot be read.
+     */
+    public static int replay(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                             List<CargoShip> fleet) throws IOException
+    {
+        Replay replay = new Replay(exportTerminals, importTerminals, ship, fleet);
+        scan(file, replay);
+        replay.apply();
+        return replay.events;
+    }
+
+    /**
+     *  This method reads the valid records of a journal, stopping at the first incomplete or corrupted one.
+     *  @param file   The journal file.
+     *  @param replay The replay receiving the records, or {@code null} to only validate them.
+     *  @return The length of the valid part of the file.
+     */
+    private static long scan(Path file, Replay replay) throws IOException
+    {
+        if (!Files.exists(file))
+        {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (data.remaining() >= RECORD_HEADER)
+        {
+            int start = data.position();
+            int crc = data.getInt();
+            int payloadLength = data.getShort() & 0xFFFF;
+            if (data.remaining() < payloadLength)
+            {
+                data.position(start);
+                break;
+            }
+            CRC32 check = new CRC32();
+            check.update(data.array(), data.position(), payloadLength);
+            if ((int) check.getValue() != crc)
+            {
+                logger.warning("Corrupted record found in the container journal at offset " + start + ". The rest of the journal is ignored.");
+                data.position(start);
+                break;
+            }
+            Event event = Event.values()[data.get()];
+            byte state = data.get();
+            byte goods = data.get();
+            String code = getString(data);
+            String type = getString(data);
+            String location = getString(data);
+            String place = getString(data);
+            if (replay != null)
+            {
+                replay.event(event, state, goods, code, type, location, place);
+            }
+        }
+        return data.position();
+    }
+
+    private static byte[] bytesOf(String value)
+    {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(byte[] bytes)
+    {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes)
+    {
+        if (bytes == null)
+        {
+            buffer.putInt(-1);
+        }
+        else
+        {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte ordinalOf(Enum<?> value)
+    {
+        return value == null ? NO_ORDINAL : (byte) value.ordinal();
+    }
+
+    /**
+     *  This inner class applies the replayed events to a working copy of the system state,
+     *  which is written back to the register, the sub-terminals and the ship once all the events are applied.
+     */
+    private static class Replay
+    {
+        private final List<ExportSubTerminal> exportTerminals;
+        private final List<ImportSubTerminal> importTerminals;
+        private final CargoShip ship;
+        private final Map<String, CargoShip> ships = new LinkedHashMap<>();
+        private final Map<String, Set<Container>> exports = new LinkedHashMap<>();
+        private final Map<String, Set<Container>> imports = new LinkedHashMap<>();
+        private final Map<String, Set<Container>> cargoes = new LinkedHashMap<>();
+        private final Set<Container> registered;
+        private final Map<String, Container> byCode = new HashMap<>();
+        private final Map<String, ContainerCreator<? extends Container>> creators = new HashMap<>();
+        private int events;
+        private int dropped;
+
+        private Replay(List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship, List<CargoShip> fleet)
+        {
+            this.exportTerminals = exportTerminals;
+            this.importTerminals = importTerminals;
+            this.ship = ship;
+            for (ExportSubTerminal terminal : exportTerminals)
+            {
+                exports.put(terminal.getName(), contentOf(terminal));
+            }
+            for (ImportSubTerminal terminal : importTerminals)
+            {
+                imports.put(terminal.getName(), contentOf(terminal));
+            }
+            ships.put(ship.getName(), ship);
+            for (CargoShip fleetShip : fleet)
+            {
+                ships.put(fleetShip.getName(), fleetShip);
+            }
+            for (CargoShip cargoShip : ships.values())
+            {
+                cargoes.put(cargoShip.getName(), contentOf(cargoShip));
+            }
+            registered = new LinkedHashSet<>(ContainerRegister.getInstance().displayContainers());
+            for (Container container : registered)
+            {
+                byCode.put(container.getContainerCode(), container);
+            }
+            creators.put("Box", new BoxSelector());
+            creators.put("HighCube", new HighCubeSelector());
+        }
+
+        private void event(Event event, byte state, byte goods, String code, String type, String location, String place) throws IOException
+        {
+            events++;
+            Container container = byCode.get(code);
+            if (container == null)
+            {
+                ContainerCreator<? extends Container> creator = creators.get(type);
+                if (creator == null)
+                {
+                    throw new IOException("Unknown container type in journal: " + type);
+                }
+                container = creator.registerContainer(code);
+                byCode.put(code, container);
+            }
+            else if (event == Event.CREATE)
+            {
+                return;
+            }
+            container.setContainerState(state == NO_ORDINAL ? null : Container.ContainerState.values()[state]);
+            container.setGoods(goods == NO_ORDINAL ? null : Container.GoodsType.values()[goods]);
+            container.setLocation(location);
+            if (event == Event.CREATE)
+            {
+                return;
+            }
+            detach(container);
+            switch (event)
+            {
+                case EXPORT_ADD:
+                case WAREHOUSE_RETRIEVE:
+                    placeIn(exports, place, container);
+                    break;
+                case SHIP_IMPORT:
+                    placeIn(imports, place, container);
+                    break;
+                case SHIP_LOAD:
+                    load(place == null ? ship.getName() : place, container);
+                    break;
+                case WAREHOUSE_PICK:
+                    registered.add(container);
+                    break;
+                case REMOVE:
+                    registered.remove(container);
+                    byCode.remove(code);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void placeIn(Map<String, Set<Container>> terminals, String place, Container container) throws IOException
+        {
+            Set<Container> content = terminals.get(place);
+            if (content == null)
+            {
+                throw new IOException("The journal refers to an unknown sub-terminal: " + place);
+            }
+            content.add(container);
+            registered.add(container);
+        }
+
+        private void load(String shipName, Container container)
+        {
+            Set<Container> cargo = cargoes.get(shipName);
+            if (cargo == null)
+            {
+                registered.remove(container);
+                dropped++;
+                return;
+            }
+            cargo.add(container);
+            registered.add(container);
+        }
+
+        private void detach(Container container)
+        {
+            for (Set<Container> content : exports.values())
+            {
+                content.remove(container);
+            }
+            for (Set<Container> content : imports.values())
+            {
+                content.remove(container);
+            }
+            for (Set<Container> cargo : cargoes.values())
+            {
+                cargo.remove(container);
+            }
+        }
+
+        /**
+         *  This method writes the replayed state back to the system.
+         */
+        private void apply()
+        {
+            ContainerRegister register = ContainerRegister.getInstance();
+            for (Container container : register.displayContainers())
+            {
+                if (!registered.contains(container))
+                {
+                    register.removeContainer(container);
+                }
+            }
+            for (Container container : registered)
+            {
+                register.addContainer(container);
+            }
+            for (ExportSubTerminal terminal : exportTerminals)
+            {
+                terminal.restoreContainers(new ArrayList<>(exports.get(terminal.getName())));
+            }
+            for (ImportSubTerminal terminal : importTerminals)
+            {
+                terminal.restoreContainers(new ArrayList<>(imports.get(terminal.getName())));
+            }
+            for (CargoShip cargoShip : ships.values())
+            {
+                cargoShip.restoreCargo(new ArrayList<>(cargoes.get(cargoShip.getName())));
+            }
+            if (dropped > 0)
+            {
+                logger.warning(dropped + " container loads refer to ships no longer in the fleet: those containers were dropped.");
+            }
+        }
+
+        private static Set<Container> contentOf(ContainerCollection collection)
+        {
+            Set<Container> content = new LinkedHashSet<>();
+            for (int i = 0; i < collection.getSize(); i++)
+            {
+                content.add(collection.getContainerAt(i));
+            }
+            return content;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.davideferrari.logisticsystem.Utils.Persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.ContainerCreator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerCollection;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerCodeCodec;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+
+/**
+ *  This class saves and restores the complete state of the logistics system in a binary snapshot file:
+ *  the ContainerRegister, the content of every Export and Import Sub-Terminal, the cargo and voyage of the ship,
+ *  and the cargo of every ship of the fleet.
+ *  The file is written and read through a memory-mapped buffer, so a restart only maps the file and
+ *  decodes fixed-width records, instead of replaying the creation of every container.
+ *  Layout (all numbers in big-endian order):
+ *  - header: magic number, format version, CRC32 of the body;
+ *  - string table: every distinct type, location and non-standard code, referenced by index;
+ *  - container records of {@value #RECORD_SIZE} bytes: code, type, location, state and goods;
+ *  - the registration order, then the container indexes held by each sub-terminal, by the ship
+ *    and by each fleet ship, identified by its name.
+ *  Snapshots of the first format version, which had no fleet section, can still be loaded.
+ *  A snapshot is written into a temporary file which then replaces the previous one,
+ *  so a crash during the save never leaves a truncated snapshot behind.
+ */
+public final class YardSnapshot
+{
+    private static final Logger logger = Logger.getLogger(YardSnapshot.class.getName());
+    private static final int MAGIC = 0x4C535953;
+    private static final int VERSION = 2;
+    private static final int NO_FLEET_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 18;
+
+    private static final long NO_CODE = -1L;
+    private static final int NO_STRING = -1;
+    private static final byte NO_ORDINAL = -1;
+
+    /**
+     *  This constructor is private since the class only exposes static helpers.
+     */
+    private YardSnapshot()
+    {
+    }
+
+    /**
+     *  This method writes a snapshot of a system without a fleet.
+     *  @param file            The snapshot file, replaced if it already exists.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @throws IOException If the file cannot be written.
+     */
+    public static void save(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship) throws IOException
+    {
+        save(file, exportTerminals, importTerminals, ship, List.of());
+    }
+
+    /**
+     *  This method writes a snapshot of the whole system.
+     *  @param file            The snapshot file, replaced if it already exists.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @param fleet           The ships of the fleet, whose cargo is saved under their names.
+     *  @throws IOException If the file cannot be written.
+     */
+    public static void save(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                            List<CargoShip> fleet) throws IOException
+    {
+        Encoder encoder = new Encoder();
+        List<Container> registered = ContainerRegister.getInstance().displayContainers();
+        int[] registerIndexes = encoder.indexesOf(registered);
+        List<int[]> exportIndexes = new ArrayList<>();
+        for (ExportSubTerminal terminal : exportTerminals)
+        {
+            encoder.stringId(terminal.getName());
+            exportIndexes.add(encoder.indexesOf(terminal));
+        }
+        List<int[]> importIndexes = new ArrayList<>();
+        for (ImportSubTerminal terminal : importTerminals)
+        {
+            encoder.stringId(terminal.getName());
+            importIndexes.add(encoder.indexesOf(terminal));
+        }
+        int[] cargoIndexes = encoder.indexesOf(ship);
+        int destinationId = encoder.stringId(ship.getDestination());
+        int requestTargetId = encoder.stringId(ship.getRequestTarget());
+        List<int[]> fleetIndexes = new ArrayList<>();
+        for (CargoShip fleetShip : fleet)
+        {
+            encoder.stringId(fleetShip.getName());
+            fleetIndexes.add(encoder.indexesOf(fleetShip));
+        }
+        encoder.encodeRecords();
+
+        long size = HEADER_SIZE + encoder.stringTableSize() + 4L + (long) encoder.containers.size() * RECORD_SIZE
+                + 4L + 4L * registerIndexes.length
+                + 4L + listsSize(exportIndexes) + 4L + listsSize(importIndexes)
+                + 4 + 1 + 4 + 1 + 4 + 4L * cargoIndexes.length
+                + 4L + listsSize(fleetIndexes);
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("The yard is too large for a single snapshot file.");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.position(HEADER_SIZE);
+            encoder.writeStringTable(buffer);
+            buffer.putInt(encoder.containers.size());
+            encoder.writeRecords(buffer);
+            writeIndexes(buffer, registerIndexes);
+            buffer.putInt(exportTerminals.size());
+            for (int i = 0; i < exportTerminals.size(); i++)
+            {
+                buffer.putInt(encoder.stringId(exportTerminals.get(i).getName()));
+                writeIndexes(buffer, exportIndexes.get(i));
+            }
+            buffer.putInt(importTerminals.size());
+            for (int i = 0; i < importTerminals.size(); i++)
+            {
+                buffer.putInt(encoder.stringId(importTerminals.get(i).getName()));
+                writeIndexes(buffer, importIndexes.get(i));
+            }
+            buffer.putInt(destinationId);
+            buffer.put((byte) ship.getState().ordinal());
+            buffer.putInt(requestTargetId);
+            buffer.put((byte) (ship.isEndImportAndExport() ? 1 : 0));
+            writeIndexes(buffer, cargoIndexes);
+            buffer.putInt(fleet.size());
+            for (int i = 0; i < fleet.size(); i++)
+            {
+                buffer.putInt(encoder.stringId(fleet.get(i).getName()));
+                writeIndexes(buffer, fleetIndexes.get(i));
+            }
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, checksum(buffer, (int) size));
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     *  This method restores a snapshot into a freshly started system without a fleet.
+     *  The cargo of the fleet ships found in the snapshot is dropped (see the complete overload).
+     *  @param file            The snapshot file.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @throws IOException If the file cannot be read, is corrupted, or does not match the given ports.
+     */
+    public static void load(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship) throws IOException
+    {
+        load(file, exportTerminals, importTerminals, ship, List.of());
+    }
+
+    /**
+     *  This method restores a snapshot into a freshly started system: the containers are recreated
+     *  through their factories in one batch per type, registered in the ContainerRegister in a single batch,
+     *  and put back in the sub-terminals, on the ship and on the fleet ships.
+     *  Sub-terminals and fleet ships are matched by name, so the ports and the fleet must be created before loading.
+     *  A saved fleet ship missing from the given fleet (e.g., a smaller fleet was configured) is dropped explicitly:
+     *  its containers are removed from the register and a warning is logged.
+     *  @param file            The snapshot file.
+     *  @param exportTerminals The export sub-terminals of every port.
+     *  @param importTerminals The import sub-terminals of every port.
+     *  @param ship            The cargo ship.
+     *  @param fleet           The ships of the fleet.
+     *  @throws IOException If the file cannot be read, is corrupted, or does not match the given ports.
+     */
+    public static void load(Path file, List<ExportSubTerminal> exportTerminals, List<ImportSubTerminal> importTerminals, CargoShip ship,
+                            List<CargoShip> fleet) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("Invalid snapshot size: " + channel.size());
+            }
+            int size = (int) channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int version = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || (version != VERSION && version != NO_FLEET_VERSION))
+            {
+                throw new IOException("The file is not a supported yard snapshot.");
+            }
+            if (buffer.getLong(8) != checksum(buffer, size))
+            {
+                throw new IOException("The yard snapshot is corrupted (checksum mismatch).");
+            }
+            buffer.position(HEADER_SIZE);
+            String[] strings = readStringTable(buffer);
+            Container[] containers = readRecords(buffer, strings);
+
+            ContainerRegister register = ContainerRegister.getInstance();
+            register.addContainersIfAbsent(readContainers(buffer, containers), null);
+            int exportCount = buffer.getInt();
+            for (int i = 0; i < exportCount; i++)
+            {
+                String name = stringAt(strings, buffer.getInt());
+                findExport(exportTerminals, name).restoreContainers(readContainers(buffer, containers));
+            }
+            int importCount = buffer.getInt();
+            for (int i = 0; i < importCount; i++)
+            {
+                String name = stringAt(strings, buffer.getInt());
+                findImport(importTerminals, name).restoreContainers(readContainers(buffer, containers));
+            }
+            String destination = stringAt(strings, buffer.getInt());
+            CargoShip.CargoShipState state = CargoShip.CargoShipState.values()[buffer.get()];
+            String requestTarget = stringAt(strings, buffer.getInt());
+            boolean endImportAndExport = buffer.get() != 0;
+            List<Container> cargo = readContainers(buffer, containers);
+            ship.restoreVoyage(state, destination, requestTarget, endImportAndExport, cargo,
+                    findImport(importTerminals, destination), findExport(exportTerminals, destination));
+            int fleetCount = version == NO_FLEET_VERSION ? 0 : buffer.getInt();
+            for (int i = 0; i < fleetCount; i++)
+            {
+                String name = stringAt(strings, buffer.getInt());
+                List<Container> fleetCargo = readContainers(buffer, containers);
+                CargoShip fleetShip = findShip(fleet, name);
+                if (fleetShip != null)
+                {
+                    fleetShip.restoreCargo(fleetCargo);
+                }
+                else if (!fleetCargo.isEmpty())
+                {
+                    fleetCargo.forEach(register::removeContainer);
+                    logger.warning("The " + name + " ship is no longer in the fleet: its " + fleetCargo.size() + " containers were dropped.");
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException("The yard snapshot could not be decoded.", e);
+        }
+    }
+
+    private static Container[] readRecords(ByteBuffer buffer, String[] strings) throws IOException
+    {
+        Map<String, ContainerCreator<? extends Container>> creators = new LinkedHashMap<>();
+        creators.put("Box", new BoxSelector());
+        creators.put("HighCube", new HighCubeSelector());
+        Container.ContainerState[] states = Container.ContainerState.values();
+        Container.GoodsType[] goods = Container.GoodsType.values();
+
+        int count = buffer.getInt();
+        String[] codes = new String[count];
+        String[] types = new String[count];
+        String[] locations = new String[count];
+        byte[] stateOrdinals = new byte[count];
+        byte[] goodsOrdinals = new byte[count];
+        Map<String, List<Integer>> positionsByType = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++)
+        {
+            long code = buffer.getLong();
+            types[i] = stringAt(strings, buffer.getInt());
+            locations[i] = stringAt(strings, buffer.getInt());
+            stateOrdinals[i] = buffer.get();
+            goodsOrdinals[i] = buffer.get();
+            if (!creators.containsKey(types[i]))
+            {
+                throw new IOException("Unknown container type in snapshot: " + types[i]);
+            }
+            codes[i] = code >= 0 ? ContainerCodeCodec.decode(code) : code == NO_CODE ? null : stringAt(strings, (int) (-code - 2));
+            positionsByType.computeIfAbsent(types[i], t -> new ArrayList<>()).add(i);
+        }
+
+        Container[] containers = new Container[count];
+        for (Map.Entry<String, List<Integer>> group : positionsByType.entrySet())
+        {
+            List<Integer> positions = group.getValue();
+            List<String> groupCodes = new ArrayList<>(positions.size());
+            for (int position : positions)
+            {
+                groupCodes.add(codes[position]);
+            }
+            List<? extends Container> created = creators.get(group.getKey()).registerContainers(groupCodes);
+            for (int j = 0; j < positions.size(); j++)
+            {
+                containers[positions.get(j)] = created.get(j);
+            }
+        }
+        for (int i = 0; i < count; i++)
+        {
+            Container container = containers[i];
+            container.setContainerState(stateOrdinals[i] == NO_ORDINAL ? null : states[stateOrdinals[i]]);
+            container.setGoods(goodsOrdinals[i] == NO_ORDINAL ? null : goods[goodsOrdinals[i]]);
+            container.setLocation(locations[i]);
+        }
+        return containers;
+    }
+
+    private static List<Container> readContainers(ByteBuffer buffer, Container[] containers)
+    {
+        int count = buffer.getInt();
+        List<Container> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            result.add(containers[buffer.getInt()]);
+        }
+        return result;
+    }
+
+    private static String[] readStringTable(ByteBuffer buffer)
+    {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++)
+        {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static String stringAt(String[] strings, int id)
+    {
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    private static ExportSubTerminal findExport(List<ExportSubTerminal> terminals, String name) throws IOException
+    {
+        for (ExportSubTerminal terminal : terminals)
+        {
+            if (terminal.getName().equals(name))
+            {
+                return terminal;
+            }
+        }
+        throw new IOException("The snapshot refers to an unknown export sub-terminal: " + name);
+    }
+
+    private static CargoShip findShip(List<CargoShip> ships, String name)
+    {
+        for (CargoShip ship : ships)
+        {
+            if (ship.getName().equals(name))
+            {
+                return ship;
+            }
+        }
+        return null;
+    }
+
+    private static ImportSubTerminal findImport(List<ImportSubTerminal> terminals, String name) throws IOException
+    {
+        for (ImportSubTerminal terminal : terminals)
+        {
+            if (terminal.getName().equals(name))
+            {
+                return terminal;
+            }
+        }
+        throw new IOException("The snapshot refers to an unknown import sub-terminal: " + name);
+    }
+
+    private static void writeIndexes(ByteBuffer buffer, int[] indexes)
+    {
+        buffer.putInt(indexes.length);
+        for (int index : indexes)
+        {
+            buffer.putInt(index);
+        }
+    }
+
+    private static long listsSize(List<int[]> lists)
+    {
+        long size = 0;
+        for (int[] indexes : lists)
+        {
+            size += 8L + 4L * indexes.length;
+        }
+        return size;
+    }
+
+    private static long checksum(ByteBuffer buffer, int size)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, size - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    /**
+     *  This inner class collects the distinct containers and strings of the system while the snapshot is prepared,
+     *  assigning each of them the index used in the file.
+     */
+    private static class Encoder
+    {
+        private final Map<Container, Integer> indexes = new IdentityHashMap<>();
+        private final List<Container> containers = new ArrayList<>();
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final List<byte[]> encodedStrings = new ArrayList<>();
+        private long[] codes;
+        private int[] typeIds;
+        private int[] locationIds;
+        private byte[] states;
+        private byte[] goods;
+
+        private int[] indexesOf(List<Container> list)
+        {
+            int[] result = new int[list.size()];
+            for (int i = 0; i < result.length; i++)
+            {
+                result[i] = indexOf(list.get(i));
+            }
+            return result;
+        }
+
+        private int[] indexesOf(ContainerCollection collection)
+        {
+            synchronized (collection)
+            {
+                int[] result = new int[collection.getSize()];
+                for (int i = 0; i < result.length; i++)
+                {
+                    result[i] = indexOf(collection.getContainerAt(i));
+                }
+                return result;
+            }
+        }
+
+        private int indexOf(Container container)
+        {
+            Integer index = indexes.get(container);
+            if (index == null)
+            {
+                index = containers.size();
+                indexes.put(container, index);
+                containers.add(container);
+            }
+            return index;
+        }
+
+        private int stringId(String value)
+        {
+            if (value == null)
+            {
+                return NO_STRING;
+            }
+            Integer id = strings.get(value);
+            if (id == null)
+            {
+                id = strings.size();
+                strings.put(value, id);
+                encodedStrings.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return id;
+        }
+
+        /**
+         *  This method captures the fields of every container, so that the string table is complete
+         *  before anything is written. Standard codes are packed, unless packing would change their case.
+         */
+        private void encodeRecords()
+        {
+            codes = new long[containers.size()];
+            typeIds = new int[codes.length];
+            locationIds = new int[codes.length];
+            states = new byte[codes.length];
+            goods = new byte[codes.length];
+            for (int i = 0; i < codes.length; i++)
+            {
+                Container container = containers.get(i);
+                String code = container.getContainerCode();
+                long packed = ContainerCodeCodec.encode(code);
+                if (code == null)
+                {
+                    codes[i] = NO_CODE;
+                }
+                else if (packed != ContainerCodeCodec.NOT_ENCODABLE && ContainerCodeCodec.decode(packed).equals(code))
+                {
+                    codes[i] = packed;
+                }
+                else
+                {
+                    codes[i] = -2L - stringId(code);
+                }
+                typeIds[i] = stringId(container.getType());
+                locationIds[i] = stringId(container.getLocation());
+                states[i] = ordinalOf(container.getContainerState());
+                goods[i] = ordinalOf(container.getGoods());
+            }
+        }
+
+        private long stringTableSize()
+        {
+            long size = 4;
+            for (byte[] bytes : encodedStrings)
+            {
+                size += 4 + bytes.length;
+            }
+            return size;
+        }
+
+        private void writeStringTable(ByteBuffer buffer)
+        {
+            buffer.putInt(encodedStrings.size());
+            for (byte[] bytes : encodedStrings)
+            {
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+
+        private void writeRecords(ByteBuffer buffer)
+        {
+            for (int i = 0; i < codes.length; i++)
+            {
+                buffer.putLong(codes[i]);
+                buffer.putInt(typeIds[i]);
+                buffer.putInt(locationIds[i]);
+                buffer.put(states[i]);
+                buffer.put(goods[i]);
+            }
+        }
+
+        private static byte ordinalOf(Enum<?> value)
+        {
+            return value == null ? NO_ORDINAL : (byte) value.ordinal();
+        }
+    }
+}
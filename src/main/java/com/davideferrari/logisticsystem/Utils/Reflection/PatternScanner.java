@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.util.logging.Logger;
 import com.davideferrari.logisticsystem.Menu.Menu;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingBus;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.*;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.*;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage.*;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.*;
 import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.*;
 import com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory.ClothingWarehouse.*;
@@ -17,6 +21,8 @@ import com.davideferrari.logisticsystem.Utils.Annotations.AppAuthor;
 import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
 import com.davideferrari.logisticsystem.Utils.Annotations.CapacityLimit;
 import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ExceptionShieldingHandler;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import com.davideferrari.logisticsystem.Utils.Simulation.*;
 
 /**
  *  This class  performs a Reflection-based analysis of the entire application.
@@ -47,10 +53,13 @@ public class PatternScanner
             {
                 Menu.class,
                 ContainerRegister.class,
+                ContainerJournal.class,
                 CargoShip.class,
+                DockingBus.class,
                 Terminal.class,
                 ImportSubTerminal.class,
                 ExportSubTerminal.class,
+                BayLevelListener.class,
                 Container.class,
                 Box.class,
                 HighCube.class,
@@ -60,6 +69,17 @@ public class PatternScanner
                 ContainerCollection.class,
                 ContainerIterator.class,
                 TerminalContainerIterator.class,
+                SnapshotContainerIterator.class,
+                ContainerSpliterator.class,
+                CompositeContainerIterator.class,
+                ContainerObserver.class,
+                LoadPlanningStrategy.class,
+                GreedyLoadPlanner.class,
+                BranchAndBoundLoadPlanner.class,
+                ExportLoadPlanner.class,
+                ContainerTable.class,
+                OffHeapContainerTable.class,
+                ContainerView.class,
                 Warehouse.class,
                 ImportWarehouse.class,
                 ExportWarehouse.class,
@@ -74,7 +94,9 @@ public class PatternScanner
                 ElectronicsExportWarehouse.class,
                 FurnitureWarehouse.class,
                 FurnitureImportWarehouse.class,
-                FurnitureExportWarehouse.class
+                FurnitureExportWarehouse.class,
+                SimulationEvent.class,
+                SimulationEngine.class
             };
 
             for (Class<?> clazz : classesToInspect) 
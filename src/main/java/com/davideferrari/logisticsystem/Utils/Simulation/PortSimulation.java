@@ -0,0 +1,297 @@
+package com.davideferrari.logisticsystem.Utils.Simulation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.Fleet;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.BerthRequest;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.BerthScheduler;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling.PortCallReport;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.ContainerCreator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.Terminal;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.WarehouseTruck;
+
+/**
+ *  This class simulates the traffic of a fleet between the ports of Bari and Busan on a {@link SimulationEngine}.
+ *  It drives the real components of the system with the virtual clock of the engine instead of threads and sleeps:
+ *  - Ship arrivals: every ship asks the {@link BerthScheduler} of the port for a berth when it arrives,
+ *    and is berthed as soon as a berth is free.
+ *  - Crane moves: the containers unloaded and loaded during a port call are moved one at a time by the crane of
+ *    the berth, and the ship sails to the other port once the last move is over.
+ *  - Truck passes: the {@link WarehouseTruck} of each port passes by its import sub-terminal at regular intervals.
+ *  - Warehouse cycles: when a pass finds the import sub-terminal overloaded, the warehouses empty and refill the
+ *    containers, and the truck is busy until the cycle is over.
+ *  The durations of voyages and crane moves are drawn from the random generator of the engine, so a run is
+ *  deterministic for a given seed. Times are expressed in seconds.
+ *  The simulation uses its own terminals, ships and containers, which are not added to the ContainerRegister,
+ *  and the records they log from the thread running the simulation are muted (see {@link SimulationLogScope}).
+ */
+public class PortSimulation
+{
+    public static final long MEAN_VOYAGE_TIME = 12 * 3600;
+    public static final long MEAN_CRANE_MOVE_TIME = 90;
+    public static final long TRUCK_PASS_INTERVAL = 600;
+    public static final long WAREHOUSE_CYCLE_TIME = 3600;
+    public static final int INITIAL_EXPORT_STOCK = 20;
+
+    /**
+     *  The goods a simulated container can carry: every goods type with a warehouse, so {@code NONE} is left out.
+     */
+    private static final Container.GoodsType[] LOADABLE_GOODS =
+    {
+        Container.GoodsType.CLOTHING,
+        Container.GoodsType.ELECTRONICS,
+        Container.GoodsType.FOOD,
+        Container.GoodsType.FURNITURE
+    };
+
+    private final SimulationEngine engine;
+    private final Port bari;
+    private final Port busan;
+    private final Fleet fleet = new Fleet();
+    private final BoxSelector boxSelector = new BoxSelector();
+    private final HighCubeSelector highCubeSelector = new HighCubeSelector();
+    private int nextCode;
+
+    private long voyages;
+    private long craneMoves;
+    private long truckPasses;
+    private long warehouseCycles;
+    private long trace = 17;
+
+    /**
+     *  This method constructs a simulation with two ports, their stock of export containers and a fleet of loaded ships.
+     *  The ships are spread over both ports and arrive during the first voyage time.
+     *  @param seed   The seed of the simulation.
+     *  @param ships  The number of ships of the fleet.
+     *  @param berths The number of berths of each port.
+     *  @throws IllegalArgumentException If there are no ships or no berths.
+     */
+    public PortSimulation(long seed, int ships, int berths)
+    {
+        if (ships <= 0)
+        {
+            throw new IllegalArgumentException("The simulation needs at least one ship");
+        }
+        this.engine = new SimulationEngine(seed);
+        this.bari = new Port("Bari", berths);
+        this.busan = new Port("Busan", berths);
+
+        Random random = engine.random();
+        for (Port port : List.of(bari, busan))
+        {
+            port.exportTerminal.addFromWarehouse(createContainers(INITIAL_EXPORT_STOCK));
+            engine.schedule(random.nextInt((int) TRUCK_PASS_INTERVAL), e -> truckPass(port));
+        }
+        for (int i = 0; i < ships; i++)
+        {
+            Port port = i % 2 == 0 ? bari : busan;
+            CargoShip ship = fleet.commission("SIM " + i, port.importTerminal, port.exportTerminal);
+            ship.restoreCargo(createContainers(1 + random.nextInt(CargoShip.TIERS * 4)));
+            int priority = random.nextInt(3);
+            engine.schedule((long) (random.nextDouble() * MEAN_VOYAGE_TIME), e -> arrive(ship, priority, port));
+        }
+    }
+
+    /**
+     *  This method runs the simulation until the given number of voyages has been completed,
+     *  or no event is left.
+     *  @param voyagesToComplete The number of voyages (port calls followed by a departure) to add.
+     *  @return The number of voyages completed by this run.
+     */
+    public long run(long voyagesToComplete)
+    {
+        long before = voyages;
+        long target = before + voyagesToComplete;
+        try (SimulationLogScope scope = SimulationLogScope.open())
+        {
+            while (voyages < target && engine.step())
+            {
+                // The events drive the whole simulation.
+            }
+        }
+        return voyages - before;
+    }
+
+    public SimulationEngine getEngine()
+    {
+        return engine;
+    }
+
+    public Fleet getFleet()
+    {
+        return fleet;
+    }
+
+    public long getVoyages()
+    {
+        return voyages;
+    }
+
+    public long getCraneMoves()
+    {
+        return craneMoves;
+    }
+
+    public long getTruckPasses()
+    {
+        return truckPasses;
+    }
+
+    public long getWarehouseCycles()
+    {
+        return warehouseCycles;
+    }
+
+    /**
+     *  This method returns the number of containers unloaded and loaded in both ports.
+     *  @return The containers moved by the cranes.
+     */
+    public long getContainersMoved()
+    {
+        return bari.scheduler.getUnloadedContainers() + bari.scheduler.getLoadedContainers()
+                + busan.scheduler.getUnloadedContainers() + busan.scheduler.getLoadedContainers();
+    }
+
+    /**
+     *  This method returns a hash of the sequence of port calls (time, ship, port, berth and containers moved),
+     *  so two runs can be compared without keeping all their reports.
+     *  @return The hash of the port calls completed so far.
+     */
+    public long getTrace()
+    {
+        return trace;
+    }
+
+    /**
+     *  This event queues the docking request of a ship that has arrived at a port, and berths it if a berth is free.
+     */
+    private void arrive(CargoShip ship, int priority, Port port)
+    {
+        port.scheduler.requestBerth(ship, priority, engine.now());
+        berthShips(port);
+    }
+
+    /**
+     *  This method berths the ships that have arrived at a port, as long as a berth is free.
+     *  The containers of the port call are exchanged with the sub-terminals at berthing,
+     *  and the crane then takes one move per container moved.
+     */
+    private void berthShips(Port port)
+    {
+        BerthRequest request;
+        while (port.berthsInUse.cardinality() < port.scheduler.getBerths() && (request = port.scheduler.nextReady(engine.now())) != null)
+        {
+            int berth = port.berthsInUse.nextClearBit(0);
+            port.berthsInUse.set(berth);
+            PortCallReport report = port.scheduler.serve(request, berth);
+            BerthRequest served = request;
+            engine.schedule(0, e -> craneMove(served, report, port, report.getUnloaded() + report.getLoaded()));
+        }
+    }
+
+    /**
+     *  This event is a move of the crane of a berth: once the remaining moves are over, the ship departs.
+     */
+    private void craneMove(BerthRequest request, PortCallReport report, Port port, int remaining)
+    {
+        if (remaining == 0)
+        {
+            depart(request, report, port);
+            return;
+        }
+        craneMoves++;
+        engine.schedule(jitter(MEAN_CRANE_MOVE_TIME), e -> craneMove(request, report, port, remaining - 1));
+    }
+
+    /**
+     *  This event releases the berth of a ship, completes its docking request and sends it to the other port.
+     */
+    private void depart(BerthRequest request, PortCallReport report, Port port)
+    {
+        port.berthsInUse.clear(report.getBerth());
+        request.getCompletion().complete(report);
+        voyages++;
+        trace = 31 * trace + engine.now();
+        trace = 31 * trace + report.toString().hashCode();
+
+        Port next = port == bari ? busan : bari;
+        CargoShip ship = request.getShip();
+        engine.schedule(jitter(MEAN_VOYAGE_TIME), e -> arrive(ship, request.getPriority(), next));
+        berthShips(port);
+    }
+
+    /**
+     *  This event is a pass of the truck of a port: if it triggers a warehouse cycle, the next pass
+     *  waits until the cycle is over.
+     */
+    private void truckPass(Port port)
+    {
+        truckPasses++;
+        if (port.truck.pass())
+        {
+            warehouseCycles++;
+            engine.schedule(WAREHOUSE_CYCLE_TIME, e -> truckPass(port));
+        }
+        else
+        {
+            engine.schedule(TRUCK_PASS_INTERVAL, e -> truckPass(port));
+        }
+    }
+
+    /**
+     *  This method draws a duration uniformly between half and one and a half times the given mean.
+     */
+    private long jitter(long mean)
+    {
+        return mean / 2 + (long) (engine.random().nextDouble() * mean);
+    }
+
+    /**
+     *  This method creates full containers with random types and goods, for the initial stock and cargo.
+     */
+    private List<Container> createContainers(int count)
+    {
+        Random random = engine.random();
+        List<Container> containers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            ContainerCreator<? extends Container> creator = random.nextBoolean() ? boxSelector : highCubeSelector;
+            Container container = creator.registerContainer(String.format("SIMU%08d", nextCode++));
+            container.setGoods(LOADABLE_GOODS[random.nextInt(LOADABLE_GOODS.length)]);
+            container.setContainerState(Container.ContainerState.FULL_EXPORT);
+            containers.add(container);
+        }
+        return containers;
+    }
+
+    /**
+     *  This class groups the components of a simulated port.
+     */
+    private final class Port
+    {
+        private final ImportSubTerminal importTerminal;
+        private final ExportSubTerminal exportTerminal;
+        private final BerthScheduler scheduler;
+        private final WarehouseTruck truck;
+        private final BitSet berthsInUse = new BitSet();
+
+        private Port(String name, int berths)
+        {
+            Terminal terminal = new Terminal(name);
+            importTerminal = new ImportSubTerminal(name);
+            exportTerminal = new ExportSubTerminal(name);
+            terminal.addComponent(importTerminal);
+            terminal.addComponent(exportTerminal);
+            scheduler = new BerthScheduler(terminal, importTerminal, exportTerminal, berths, engine::now);
+            truck = new WarehouseTruck(importTerminal, exportTerminal);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.davideferrari.logisticsystem.Utils.Simulation;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This class is a discrete-event simulation engine with a virtual clock.
+ *  Events are kept in an event calendar, a priority queue ordered by time and, for events due at the same time,
+ *  by the order in which they were scheduled. The engine repeatedly takes the earliest event, moves the clock
+ *  straight to its time and fires it, so no time is spent waiting between events.
+ *  All the randomness of a simulation is drawn from the seeded {@link Random} of the engine: together with the
+ *  ordering of the calendar, this makes every run with the same seed produce exactly the same sequence of events.
+ *  In the Command Design Pattern, this class acts as the Invoker of the {@link SimulationEvent} commands.
+ *  Thread Safety: An engine is meant to be driven by a single thread, and is not synchronized.
+ */
+@AppDesignPattern(pattern = "Command", justification = "Invoker")
+public class SimulationEngine
+{
+    private final PriorityQueue<ScheduledEvent> calendar = new PriorityQueue<>();
+    private final Random random;
+    private final long seed;
+    private long now;
+    private long nextSequence;
+    private long firedEvents;
+
+    /**
+     *  This method constructs an engine with an empty calendar, and its clock at time 0.
+     *  @param seed The seed of the random number generator.
+     */
+    public SimulationEngine(long seed)
+    {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     *  This method returns the current time of the virtual clock.
+     *  It can be passed as a clock to the components driven by the engine (e.g., {@code engine::now}).
+     *  @return The time of the event being fired, or of the last event fired.
+     */
+    public long now()
+    {
+        return now;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     *  This method returns the random number generator of the simulation.
+     *  Events must draw their random values from it, so the run stays deterministic for the seed.
+     *  @return The seeded generator.
+     */
+    public Random random()
+    {
+        return random;
+    }
+
+    /**
+     *  This method schedules an event after a delay from the current time.
+     *  @param delay The delay, in the unit of the clock.
+     *  @param event The event to fire.
+     *  @throws IllegalArgumentException If the delay is negative.
+     */
+    public void schedule(long delay, SimulationEvent event)
+    {
+        if (delay < 0)
+        {
+            throw new IllegalArgumentException("An event cannot be scheduled in the past");
+        }
+        scheduleAt(now + delay, event);
+    }
+
+    /**
+     *  This method schedules an event at an absolute time.
+     *  @param time  The time of the event, not before the current time.
+     *  @param event The event to fire.
+     *  @throws IllegalArgumentException If the time is before the current time.
+     */
+    public void scheduleAt(long time, SimulationEvent event)
+    {
+        if (time < now)
+        {
+            throw new IllegalArgumentException("An event cannot be scheduled in the past");
+        }
+        calendar.add(new ScheduledEvent(time, nextSequence++, event));
+    }
+
+    /**
+     *  This method fires the earliest event of the calendar, after moving the clock to its time.
+     *  @return {@code true} if an event was fired, {@code false} if the calendar is empty.
+     */
+    public boolean step()
+    {
+        ScheduledEvent next = calendar.poll();
+        if (next == null)
+        {
+            return false;
+        }
+        now = next.time;
+        firedEvents++;
+        next.event.fire(this);
+        return true;
+    }
+
+    /**
+     *  This method fires all the events due up to the given time, including the ones they schedule,
+     *  and then moves the clock to that time.
+     *  @param until The time at which the run stops.
+     *  @return The number of events fired.
+     */
+    public long run(long until)
+    {
+        long fired = 0;
+        while (!calendar.isEmpty() && calendar.peek().time <= until)
+        {
+            step();
+            fired++;
+        }
+        now = Math.max(now, until);
+        return fired;
+    }
+
+    /**
+     *  This method returns the number of events waiting in the calendar.
+     *  @return The number of pending events.
+     */
+    public int getPendingEvents()
+    {
+        return calendar.size();
+    }
+
+    public long getFiredEvents()
+    {
+        return firedEvents;
+    }
+
+    /**
+     *  This class is an entry of the event calendar.
+     *  Entries are ordered by time, and then by scheduling order, which keeps ties deterministic.
+     */
+    private static final class ScheduledEvent implements Comparable<ScheduledEvent>
+    {
+        private final long time;
+        private final long sequence;
+        private final SimulationEvent event;
+
+        private ScheduledEvent(long time, long sequence, SimulationEvent event)
+        {
+            this.time = time;
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        @Override
+        public int compareTo(ScheduledEvent other)
+        {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
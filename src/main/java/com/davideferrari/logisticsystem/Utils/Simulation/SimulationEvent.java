@@ -0,0 +1,19 @@
+package com.davideferrari.logisticsystem.Utils.Simulation;
+
+import com.davideferrari.logisticsystem.Utils.Annotations.AppDesignPattern;
+
+/**
+ *  This interface represents an action scheduled on the event calendar of a {@link SimulationEngine}.
+ *  In the Command Design Pattern, it acts as the Command: the engine fires it when the virtual clock
+ *  reaches its time, and the action may schedule further events (e.g., the next crane move).
+ */
+@FunctionalInterface
+@AppDesignPattern(pattern = "Command", justification = "Command")
+public interface SimulationEvent
+{
+    /**
+     *  This method performs the action of the event.
+     *  @param engine The engine firing the event, whose clock is set to the time of the event.
+     */
+    void fire(SimulationEngine engine);
+}
@@ -0,0 +1,116 @@
+package com.davideferrari.logisticsystem.Utils.Simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Filter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *  This class mutes the log records emitted by the thread running a simulation, and only by that thread.
+ *  The components driven by a {@link PortSimulation} log through the same class loggers as the live system,
+ *  so muting those loggers would also silence the trucks, the menu and any other thread of the application.
+ *  Instead, while at least one scope is open, the handlers of the root logger drop the records whose thread
+ *  owns an open scope; every other record goes through their previous filter, as before.
+ *  The handlers get their previous filter back when the last scope is closed.
+ *  Hot paths can ask {@link #isLoggable(Logger, Level)} before building a record, and print their console
+ *  output through {@link #println(String)}, so a simulation neither builds the records it drops nor floods the console.
+ *  Usage: {@code try (SimulationLogScope scope = SimulationLogScope.open()) { ... }}
+ */
+public final class SimulationLogScope implements AutoCloseable
+{
+    private static final Logger rootLogger = Logger.getLogger("");
+    private static final Set<Long> mutedThreads = ConcurrentHashMap.newKeySet();
+    private static final Map<Handler, Filter> previousFilters = new HashMap<>();
+    private static int openScopes;
+
+    private final long threadId;
+    private boolean closed;
+
+    private SimulationLogScope(long threadId)
+    {
+        this.threadId = threadId;
+    }
+
+    /**
+     *  This method mutes the records of the calling thread until the returned scope is closed.
+     *  @return The open scope, to be closed by the same thread.
+     */
+    public static SimulationLogScope open()
+    {
+        synchronized (SimulationLogScope.class)
+        {
+            if (openScopes++ == 0)
+            {
+                for (Handler handler : rootLogger.getHandlers())
+                {
+                    Filter previous = handler.getFilter();
+                    previousFilters.put(handler, previous);
+                    handler.setFilter(record -> !mutedThreads.contains(record.getLongThreadID())
+                            && (previous == null || previous.isLoggable(record)));
+                }
+            }
+        }
+        long threadId = Thread.currentThread().threadId();
+        mutedThreads.add(threadId);
+        return new SimulationLogScope(threadId);
+    }
+
+    /**
+     *  This method tells whether the calling thread owns an open scope.
+     *  @return {@code true} if the records of the calling thread are muted.
+     */
+    public static boolean isMuted()
+    {
+        return !mutedThreads.isEmpty() && mutedThreads.contains(Thread.currentThread().threadId());
+    }
+
+    /**
+     *  This method tells whether a record of the given level, logged by the calling thread, would reach the handlers,
+     *  so the caller can skip building its message otherwise.
+     *  @param logger The logger of the caller.
+     *  @param level  The level of the record.
+     *  @return {@code true} if the logger accepts the level and the calling thread is not muted.
+     */
+    public static boolean isLoggable(Logger logger, Level level)
+    {
+        return logger.isLoggable(level) && !isMuted();
+    }
+
+    /**
+     *  This method prints a line on the console, unless the calling thread is muted.
+     *  @param line The line to print.
+     */
+    public static void println(String line)
+    {
+        if (!isMuted())
+        {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     *  This method lets the records of the thread through again. Closing a scope twice has no effect.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (SimulationLogScope.class)
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+            mutedThreads.remove(threadId);
+            if (--openScopes == 0)
+            {
+                previousFilters.forEach(Handler::setFilter);
+                previousFilters.clear();
+            }
+        }
+    }
+}
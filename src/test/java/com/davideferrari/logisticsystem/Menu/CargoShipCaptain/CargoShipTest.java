@@ -2,15 +2,17 @@ package com.davideferrari.logisticsystem.Menu.CargoShipCaptain;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus.DockingBus;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
-import com.davideferrari.logisticsystem.Menu.TerminalOperator.TerminalOperatorMenu;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.UnloadResult;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
 import java.lang.reflect.Field;
+import java.util.List;
 
 public class CargoShipTest
 {
@@ -33,6 +35,12 @@ public class CargoShipTest
         ship = new CargoShip(mockImp, mockExp);
     }
 
+    @AfterEach
+    public void tearDown()
+    {
+        DockingBus.getInstance().cancelAll();
+    }
+
     @Test
     @DisplayName("Should initialize with correct capacity from annotation")
     public void testCapacityReflection() throws Exception
@@ -57,36 +65,45 @@ public class CargoShipTest
     @DisplayName("Should transition to DOCKED_FOR_IMPORT when docking is confirmed")
     public void testDockingConfirmation()
     {
-        try (MockedStatic<TerminalOperatorMenu> menuMock = mockStatic(TerminalOperatorMenu.class))
-        {
-            menuMock.when(TerminalOperatorMenu::sendDockConfirmationtoShip).thenReturn(true);
-            
-            boolean result = ship.dockingConfirmation();
-            
-            assertTrue(result);
-            assertEquals(CargoShip.CargoShipState.DOCKED_FOR_IMPORT, ship.getState());
-        }
+        ship.dockingRequest();
+        assertFalse(ship.dockingConfirmation(), "The ship cannot dock before the operator answers");
+
+        DockingBus.getInstance().answer(ship.getPendingRequest(), true);
+        boolean result = ship.dockingConfirmation();
+
+        assertTrue(result);
+        assertEquals(CargoShip.CargoShipState.DOCKED_FOR_IMPORT, ship.getState());
+        assertNull(ship.getPendingRequest(), "The granted request should be consumed");
+    }
+
+    @Test
+    @DisplayName("Should keep waiting and close the request when docking is denied")
+    public void testDockingDenied()
+    {
+        ship.dockingRequest();
+        DockingBus.getInstance().answer(ship.getPendingRequest(), false);
+
+        assertFalse(ship.dockingConfirmation());
+        assertEquals(CargoShip.CargoShipState.WAITING, ship.getState());
+        assertNull(ship.getRequestTarget(), "The ship must send a new request after a denial");
     }
 
     @Test
     @DisplayName("Should unload containers and transition to DOCKED_FOR_EXPORT")
     public void testDropInTerminal()
     {
-        try (MockedStatic<TerminalOperatorMenu> menuMock = mockStatic(TerminalOperatorMenu.class))
-        {
-            menuMock.when(TerminalOperatorMenu::sendDockConfirmationtoShip).thenReturn(true);
-            
-            ship.dockingConfirmation();
-            
-            ship.pickFromTerminal(mockContainer);
-            when(mockImp.shipImport(mockContainer)).thenReturn(true);
-            
-            boolean result = ship.dropInTerminal();
-            
-            assertTrue(result, "Unloading should complete successfully");
-            assertEquals(0, ship.getSize(), "Ship should be empty");
-            assertEquals(CargoShip.CargoShipState.DOCKED_FOR_EXPORT, ship.getState());
-        }
+        ship.dockingRequest();
+        DockingBus.getInstance().answer(ship.getPendingRequest(), true);
+        ship.dockingConfirmation();
+        
+        ship.pickFromTerminal(mockContainer);
+        when(mockImp.shipImportAll(anyCollection())).thenReturn(new UnloadResult(List.of(mockContainer), List.of()));
+        
+        boolean result = ship.dropInTerminal();
+        
+        assertTrue(result, "Unloading should complete successfully");
+        assertEquals(0, ship.getSize(), "Ship should be empty");
+        assertEquals(CargoShip.CargoShipState.DOCKED_FOR_EXPORT, ship.getState());
     }
 
     @Test
@@ -0,0 +1,188 @@
+package com.davideferrari.logisticsystem.Menu.CargoShipCaptain;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+/**
+ *  Unit tests for the StowagePlan class.
+ *  This suite verifies the slot addressing of the hold, the stacking rules on height and weight,
+ *  and that unloading always lifts containers from the top of their stacks.
+ */
+class StowagePlanTest
+{
+    private StowagePlan hold;
+
+    /**
+     *  Creates a hold of one bay, three rows and two tiers, with stacks of at most 3 meters and 50 tonnes.
+     */
+    @BeforeEach
+    void setUp()
+    {
+        hold = new StowagePlan(1, 3, 2, 3.0, 50_000);
+    }
+
+    /**
+     *  Verifies that stacks are filled from the bottom, and that a container too tall or too heavy
+     *  for the first stack goes to the next one.
+     */
+    @Test
+    @DisplayName("Should stow containers on the first stack that can take them")
+    void testStackingRules()
+    {
+        Container box = mockContainer(1.2, 20_000);
+        Container highCube = mockContainer(1.7, 25_000);
+        Container secondHighCube = mockContainer(1.7, 25_000);
+
+        assertEquals(hold.slotIndex(0, 0, 0), hold.place(box));
+        assertEquals(hold.slotIndex(0, 0, 1), hold.place(highCube));
+        assertEquals(hold.slotIndex(0, 1, 0), hold.place(secondHighCube), "1.7 m on top of 2.9 m exceeds the stack height");
+
+        Container heavy = mockContainer(1.2, 30_000);
+        assertEquals(hold.slotIndex(0, 2, 0), hold.place(heavy), "30 t on top of 25 t exceeds the stack weight");
+        assertEquals(StowagePlan.NO_SLOT, hold.place(mockContainer(1.2, 30_000)));
+
+        assertSame(highCube, hold.containerAt(hold.slotIndex(0, 0, 1)));
+        assertEquals(4, hold.size());
+        assertEquals(100_000, hold.totalWeight());
+    }
+
+    /**
+     *  Verifies that the unloading order lists the top tiers first, so removing the slots in that order
+     *  empties the hold without ever lifting a container that has another one on top of it.
+     */
+    @Test
+    @DisplayName("Should unload from the top of the stacks")
+    void testUnloadingOrder()
+    {
+        Container[] cargo = new Container[6];
+        for (int i = 0; i < cargo.length; i++)
+        {
+            cargo[i] = mockContainer(1.2, 10_000);
+            hold.place(cargo[i]);
+        }
+
+        int[] order = hold.unloadingSlots();
+        assertEquals(hold.slotIndex(0, 0, 1), order[0]);
+        assertThrows(IllegalStateException.class, () -> hold.removeAt(hold.slotIndex(0, 0, 0)));
+        for (int slot : order)
+        {
+            hold.removeAt(slot);
+        }
+        assertTrue(hold.isEmpty());
+        assertEquals(0, hold.totalWeight());
+    }
+
+    /**
+     *  Verifies that removing a container from the bottom of a stack lowers the one standing on it.
+     */
+    @Test
+    @DisplayName("Should lower the containers above a removed one")
+    void testRemoveFromBottom()
+    {
+        Container bottom = mockContainer(1.2, 10_000);
+        Container top = mockContainer(1.2, 12_000);
+        hold.place(bottom);
+        hold.place(top);
+
+        assertTrue(hold.remove(bottom));
+
+        assertSame(top, hold.containerAt(hold.slotIndex(0, 0, 0)));
+        assertNull(hold.containerAt(hold.slotIndex(0, 0, 1)));
+        assertEquals(12_000, hold.totalWeight());
+        assertFalse(hold.contains(bottom));
+        assertEquals(hold.slotIndex(0, 0, 0), hold.slotOf(top));
+    }
+
+    /**
+     *  Verifies that membership and bulk removal go through the slot index, keep it consistent,
+     *  and that the same container cannot be stowed twice.
+     */
+    @Test
+    @DisplayName("Should track the slot of every container on board")
+    void testSlotIndex()
+    {
+        Container[] cargo = new Container[6];
+        for (int i = 0; i < cargo.length; i++)
+        {
+            cargo[i] = mockContainer(1.2, 10_000);
+            hold.place(cargo[i]);
+        }
+        assertEquals(StowagePlan.NO_SLOT, hold.place(cargo[0]), "A container already on board cannot be stowed again");
+
+        assertEquals(3, hold.removeAll(List.of(cargo[0], cargo[2], cargo[4], mockContainer(1.2, 1))));
+
+        assertEquals(3, hold.size());
+        for (int i = 0; i < cargo.length; i++)
+        {
+            assertEquals(i % 2 == 1, hold.contains(cargo[i]));
+            if (i % 2 == 1)
+            {
+                assertSame(cargo[i], hold.containerAt(hold.slotOf(cargo[i])));
+            }
+        }
+    }
+
+    /**
+     *  Verifies that reading the containers by position follows the slot order of the copy,
+     *  also after a removal has left the stacks with different levels.
+     */
+    @Test
+    @DisplayName("Should read the containers by position in slot order")
+    void testPositionalAccess()
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            hold.place(mockContainer(1.2, 10_000));
+        }
+        hold.remove(hold.containerAt(hold.slotIndex(0, 0, 0)));
+
+        Container[] copy = hold.toArray();
+        assertEquals(4, copy.length);
+        for (int i = 0; i < copy.length; i++)
+        {
+            assertSame(copy[i], hold.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> hold.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> hold.get(-1));
+    }
+
+    /**
+     *  Verifies that a hold told the smallest container closes the stacks that cannot take it,
+     *  reopens them when their top is unloaded, and that a restore may still fill a closed stack's free tier.
+     */
+    @Test
+    @DisplayName("Should close the stacks full by height or weight and reopen them on unloading")
+    void testStacksClosedBySmallestContainer()
+    {
+        StowagePlan fitted = new StowagePlan(1, 2, 3, 3.0, 50_000, 1.2, 2_220);
+        Container highCube = mockContainer(1.7, 3_700);
+        Container box = mockContainer(1.2, 2_220);
+        assertEquals(fitted.slotIndex(0, 0, 0), fitted.place(highCube));
+        assertEquals(fitted.slotIndex(0, 0, 1), fitted.place(box));
+        assertEquals(fitted.slotIndex(0, 1, 0), fitted.place(mockContainer(1.2, 2_220)),
+                "A stack of 2.9 m cannot take another container, although it has a free tier");
+
+        fitted.removeAt(fitted.slotIndex(0, 0, 1));
+        assertEquals(fitted.slotIndex(0, 0, 1), fitted.place(mockContainer(1.2, 2_220)), "Unloading the top should reopen the stack");
+
+        StowagePlan single = new StowagePlan(1, 1, 3, 3.0, 50_000, 1.2, 2_220);
+        Container low = mockContainer(0.5, 1_000);
+        single.restore(List.of(highCube, box, low));
+        assertEquals(single.slotIndex(0, 0, 2), single.slotOf(low), "A restored container may fill the free tier of a closed stack");
+        assertThrows(IllegalArgumentException.class, () -> new StowagePlan(1, 1, 1, 3.0, 50_000, -1, 0));
+    }
+
+    private static Container mockContainer(double height, int weight)
+    {
+        Container container = mock(Container.class);
+        when(container.getHeight()).thenReturn(height);
+        when(container.getTareWeight()).thenReturn(weight);
+        when(container.getContainerState()).thenReturn(Container.ContainerState.EMPTY);
+        return container;
+    }
+}
@@ -0,0 +1,153 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.Terminal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Unit tests for the BerthScheduler class.
+ *  This suite verifies that ships are berthed by priority and ETA, and that the berths
+ *  serve several ships at the same time.
+ */
+class BerthSchedulerTest
+{
+    private Terminal port;
+    private ImportSubTerminal importTerminal;
+    private ExportSubTerminal exportTerminal;
+
+    /**
+     *  Initializes the port with mocked sub-terminals.
+     */
+    @BeforeEach
+    void setUp()
+    {
+        port = new Terminal("Bari");
+        importTerminal = mock(ImportSubTerminal.class);
+        exportTerminal = mock(ExportSubTerminal.class);
+    }
+
+    /**
+     *  Verifies that only the ships that have arrived are berthed, highest priority first,
+     *  and that a ship still at sea is berthed once its ETA has come.
+     */
+    @Test
+    @DisplayName("Should berth arrived ships by priority, then by ETA")
+    void testPriorityAndEta()
+    {
+        BerthScheduler scheduler = new BerthScheduler(port, importTerminal, exportTerminal, 1, () -> 0L);
+        CargoShip feeder = mock(CargoShip.class);
+        CargoShip liner = mock(CargoShip.class);
+        CargoShip lateLiner = mock(CargoShip.class);
+        CargoShip earlyFeeder = mock(CargoShip.class);
+        scheduler.requestBerth(feeder, 1, 20);
+        scheduler.requestBerth(liner, 5, 30);
+        scheduler.requestBerth(lateLiner, 9, 100);
+        scheduler.requestBerth(earlyFeeder, 1, 10);
+
+        assertSame(liner, scheduler.nextReady(50).getShip());
+        assertSame(earlyFeeder, scheduler.nextReady(50).getShip());
+        assertSame(feeder, scheduler.nextReady(50).getShip());
+        assertNull(scheduler.nextReady(50), "The last ship has not arrived yet");
+        assertSame(lateLiner, scheduler.nextReady(100).getShip());
+        assertEquals(0, scheduler.getQueueLength());
+    }
+
+    /**
+     *  Verifies that two berths serve two ships at the same time: each unloading waits until the other
+     *  ship is unloading too, which can only happen if both port calls run concurrently.
+     */
+    @Test
+    @DisplayName("Should serve several ships concurrently")
+    void testConcurrentBerths() throws Exception
+    {
+        CountDownLatch bothUnloading = new CountDownLatch(2);
+        List<CargoShip> ships = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            CargoShip ship = mock(CargoShip.class);
+            when(ship.getName()).thenReturn("SHIP " + i);
+            when(ship.dropInTerminal()).thenAnswer(invocation ->
+            {
+                bothUnloading.countDown();
+                return bothUnloading.await(5, TimeUnit.SECONDS);
+            });
+            ships.add(ship);
+        }
+
+        BerthScheduler scheduler = new BerthScheduler(port, importTerminal, exportTerminal, 2);
+        List<CompletableFuture<PortCallReport>> calls = new ArrayList<>();
+        for (CargoShip ship : ships)
+        {
+            calls.add(scheduler.requestBerth(ship, 0, 0));
+        }
+        scheduler.start();
+        try
+        {
+            for (CompletableFuture<PortCallReport> call : calls)
+            {
+                PortCallReport report = call.get(10, TimeUnit.SECONDS);
+                assertTrue(report.getBerth() == 0 || report.getBerth() == 1);
+                assertEquals("Bari", report.getPort());
+            }
+        }
+        finally
+        {
+            scheduler.close();
+        }
+
+        assertEquals(0, bothUnloading.getCount(), "Two ships should have been unloading at the same time");
+        assertEquals(4, scheduler.getServedShips());
+        for (CargoShip ship : ships)
+        {
+            verify(ship).berthAt("Bari", importTerminal, exportTerminal);
+            verify(exportTerminal).shipExport(ship);
+            verify(ship).leaveBerth();
+        }
+    }
+
+    /**
+     *  Verifies that a ship whose port call fails still leaves its berth, so the next ship can be served,
+     *  and that the requests made after the scheduler is closed are rejected instead of waiting forever.
+     */
+    @Test
+    @DisplayName("Should release the berth of a failed port call and reject requests once closed")
+    void testFailedCallAndClose() throws Exception
+    {
+        CargoShip failing = mock(CargoShip.class);
+        when(failing.getName()).thenReturn("FAILING");
+        when(failing.dropInTerminal()).thenThrow(new IllegalStateException("crane failure"));
+        CargoShip next = mock(CargoShip.class);
+        when(next.getName()).thenReturn("NEXT");
+        BerthScheduler scheduler = new BerthScheduler(port, importTerminal, exportTerminal, 1, () -> 0L);
+        CompletableFuture<PortCallReport> failed;
+        CompletableFuture<PortCallReport> served;
+        scheduler.start();
+        try
+        {
+            failed = scheduler.requestBerth(failing, 1, 0);
+            served = scheduler.requestBerth(next, 1, 0);
+            assertEquals("NEXT", served.get(10, TimeUnit.SECONDS).getShipName());
+        }
+        finally
+        {
+            scheduler.close();
+        }
+
+        assertTrue(failed.isCompletedExceptionally());
+        verify(failing).leaveBerth();
+        CompletableFuture<PortCallReport> late = scheduler.requestBerth(next, 1, 0);
+        assertTrue(late.isCompletedExceptionally(), "A closed scheduler should reject new requests");
+        assertEquals(0, scheduler.getQueueLength());
+    }
+}
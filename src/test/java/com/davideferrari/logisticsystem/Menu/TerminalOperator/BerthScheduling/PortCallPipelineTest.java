@@ -0,0 +1,124 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.BerthScheduling;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Box;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.WarehouseManager.WarehouseTruck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ *  Unit tests for the PortCallPipeline class.
+ *  This suite verifies that the stages of a port call overlap, so the turnaround is below the time the stages
+ *  were busy, that the ship is loaded from the export stock, and that a full import sub-terminal stops the flow
+ *  without blocking the pipeline.
+ */
+class PortCallPipelineTest
+{
+    private static final long HANDLING_MILLIS = 25;
+
+    private final BoxSelector selector = new BoxSelector();
+    private ImportSubTerminal importTerminal;
+    private ExportSubTerminal exportTerminal;
+    private List<Container> exportStock;
+    private CargoShip ship;
+
+    /**
+     *  Initializes the port with its minimum export stock, and a docked ship carrying 8 full containers.
+     */
+    @BeforeEach
+    void setUp()
+    {
+        importTerminal = new ImportSubTerminal("Bari");
+        exportTerminal = new ExportSubTerminal("Bari");
+        exportStock = fullContainers("PIPS00000001", 10, Container.ContainerState.FULL_EXPORT);
+        exportTerminal.addFromWarehouse(exportStock);
+        ship = new CargoShip("PIPELINE", importTerminal, exportTerminal);
+        ship.berthAt("Bari", importTerminal, exportTerminal);
+        ship.restoreCargo(fullContainers("PIPC00000001", 8, Container.ContainerState.FULL_IMPORT));
+    }
+
+    /**
+     *  Verifies that every unloaded container goes through the warehouses back into the export stock, filled by the
+     *  export warehouses in turn, that every freed slot is filled with the export stock of the bay, and that the
+     *  stages overlap: the turnaround is shorter than the time the stages spent handling containers, added up.
+     */
+    @Test
+    @DisplayName("Should overlap the stages of the port call")
+    void testPipelinedTurnaround()
+    {
+        List<Container> cargo = ship.unloadingSequence();
+        PipelineReport report = new PortCallPipeline(importTerminal, exportTerminal, 2, HANDLING_MILLIS).run(ship);
+
+        assertEquals(8, report.getUnloaded());
+        assertEquals(8, report.getLoaded());
+        assertEquals(0, importTerminal.getSize());
+        assertEquals(10, exportTerminal.getSize(), "The bay should be kept at its minimum stock level");
+        assertEquals(8, ship.getSize());
+        List<Container> yard = new ArrayList<>(cargo);
+        yard.addAll(exportStock);
+        for (Container container : yard)
+        {
+            assertEquals(Container.ContainerState.FULL_EXPORT, container.getContainerState());
+            assertNotEquals(ship.containsContainer(container), inExportBay(container), "Every container is either on board or in the bay");
+        }
+        assertTrue(exportStock.stream().anyMatch(ship::containsContainer), "The ship should be loaded from the export stock");
+        assertEquals(WarehouseTruck.ALL_GOODS, cargo.stream().map(Container::getGoods).collect(Collectors.toSet()),
+                "The export warehouses should take turns filling the unloaded containers");
+
+        Map<PortCallPipeline.Stage, Long> busy = report.getBusyNanos();
+        assertEquals(6, busy.size());
+        long totalBusy = 0;
+        for (long stageBusy : busy.values())
+        {
+            totalBusy += stageBusy;
+        }
+        assertTrue(busy.get(PortCallPipeline.Stage.CRANE) >= cargo.size() * HANDLING_MILLIS * 1_000_000);
+        assertTrue(report.getTurnaroundNanos() < totalBusy,
+                "Turnaround of " + report.getTurnaroundNanos() / 1_000_000 + " ms, while the stages were busy for " + totalBusy / 1_000_000 + " ms");
+    }
+
+    /**
+     *  Verifies that containers refused by a full import sub-terminal stay on board,
+     *  and that the pipeline still comes to an end.
+     */
+    @Test
+    @DisplayName("Should keep the cargo on board when the import yard is full")
+    void testFullImportYard()
+    {
+        importTerminal.shipImportAll(fullContainers("PIPI00000001", 15, Container.ContainerState.FULL_IMPORT));
+
+        PipelineReport report = new PortCallPipeline(importTerminal, exportTerminal, 1).run(ship);
+
+        assertEquals(0, report.getUnloaded());
+        assertEquals(0, report.getLoaded());
+        assertEquals(8, ship.getSize());
+        assertEquals(15, importTerminal.getSize());
+    }
+
+    private boolean inExportBay(Container container)
+    {
+        return exportTerminal.stream().anyMatch(c -> c == container);
+    }
+
+    private List<Container> fullContainers(String firstCode, int count, Container.ContainerState state)
+    {
+        List<Container> containers = new ArrayList<>();
+        for (Box box : selector.registerContainerRange(firstCode, count))
+        {
+            box.setGoods(Container.GoodsType.FOOD);
+            box.setContainerState(state);
+            containers.add(box);
+        }
+        return containers;
+    }
+}
@@ -0,0 +1,123 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.DockingBus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Unit tests for the DockingBus class.
+ *  This suite verifies that every request gets its own reply, and that several operators
+ *  can answer the requests of several ships at the same time.
+ */
+class DockingBusTest
+{
+    private final DockingBus bus = DockingBus.getInstance();
+
+    /**
+     *  Clears the requests left by other tests.
+     */
+    @BeforeEach
+    void setUp()
+    {
+        bus.cancelAll();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        bus.cancelAll();
+    }
+
+    /**
+     *  Verifies that the answer to one request reaches only the ship that made it,
+     *  and that asking twice does not queue the ship twice.
+     */
+    @Test
+    @DisplayName("Should correlate every reply with its own request")
+    void testCorrelatedReplies()
+    {
+        CargoShip first = mock(CargoShip.class);
+        CargoShip second = mock(CargoShip.class);
+        DockingRequest firstRequest = bus.submit(first, DockingRequest.Type.DOCK, "Bari");
+        DockingRequest secondRequest = bus.submit(second, DockingRequest.Type.DOCK, "Busan");
+
+        assertSame(firstRequest, bus.submit(first, DockingRequest.Type.DOCK, "Bari"));
+        assertEquals(2, bus.getPendingCount());
+        assertSame(firstRequest, bus.nextPending(DockingRequest.Type.DOCK));
+        assertNull(bus.nextPending(DockingRequest.Type.UNDOCK));
+
+        assertTrue(bus.answer(secondRequest, false));
+        assertFalse(bus.answer(secondRequest, true), "A request can be answered only once");
+        assertTrue(secondRequest.isAnswered());
+        assertFalse(secondRequest.isGranted());
+        assertFalse(firstRequest.isAnswered(), "The other ship is still waiting");
+        assertSame(firstRequest, bus.nextPending(DockingRequest.Type.DOCK));
+    }
+
+    /**
+     *  Verifies that two operator threads, one per port, grant the requests of many real ships
+     *  while the ships keep submitting them, and that each ship docks at its own port.
+     */
+    @Test
+    @DisplayName("Should let operators answer the requests of many ships concurrently")
+    void testConcurrentNegotiation() throws Exception
+    {
+        ImportSubTerminal bariImp = new ImportSubTerminal("Bari");
+        ImportSubTerminal busanImp = new ImportSubTerminal("Busan");
+        ExportSubTerminal bariExp = new ExportSubTerminal("Bari");
+        ExportSubTerminal busanExp = new ExportSubTerminal("Busan");
+        int shipsPerPort = 20;
+
+        List<Thread> operators = new ArrayList<>();
+        for (String port : List.of("Bari", "Busan"))
+        {
+            Thread operator = new Thread(() ->
+            {
+                try
+                {
+                    for (int i = 0; i < shipsPerPort; i++)
+                    {
+                        DockingRequest request = bus.take(DockingRequest.Type.DOCK, port, 5000);
+                        assertNotNull(request);
+                        assertEquals(port, request.getPort());
+                        bus.answer(request, true);
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            operator.start();
+            operators.add(operator);
+        }
+
+        List<CargoShip> ships = new ArrayList<>();
+        for (int i = 0; i < 2 * shipsPerPort; i++)
+        {
+            CargoShip ship = i % 2 == 0 ? new CargoShip("SHIP " + i, bariImp, bariExp) : new CargoShip("SHIP " + i, busanImp, busanExp);
+            ship.dockingRequest();
+            ships.add(ship);
+        }
+        for (CargoShip ship : ships)
+        {
+            assertTrue(ship.getPendingRequest().getReply().get(5, TimeUnit.SECONDS));
+            assertTrue(ship.dockingConfirmation());
+            assertEquals(CargoShip.CargoShipState.DOCKED_FOR_IMPORT, ship.getState());
+        }
+        for (Thread operator : operators)
+        {
+            operator.join(5000);
+        }
+        assertEquals(0, bus.getPendingCount());
+    }
+}
@@ -3,6 +3,9 @@ package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Containe
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.ContainerObserver;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container.ContainerState;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container.GoodsType;
 
@@ -83,4 +86,50 @@ class ContainerTest
         Assertions.assertEquals("TEST-1234", container.getContainerCode());
         Assertions.assertEquals("Bari Terminal", container.getLocation());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should notify attached observers of state, goods and location changes")
+    void testObserverNotifications()
+    {
+        Container container = new Container()
+        {
+            @Override
+            public String getType()
+            {
+                return "Test";
+            }
+        };
+        List<String> events = new ArrayList<>();
+        ContainerObserver observer = new ContainerObserver()
+        {
+            @Override
+            public void stateChanged(Container c, ContainerState oldState, ContainerState newState)
+            {
+                events.add(oldState + "->" + newState);
+            }
+
+            @Override
+            public void goodsChanged(Container c, GoodsType oldGoods, GoodsType newGoods)
+            {
+                events.add(oldGoods + "->" + newGoods);
+            }
+
+            @Override
+            public void locationChanged(Container c, String oldLocation, String newLocation)
+            {
+                events.add(oldLocation + "->" + newLocation);
+            }
+        };
+
+        container.addObserver(observer);
+        container.addObserver(observer);
+        container.setContainerState(ContainerState.FULL_IMPORT);
+        container.setGoods(GoodsType.FOOD);
+        container.setLocation("Bari Import Sub-Terminal");
+        container.removeObserver(observer);
+        container.setContainerState(ContainerState.EMPTY);
+
+        Assertions.assertEquals(List.of("EMPTY->FULL_IMPORT", "NONE->FOOD", "null->Bari Import Sub-Terminal"), events,
+            "Each change should be notified exactly once, and only while the observer is attached");
+    }
+}
@@ -0,0 +1,98 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+/**
+ *  Unit tests for the ContainerSpliterator class and the streams of ContainerCollection.
+ *  This test verifies that the spliterator is exactly sized, that it splits the collection in halves
+ *  covering every container once, and that sequential and parallel streams see the same containers.
+ */
+class ContainerSpliteratorTest
+{
+    /**
+     *  Verifies that splitting keeps the exact size of both halves and that together they cover the collection.
+     */
+    @Test
+    @DisplayName("Should split the collection in exactly sized halves")
+    void testSplit()
+    {
+        ContainerCollection collection = collectionOf(11);
+        Spliterator<Container> suffix = collection.spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(11, suffix.getExactSizeIfKnown());
+
+        Spliterator<Container> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(5, prefix.getExactSizeIfKnown());
+        assertEquals(6, suffix.getExactSizeIfKnown());
+
+        List<Container> seen = new ArrayList<>();
+        prefix.forEachRemaining(seen::add);
+        while (suffix.tryAdvance(seen::add))
+        {
+        }
+        assertEquals(11, seen.size());
+        for (int i = 0; i < 11; i++)
+        {
+            assertSame(collection.getContainerAt(i), seen.get(i), "The halves should keep the order of the collection");
+        }
+
+        Spliterator<Container> single = collectionOf(1).spliterator();
+        assertNull(single.trySplit(), "A single container cannot be split");
+    }
+
+    /**
+     *  Verifies that a parallel stream processes every container once and preserves the encounter order.
+     */
+    @Test
+    @DisplayName("Should aggregate the same result with sequential and parallel streams")
+    void testParallelStream()
+    {
+        ContainerCollection collection = collectionOf(1000);
+        long sequential = collection.stream().mapToLong(Container::getTareWeight).sum();
+        long parallel = collection.parallelStream().mapToLong(Container::getTareWeight).sum();
+        assertEquals(1000L * collection.getContainerAt(0).getTareWeight(), sequential);
+        assertEquals(sequential, parallel);
+        List<String> codes = collection.parallelStream().map(Container::getContainerCode).collect(Collectors.toList());
+        assertEquals("C0", codes.get(0));
+        assertEquals("C999", codes.get(999));
+    }
+
+    private static ContainerCollection collectionOf(int size)
+    {
+        BoxSelector selector = new BoxSelector();
+        List<Container> list = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+        {
+            list.add(selector.registerContainer("C" + i));
+        }
+        return new ContainerCollection()
+        {
+            @Override
+            public ContainerIterator createIterator()
+            {
+                return new TerminalContainerIterator(this);
+            }
+
+            @Override
+            public int getSize()
+            {
+                return list.size();
+            }
+
+            @Override
+            public Container getContainerAt(int index)
+            {
+                return list.get(index);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Unit tests for the ContainerCodeCodec class.
+ *  This test suite verifies that standard container codes survive a round trip
+ *  through their packed form, and that non-standard codes are rejected.
+ */
+class ContainerCodeCodecTest
+{
+
+    /**
+     *  Verifies that a standard code is packed and rebuilt unchanged.
+     */
+    @Test
+    @DisplayName("Should rebuild a standard code from its packed form")
+    void testRoundTrip()
+    {
+        long packed = ContainerCodeCodec.encode("MSDU12345678");
+        assertTrue(packed >= 0, "A standard code should be packed into a positive value");
+        assertEquals("MSDU12345678", ContainerCodeCodec.decode(packed));
+        assertEquals("ZZZZ99999999", ContainerCodeCodec.decode(ContainerCodeCodec.encode("ZZZZ99999999")));
+        assertEquals("AAAA00000000", ContainerCodeCodec.decode(ContainerCodeCodec.encode("AAAA00000000")));
+    }
+
+    /**
+     *  Verifies that codes differing only by case or surrounding whitespace share the same packed value,
+     *  while different codes do not.
+     */
+    @Test
+    @DisplayName("Should pack codes case-insensitively and ignore surrounding whitespace")
+    void testNormalization()
+    {
+        long packed = ContainerCodeCodec.encode("MSDU12345678");
+        assertEquals(packed, ContainerCodeCodec.encode("  msdu12345678 "));
+        assertNotEquals(packed, ContainerCodeCodec.encode("MSDU12345679"));
+        assertNotEquals(packed, ContainerCodeCodec.encode("MSDV12345678"));
+    }
+
+    /**
+     *  Verifies that codes not made of 4 letters and 8 digits cannot be packed.
+     */
+    @Test
+    @DisplayName("Should reject non-standard codes")
+    void testNonStandardCodes()
+    {
+        assertEquals(ContainerCodeCodec.NOT_ENCODABLE, ContainerCodeCodec.encode(null));
+        assertEquals(ContainerCodeCodec.NOT_ENCODABLE, ContainerCodeCodec.encode("AAAA0001"));
+        assertEquals(ContainerCodeCodec.NOT_ENCODABLE, ContainerCodeCodec.encode("MAX-CAP-0"));
+        assertEquals(ContainerCodeCodec.NOT_ENCODABLE, ContainerCodeCodec.encode("MSD112345678"));
+        assertEquals(ContainerCodeCodec.NOT_ENCODABLE, ContainerCodeCodec.encode("MSDU1234567A"));
+        assertThrows(IllegalArgumentException.class, () -> ContainerCodeCodec.decode(ContainerCodeCodec.NOT_ENCODABLE));
+    }
+
+    /**
+     *  Verifies that a range of codes is generated by incrementing the serial number of the first code,
+     *  and that ranges going beyond the last serial number are rejected.
+     */
+    @Test
+    @DisplayName("Should generate consecutive codes from a first code")
+    void testRange()
+    {
+        assertEquals(java.util.List.of("MSDU00000009", "MSDU00000010", "MSDU00000011"), ContainerCodeCodec.range("msdu00000009", 3));
+        assertTrue(ContainerCodeCodec.range("MSDU00000001", 0).isEmpty());
+        assertEquals(1, ContainerCodeCodec.range("MSDU99999999", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> ContainerCodeCodec.range("MSDU99999999", 2));
+        assertThrows(IllegalArgumentException.class, () -> ContainerCodeCodec.range("AAAA0001", 2));
+    }
+}
@@ -2,13 +2,17 @@ package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Containe
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -69,6 +73,26 @@ class ContainerRegisterTest
         assertEquals(0, register.getSize(), "Register size should be 0 after removal");
     }
 
+    /**
+     *  Verifies that the code index resolves containers case-insensitively
+     *  and stays consistent with additions and removals.
+     */
+    @Test
+    @DisplayName("Should find containers by code through the code index")
+    void testFindByCode() 
+    {
+        Container mockContainer = mock(Container.class);
+        when(mockContainer.getContainerCode()).thenReturn("MSDU12345678");
+
+        register.addContainer(mockContainer);
+        assertSame(mockContainer, register.findByCode("msdu12345678"), "Lookup should ignore the letter case");
+        assertTrue(register.containsCode(" MSDU12345678 "), "Lookup should ignore surrounding whitespace");
+        assertFalse(register.containsCode("MSDU00000000"), "Unknown codes should not be found");
+
+        register.removeContainer(mockContainer);
+        assertNull(register.findByCode("MSDU12345678"), "Removed containers should leave the code index");
+    }
+
     /**
      *  Verifies that the register correctly acts as an Aggregate for the Iterator pattern.
      */
@@ -93,6 +117,36 @@ class ContainerRegisterTest
         assertEquals(2, count, "Iterator should traverse exactly 2 containers");
     }
 
+    /**
+     *  Verifies that the size and the positional reads follow every modification,
+     *  including reads interleaved with additions and removals.
+     */
+    @Test
+    @DisplayName("Should keep the size and the positions in line with interleaved modifications")
+    void testInterleavedReads() 
+    {
+        Container first = mock(Container.class);
+        Container second = mock(Container.class);
+        Container third = mock(Container.class);
+        register.addContainer(first);
+        register.addContainer(second);
+        assertEquals(2, register.getSize());
+        assertSame(second, register.getContainerAt(1));
+
+        register.removeContainer(first);
+        assertEquals(1, register.getSize());
+        assertSame(second, register.getContainerAt(0));
+        assertSame(second, register.findFirst(null, null, null));
+
+        register.addContainer(third);
+        assertSame(third, register.getContainerAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> register.getContainerAt(2));
+        assertEquals(List.of(second, third), register.displayContainers());
+        assertSame(third, register.getContainerAt(1), "The cached snapshot should give the same positions");
+        register.addContainer(third);
+        assertEquals(2, register.getSize(), "A container registered twice should only be counted once");
+    }
+
     /**
      *  Verifies thread safety by performing concurrent additions.
      *  Uses an ExecutorService to simulate multiple threads accessing the 
@@ -137,4 +191,148 @@ class ContainerRegisterTest
         assertEquals(totalExpected, register.getSize(), 
             "Register size should match total additions regardless of thread contention");
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that an iterator keeps traversing the snapshot taken at its creation,
+     *  while other threads keep adding and removing containers.
+     */
+    @Test
+    @DisplayName("Should iterate a stable snapshot during concurrent modifications")
+    void testSnapshotIterationDuringModifications() throws InterruptedException 
+    {
+        for (int i = 0; i < 50; i++) 
+        {
+            register.addContainer(mock(Container.class));
+        }
+        ContainerIterator iterator = register.createIterator();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) 
+        {
+            executor.submit(
+                () ->
+            {
+                for (int j = 0; j < 200; j++) 
+                {
+                    Container c = mock(Container.class);
+                    register.addContainer(c);
+                    register.removeContainer(c);
+                }
+            }
+            );
+        }
+
+        int count = 0;
+        while (iterator.hasNext()) 
+        {
+            assertNotNull(iterator.next(), "Snapshot entries should never be null");
+            count++;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "Executor did not finish in time");
+
+        assertEquals(50, count, "The iterator should only see the containers of its snapshot");
+        assertEquals(50, register.getSize(), "Balanced additions and removals should leave the size unchanged");
+    }
+
+    /**
+     *  Verifies that the lock-free lookups by code always see a registered container,
+     *  while other threads keep growing and shrinking the code index of every stripe.
+     */
+    @Test
+    @DisplayName("Should find containers by code during concurrent modifications")
+    void testLookupsDuringModifications() throws InterruptedException 
+    {
+        BoxSelector boxes = new BoxSelector();
+        List<Container> resident = new ArrayList<>(boxes.registerContainerRange("LKPU00000001", 64));
+        resident.forEach(register::addContainer);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) 
+        {
+            String firstCode = "LK" + (char) ('A' + i) + "U00000001";
+            executor.submit(
+                () ->
+            {
+                for (int j = 0; j < 20; j++) 
+                {
+                    List<? extends Container> batch = boxes.registerContainerRange(firstCode, 200);
+                    register.addContainersIfAbsent(batch, null);
+                    batch.forEach(register::removeContainer);
+                }
+            }
+            );
+        }
+
+        for (int round = 0; round < 200; round++) 
+        {
+            for (Container container : resident) 
+            {
+                assertSame(container, register.findByCode(container.getContainerCode()), "A registered container should always be found");
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Executor did not finish in time");
+        assertEquals(64, register.getSize());
+    }
+
+    /**
+     *  Verifies that the secondary indexes follow the state, goods and location
+     *  changes of the registered containers.
+     */
+    @Test
+    @DisplayName("Should keep the secondary indexes updated when containers change")
+    void testSecondaryIndexes() 
+    {
+        BoxSelector selector = new BoxSelector();
+        Container food = selector.registerContainer("TSTU00000001");
+        food.setGoods(Container.GoodsType.FOOD);
+        food.setContainerState(Container.ContainerState.FULL_EXPORT);
+        food.setLocation("Busan Export Sub-Terminal");
+        Container empty = selector.registerContainer("TSTU00000002");
+        empty.setLocation("Busan Export Sub-Terminal");
+        register.addContainer(food);
+        register.addContainer(empty);
+
+        assertEquals(1, register.count(Container.ContainerState.FULL_EXPORT, Container.GoodsType.FOOD, "Busan Export Sub-Terminal"));
+        assertEquals(2, register.findByLocation("Busan Export Sub-Terminal").size());
+        assertSame(empty, register.findFirst(Container.ContainerState.EMPTY, null, null));
+
+        food.setContainerState(Container.ContainerState.EMPTY);
+        food.setLocation("Bari Export Sub-Terminal");
+        assertEquals(0, register.count(Container.ContainerState.FULL_EXPORT, null, null), "The state index should follow the change");
+        assertEquals(2, register.findByState(Container.ContainerState.EMPTY).size());
+        assertEquals(List.of(food), register.findByLocation("Bari Export Sub-Terminal"), "The location index should follow the change");
+
+        register.removeContainer(food);
+        food.setGoods(Container.GoodsType.CLOTHING);
+        assertTrue(register.findByGoods(Container.GoodsType.CLOTHING).isEmpty(), "Removed containers should no longer be indexed");
+        assertTrue(register.findByGoods(Container.GoodsType.FOOD).isEmpty());
+    }
+
+    /**
+     *  Verifies that the yard figures follow the registered containers and their changes of location.
+     */
+    @Test
+    @DisplayName("Should keep whole-yard weights and occupancy in line with the register")
+    void testYardScans() 
+    {
+        BoxSelector boxes = new BoxSelector();
+        HighCubeSelector highCubes = new HighCubeSelector();
+        Container box = boxes.registerContainer("TSTU00000003");
+        box.setLocation("Busan Export Sub-Terminal");
+        Container highCube = highCubes.registerContainer("TSTU00000004");
+        highCube.setLocation("Busan Export Sub-Terminal");
+        register.addContainer(box);
+        register.addContainer(highCube);
+
+        assertEquals(box.getTareWeight() + highCube.getTareWeight(), register.totalTareWeight());
+        assertEquals((long) (box.getMaxPayload() + highCube.getMaxPayload()), register.totalMaxPayload());
+        assertEquals(Map.of("Busan Export Sub-Terminal", 2), register.occupancyByLocation());
+
+        highCube.setLocation("Bari Import Sub-Terminal");
+        register.removeContainer(box);
+        assertEquals(highCube.getTareWeight(), register.totalTareWeight());
+        assertEquals(Map.of("Bari Import Sub-Terminal", 1), register.occupancyByLocation());
+    }
+}
@@ -0,0 +1,67 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Unit tests for the LongContainerMap class.
+ *  This test suite verifies insertion, lookup and removal, including the growth of the table
+ *  and the removal of entries in the middle of a probe run.
+ */
+class LongContainerMapTest
+{
+
+    /**
+     *  Verifies that a key can only be mapped once and is only removed for the expected container.
+     */
+    @Test
+    @DisplayName("Should keep the first mapping and remove it only for the mapped container")
+    void testPutIfAbsentAndRemove()
+    {
+        LongContainerMap map = new LongContainerMap();
+        Container first = mock(Container.class);
+        Container second = mock(Container.class);
+
+        assertNull(map.putIfAbsent(42L, first));
+        assertSame(first, map.putIfAbsent(42L, second), "A mapped key should return the existing container");
+        assertSame(first, map.get(42L));
+
+        assertFalse(map.remove(42L, second), "The mapping should not be removed for another container");
+        assertTrue(map.remove(42L, first));
+        assertNull(map.get(42L));
+        assertEquals(0, map.size());
+    }
+
+    /**
+     *  Verifies that all the entries stay reachable while the table grows
+     *  and after half of them are removed.
+     */
+    @Test
+    @DisplayName("Should keep every entry reachable across resizes and removals")
+    void testResizeAndRemovals()
+    {
+        LongContainerMap map = new LongContainerMap();
+        int entries = 1000;
+        Container[] containers = new Container[entries];
+        for (int i = 0; i < entries; i++)
+        {
+            containers[i] = mock(Container.class);
+            assertNull(map.putIfAbsent(ContainerCodeCodec.encode(String.format("MSDU%08d", i)), containers[i]));
+        }
+        assertEquals(entries, map.size());
+
+        for (int i = 0; i < entries; i += 2)
+        {
+            assertTrue(map.remove(ContainerCodeCodec.encode(String.format("MSDU%08d", i)), containers[i]));
+        }
+        assertEquals(entries / 2, map.size());
+        for (int i = 0; i < entries; i++)
+        {
+            Container expected = i % 2 == 0 ? null : containers[i];
+            assertSame(expected, map.get(ContainerCodeCodec.encode(String.format("MSDU%08d", i))), "Wrong mapping for entry " + i);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerObserver.ContainerObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  Unit tests for the ContainerTable class.
+ *  This test suite verifies the columnar storage, the flyweight views handed out for its rows,
+ *  and the whole-table scans.
+ */
+class ContainerTableTest
+{
+
+    private ContainerTable table;
+
+    @BeforeEach
+    void setUp()
+    {
+        table = new ContainerTable();
+    }
+
+    /**
+     *  Verifies that a copied container can be read back through its view, and that
+     *  the same view is returned for the same row.
+     */
+    @Test
+    @DisplayName("Should expose a copied container through its flyweight view")
+    void testCopyAndView()
+    {
+        Container box = new BoxSelector().registerContainer("MSDU00000001");
+        box.setGoods(Container.GoodsType.FOOD);
+        box.setLocation("Busan Export Sub-Terminal");
+
+        int id = table.add(box);
+        ContainerView view = table.view(id);
+
+        assertSame(view, table.view(id), "The same row should always be exposed by the same view");
+        assertEquals("Box", view.getType());
+        assertEquals("MSDU00000001", view.getContainerCode());
+        assertEquals(box.getTareWeight(), view.getTareWeight());
+        assertEquals(box.getHeight(), view.getHeight());
+        assertEquals(box.getMaxPayload(), view.getMaxPayload());
+        assertEquals(Container.ContainerState.EMPTY, view.getContainerState());
+        assertEquals(Container.GoodsType.FOOD, view.getGoods());
+        assertEquals("Busan Export Sub-Terminal", view.getLocation());
+    }
+
+    /**
+     *  Verifies that the setters of a view write the columns and notify the attached observers.
+     */
+    @Test
+    @DisplayName("Should update the columns and notify observers through the view")
+    void testViewSetters()
+    {
+        ContainerView view = table.view(table.add("HighCube", "MSDU00000002", 3700, 1.7, 25000,
+                Container.ContainerState.EMPTY, Container.GoodsType.NONE, null));
+        List<String> events = new ArrayList<>();
+        view.addObserver(new ContainerObserver()
+        {
+            @Override
+            public void stateChanged(Container container, Container.ContainerState oldState, Container.ContainerState newState)
+            {
+                events.add(oldState + "->" + newState);
+            }
+        });
+
+        view.setContainerState(Container.ContainerState.FULL_IMPORT);
+        view.setLocation("Bari Import Sub-Terminal");
+
+        assertEquals(List.of("EMPTY->FULL_IMPORT"), events);
+        assertEquals(Map.of(Container.ContainerState.EMPTY, 0, Container.ContainerState.FULL_IMPORT, 1,
+                Container.ContainerState.FULL_EXPORT, 0), table.countByState());
+        assertEquals(1, table.countAt("Bari Import Sub-Terminal"));
+    }
+
+    /**
+     *  Verifies that removing a row keeps the ids dense, that the moved row keeps its view,
+     *  and that the view of the removed row is detached.
+     */
+    @Test
+    @DisplayName("Should keep ids dense and views valid after removals")
+    void testRemoval()
+    {
+        BoxSelector selector = new BoxSelector();
+        ContainerView first = table.view(table.add(selector.registerContainer("MSDU00000003")));
+        table.add(selector.registerContainer("MSDU00000004"));
+        ContainerView last = table.view(table.add(selector.registerContainer("MSDU00000005")));
+
+        table.remove(first);
+
+        assertEquals(2, table.getSize());
+        assertSame(last, table.getContainerAt(0), "The last row should take the place of the removed one");
+        assertEquals("MSDU00000005", last.getContainerCode());
+        assertThrows(IllegalStateException.class, first::getContainerCode);
+
+        List<String> codes = new ArrayList<>();
+        ContainerIterator iterator = table.createIterator();
+        while (iterator.hasNext())
+        {
+            codes.add(iterator.next().getContainerCode());
+        }
+        assertEquals(List.of("MSDU00000005", "MSDU00000004"), codes);
+    }
+
+    /**
+     *  Verifies that a handle keeps addressing its row while other rows are removed,
+     *  and that removed handles are rejected and later reused.
+     */
+    @Test
+    @DisplayName("Should follow rows through stable handles after removals")
+    void testHandles()
+    {
+        BoxSelector selector = new BoxSelector();
+        int first = table.addTracked(selector.registerContainer("MSDU00000006"));
+        int second = table.addTracked(selector.registerContainer("MSDU00000007"));
+        int third = table.addTracked(selector.registerContainer("MSDU00000008"));
+
+        table.removeTracked(first);
+        table.updateState(third, Container.ContainerState.FULL_IMPORT);
+        table.updateGoods(third, Container.GoodsType.FOOD);
+        table.updateLocation(third, "Bari Import Sub-Terminal");
+        table.updateLocation(second, "Busan Export Sub-Terminal");
+
+        assertEquals(2, table.getSize());
+        Container moved = table.getContainerAt(0);
+        assertEquals("MSDU00000008", moved.getContainerCode(), "The last row should take the place of the removed one");
+        assertEquals(Container.ContainerState.FULL_IMPORT, moved.getContainerState());
+        assertEquals(Container.GoodsType.FOOD, moved.getGoods());
+        assertEquals(Map.of("Bari Import Sub-Terminal", 1, "Busan Export Sub-Terminal", 1), table.occupancyByLocation());
+        assertThrows(IllegalStateException.class, () -> table.removeTracked(first));
+
+        assertEquals(first, table.addTracked(selector.registerContainer("MSDU00000009")), "Removed handles should be reused");
+        table.removeTracked(second);
+        assertEquals("MSDU00000008", table.getContainerAt(0).getContainerCode());
+        assertEquals("MSDU00000009", table.getContainerAt(1).getContainerCode());
+    }
+
+    /**
+     *  Verifies the whole-table scans over a larger number of rows.
+     */
+    @Test
+    @DisplayName("Should compute totals and occupancy with sequential scans")
+    void testScans()
+    {
+        for (int i = 0; i < 1000; i++)
+        {
+            table.add("Box", String.format("MSDU%08d", i), 2220, 1.2, 21000, Container.ContainerState.EMPTY,
+                    i % 2 == 0 ? Container.GoodsType.FOOD : Container.GoodsType.NONE, i < 600 ? "Busan" : "Bari");
+        }
+        assertEquals(2220L * 1000, table.totalTareWeight());
+        assertEquals(21000L * 1000, table.totalMaxPayload());
+        assertEquals(500, table.countByGoods().get(Container.GoodsType.FOOD));
+        assertEquals(Map.of("Busan", 600, "Bari", 400), table.occupancyByLocation());
+        assertEquals(0, table.countAt("Genoa"));
+    }
+
+    /**
+     *  Verifies that a fractional payload is rounded to the nearest kilogram when copied, instead of being truncated.
+     */
+    @Test
+    @DisplayName("Should round a fractional payload when copying a container")
+    void testPayloadRounding()
+    {
+        Container heavy = new Container()
+        {
+            @Override
+            public String getType()
+            {
+                return "Test";
+            }
+
+            @Override
+            public double getMaxPayload()
+            {
+                return 20999.6;
+            }
+        };
+
+        int id = table.add(heavy);
+
+        assertEquals(21000, table.view(id).getMaxPayload());
+        assertEquals(21000L, table.totalMaxPayload());
+    }
+}
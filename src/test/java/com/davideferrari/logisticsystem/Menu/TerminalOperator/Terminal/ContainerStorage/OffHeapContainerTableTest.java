@@ -0,0 +1,145 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerStorage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ *  Unit tests for the OffHeapContainerTable class.
+ *  This test suite verifies that the fixed-width records keep every field across growth and removals,
+ *  and that the storage mode is selected through the system property.
+ */
+class OffHeapContainerTableTest
+{
+
+    private OffHeapContainerTable table;
+
+    @BeforeEach
+    void setUp()
+    {
+        table = new OffHeapContainerTable();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        System.clearProperty(ContainerStore.STORAGE_PROPERTY);
+    }
+
+    /**
+     *  Verifies that every field of a record is read back through its view,
+     *  for both standard and non-standard codes.
+     */
+    @Test
+    @DisplayName("Should read back every field of an off-heap record")
+    void testRecordRoundTrip()
+    {
+        Container highCube = new HighCubeSelector().registerContainer("msdu00000001");
+        highCube.setContainerState(Container.ContainerState.FULL_EXPORT);
+        highCube.setGoods(Container.GoodsType.ELECTRONICS);
+        highCube.setLocation("Bari Export Sub-Terminal");
+
+        ContainerView view = table.view(table.add(highCube));
+        ContainerView other = table.view(table.add("Box", "AAAA0001", 2220, 1.2, 21000, null, null, null));
+
+        assertEquals("MSDU00000001", view.getContainerCode(), "Standard codes should be read back in upper case");
+        assertEquals("HighCube", view.getType());
+        assertEquals(highCube.getTareWeight(), view.getTareWeight());
+        assertEquals(highCube.getHeight(), view.getHeight());
+        assertEquals(highCube.getMaxPayload(), view.getMaxPayload());
+        assertEquals(Container.ContainerState.FULL_EXPORT, view.getContainerState());
+        assertEquals(Container.GoodsType.ELECTRONICS, view.getGoods());
+        assertEquals("Bari Export Sub-Terminal", view.getLocation());
+
+        assertEquals("AAAA0001", other.getContainerCode(), "Non-standard codes should be kept as they are");
+        assertNull(other.getContainerState());
+        assertNull(other.getGoods());
+        assertNull(other.getLocation());
+    }
+
+    /**
+     *  Verifies that the records survive the growth of the direct buffer and the removal of other records.
+     */
+    @Test
+    @DisplayName("Should keep records consistent across growth and removals")
+    void testGrowthAndRemovals()
+    {
+        int records = 500;
+        for (int i = 0; i < records; i++)
+        {
+            table.add("Box", String.format("MSDU%08d", i), 2000 + i, 1.2, 21000, Container.ContainerState.EMPTY,
+                    Container.GoodsType.NONE, i % 2 == 0 ? "Busan" : "Bari");
+        }
+        ContainerView last = table.view(records - 1);
+        table.remove(0);
+
+        assertEquals(records - 1, table.getSize());
+        assertSame(last, table.getContainerAt(0));
+        assertEquals(String.format("MSDU%08d", records - 1), last.getContainerCode());
+        long expected = 0;
+        for (int i = 1; i < records; i++)
+        {
+            expected += 2000 + i;
+        }
+        assertEquals(expected, table.totalTareWeight());
+        assertEquals(Map.of("Busan", 249, "Bari", 250), table.occupancyByLocation());
+    }
+
+    /**
+     *  Measures the heap allocated while mirroring containers into the table: keeping a view per record,
+     *  which is what the register used to do, should cost at least an object header and its fields per record
+     *  more than following the records through handles.
+     */
+    @Test
+    @DisplayName("Should mirror containers through handles without allocating a view per record")
+    void testHandlesAllocateLessHeap()
+    {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean, "Allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(), "Allocation counters are disabled");
+        int records = 20_000;
+        Container container = new HighCubeSelector().registerContainer("MSDU00000002");
+        container.setLocation("Bari Import Sub-Terminal");
+        OffHeapContainerTable tracked = new OffHeapContainerTable();
+        OffHeapContainerTable viewed = new OffHeapContainerTable();
+        long threadId = Thread.currentThread().getId();
+
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < records; i++)
+        {
+            tracked.addTracked(container);
+        }
+        long handleBytes = threads.getThreadAllocatedBytes(threadId) - start;
+
+        start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < records; i++)
+        {
+            viewed.view(viewed.add(container));
+        }
+        long viewBytes = threads.getThreadAllocatedBytes(threadId) - start;
+
+        assertEquals(records, tracked.getSize());
+        assertTrue(viewBytes - handleBytes > records * 32L, "Handles allocated " + handleBytes + " bytes, views " + viewBytes + " bytes");
+    }
+
+    /**
+     *  Verifies that the storage mode is chosen from the system property, with the heap store as default.
+     */
+    @Test
+    @DisplayName("Should select the storage mode from the system property")
+    void testStorageSelection()
+    {
+        assertInstanceOf(ContainerTable.class, ContainerStore.create());
+        System.setProperty(ContainerStore.STORAGE_PROPERTY, "offheap");
+        assertInstanceOf(OffHeapContainerTable.class, ContainerStore.create());
+        System.setProperty(ContainerStore.STORAGE_PROPERTY, "unknown");
+        assertInstanceOf(ContainerTable.class, ContainerStore.create());
+    }
+}
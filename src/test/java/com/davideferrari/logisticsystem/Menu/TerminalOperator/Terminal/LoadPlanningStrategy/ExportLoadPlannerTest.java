@@ -0,0 +1,203 @@
+package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.LoadPlanningStrategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *  Unit tests for the load planning strategies and the ExportLoadPlanner context.
+ *  This suite verifies that every plan respects the count, weight and height of the ship,
+ *  that the exact strategy finds the best plan where the greedy one does not, and that the context
+ *  selects the strategy by the number of candidates, and that the exact search respects its node budget.
+ */
+class ExportLoadPlannerTest
+{
+    /**
+     *  Verifies a bay where loading the heaviest payload first blocks two lighter containers
+     *  that together ship more: the greedy plan keeps the first, the exact plan swaps it for the pair.
+     */
+    @Test
+    @DisplayName("Should find the best plan where the greedy plan falls short")
+    void testExactBeatsGreedy()
+    {
+        Container heavy = fixedContainer(30000, 0, 1.0);
+        Container first = fixedContainer(24000, 0, 1.0);
+        Container second = fixedContainer(24000, 0, 1.0);
+        List<Container> bay = List.of(heavy, first, second);
+
+        assertEquals(List.of(heavy), new GreedyLoadPlanner().plan(bay, 3, 50000, 100.0));
+        assertEquals(List.of(first, second), new BranchAndBoundLoadPlanner().plan(bay, 3, 50000, 100.0));
+        assertEquals(List.of(first, second), new ExportLoadPlanner().plan(bay, 3, 50000, 100.0));
+    }
+
+    /**
+     *  Verifies the exact strategy against a brute-force search on small random bays.
+     */
+    @Test
+    @DisplayName("Should match the brute-force optimum on small bays")
+    void testExactMatchesBruteForce()
+    {
+        Random random = new Random(42);
+        BranchAndBoundLoadPlanner planner = new BranchAndBoundLoadPlanner();
+        for (int round = 0; round < 30; round++)
+        {
+            List<Container> bay = randomBay(random, 12);
+            List<Container> plan = planner.plan(bay, 5, 120000, 7.0);
+            assertFeasible(plan, 5, 120000, 7.0);
+            assertEquals(bruteForce(bay, 5, 120000, 7.0), payloadOf(plan), "Round " + round);
+        }
+    }
+
+    /**
+     *  Verifies that a search running out of its node budget still returns a feasible plan,
+     *  no worse than the greedy one, and that the budget must be positive.
+     */
+    @Test
+    @DisplayName("Should fall back to the best plan found when the node budget is spent")
+    void testNodeBudget()
+    {
+        Container heavy = fixedContainer(30000, 0, 1.0);
+        Container first = fixedContainer(24000, 0, 1.0);
+        Container second = fixedContainer(24000, 0, 1.0);
+        List<Container> bay = List.of(heavy, first, second);
+        assertEquals(List.of(heavy), new BranchAndBoundLoadPlanner(1).plan(bay, 3, 50000, 100.0));
+
+        List<Container> large = randomBay(new Random(11), ExportLoadPlanner.EXACT_LIMIT);
+        List<Container> plan = new BranchAndBoundLoadPlanner(50).plan(large, 10, 240000, 15.0);
+        assertFeasible(plan, 10, 240000, 15.0);
+        assertTrue(payloadOf(plan) >= payloadOf(new GreedyLoadPlanner().plan(large, 10, 240000, 15.0)));
+        assertThrows(IllegalArgumentException.class, () -> new BranchAndBoundLoadPlanner(0));
+    }
+
+    /**
+     *  Verifies that an EMPTY container weighs its tare weight only, while a full one is counted at its tare weight
+     *  plus its maximum payload, so a ship can take empty containers a full load would not leave room for.
+     */
+    @Test
+    @DisplayName("Should count empty containers at their tare weight")
+    void testWeightOf()
+    {
+        Container empty = fixedContainer(21000, 2220, 1.2, Container.ContainerState.EMPTY);
+        Container fullImport = fixedContainer(21000, 2220, 1.2, Container.ContainerState.FULL_IMPORT);
+        Container fullExport = fixedContainer(21000, 2220, 1.2);
+
+        assertEquals(2220, LoadPlanningStrategy.weightOf(empty));
+        assertEquals(23220, LoadPlanningStrategy.weightOf(fullImport));
+        assertEquals(23220, LoadPlanningStrategy.weightOf(fullExport));
+
+        Container secondEmpty = fixedContainer(21000, 2220, 1.2, Container.ContainerState.EMPTY);
+        assertEquals(List.of(fullExport), new GreedyLoadPlanner().plan(List.of(fullExport, fullImport), 2, 30000, 10.0));
+        assertEquals(2, new GreedyLoadPlanner().plan(List.of(empty, secondEmpty), 2, 30000, 10.0).size());
+    }
+
+    /**
+     *  Verifies that bays larger than the exact limit are planned by the approximate strategy,
+     *  and that its plan still respects the limits of the ship.
+     */
+    @Test
+    @DisplayName("Should plan large bays with the approximate strategy")
+    void testLargeBayUsesApproximateStrategy()
+    {
+        LoadPlanningStrategy exact = mock(LoadPlanningStrategy.class);
+        ExportLoadPlanner planner = new ExportLoadPlanner(exact, new GreedyLoadPlanner());
+        List<Container> bay = randomBay(new Random(7), ExportLoadPlanner.EXACT_LIMIT + 1);
+
+        List<Container> plan = planner.plan(bay, 10, 240000, 15.0);
+
+        assertFeasible(plan, 10, 240000, 15.0);
+        assertFalse(plan.isEmpty());
+        verifyNoInteractions(exact);
+    }
+
+    /**
+     *  This method builds a full container with the given figures. A plain subclass is used instead of a mock,
+     *  as the brute-force search reads the figures of every container thousands of times.
+     */
+    private static Container fixedContainer(int payload, int tareWeight, double height)
+    {
+        return fixedContainer(payload, tareWeight, height, Container.ContainerState.FULL_EXPORT);
+    }
+
+    private static Container fixedContainer(int fixedPayload, int fixedTareWeight, double fixedHeight, Container.ContainerState fixedState)
+    {
+        return new Container()
+        {
+            {
+                this.maxPayload = fixedPayload;
+                this.tareWeight = fixedTareWeight;
+                this.height = fixedHeight;
+                this.state = fixedState;
+            }
+
+            @Override
+            public String getType()
+            {
+                return "Test";
+            }
+        };
+    }
+
+    private static List<Container> randomBay(Random random, int size)
+    {
+        List<Container> bay = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+        {
+            boolean highCube = random.nextBoolean();
+            bay.add(fixedContainer(5000 + random.nextInt(20000), highCube ? 3700 : 2220, highCube ? 1.7 : 1.2));
+        }
+        return bay;
+    }
+
+    private static long bruteForce(List<Container> bay, int maxCount, long maxWeight, double maxHeight)
+    {
+        long best = 0;
+        for (int mask = 0; mask < 1 << bay.size(); mask++)
+        {
+            List<Container> subset = new ArrayList<>();
+            for (int i = 0; i < bay.size(); i++)
+            {
+                if ((mask & 1 << i) != 0)
+                {
+                    subset.add(bay.get(i));
+                }
+            }
+            if (fits(subset, maxCount, maxWeight, maxHeight))
+            {
+                best = Math.max(best, payloadOf(subset));
+            }
+        }
+        return best;
+    }
+
+    private static void assertFeasible(List<Container> plan, int maxCount, long maxWeight, double maxHeight)
+    {
+        assertTrue(fits(plan, maxCount, maxWeight, maxHeight), "The plan exceeds the limits of the ship");
+    }
+
+    private static boolean fits(List<Container> plan, int maxCount, long maxWeight, double maxHeight)
+    {
+        long weight = 0;
+        double height = 0;
+        for (Container c : plan)
+        {
+            weight += LoadPlanningStrategy.weightOf(c);
+            height += c.getHeight();
+        }
+        return plan.size() <= maxCount && weight <= maxWeight && height <= maxHeight + 1e-9;
+    }
+
+    private static long payloadOf(List<Container> plan)
+    {
+        long payload = 0;
+        for (Container c : plan)
+        {
+            payload += Math.round(c.getMaxPayload());
+        }
+        return payload;
+    }
+}
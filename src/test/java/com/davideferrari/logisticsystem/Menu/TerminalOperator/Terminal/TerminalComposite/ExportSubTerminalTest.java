@@ -3,9 +3,11 @@ package com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Terminal
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Box;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
-import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ContainerValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -48,7 +50,7 @@ class ExportSubTerminalTest
      */
     @Test
     @DisplayName("Should prevent export if terminal is already at minimum capacity")
-    void testShipExportCycleAtLimit() throws ContainerValidationException 
+    void testShipExportCycleAtLimit() 
     {
         /**
          *  Arrange: Fill the terminal to its maximum allowed capacity (10).
@@ -86,4 +88,108 @@ class ExportSubTerminalTest
          */
         verify(mockShip, never()).pickFromTerminal(any(Container.class));
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that a batch addition skips duplicate codes, both against the register and within the batch,
+     *  stops at the capacity of the terminal, and keeps the order of the batch.
+     */
+    @Test
+    @DisplayName("Should add a batch of containers skipping duplicates up to the capacity")
+    void testAddContainersBatch()
+    {
+        BoxSelector selector = new BoxSelector();
+        Container existing = selector.registerContainer("MSDU00000002");
+        assertTrue(exportTerminal.addContainer(existing, "MSDU00000002"));
+
+        List<Box> batch = new ArrayList<>(selector.registerContainerRange("MSDU00000001", 12));
+        batch.add(2, selector.registerContainer("MSDU00000004"));
+
+        List<Container> added = exportTerminal.addContainers(batch);
+
+        assertEquals(9, added.size(), "Only the free places of the terminal should be filled");
+        assertEquals(10, exportTerminal.getSize());
+        assertEquals(10, ContainerRegister.getInstance().getSize());
+        assertEquals("MSDU00000001", added.get(0).getContainerCode());
+        assertSame(batch.get(2), added.get(1), "The first of two containers with the same code should be added");
+        assertEquals("MSDU00000003", added.get(2).getContainerCode());
+        assertEquals("MSDU00000005", added.get(3).getContainerCode());
+        assertEquals("MSDU00000010", added.get(8).getContainerCode());
+        for (Container c : added)
+        {
+            assertEquals("Bari Export Sub-Terminal", c.getLocation());
+            assertSame(c, ContainerRegister.getInstance().findByCode(c.getContainerCode()));
+        }
+        assertEquals(added, ContainerRegister.getInstance().displayContainers().subList(1, 10),
+                "The register should keep the order of the batch");
+        assertTrue(exportTerminal.addContainers(List.of(selector.registerContainer("MSDU00000020"))).isEmpty(),
+                "A full terminal should not accept any container");
+    }
+
+    /**
+     *  Verifies that an iterator keeps traversing the containers present when it was created,
+     *  while containers are removed from and added to the terminal during the traversal.
+     */
+    @Test
+    @DisplayName("Should iterate over a stable snapshot while the terminal is modified")
+    void testSnapshotIteration()
+    {
+        BoxSelector selector = new BoxSelector();
+        List<Box> containers = selector.registerContainerRange("MSDU00000001", 5);
+        for (Box box : containers)
+        {
+            box.setContainerState(Container.ContainerState.EMPTY);
+        }
+        exportTerminal.addContainers(containers);
+
+        ContainerIterator iterator = exportTerminal.createIterator();
+        List<Container> seen = new ArrayList<>();
+        while (iterator.hasNext())
+        {
+            seen.add(iterator.next());
+            if (seen.size() == 1)
+            {
+                assertNotNull(exportTerminal.borrowFromWarehouse());
+                exportTerminal.addFromWarehouse(selector.registerContainer("MSDU00000009"));
+            }
+        }
+
+        assertEquals(containers, seen, "The iterator should only see the containers present when it was created");
+        assertEquals(5, exportTerminal.getSize());
+        assertEquals("MSDU00000009", exportTerminal.getContainerAt(4).getContainerCode());
+    }
+
+    /**
+     *  Verifies that the warehouses borrow EMPTY containers in the order they became empty,
+     *  following the state changes of the containers while they are in the bay.
+     */
+    @Test
+    @DisplayName("Should borrow EMPTY containers from the state buckets")
+    void testBorrowFromStateBuckets()
+    {
+        BoxSelector selector = new BoxSelector();
+        List<Box> containers = selector.registerContainerRange("MSDU00000001", 4);
+        for (Box box : containers)
+        {
+            box.setContainerState(Container.ContainerState.FULL_EXPORT);
+        }
+        exportTerminal.addContainers(containers);
+        assertEquals(4, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT));
+        assertNull(exportTerminal.borrowFromWarehouse(), "No container should be borrowed while none is EMPTY");
+
+        containers.get(2).setContainerState(Container.ContainerState.EMPTY);
+        containers.get(0).setContainerState(Container.ContainerState.EMPTY);
+        assertEquals(2, exportTerminal.countByState(Container.ContainerState.EMPTY));
+        assertEquals(2, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT));
+
+        assertSame(containers.get(2), exportTerminal.borrowFromWarehouse());
+        assertSame(containers.get(0), exportTerminal.borrowFromWarehouse());
+        assertNull(exportTerminal.borrowFromWarehouse());
+        assertEquals(2, exportTerminal.getSize());
+
+        containers.get(2).setContainerState(Container.ContainerState.FULL_EXPORT);
+        assertEquals(2, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT),
+                "A container that left the bay should no longer be followed");
+        exportTerminal.addFromWarehouse(containers.get(2));
+        assertEquals(3, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT));
+    }
+}
@@ -7,6 +7,8 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.Container
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *  Unit tests for the ImportSubTerminal class.
@@ -29,7 +31,6 @@ class ImportSubTerminalTest
         importTerminal = new ImportSubTerminal("Bari");
         mockContainer = mock(Container.class);
         mockShip = mock(CargoShip.class);
-        ImportSubTerminal.resetRequest();
     }
 
     /**
@@ -61,6 +62,44 @@ class ImportSubTerminalTest
         assertEquals(15, importTerminal.getSize());
     }
 
+    /**
+     *  Verifies that a bulk unload reserves the free capacity once and splits the batch
+     *  into the containers accepted by the bay and the ones left on the ship.
+     */
+    @Test
+    @DisplayName("Should unload a batch up to the free capacity and reject the rest")
+    void testBulkUnload()
+    {
+        /**
+         *  Arrange: 10 containers already in the bay, 8 more coming off the ship.
+         */
+        for (int i = 0; i < 10; i++)
+        {
+            importTerminal.shipImport(mock(Container.class));
+        }
+        List<Container> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+        {
+            batch.add(mock(Container.class));
+        }
+
+        /**
+         *  Act.
+         */
+        UnloadResult result = importTerminal.shipImportAll(batch);
+
+        /**
+         *  Assert: the first 5 fill the bay, the last 3 stay on the ship.
+         */
+        assertEquals(batch.subList(0, 5), result.getAccepted());
+        assertEquals(batch.subList(5, 8), result.getRejected());
+        assertFalse(result.isComplete());
+        assertEquals(15, importTerminal.getSize());
+        verify(batch.get(0)).setContainerState(Container.ContainerState.FULL_IMPORT);
+        verify(batch.get(0)).setLocation("Bari Import Sub-Terminal");
+        verify(batch.get(7), never()).setContainerState(any());
+    }
+
     /**
      *  Verifies that the docking request logic correctly identifies port names 
      *  and ship states.
@@ -84,7 +123,10 @@ class ImportSubTerminalTest
          *  Assert.
          */
         assertTrue(accepted, "Request should be accepted for Bari in WAITING state");
-        assertTrue(ImportSubTerminal.sendConfirmation(), "Confirmation flag should be set to true");
+
+        when(mockShip.getState()).thenReturn(CargoShip.CargoShipState.DOCKED_FOR_EXPORT);
+        assertFalse(ImportSubTerminal.shipRequest(mockShip, importTerminal, mock(ImportSubTerminal.class)),
+                "Request should be refused for a ship already docked");
     }
 
     /**
@@ -142,4 +184,129 @@ class ImportSubTerminalTest
         assertEquals(1, importTerminal.getSize(), "One container should remain in the terminal");
         verify(foodContainer, atLeastOnce()).getGoods();
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that each goods type is served oldest first, and that a container whose goods changed
+     *  while waiting is served from the queue of its current goods.
+     */
+    @Test
+    @DisplayName("Should serve the containers of each goods type in arrival order")
+    void testBorrowFromGoodsQueues()
+    {
+        Container firstFood = fullImport(Container.GoodsType.FOOD);
+        Container clothing = fullImport(Container.GoodsType.CLOTHING);
+        Container secondFood = fullImport(Container.GoodsType.FOOD);
+        Container relabelled = fullImport(Container.GoodsType.FOOD);
+        importTerminal.shipImport(firstFood);
+        importTerminal.shipImport(clothing);
+        importTerminal.shipImport(secondFood);
+        importTerminal.shipImport(relabelled);
+        when(relabelled.getGoods()).thenReturn(Container.GoodsType.FURNITURE);
+
+        assertSame(firstFood, importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD));
+        assertSame(secondFood, importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD));
+        assertNull(importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD));
+        assertSame(relabelled, importTerminal.borrowFromWarehouse(Container.GoodsType.FURNITURE));
+        assertSame(clothing, importTerminal.borrowFromWarehouse(Container.GoodsType.CLOTHING));
+        assertNull(importTerminal.borrowFromWarehouse(Container.GoodsType.ELECTRONICS));
+        assertEquals(0, importTerminal.getSize());
+    }
+
+    /**
+     *  Verifies that a container released to a warehouse leaves the queue it was waiting in,
+     *  even if its goods changed meanwhile, so it is never offered again.
+     */
+    @Test
+    @DisplayName("Should take a released container out of the queue it was waiting in")
+    void testReleaseRelabelledContainer()
+    {
+        Container relabelled = fullImport(Container.GoodsType.FOOD);
+        Container food = fullImport(Container.GoodsType.FOOD);
+        importTerminal.shipImportAll(List.of(relabelled, food));
+        when(relabelled.getGoods()).thenReturn(Container.GoodsType.CLOTHING);
+
+        assertTrue(importTerminal.releaseToWarehouse(relabelled));
+        assertFalse(importTerminal.releaseToWarehouse(relabelled), "A released container is no longer in the bay");
+        assertEquals(List.of(food), importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD, 5));
+        assertNull(importTerminal.borrowFromWarehouse(Container.GoodsType.CLOTHING));
+        assertEquals(0, importTerminal.getSize());
+    }
+
+    /**
+     *  Verifies that released containers are skipped by the goods queues, even after many releases
+     *  out of order, and that a released container imported again waits behind the older ones.
+     */
+    @Test
+    @DisplayName("Should skip the queue entries of released containers and requeue them on a new import")
+    void testReleaseAndReimport()
+    {
+        List<Container> cargo = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            cargo.add(fullImport(Container.GoodsType.FOOD));
+        }
+        for (int round = 0; round < 50; round++)
+        {
+            importTerminal.shipImportAll(cargo);
+            for (int i = 0; i < cargo.size(); i += 2)
+            {
+                assertTrue(importTerminal.releaseToWarehouse(cargo.get(i)));
+            }
+            importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD, 10);
+            assertEquals(0, importTerminal.getSize());
+        }
+
+        importTerminal.shipImportAll(cargo.subList(0, 3));
+        assertTrue(importTerminal.releaseToWarehouse(cargo.get(0)));
+        importTerminal.shipImport(cargo.get(0));
+
+        assertEquals(List.of(cargo.get(1), cargo.get(2), cargo.get(0)), importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD, 5),
+                "The container imported again should be served after the older ones, once");
+    }
+
+    /**
+     *  Verifies that the listeners are notified once when the bay rises above the high watermark,
+     *  and once when it falls back to the low one, and that invalid watermarks are refused.
+     */
+    @Test
+    @DisplayName("Should notify the listeners when the bay crosses its watermarks")
+    void testWatermarkNotifications()
+    {
+        BayLevelListener listener = mock(BayLevelListener.class);
+        importTerminal.setWatermarks(3, 1);
+        importTerminal.addLevelListener(listener);
+        importTerminal.addLevelListener(listener);
+        List<Container> cargo = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            cargo.add(fullImport(Container.GoodsType.FOOD));
+        }
+
+        importTerminal.shipImportAll(cargo.subList(0, 3));
+        verifyNoInteractions(listener);
+        importTerminal.shipImport(cargo.get(3));
+        importTerminal.shipImport(cargo.get(4));
+        verify(listener, times(1)).highWatermarkReached(importTerminal, 4);
+
+        importTerminal.borrowFromWarehouse(Container.GoodsType.FOOD, 3);
+        verify(listener, never()).lowWatermarkReached(any(), anyInt());
+        importTerminal.releaseToWarehouse(cargo.get(3));
+        verify(listener, times(1)).lowWatermarkReached(importTerminal, 1);
+
+        importTerminal.removeLevelListener(listener);
+        importTerminal.shipImportAll(cargo.subList(0, 4));
+        verifyNoMoreInteractions(listener);
+
+        assertThrows(IllegalArgumentException.class, () -> importTerminal.setWatermarks(2, 3));
+        assertThrows(IllegalArgumentException.class, () -> importTerminal.setWatermarks(15, 5));
+        assertEquals(3, importTerminal.getHighWatermark());
+    }
+
+    private static Container fullImport(Container.GoodsType goods)
+    {
+        Container container = mock(Container.class);
+        when(container.getGoods()).thenReturn(goods);
+        when(container.getContainerState()).thenReturn(Container.ContainerState.FULL_IMPORT);
+        return container;
+    }
+}
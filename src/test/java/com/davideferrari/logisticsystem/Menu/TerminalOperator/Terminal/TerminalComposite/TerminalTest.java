@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerIterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.ContainerSpliterator;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerIterator.SnapshotContainerIterator;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
 import com.davideferrari.logisticsystem.Utils.ExceptionHandling.ContainerValidationException;
 import org.junit.jupiter.api.BeforeEach;
@@ -128,4 +131,67 @@ class TerminalTest
         assertFalse(register.displayContainers().contains(target), 
             "Container should no longer exist in the global register.");
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that the Terminal (Composite) behaves as a single collection made of its children.
+     *  Ensures that iteration, positional access, streams and aggregations only visit the
+     *  containers of the sub-terminals, in order, without looking at the global register.
+     */
+    @Test
+    @DisplayName("Should aggregate the containers of its sub-terminals")
+    void testAggregateCollection()
+    {
+        /**
+         *  Arrange: two leaves with one and two containers.
+         */
+        Container first = mockContainer(Container.ContainerState.EMPTY, 2000);
+        Container second = mockContainer(Container.ContainerState.FULL_IMPORT, 3000);
+        Container third = mockContainer(Container.ContainerState.EMPTY, 4000);
+        stubContents(bariExport, first);
+        stubContents(busanExport, second, third);
+        mainHub.addComponent(bariExport);
+        mainHub.addComponent(busanExport);
+
+        /**
+         *  Act: traverse the composite with its iterator.
+         */
+        List<Container> iterated = new ArrayList<>();
+        ContainerIterator iterator = mainHub.createIterator();
+        while (iterator.hasNext())
+        {
+            iterated.add(iterator.next());
+        }
+
+        /**
+         *  Assert.
+         */
+        assertEquals(List.of(first, second, third), iterated);
+        assertEquals(3, mainHub.getSize());
+        assertSame(third, mainHub.getContainerAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> mainHub.getContainerAt(3));
+        assertEquals(List.of(first, second, third), mainHub.stream().toList());
+        assertEquals(9000, mainHub.totalTareWeight());
+        assertEquals(2, mainHub.countByState().get(Container.ContainerState.EMPTY));
+        assertEquals(1, mainHub.countByState().get(Container.ContainerState.FULL_IMPORT));
+        verifyNoInteractions(mockShip);
+    }
+
+    private static Container mockContainer(Container.ContainerState state, int tareWeight)
+    {
+        Container container = mock(Container.class);
+        when(container.getContainerState()).thenReturn(state);
+        when(container.getTareWeight()).thenReturn(tareWeight);
+        return container;
+    }
+
+    private static void stubContents(ExportSubTerminal leaf, Container... containers)
+    {
+        when(leaf.getSize()).thenReturn(containers.length);
+        when(leaf.createIterator()).thenAnswer(invocation -> new SnapshotContainerIterator(containers));
+        when(leaf.spliterator()).thenAnswer(invocation -> ContainerSpliterator.ofSnapshot(containers));
+        for (int i = 0; i < containers.length; i++)
+        {
+            when(leaf.getContainerAt(i)).thenReturn(containers[i]);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the ClothingExportWarehouse class.
@@ -44,13 +45,13 @@ class ClothingExportWarehouseTest
         /**
          *  Arrange: Terminal provides an EMPTY container.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
 
         /**
          *  Act.
          */
-        warehouse.request(mockTerminal);
+        warehouse.request(mockTerminal, 1);
 
         /**
          *  Assert.
@@ -105,7 +106,7 @@ class ClothingExportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Local storage should be cleared after retrieval.");
     }
 
@@ -119,7 +120,7 @@ class ClothingExportWarehouseTest
         /**
          *  Arrange: Configure mocks for a complete successful run.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
         when(mockContainer.getContainerCode()).thenReturn("CLO-12345");
 
@@ -132,7 +133,7 @@ class ClothingExportWarehouseTest
          *  Assert: Verify key state changes and terminal interactions.
          */
         verify(mockContainer).setGoods(GoodsType.CLOTHING);
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Warehouse must be empty at the end of the process.");
     }
 }
\ No newline at end of file
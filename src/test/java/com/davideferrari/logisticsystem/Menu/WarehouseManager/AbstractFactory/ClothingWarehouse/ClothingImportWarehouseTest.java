@@ -10,6 +10,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the ClothingImportWarehouse class.
@@ -47,19 +48,19 @@ public class ClothingImportWarehouseTest
         /**
          *  Arrange: Terminal returns a container when asked for CLOTHING.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.CLOTHING)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.CLOTHING, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("CLO-IMP-99");
 
         /**
          *  Act.
          */
-        warehouse.pick(mockImpTerminal);
+        warehouse.pick(mockImpTerminal, 1);
 
         /**
          *  Assert.
          */
         assertEquals(1, warehouse.getSize(), "Warehouse should have taken the container.");
-        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.CLOTHING);
+        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.CLOTHING, 1);
     }
 
     /**
@@ -106,7 +107,7 @@ public class ClothingImportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Warehouse storage should be empty after retrieval.");
     }
 
@@ -120,7 +121,7 @@ public class ClothingImportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.CLOTHING)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.CLOTHING, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("CLO-TEST");
 
         /**
@@ -132,7 +133,7 @@ public class ClothingImportWarehouseTest
          *  Assert: Verify the container was processed and moved.
          */
         verify(mockContainer).setContainerState(ContainerState.EMPTY);
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.clothingImportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the ElectronicsExportWarehouse class.
@@ -35,10 +36,10 @@ public class ElectronicsExportWarehouseTest
     @DisplayName("Should accept an empty container from the export terminal")
     public void testRequestSuccess() 
     {
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
 
-        warehouse.request(mockTerminal);
+        warehouse.request(mockTerminal, 1);
 
         assertEquals(1, warehouse.getSize(), "Warehouse should have 1 container.");
         assertSame(mockContainer, warehouse.getContainerAt(0));
@@ -70,7 +71,7 @@ public class ElectronicsExportWarehouseTest
 
         warehouse.retrieve(mockTerminal);
 
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Warehouse list should be empty after retrieval.");
     }
 
@@ -81,13 +82,13 @@ public class ElectronicsExportWarehouseTest
     @DisplayName("Should successfully execute the integrated export template workflow")
     public void testFullExportWorkflow() 
     {
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
 
         warehouse.warehouseExport(mockTerminal);
 
         verify(mockContainer).setGoods(GoodsType.ELECTRONICS);
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.electronicsExportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
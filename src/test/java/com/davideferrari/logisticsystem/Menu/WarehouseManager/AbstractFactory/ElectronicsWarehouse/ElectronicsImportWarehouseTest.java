@@ -10,6 +10,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the ElectronicsImportWarehouse class.
@@ -47,19 +48,19 @@ public class ElectronicsImportWarehouseTest
         /**
          *  Arrange: Terminal returns a container when asked for ELECTRONICS.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.ELECTRONICS)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.ELECTRONICS, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("ELEC-IMP-001");
 
         /**
          *  Act.
          */
-        warehouse.pick(mockImpTerminal);
+        warehouse.pick(mockImpTerminal, 1);
 
         /**
          *  Assert.
          */
         assertEquals(1, warehouse.getSize(), "Warehouse should have taken the container.");
-        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.ELECTRONICS);
+        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.ELECTRONICS, 1);
     }
 
     /**
@@ -106,7 +107,7 @@ public class ElectronicsImportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Electronics storage should be cleared.");
     }
 
@@ -120,7 +121,7 @@ public class ElectronicsImportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.ELECTRONICS)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.ELECTRONICS, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("ELEC-FULL-TEST");
 
         /**
@@ -132,7 +133,7 @@ public class ElectronicsImportWarehouseTest
          *  Assert: Verify state transition and hand-off.
          */
         verify(mockContainer).setContainerState(ContainerState.EMPTY);
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.electronicsImportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
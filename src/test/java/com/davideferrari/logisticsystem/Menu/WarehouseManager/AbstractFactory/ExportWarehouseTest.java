@@ -1,12 +1,16 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *  Unit tests for the ExportWarehouse abstract class.
@@ -18,6 +22,7 @@ class ExportWarehouseTest
 
     private ExportSubTerminal mockExp;
     private ExportWarehouse spyWarehouse;
+    private final List<Container> stock = new ArrayList<>();
 
     /**
      *  Sets up the test environment by creating mocks and a spy of the abstract product.
@@ -33,7 +38,7 @@ class ExportWarehouseTest
         ExportWarehouse stubWarehouse = new ExportWarehouse() 
         {
             @Override
-            protected void request(ExportSubTerminal exp) 
+            protected void request(ExportSubTerminal exp, int maxCount) 
             {
             }
 
@@ -51,6 +56,12 @@ class ExportWarehouseTest
             protected void retrieve(ExportSubTerminal exp) 
             {
             }
+
+            @Override
+            protected List<Container> stock()
+            {
+                return stock;
+            }
         };
 
         /**
@@ -82,7 +93,7 @@ class ExportWarehouseTest
          *  Note: We don't call verifyNoMoreInteractions(spyWarehouse) because 
          *  the call to the template method itself counts as an interaction.
          */
-        inOrder.verify(spyWarehouse).request(mockExp);
+        inOrder.verify(spyWarehouse).request(mockExp, 1);
         inOrder.verify(spyWarehouse).pick();
         inOrder.verify(spyWarehouse).load();
         inOrder.verify(spyWarehouse).retrieve(mockExp);
@@ -104,7 +115,27 @@ class ExportWarehouseTest
         /**
          *  Assert.
          */
-        verify(spyWarehouse).request(mockExp);
+        verify(spyWarehouse).request(mockExp, 1);
         verify(spyWarehouse).retrieve(mockExp);
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that a container handed over by a port call is picked and loaded in the warehouse,
+     *  without any request to the terminal, and that it leaves the warehouse once it is loaded.
+     */
+    @Test
+    @DisplayName("Should load a handed-over container without going through the terminal")
+    void testHandedOverContainer()
+    {
+        Container container = mock(Container.class);
+
+        spyWarehouse.warehouseExport(container);
+
+        InOrder inOrder = inOrder(spyWarehouse);
+        inOrder.verify(spyWarehouse).pick();
+        inOrder.verify(spyWarehouse).load();
+        verify(spyWarehouse, never()).request(any(), anyInt());
+        verify(spyWarehouse, never()).retrieve(any());
+        assertTrue(stock.isEmpty(), "The container should be handed back to the caller");
+    }
+}
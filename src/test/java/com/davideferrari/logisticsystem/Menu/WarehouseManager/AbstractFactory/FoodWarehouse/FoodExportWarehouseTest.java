@@ -9,6 +9,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the FoodExportWarehouse class.
@@ -43,13 +44,13 @@ public class FoodExportWarehouseTest
         /**
          *  Arrange: Mock terminal to provide an EMPTY container.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
 
         /**
          *  Act.
          */
-        warehouse.request(mockTerminal);
+        warehouse.request(mockTerminal, 1);
 
         /**
          *  Assert.
@@ -104,7 +105,7 @@ public class FoodExportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Warehouse storage should be cleared.");
     }
 
@@ -118,7 +119,7 @@ public class FoodExportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
         when(mockContainer.getContainerCode()).thenReturn("FOOD-BOX-1");
 
@@ -131,7 +132,7 @@ public class FoodExportWarehouseTest
          *  Assert.
          */
         verify(mockContainer).setGoods(GoodsType.FOOD);
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.foodExportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
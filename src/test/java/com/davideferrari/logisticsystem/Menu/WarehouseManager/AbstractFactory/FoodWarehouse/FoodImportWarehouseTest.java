@@ -10,6 +10,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the FoodImportWarehouse class.
@@ -46,19 +47,19 @@ public class FoodImportWarehouseTest
         /**
          *  Arrange: Terminal returns a container specifically when asked for FOOD.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FOOD)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FOOD, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("FOOD-IMP-123");
 
         /**
          *  Act.
          */
-        warehouse.pick(mockImpTerminal);
+        warehouse.pick(mockImpTerminal, 1);
 
         /**
          *  Assert.
          */
         assertEquals(1, warehouse.getSize(), "Warehouse should have 1 container in its inventory.");
-        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.FOOD);
+        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.FOOD, 1);
     }
 
     /**
@@ -105,7 +106,7 @@ public class FoodImportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Local food warehouse storage should be empty.");
     }
 
@@ -119,7 +120,7 @@ public class FoodImportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FOOD)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FOOD, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("FOOD-INTEGRATION-TEST");
 
         /**
@@ -131,7 +132,29 @@ public class FoodImportWarehouseTest
          *  Assert.
          */
         verify(mockContainer).setContainerState(ContainerState.EMPTY);
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.foodImportWarehouse.isEmpty());
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that the batch Template Method picks, empties and returns a whole batch of containers
+     *  with a single call on each terminal.
+     */
+    @Test
+    @DisplayName("Should process a whole batch of food containers in one cycle")
+    public void testBatchWorkflow()
+    {
+        Container second = mock(Container.class);
+        Container third = mock(Container.class);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FOOD, 3)).thenReturn(List.of(mockContainer, second, third));
+
+        warehouse.warehouseImport(mockImpTerminal, mockExpTerminal, 3);
+
+        verify(mockImpTerminal, times(1)).borrowFromWarehouse(GoodsType.FOOD, 3);
+        verify(mockContainer).setContainerState(ContainerState.EMPTY);
+        verify(second).setContainerState(ContainerState.EMPTY);
+        verify(third).setContainerState(ContainerState.EMPTY);
+        verify(mockExpTerminal, times(1)).addFromWarehouse(List.of(mockContainer, second, third));
+        assertTrue(warehouse.foodImportWarehouse.isEmpty());
+    }
+}
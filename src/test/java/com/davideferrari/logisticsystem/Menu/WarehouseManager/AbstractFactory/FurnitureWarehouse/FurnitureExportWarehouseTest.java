@@ -10,6 +10,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for theFurnitureExportWarehouse class.
@@ -44,13 +45,13 @@ public class FurnitureExportWarehouseTest
         /**
          *  Arrange: Terminal provides an EMPTY container.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
 
         /**
          *  Act.
          */
-        warehouse.request(mockTerminal);
+        warehouse.request(mockTerminal, 1);
 
         /**
          *  Assert.
@@ -105,7 +106,7 @@ public class FurnitureExportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Warehouse storage should be cleared.");
     }
 
@@ -119,7 +120,7 @@ public class FurnitureExportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockTerminal.borrowFromWarehouse()).thenReturn(mockContainer);
+        when(mockTerminal.borrowFromWarehouse(1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerState()).thenReturn(ContainerState.EMPTY);
         when(mockContainer.getContainerCode()).thenReturn("FURN-001");
 
@@ -132,7 +133,7 @@ public class FurnitureExportWarehouseTest
          *  Assert.
          */
         verify(mockContainer).setGoods(GoodsType.FURNITURE);
-        verify(mockTerminal).addFromWarehouse(mockContainer);
+        verify(mockTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.furnitureExportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
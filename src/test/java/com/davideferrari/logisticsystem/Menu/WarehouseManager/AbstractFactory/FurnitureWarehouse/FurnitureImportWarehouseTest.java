@@ -11,6 +11,7 @@ import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalC
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 
 /**
  *  Unit tests for the FurnitureImportWarehouse class.
@@ -48,19 +49,19 @@ public class FurnitureImportWarehouseTest
         /**
          *  Arrange: The terminal should return a container when asked for FURNITURE.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FURNITURE)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FURNITURE, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("FURN-IMP-01");
 
         /**
          *  Act.
          */
-        warehouse.pick(mockImpTerminal);
+        warehouse.pick(mockImpTerminal, 1);
 
         /**
          *  Assert.
          */
         assertEquals(1, warehouse.getSize(), "Warehouse should have taken the container.");
-        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.FURNITURE);
+        verify(mockImpTerminal).borrowFromWarehouse(GoodsType.FURNITURE, 1);
     }
 
     /**
@@ -107,7 +108,7 @@ public class FurnitureImportWarehouseTest
         /**
          *  Assert.
          */
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertEquals(0, warehouse.getSize(), "Local storage should be empty after retrieval.");
     }
 
@@ -121,7 +122,7 @@ public class FurnitureImportWarehouseTest
         /**
          *  Arrange.
          */
-        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FURNITURE)).thenReturn(mockContainer);
+        when(mockImpTerminal.borrowFromWarehouse(GoodsType.FURNITURE, 1)).thenReturn(List.of(mockContainer));
         when(mockContainer.getContainerCode()).thenReturn("FURN-FULL-TEST");
 
         /**
@@ -133,7 +134,7 @@ public class FurnitureImportWarehouseTest
          *  Assert: Verify state change and successful hand-off.
          */
         verify(mockContainer).setContainerState(ContainerState.EMPTY);
-        verify(mockExpTerminal).addFromWarehouse(mockContainer);
+        verify(mockExpTerminal).addFromWarehouse(List.of(mockContainer));
         assertTrue(warehouse.furnitureImportWarehouse.isEmpty());
     }
 }
\ No newline at end of file
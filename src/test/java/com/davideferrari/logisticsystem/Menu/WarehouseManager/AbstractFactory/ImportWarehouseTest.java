@@ -1,12 +1,16 @@
 package com.davideferrari.logisticsystem.Menu.WarehouseManager.AbstractFactory;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *  Unit tests for the ImportWarehouse abstract class.
@@ -20,6 +24,7 @@ class ImportWarehouseTest
     private ImportSubTerminal mockImp;
     private ExportSubTerminal mockExp;
     private ImportWarehouse spyWarehouse;
+    private final List<Container> stock = new ArrayList<>();
 
     /**
      *  Sets up the test environment by creating mocks and a spy of the abstract class.
@@ -37,11 +42,12 @@ class ImportWarehouseTest
         ImportWarehouse stubWarehouse = new ImportWarehouse() 
         {
             @Override
-            protected void pick(ImportSubTerminal imp) 
+            protected int pick(ImportSubTerminal imp, int maxCount) 
             {
                 /**
                  *  Method implementation is empty as we only want to track its execution. 
                  */
+                return 0;
             }
 
             @Override
@@ -59,6 +65,12 @@ class ImportWarehouseTest
                  *  Method implementation is empty as we only want to track its execution. 
                  */
             }
+       
+            @Override
+            protected List<Container> stock()
+            {
+                return stock;
+            }
         };
 
         /**
@@ -88,7 +100,7 @@ class ImportWarehouseTest
         /**
          *  These methods are visible here because the test is in the same package.
          */
-        inOrder.verify(spyWarehouse).pick(mockImp);
+        inOrder.verify(spyWarehouse).pick(mockImp, 1);
         inOrder.verify(spyWarehouse).unload();
         inOrder.verify(spyWarehouse).retrieve(mockExp);
     }
@@ -108,7 +120,31 @@ class ImportWarehouseTest
         /**
          *  Assert.
          */
-        verify(spyWarehouse).pick(mockImp);
+        verify(spyWarehouse).pick(mockImp, 1);
         verify(spyWarehouse).retrieve(mockExp);
     }
-}
\ No newline at end of file
+
+    /**
+     *  Verifies that a container handed over by a port call is released by the import terminal and emptied,
+     *  without picking a batch or retrieving it to the export terminal, and that a container missing from the bay
+     *  is not processed.
+     */
+    @Test
+    @DisplayName("Should empty a handed-over container without going through the export terminal")
+    void testHandedOverContainer()
+    {
+        Container container = mock(Container.class);
+        when(mockImp.releaseToWarehouse(container)).thenReturn(true);
+
+        assertTrue(spyWarehouse.warehouseImport(mockImp, container));
+
+        verify(spyWarehouse).unload();
+        verify(spyWarehouse, never()).pick(any(), anyInt());
+        verify(spyWarehouse, never()).retrieve(any());
+        assertTrue(stock.isEmpty(), "The container should be handed back to the caller");
+
+        when(mockImp.releaseToWarehouse(container)).thenReturn(false);
+        assertFalse(spyWarehouse.warehouseImport(mockImp, container));
+        verify(spyWarehouse, times(1)).unload();
+    }
+}
@@ -0,0 +1,186 @@
+package com.davideferrari.logisticsystem.Menu.WarehouseManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Box;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Unit tests for the TruckFleet class.
+ *  This suite verifies how the goods types are shared among the trucks, the lifecycle of the fleet,
+ *  that draining the bay is shared among the trucks as partitioned, without any container being picked twice,
+ *  and that the trucks of a fleet drive at the same time.
+ */
+class TruckFleetTest
+{
+    private static final int CONTAINERS = 12;
+    private static final long HANDLING_MILLIS = 10;
+
+    private final BoxSelector selector = new BoxSelector();
+    private long drainNanos;
+
+    /**
+     *  Verifies that up to four trucks never share a goods type, and that larger fleets spread the trucks
+     *  evenly over the goods types.
+     */
+    @Test
+    @DisplayName("Should share the goods types among the trucks")
+    void testPartition()
+    {
+        assertEquals(List.of(WarehouseTruck.ALL_GOODS), TruckFleet.partition(1));
+        assertEquals(List.of(EnumSet.of(Container.GoodsType.CLOTHING, Container.GoodsType.ELECTRONICS),
+                             EnumSet.of(Container.GoodsType.FOOD, Container.GoodsType.FURNITURE)), TruckFleet.partition(2));
+
+        List<Set<Container.GoodsType>> shares = TruckFleet.partition(6);
+        Set<Container.GoodsType> served = EnumSet.noneOf(Container.GoodsType.class);
+        for (Set<Container.GoodsType> share : shares)
+        {
+            assertEquals(1, share.size());
+            served.addAll(share);
+        }
+        assertEquals(WarehouseTruck.ALL_GOODS, served);
+        assertEquals(shares.get(0), shares.get(4));
+    }
+
+    /**
+     *  Verifies that the fleet starts once, can only be drained while running, and stops its threads when parked.
+     *  @throws Exception if the test thread is interrupted or the drain times out.
+     */
+    @Test
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    @DisplayName("Should start, drain and park the trucks")
+    void testLifecycle() throws Exception
+    {
+        TruckFleet fleet = new TruckFleet(new ImportSubTerminal("Bari"), new ExportSubTerminal("Bari"), 3);
+        assertThrows(IllegalStateException.class, () -> fleet.drain(1000));
+
+        fleet.start();
+        assertEquals(TruckFleet.State.RUNNING, fleet.getState());
+        assertThrows(IllegalStateException.class, fleet::start);
+        assertEquals(0, fleet.drain(5000), "An empty bay has nothing to drain");
+
+        assertTrue(fleet.park(5000));
+        assertEquals(TruckFleet.State.PARKED, fleet.getState());
+        fleet.getTrucks().forEach(truck -> assertFalse(truck.isEngineRunning()));
+        assertThrows(IllegalStateException.class, () -> fleet.drain(1000));
+        assertThrows(IllegalArgumentException.class, () -> new TruckFleet(new ImportSubTerminal("Bari"), new ExportSubTerminal("Bari"), 0));
+    }
+
+    /**
+     *  Verifies that fleets of one, four and six trucks all move every container exactly once, and that the work
+     *  follows the partition: with four trucks each one moves the containers of its own goods type only, and with
+     *  six trucks the trucks sharing a goods type split its containers between them.
+     *  @throws Exception if the test thread is interrupted or a drain times out.
+     */
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Should share the drain among the trucks, without double picks")
+    void testDrainShares() throws Exception
+    {
+        TruckFleet single = drain(1, "FLTA00000001");
+        assertEquals(CONTAINERS, single.getTrucks().get(0).getContainersMoved());
+
+        TruckFleet four = drain(4, "FLTB00000001");
+        for (WarehouseTruck truck : four.getTrucks())
+        {
+            assertEquals(CONTAINERS / 4, truck.getContainersMoved(), "Truck serving " + truck.getGoods());
+        }
+
+        TruckFleet six = drain(6, "FLTC00000001");
+        Map<Container.GoodsType, Integer> movedByGoods = new EnumMap<>(Container.GoodsType.class);
+        for (WarehouseTruck truck : six.getTrucks())
+        {
+            assertEquals(1, truck.getGoods().size());
+            movedByGoods.merge(truck.getGoods().iterator().next(), truck.getContainersMoved(), Integer::sum);
+        }
+        for (Container.GoodsType goods : WarehouseTruck.ALL_GOODS)
+        {
+            assertEquals(CONTAINERS / 4, movedByGoods.get(goods), "Containers of " + goods);
+        }
+    }
+
+    /**
+     *  Verifies that the trucks of a fleet drive at the same time: four trucks drain the bay in well under the time
+     *  a single truck takes. With one container per trip, the single truck drives every container itself, while
+     *  each of the four drives a quarter of them, so the ideal speedup is four; only a speedup of 4/3 is asserted,
+     *  so a slow or loaded machine does not make the test fail.
+     *  @throws Exception if the test thread is interrupted or a drain times out.
+     */
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Should drain faster with more trucks")
+    void testParallelDrain() throws Exception
+    {
+        drain(1, "FLTD00000001", 4 * HANDLING_MILLIS);
+        long single = drainNanos;
+        drain(4, "FLTE00000001", 4 * HANDLING_MILLIS);
+        long four = drainNanos;
+
+        assertTrue(four * 4 < single * 3,
+                "Four trucks took " + four / 1_000_000 + " ms, a single truck " + single / 1_000_000 + " ms");
+    }
+
+    private TruckFleet drain(int trucks, String firstCode) throws Exception
+    {
+        return drain(trucks, firstCode, HANDLING_MILLIS);
+    }
+
+    /**
+     *  This method fills a bay below its high watermark with the same number of containers of every goods type,
+     *  drains it with a fleet of the given size and checks that every container reached the export sub-terminal
+     *  exactly once. The time the drain took is kept in {@link #drainNanos}.
+     *  @return The parked fleet, whose trucks hold the number of containers each one moved.
+     */
+    private TruckFleet drain(int trucks, String firstCode, long handlingMillis) throws Exception
+    {
+        ImportSubTerminal importTerminal = new ImportSubTerminal("Bari");
+        ExportSubTerminal exportTerminal = new ExportSubTerminal("Bari");
+        importTerminal.setWatermarks(14, 0);
+        Container.GoodsType[] goods = WarehouseTruck.ALL_GOODS.toArray(new Container.GoodsType[0]);
+        List<Container> cargo = new ArrayList<>();
+        for (Box box : selector.registerContainerRange(firstCode, CONTAINERS))
+        {
+            box.setGoods(goods[cargo.size() % goods.length]);
+            cargo.add(box);
+        }
+        importTerminal.shipImportAll(cargo);
+
+        TruckFleet fleet = new TruckFleet(importTerminal, exportTerminal, trucks, 1, handlingMillis);
+        fleet.start();
+        int moved;
+        try
+        {
+            long start = System.nanoTime();
+            moved = fleet.drain(10_000);
+            drainNanos = System.nanoTime() - start;
+        }
+        finally
+        {
+            assertTrue(fleet.park(5000));
+        }
+
+        assertEquals(CONTAINERS, moved);
+        assertEquals(0, importTerminal.getSize());
+        assertEquals(CONTAINERS, exportTerminal.getSize());
+        assertEquals(CONTAINERS, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT));
+        int total = 0;
+        for (WarehouseTruck truck : fleet.getTrucks())
+        {
+            total += truck.getContainersMoved();
+        }
+        assertEquals(CONTAINERS, total, "Every container should have been moved by exactly one truck");
+        return fleet;
+    }
+}
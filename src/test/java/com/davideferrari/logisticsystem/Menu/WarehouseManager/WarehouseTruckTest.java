@@ -2,18 +2,24 @@ package com.davideferrari.logisticsystem.Menu.WarehouseManager;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Box;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
 import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  *  Unit tests for the WarehouseTruck background worker thread.
  *  This test suite validates the monitoring behavior of the autonomous truck,
- *  specifically ensuring it correctly polls the terminal for overload conditions
+ *  specifically ensuring it reacts to the watermark signals of the terminal
  *  and handles thread lifecycle events (startup and shutdown).
  */
 public class WarehouseTruckTest
@@ -23,6 +29,11 @@ public class WarehouseTruckTest
      */
     private WarehouseTruck truck;
 
+    /**
+     *  The thread running the truck under test.
+     */
+    private Thread truckThread;
+
     /** 
      *  Mocked import terminal used to simulate cargo levels.
      */
@@ -47,37 +58,87 @@ public class WarehouseTruckTest
     }
 
     /**
-     *  Verifies that the truck correctly accesses the terminal size after its initial sleep cycles.
-     *  Logic Sequence:
-     *  1. Startup sleep: 2000ms
-     *  2. First loop iteration sleep: 5000ms
-     *  This test waits 8000ms to ensure the truck thread has moved past these sleeps 
-     *  and executed its first getSize() check.
-     *  @throws InterruptedException if the test thread is interrupted during the wait period.
+     *  Parks the truck and waits for its thread, so no truck outlives its test, even a failed one.
+     *  @throws InterruptedException if the test thread is interrupted while waiting for the truck to stop.
+     */
+    @AfterEach
+    public void tearDown() throws InterruptedException
+    {
+        if (truckThread != null)
+        {
+            truck.parkTruck();
+            truckThread.join(5000);
+            assertFalse(truckThread.isAlive(), "Thread should have terminated");
+        }
+    }
+
+    /**
+     *  Verifies that the truck starts listening to the terminal, and checks the bay once
+     *  for the containers that were already there before it started.
+     *  @throws InterruptedException if the test thread is interrupted while waiting for the truck to stop.
      */
     @Test
     @Timeout(value = 15, unit = TimeUnit.SECONDS)
-    @DisplayName("Should verify truck calls getSize after initial delays")
+    @DisplayName("Should register with the terminal and check the bay on startup")
     public void testTruckInteraction() throws InterruptedException
     {
         when(mockImportTerminal.getSize()).thenReturn(0);
-        truck = new WarehouseTruck(mockImportTerminal, mockExportTerminal);
-
-        Thread truckThread = new Thread(truck);
-        truckThread.start();
-
-        /** Logic breakdown:
-         *  1. 2000ms: Initial startup sleep
-         *  2. 5000ms: First iteration sleep
-         *  Total: 7000ms. We wait 8000ms to be safe.
-         */
-        Thread.sleep(8000);
+        startTruck(new WarehouseTruck(mockImportTerminal, mockExportTerminal));
 
+        // The truck waits for a signal once registered and past its first pass; the interactions are verified then,
+        // as verifying with a timeout polls the mock while the truck thread is still calling it.
+        awaitState(truckThread, Thread.State.WAITING);
+        verify(mockImportTerminal).addLevelListener(truck);
         verify(mockImportTerminal, atLeastOnce()).getSize();
 
         truck.parkTruck();
-        truckThread.interrupt();
-        truckThread.join(2000);
+        truckThread.join(5000);
+        verify(mockImportTerminal).removeLevelListener(truck);
+    }
+
+    /**
+     *  Verifies that the truck clears the bay as soon as a ship unloads above the high watermark,
+     *  refills every container for export, and then waits for the next signal without running.
+     *  @throws Exception if the test thread is interrupted or the truck does not finish its cycle in time.
+     */
+    @Test
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    @DisplayName("Should clear the bay as soon as the high watermark is crossed")
+    public void testReactsToUnload() throws Exception
+    {
+        ImportSubTerminal importTerminal = new ImportSubTerminal("Bari");
+        ExportSubTerminal exportTerminal = new ExportSubTerminal("Bari");
+        startTruck(new WarehouseTruck(importTerminal, exportTerminal));
+        awaitState(truckThread, Thread.State.WAITING);
+
+        Container.GoodsType[] goods =
+        {
+            Container.GoodsType.CLOTHING,
+            Container.GoodsType.ELECTRONICS,
+            Container.GoodsType.FOOD,
+            Container.GoodsType.FURNITURE
+        };
+        List<Container> cargo = new ArrayList<>();
+        for (Box box : new BoxSelector().registerContainerRange("TRKW00000001", 6))
+        {
+            box.setGoods(goods[cargo.size() % goods.length]);
+            cargo.add(box);
+        }
+        importTerminal.shipImportAll(cargo);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (importTerminal.getSize() > 0 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+        }
+        assertEquals(0, importTerminal.getSize(), "The watermark signal alone should make the truck clear the bay");
+
+        // The bay empties before the refill is over: a drain is run by the truck thread after the cycle in progress,
+        // so its reply marks the end of that cycle.
+        assertEquals(0, truck.drain().get(10, TimeUnit.SECONDS));
+        assertEquals(6, exportTerminal.getSize());
+        assertEquals(6, exportTerminal.countByState(Container.ContainerState.FULL_EXPORT));
+        assertEquals(6, truck.getContainersMoved());
+        awaitState(truckThread, Thread.State.WAITING);
     }
 
     /**
@@ -92,10 +153,7 @@ public class WarehouseTruckTest
     @DisplayName("Should handle truck shutdown via parkTruck")
     public void testParkTruckStopsThread() throws InterruptedException
     {
-        truck = new WarehouseTruck(mockImportTerminal, mockExportTerminal);
-        Thread truckThread = new Thread(truck);
-        
-        truckThread.start();
+        startTruck(new WarehouseTruck(mockImportTerminal, mockExportTerminal));
         assertTrue(truckThread.isAlive(), "Thread should be running");
 
         truck.parkTruck();        
@@ -103,4 +161,21 @@ public class WarehouseTruckTest
         truckThread.join(3000);
         assertFalse(truckThread.isAlive(), "Thread should have terminated");
     }
-}
\ No newline at end of file
+
+    private void startTruck(WarehouseTruck truckUnderTest)
+    {
+        truck = truckUnderTest;
+        truckThread = new Thread(truck);
+        truckThread.start();
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != state)
+        {
+            assertTrue(System.nanoTime() < deadline, "The truck thread never reached " + state);
+            Thread.sleep(1);
+        }
+    }
+}
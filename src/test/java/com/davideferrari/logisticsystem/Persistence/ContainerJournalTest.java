@@ -0,0 +1,270 @@
+package com.davideferrari.logisticsystem.Persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Utils.Persistence.ContainerJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Unit tests for the ContainerJournal class.
+ *  This test suite verifies that the recorded lifecycle events rebuild the same state when replayed, ship by ship,
+ *  that concurrent writers are all made durable, and that a torn record at the end of the journal is ignored.
+ */
+class ContainerJournalTest
+{
+
+    @TempDir
+    Path directory;
+
+    private ContainerJournal journal;
+    private ExportSubTerminal bariExp;
+    private ExportSubTerminal busanExp;
+    private ImportSubTerminal bariImp;
+    private ImportSubTerminal busanImp;
+    private CargoShip ship;
+
+    @BeforeEach
+    void setUp()
+    {
+        journal = ContainerJournal.getInstance();
+        clearRegister();
+        createPorts();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        journal.close();
+    }
+
+    /**
+     *  Verifies that creating, exporting, loading and unloading containers can be replayed into new ports.
+     */
+    @Test
+    @DisplayName("Should rebuild the container moves by replaying the journal")
+    void testRecordAndReplay() throws IOException
+    {
+        Path file = directory.resolve("yard.journal");
+        journal.open(file);
+        BoxSelector selector = new BoxSelector();
+        Container staying = selector.registerContainer("MSDU00000001");
+        assertTrue(bariExp.addContainer(staying, "MSDU00000001"));
+        Container travelling = selector.registerContainer("MSDU00000002");
+        travelling.setGoods(Container.GoodsType.FOOD);
+        assertTrue(bariExp.addContainer(travelling, "MSDU00000002"));
+        ship.pickFromTerminal(travelling);
+        bariExp.restoreContainers(List.of(staying));
+        busanImp.shipImport(travelling);
+        ship.restoreCargo(List.of());
+        journal.close();
+
+        clearRegister();
+        createPorts();
+        int events = ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+
+        assertEquals(6, events, "Two creations, two additions, one load and one unload should have been recorded");
+        assertEquals(2, ContainerRegister.getInstance().getSize());
+        assertEquals(1, bariExp.getSize());
+        assertEquals("MSDU00000001", bariExp.getContainerAt(0).getContainerCode());
+        assertEquals(0, ship.getSize(), "The unloaded container should no longer be on the ship");
+        assertEquals(1, busanImp.getSize());
+        Container replayed = busanImp.getContainerAt(0);
+        assertEquals("MSDU00000002", replayed.getContainerCode());
+        assertEquals(Container.ContainerState.FULL_IMPORT, replayed.getContainerState());
+        assertEquals(Container.GoodsType.FOOD, replayed.getGoods());
+        assertEquals("Busan Import Sub-Terminal", replayed.getLocation());
+    }
+
+    /**
+     *  Verifies that the loads of two ships are replayed onto the ship named in each event, so together they
+     *  may exceed the slots of a single ship, and that the loads of a ship missing from the fleet are dropped.
+     */
+    @Test
+    @DisplayName("Should replay the loads of every ship onto that ship")
+    void testReplayFleetLoads() throws IOException
+    {
+        Path file = directory.resolve("fleet.journal");
+        journal.open(file);
+        CargoShip fleetShip = new CargoShip("FLEET SHIP 1", bariImp, bariExp);
+        BoxSelector selector = new BoxSelector();
+        for (int i = 0; i < 12; i++)
+        {
+            String code = String.format("MSFU%08d", i);
+            Container container = selector.registerContainer(code);
+            assertTrue(bariExp.addContainer(container, code));
+            assertTrue((i % 2 == 0 ? ship : fleetShip).pickFromTerminal(container));
+            bariExp.restoreContainers(List.of());
+        }
+        journal.close();
+
+        clearRegister();
+        createPorts();
+        fleetShip = new CargoShip("FLEET SHIP 1", bariImp, bariExp);
+        ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship, List.of(fleetShip));
+
+        assertEquals(6, ship.getSize());
+        assertEquals(6, fleetShip.getSize());
+        assertEquals("MSFU00000001", fleetShip.getContainerAt(0).getContainerCode());
+        assertEquals(12, ContainerRegister.getInstance().getSize());
+        assertEquals(0, bariExp.getSize());
+
+        clearRegister();
+        createPorts();
+        ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+
+        assertEquals(6, ship.getSize());
+        assertEquals(6, ContainerRegister.getInstance().getSize(), "The loads of a ship missing from the fleet should be dropped");
+    }
+
+    /**
+     *  Verifies that many concurrent writers are all recorded and that no record is lost or interleaved.
+     */
+    @Test
+    @DisplayName("Should record every event of concurrent writers with group commit")
+    void testConcurrentWriters() throws Exception
+    {
+        Path file = directory.resolve("concurrent.journal");
+        journal.open(file);
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++)
+        {
+            int thread = t;
+            executor.submit(() ->
+            {
+                start.await();
+                BoxSelector selector = new BoxSelector();
+                for (int i = 0; i < perThread; i++)
+                {
+                    selector.registerContainer(String.format("TSTU%04d%04d", thread, i));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        journal.close();
+
+        int events = ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+        assertEquals(threads * perThread, events);
+        assertEquals(0, ContainerRegister.getInstance().getSize(), "Creations alone should not register any container");
+    }
+
+    /**
+     *  Verifies that appended events are only written once their ticket is awaited, which is what lets the
+     *  sub-terminals append under their lock and wait for the fsync after releasing it.
+     */
+    @Test
+    @DisplayName("Should defer the fsync of appended events until their ticket is awaited")
+    void testAppendThenAwait() throws IOException
+    {
+        BoxSelector selector = new BoxSelector();
+        Container first = selector.registerContainer("MSDU00000004");
+        List<Container> batch = List.of(selector.registerContainer("MSDU00000005"), selector.registerContainer("MSDU00000006"));
+        assertEquals(ContainerJournal.NO_TICKET, journal.append(ContainerJournal.Event.CREATE, first, null),
+                "Nothing should be appended while the journal is closed");
+
+        Path file = directory.resolve("deferred.journal");
+        journal.open(file);
+        long ticket = journal.append(ContainerJournal.Event.CREATE, first, null);
+        long batchTicket = journal.appendAll(ContainerJournal.Event.CREATE, batch, null);
+        assertEquals(ticket + 2, batchTicket, "Tickets should follow the order of the appended events");
+        assertEquals(0, Files.size(file), "Appended events should not be written before they are awaited");
+
+        journal.awaitDurable(batchTicket);
+        assertTrue(Files.size(file) > 0);
+        journal.close();
+        assertEquals(3, ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship));
+    }
+
+    /**
+     *  Verifies that a batch addition only journals the creations of the containers accepted by the register,
+     *  so a duplicate code rejected by the terminal leaves no record to replay.
+     */
+    @Test
+    @DisplayName("Should journal the creations of a batch only once the register accepts them")
+    void testBatchCreationsAfterValidation() throws IOException
+    {
+        Path file = directory.resolve("batch.journal");
+        journal.open(file);
+        BoxSelector selector = new BoxSelector();
+        Container resident = selector.registerContainer("MSDU00000007");
+        assertTrue(busanExp.addContainer(resident, "MSDU00000007"));
+        List<? extends Container> batch = selector.registerContainerRange("MSDU00000007", 3);
+
+        assertEquals(2, bariExp.addContainers(batch).size(), "The duplicate code should be rejected");
+        journal.close();
+
+        clearRegister();
+        createPorts();
+        int events = ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+        assertEquals(6, events, "The rejected duplicate should not have left a creation in the journal");
+        assertEquals(2, bariExp.getSize());
+        assertEquals("MSDU00000007", busanExp.getContainerAt(0).getContainerCode());
+    }
+
+    /**
+     *  Verifies that a record cut off by a crash is ignored by the replay and removed when the journal is reopened.
+     */
+    @Test
+    @DisplayName("Should ignore and cut off a torn record at the end of the journal")
+    void testTornRecord() throws IOException
+    {
+        Path file = directory.resolve("torn.journal");
+        journal.open(file);
+        Container container = new BoxSelector().registerContainer("MSDU00000003");
+        assertTrue(bariExp.addContainer(container, "MSDU00000003"));
+        journal.close();
+        long validLength = Files.size(file);
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        clearRegister();
+        createPorts();
+        assertEquals(2, ContainerJournal.replay(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship));
+        assertEquals(1, bariExp.getSize());
+
+        journal.open(file);
+        journal.close();
+        assertEquals(validLength, Files.size(file), "Reopening the journal should cut off the torn record");
+    }
+
+    private void createPorts()
+    {
+        bariExp = new ExportSubTerminal("Bari");
+        busanExp = new ExportSubTerminal("Busan");
+        bariImp = new ImportSubTerminal("Bari");
+        busanImp = new ImportSubTerminal("Busan");
+        ship = new CargoShip(bariImp, bariExp);
+    }
+
+    private static void clearRegister()
+    {
+        ContainerRegister register = ContainerRegister.getInstance();
+        for (Container container : new ArrayList<>(register.displayContainers()))
+        {
+            register.removeContainer(container);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.davideferrari.logisticsystem.Persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Menu.CargoShipCaptain.CargoShip;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.BoxSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.Container;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerFactory.HighCubeSelector;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.ContainerSingleton.ContainerRegister;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ExportSubTerminal;
+import com.davideferrari.logisticsystem.Menu.TerminalOperator.Terminal.TerminalComposite.ImportSubTerminal;
+import com.davideferrari.logisticsystem.Utils.Persistence.YardSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Unit tests for the YardSnapshot class.
+ *  This test suite verifies that the register, the sub-terminals and the ship are restored
+ *  exactly as they were saved, and that damaged snapshots are rejected.
+ */
+class YardSnapshotTest
+{
+
+    @TempDir
+    Path directory;
+
+    private ExportSubTerminal bariExp;
+    private ExportSubTerminal busanExp;
+    private ImportSubTerminal bariImp;
+    private ImportSubTerminal busanImp;
+    private CargoShip ship;
+
+    @BeforeEach
+    void setUp()
+    {
+        clearRegister();
+        createPorts();
+    }
+
+    /**
+     *  Verifies a full save and restore cycle into new ports and a new ship.
+     */
+    @Test
+    @DisplayName("Should restore the register, the sub-terminals and the ship from a snapshot")
+    void testSaveAndLoad() throws IOException
+    {
+        BoxSelector boxes = new BoxSelector();
+        HighCubeSelector highCubes = new HighCubeSelector();
+        Container exported = highCubes.registerContainer("MSDU12345678");
+        exported.setGoods(Container.GoodsType.FOOD);
+        exported.setContainerState(Container.ContainerState.FULL_EXPORT);
+        assertTrue(bariExp.addContainer(exported, "MSDU12345678"));
+        Container lowerCase = boxes.registerContainer("tllu87654322");
+        assertTrue(busanExp.addContainer(lowerCase, "tllu87654322"));
+        Container onBoard = boxes.registerContainer("AAAA0001");
+        onBoard.setGoods(Container.GoodsType.CLOTHING);
+        ContainerRegister.getInstance().addContainer(onBoard);
+        ship.pickFromTerminal(onBoard);
+        Container imported = boxes.registerContainer("EGSU00000001");
+        ContainerRegister.getInstance().addContainer(imported);
+        bariImp.shipImport(imported);
+
+        Path file = directory.resolve("yard.snapshot");
+        YardSnapshot.save(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+
+        clearRegister();
+        createPorts();
+        YardSnapshot.load(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+
+        ContainerRegister register = ContainerRegister.getInstance();
+        assertEquals(4, register.getSize());
+        assertEquals(List.of("MSDU12345678", "tllu87654322", "AAAA0001", "EGSU00000001"), codesOf(register.displayContainers()),
+                "The registration order and the original codes should be preserved");
+
+        Container restored = bariExp.getContainerAt(0);
+        assertSame(restored, register.findByCode("MSDU12345678"), "Terminals and register should share the same objects");
+        assertEquals("HighCube", restored.getType());
+        assertEquals(Container.GoodsType.FOOD, restored.getGoods());
+        assertEquals(Container.ContainerState.FULL_EXPORT, restored.getContainerState());
+        assertEquals("Bari Export Sub-Terminal", restored.getLocation());
+
+        assertEquals(1, busanExp.getSize());
+        assertEquals(1, bariImp.getSize());
+        assertEquals(Container.ContainerState.FULL_IMPORT, bariImp.getContainerAt(0).getContainerState());
+        assertEquals(0, busanImp.getSize());
+
+        assertEquals(1, ship.getSize());
+        assertEquals("AAAA0001", ship.getContainerAt(0).getContainerCode());
+        assertEquals(Container.GoodsType.CLOTHING, ship.getContainerAt(0).getGoods());
+        assertEquals(CargoShip.CargoShipState.IN_TRANSIT, ship.getState());
+        assertEquals("Bari", ship.getDestination());
+        assertEquals(1, register.findByLocation("Bari Import Sub-Terminal").size(), "The restored containers should be indexed");
+    }
+
+    /**
+     *  Verifies that the cargo of the fleet ships is restored by ship name,
+     *  and that the cargo of a ship no longer in the fleet is dropped from the register.
+     */
+    @Test
+    @DisplayName("Should restore the fleet cargo by ship name and drop decommissioned ships")
+    void testFleetCargo() throws IOException
+    {
+        BoxSelector boxes = new BoxSelector();
+        List<CargoShip> fleet = List.of(new CargoShip("FLEET SHIP 1", bariImp, bariExp), new CargoShip("FLEET SHIP 2", bariImp, bariExp));
+        for (int i = 0; i < fleet.size(); i++)
+        {
+            for (Container container : boxes.registerContainerRange("FLTU0000000" + (2 * i + 1), 2))
+            {
+                ContainerRegister.getInstance().addContainer(container);
+                assertTrue(fleet.get(i).pickFromTerminal(container));
+            }
+        }
+        Path file = directory.resolve("yard.snapshot");
+        YardSnapshot.save(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship, fleet);
+
+        clearRegister();
+        createPorts();
+        CargoShip second = new CargoShip("FLEET SHIP 2", bariImp, bariExp);
+        YardSnapshot.load(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship, List.of(second));
+
+        assertEquals(List.of("FLTU00000003", "FLTU00000004"), codesOf(List.of(second.getContainerAt(0), second.getContainerAt(1))));
+        assertEquals(0, ship.getSize(), "The fleet cargo should not be loaded on the ship of the captain");
+        assertEquals(List.of("FLTU00000003", "FLTU00000004"), codesOf(ContainerRegister.getInstance().displayContainers()),
+                "The cargo of a decommissioned ship should be dropped from the register");
+    }
+
+    /**
+     *  Verifies that a snapshot whose body was modified is rejected by the checksum.
+     */
+    @Test
+    @DisplayName("Should reject a corrupted snapshot")
+    void testCorruptedSnapshot() throws IOException
+    {
+        Container container = new BoxSelector().registerContainer("MSDU00000001");
+        assertTrue(bariExp.addContainer(container, "MSDU00000001"));
+        Path file = directory.resolve("yard.snapshot");
+        YardSnapshot.save(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        clearRegister();
+        createPorts();
+        assertThrows(IOException.class, () -> YardSnapshot.load(file, List.of(bariExp, busanExp), List.of(bariImp, busanImp), ship));
+        assertEquals(0, ContainerRegister.getInstance().getSize(), "Nothing should be restored from a corrupted snapshot");
+    }
+
+    private void createPorts()
+    {
+        bariExp = new ExportSubTerminal("Bari");
+        busanExp = new ExportSubTerminal("Busan");
+        bariImp = new ImportSubTerminal("Bari");
+        busanImp = new ImportSubTerminal("Busan");
+        ship = new CargoShip(bariImp, bariExp);
+    }
+
+    private static void clearRegister()
+    {
+        ContainerRegister register = ContainerRegister.getInstance();
+        for (Container container : new ArrayList<>(register.displayContainers()))
+        {
+            register.removeContainer(container);
+        }
+    }
+
+    private static List<String> codesOf(List<Container> containers)
+    {
+        List<String> codes = new ArrayList<>();
+        for (Container container : containers)
+        {
+            codes.add(container.getContainerCode());
+        }
+        return codes;
+    }
+}
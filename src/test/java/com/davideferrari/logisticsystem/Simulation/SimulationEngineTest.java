@@ -0,0 +1,161 @@
+package com.davideferrari.logisticsystem.Simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.davideferrari.logisticsystem.Utils.Simulation.PortSimulation;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationEngine;
+import com.davideferrari.logisticsystem.Utils.Simulation.SimulationLogScope;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ *  Unit tests for the SimulationEngine and PortSimulation classes.
+ *  This suite verifies that the event calendar fires the events in time order on the virtual clock,
+ *  that a port simulation is deterministic for a given seed and completes long runs,
+ *  and that its logging is muted for the simulation thread only.
+ */
+class SimulationEngineTest
+{
+    /**
+     *  Verifies that events fire in time order, ties in scheduling order, that the clock jumps to each event,
+     *  and that a run stops at the given time.
+     */
+    @Test
+    @DisplayName("Should fire the events in time order on the virtual clock")
+    void testEventCalendar()
+    {
+        SimulationEngine engine = new SimulationEngine(1);
+        List<String> fired = new ArrayList<>();
+        engine.schedule(50, e -> fired.add("C@" + e.now()));
+        engine.schedule(10, e -> fired.add("A@" + e.now()));
+        engine.schedule(10, e ->
+        {
+            fired.add("B@" + e.now());
+            e.schedule(5, next -> fired.add("D@" + next.now()));
+        });
+        engine.schedule(100, e -> fired.add("E@" + e.now()));
+
+        assertEquals(4, engine.run(60));
+        assertEquals(List.of("A@10", "B@10", "D@15", "C@50"), fired);
+        assertEquals(60, engine.now(), "The clock should stop at the end of the run");
+        assertEquals(1, engine.getPendingEvents());
+        assertThrows(IllegalArgumentException.class, () -> engine.scheduleAt(59, e -> { }));
+        assertTrue(engine.step());
+        assertFalse(engine.step());
+        assertEquals(100, engine.now());
+    }
+
+    /**
+     *  Verifies that two simulations with the same seed go through exactly the same port calls,
+     *  and that the ports actually exchange containers and run their warehouse cycles.
+     */
+    @Test
+    @DisplayName("Should run the same port calls for the same seed")
+    void testDeterminism()
+    {
+        PortSimulation first = new PortSimulation(42, 6, 2);
+        PortSimulation second = new PortSimulation(42, 6, 2);
+        assertEquals(500, first.run(500));
+        assertEquals(500, second.run(500));
+
+        assertEquals(first.getTrace(), second.getTrace());
+        assertEquals(first.getEngine().now(), second.getEngine().now());
+        assertEquals(first.getEngine().getFiredEvents(), second.getEngine().getFiredEvents());
+        assertEquals(first.getContainersMoved(), second.getContainersMoved());
+        assertEquals(first.getWarehouseCycles(), second.getWarehouseCycles());
+        assertTrue(first.getContainersMoved() > 0);
+        assertEquals(first.getContainersMoved(), first.getCraneMoves());
+        assertTrue(first.getWarehouseCycles() > 0);
+
+        PortSimulation other = new PortSimulation(7, 6, 2);
+        other.run(500);
+        assertNotEquals(first.getTrace(), other.getTrace(), "A different seed should give a different run");
+    }
+
+    /**
+     *  Verifies that a long run completes every voyage it is asked for, with the virtual clock moving forward.
+     *  The wall-clock bound is generous, as it depends on the machine: it only catches a run that logs,
+     *  prints or plans its way to a crawl.
+     */
+    @Test
+    @DisplayName("Should complete ten thousand voyages on the virtual clock")
+    void testLongRun()
+    {
+        PortSimulation simulation = new PortSimulation(3, 20, 3);
+        simulation.run(1000);
+        long before = simulation.getEngine().now();
+        assertEquals(10_000, assertTimeout(Duration.ofSeconds(60), () -> simulation.run(10_000)));
+        assertEquals(11_000, simulation.getVoyages());
+        assertTrue(simulation.getEngine().now() > before);
+    }
+
+    /**
+     *  Verifies that a simulation scope only mutes the records of its own thread, that only this thread
+     *  is told to skip building its records, and that the handlers let the records of that thread through again once it is closed.
+     *  @throws InterruptedException if the test thread is interrupted while waiting for the other thread.
+     */
+    @Test
+    @DisplayName("Should only mute the logging of the simulation thread")
+    void testLogScope() throws InterruptedException
+    {
+        Logger logger = Logger.getLogger("com.davideferrari.logisticsystem.Simulation.test");
+        List<String> published = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                if (isLoggable(record))
+                {
+                    published.add(record.getMessage());
+                }
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        AtomicBoolean otherLoggable = new AtomicBoolean();
+        Logger root = Logger.getLogger("");
+        root.addHandler(handler);
+        try
+        {
+            try (SimulationLogScope scope = SimulationLogScope.open())
+            {
+                assertTrue(SimulationLogScope.isMuted());
+                assertFalse(SimulationLogScope.isLoggable(logger, Level.INFO), "The muted thread should skip its records");
+                logger.info("simulation");
+                Thread other = new Thread(() ->
+                {
+                    otherLoggable.set(SimulationLogScope.isLoggable(logger, Level.INFO));
+                    logger.info("other thread");
+                });
+                other.start();
+                other.join();
+            }
+            assertTrue(SimulationLogScope.isLoggable(logger, Level.INFO));
+            logger.info("after");
+        }
+        finally
+        {
+            root.removeHandler(handler);
+        }
+        assertEquals(List.of("other thread", "after"), published);
+        assertTrue(otherLoggable.get(), "The other threads should keep building their records");
+        assertNull(handler.getFilter(), "The previous filter should be put back");
+    }
+}